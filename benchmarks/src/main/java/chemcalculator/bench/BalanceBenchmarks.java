@@ -0,0 +1,145 @@
+package chemcalculator.bench;
+
+import chemcalculator.BalanceResult;
+import chemcalculator.ChemEngine;
+import chemcalculator.Compound;
+import chemcalculator.Electrochemistry;
+import chemcalculator.Equilibrium;
+import chemcalculator.Kinetics;
+import chemcalculator.Stoichiometry;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// The balancer: the exact solve on pre-parsed compounds, the same equations through the full
+// string entry point, redox equations with and without the half-reaction explanation, and
+// stoichiometry scenarios and equilibrium sweeps on a balanced reaction, a stiff kinetics run, and
+// the standard-potential cell grid with its strongest pairings balanced.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BalanceBenchmarks {
+
+    private final ChemEngine engine = ChemEngine.standard();
+    private List<List<Compound>> reactants;
+    private List<List<Compound>> products;
+    private String[] equations;
+    private BalanceResult[] balanced;
+    private int algebraicIndex;
+    private int equationIndex;
+    private int redoxIndex;
+    private int checkIndex;
+    private Stoichiometry stoichiometry;
+    private double[] scenarioGrams;
+    private Equilibrium equilibrium;
+    private double[] initialConcentrations;
+    private double[] equilibriumConcentrations;
+    private Kinetics kinetics;
+    private double[] kineticsInitial;
+    private Electrochemistry cells;
+
+    // Scenarios per stoichiometryBatch call
+    private static final int SCENARIOS = 1000;
+
+    @Setup
+    public void setup() {
+        reactants = Corpus.parseSides(engine, 0);
+        products = Corpus.parseSides(engine, 1);
+        equations = Corpus.nonRedoxEquations();
+        balanced = new BalanceResult[reactants.size()];
+        for (int i = 0; i < balanced.length; i++) {
+            balanced[i] = engine.balanceAlgebraic(reactants.get(i), products.get(i));
+        }
+        stoichiometry = engine.stoichiometry("KMnO4 + HCl -> KCl + MnCl2 + Cl2 + H2O");
+        scenarioGrams = new double[SCENARIOS * stoichiometry.reactantCount()];
+        for (int i = 0; i < scenarioGrams.length; i++) {
+            scenarioGrams[i] = 1 + (i * 37 % 100);
+        }
+        equilibrium = engine.equilibrium("N2 + H2 -> NH3");
+        initialConcentrations = new double[SCENARIOS * equilibrium.speciesCount()];
+        equilibriumConcentrations = new double[initialConcentrations.length];
+        for (int i = 0; i < initialConcentrations.length; i++) {
+            initialConcentrations[i] = (i * 37 % 100) / 50.0;
+        }
+        kinetics = engine.kinetics("N2O5 -> NO2 + O2 @ 5e-4; NO2 -> N2O4 @ 1e9 1e7");
+        kineticsInitial = kinetics.concentrations("0.1 M N2O5");
+        cells = engine.electrochemistry("all");
+    }
+
+    @Benchmark
+    public BalanceResult balanceNonRedoxReaction() {
+        int i = algebraicIndex;
+        algebraicIndex = (i + 1) % reactants.size();
+        return engine.balanceAlgebraic(reactants.get(i), products.get(i));
+    }
+
+    @Benchmark
+    public BalanceResult balanceChemicalEquation() {
+        String equation = equations[equationIndex];
+        equationIndex = (equationIndex + 1) % equations.length;
+        return engine.balance(equation);
+    }
+
+    // The conservation check every balanced result goes through
+    @Benchmark
+    public String checkConservation() {
+        BalanceResult result = balanced[checkIndex];
+        checkIndex = (checkIndex + 1) % balanced.length;
+        return engine.checkConservation(result);
+    }
+
+    @Benchmark
+    public BalanceResult balanceRedox() {
+        String equation = Corpus.REDOX[redoxIndex];
+        redoxIndex = (redoxIndex + 1) % Corpus.REDOX.length;
+        return engine.balance(equation);
+    }
+
+    // Batch mode: the same redox equations without deriving the half-reaction explanation
+    @Benchmark
+    public BalanceResult balanceRedoxWithoutExplanation() {
+        String equation = Corpus.REDOX[redoxIndex];
+        redoxIndex = (redoxIndex + 1) % Corpus.REDOX.length;
+        return engine.balance(equation, false);
+    }
+
+    // 1000 reactant-mass scenarios for one prepared reaction, over flat arrays
+    @Benchmark
+    public Stoichiometry.Batch stoichiometryBatch() {
+        return stoichiometry.batchFromGrams(scenarioGrams, SCENARIOS);
+    }
+
+    // 1000 initial-concentration scenarios solved for equilibrium, over flat arrays
+    @Benchmark
+    public double[] equilibriumSweep() {
+        equilibrium.sweep(0.105, initialConcentrations, SCENARIOS, equilibriumConcentrations, null);
+        return equilibriumConcentrations;
+    }
+
+    // Stiff two-reaction network (fast dimerization beside a slow decomposition) over an hour
+    @Benchmark
+    public Kinetics.Run kineticsStiff() {
+        return kinetics.integrate(kineticsInitial, 3600, 600, (t, c) -> {});
+    }
+
+    // Every couple's half-reaction, the full E°cell / ΔG° grid and its ranking
+    @Benchmark
+    public Electrochemistry cellGrid() {
+        return engine.electrochemistry("all");
+    }
+
+    // Overall reactions of the ten strongest cells of the prepared grid
+    @Benchmark
+    public int cellTopBalanced() {
+        int balancedCount = 0;
+        for (Electrochemistry.Cell cell : cells.top(10)) {
+            if (cells.balance(cell).isBalanced()) balancedCount++;
+        }
+        return balancedCount;
+    }
+}
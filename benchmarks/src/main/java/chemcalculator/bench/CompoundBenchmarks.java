@@ -0,0 +1,69 @@
+package chemcalculator.bench;
+
+import chemcalculator.ChemEngine;
+import chemcalculator.Compound;
+import chemcalculator.Titration;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Oxidation state assignment and naming on pre-parsed compounds, plus naming from the raw
+// formula the way the Name tab calls it, and a titration curve over acids recognized the same way.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CompoundBenchmarks {
+
+    private final ChemEngine engine = ChemEngine.standard();
+    private Compound[] formulas;
+    private Compound[] nameable;
+    private int formulaIndex;
+    private int nameIndex;
+    private int rawIndex;
+    private Titration titration;
+    private double[] volumes;
+    private double[] pH;
+
+    @Setup
+    public void setup() {
+        formulas = Corpus.parseAll(engine, Corpus.FORMULAS);
+        nameable = Corpus.parseAll(engine, Corpus.NAMEABLE);
+        titration = engine.titration("25 mL 0.1 M H3PO4", "0.1 M NaOH");
+        volumes = Titration.volumes(100, 10_000);
+        pH = new double[volumes.length];
+    }
+
+    @Benchmark
+    public Map<String, Integer> assignOxidationNumbers() {
+        Compound compound = formulas[formulaIndex];
+        formulaIndex = (formulaIndex + 1) % formulas.length;
+        return engine.assignOxidationNumbers(compound);
+    }
+
+    @Benchmark
+    public String nameCompound() {
+        Compound compound = nameable[nameIndex];
+        nameIndex = (nameIndex + 1) % nameable.length;
+        return engine.nameCompound(compound);
+    }
+
+    @Benchmark
+    public String nameCompoundFromFormula() {
+        String formula = Corpus.NAMEABLE[rawIndex];
+        rawIndex = (rawIndex + 1) % Corpus.NAMEABLE.length;
+        return engine.nameCompound(formula);
+    }
+
+    // 10,000-point curve of a triprotic acid through all three equivalence points
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public double[] titrationCurve() {
+        titration.curve(volumes, pH);
+        return pH;
+    }
+}
@@ -0,0 +1,98 @@
+package chemcalculator.bench;
+
+import chemcalculator.ChemEngine;
+import chemcalculator.Compound;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Realistic inputs for the benchmarks: the kind of formulas and equations users type into the UI.
+final class Corpus {
+
+    static final String[] FORMULAS = {
+        "H2O", "NaCl", "CO2", "HCl", "NH3", "CH4",
+        "H2SO4", "HNO3", "KMnO4", "FeCl3", "Fe2O3", "CuSO4",
+        "Ca(NO3)2", "Mg(OH)2", "Al2(SO4)3", "Ca3(PO4)2", "(NH4)2SO4", "K4Fe(CN)6",
+        "C6H12O6", "C12H22O11", "C8H10N4O2", "CH3COOH", "C2H5OH", "((CH3)3C)2O"
+    };
+
+    // A dirty feed: FORMULAS interleaved with malformed lines, a little over 10% of the total
+    static final String[] DIRTY_FORMULAS = dirty();
+
+    static final String[] IONS = {
+        "SO4^2-", "NO3-", "NH4+", "Fe3+", "Cl-", "MnO4-", "Cr2O7^2-", "PO4^3-"
+    };
+
+    // Names cover ionic compounds (fixed and variable charge metals), acids and covalent binaries.
+    static final String[] NAMEABLE = {
+        "NaCl", "CaCl2", "FeCl3", "CuSO4", "Fe2O3", "KMnO4", "NH4Cl", "Al2(SO4)3",
+        "HCl", "H2SO4", "HNO3", "CO2", "N2O5", "PCl5", "SF6", "Mg3N2"
+    };
+
+    // Each side is pre-split so balanceAlgebraic can be measured without parsing.
+    static final String[][][] NON_REDOX = {
+        {{"H2", "O2"}, {"H2O"}},
+        {{"CH4", "O2"}, {"CO2", "H2O"}},
+        {{"C3H8", "O2"}, {"CO2", "H2O"}},
+        {{"C6H12O6", "O2"}, {"CO2", "H2O"}},
+        {{"Al", "HCl"}, {"AlCl3", "H2"}},
+        {{"NaOH", "HCl"}, {"NaCl", "H2O"}},
+        {{"Ca(OH)2", "H3PO4"}, {"Ca3(PO4)2", "H2O"}},
+        {{"KMnO4", "HCl"}, {"KCl", "MnCl2", "Cl2", "H2O"}},
+        {{"Cu", "HNO3"}, {"Cu(NO3)2", "NO", "H2O"}},
+        {{"Fe2O3", "CO"}, {"Fe", "CO2"}}
+    };
+
+    // Ionic redox equations: solved with added H+/OH-/H2O and explained as half-reactions.
+    static final String[] REDOX = {
+        "MnO4- + Fe2+ -> Mn2+ + Fe3+",
+        "Cr2O7^2- + Fe^2+ -> Cr^3+ + Fe^3+",
+        "Zn(s) + Cu2+(aq) -> Zn2+(aq) + Cu(s)",
+        "Ag+ + Cu -> Ag + Cu^2+",
+        "MnO4- + SO3^2- -> MnO2 + SO4^2-",
+        "Fe^3+ + I- -> Fe^2+ + I2",
+        "MnO4- + I- -> MnO2 + I2",
+        "Cr2O7^2- + I- -> I2 + Cr2O3",
+        "Cl2 + OH- -> Cl- + ClO3- + H2O"
+    };
+
+    private static String[] dirty() {
+        String[] invalid = {"Ca((NO3)2", "h2o", "NaCl!"};
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < FORMULAS.length; i++) {
+            lines.add(FORMULAS[i]);
+            if (i % 8 == 7) lines.add(invalid[(i / 8) % invalid.length]);
+        }
+        return lines.toArray(new String[0]);
+    }
+
+    static String[] nonRedoxEquations() {
+        String[] equations = new String[NON_REDOX.length];
+        for (int i = 0; i < NON_REDOX.length; i++) {
+            equations[i] = String.join(" + ", NON_REDOX[i][0]) + " -> " + String.join(" + ", NON_REDOX[i][1]);
+        }
+        return equations;
+    }
+
+    static List<List<Compound>> parseSides(ChemEngine engine, int side) {
+        List<List<Compound>> parsed = new ArrayList<>();
+        for (String[][] equation : NON_REDOX) {
+            List<Compound> compounds = new ArrayList<>();
+            for (String formula : equation[side]) {
+                compounds.add(engine.parseCompound(formula));
+            }
+            parsed.add(compounds);
+        }
+        return parsed;
+    }
+
+    static Compound[] parseAll(ChemEngine engine, String[] formulas) {
+        Compound[] compounds = new Compound[formulas.length];
+        for (int i = 0; i < formulas.length; i++) {
+            compounds[i] = engine.parseCompound(formulas[i]);
+        }
+        return compounds;
+    }
+
+    private Corpus() {}
+}
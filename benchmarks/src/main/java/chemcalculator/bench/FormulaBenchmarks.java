@@ -0,0 +1,90 @@
+package chemcalculator.bench;
+
+import chemcalculator.ChemEngine;
+import chemcalculator.Compound;
+import chemcalculator.EmpiricalFormula;
+import chemcalculator.FormulaSearch;
+import chemcalculator.IsotopePattern;
+import chemcalculator.MassResult;
+import chemcalculator.ParseResult;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Formula parsing, the GFM sum, isotope patterns, formula-from-mass search and empirical formulas. Each invocation takes the next corpus entry so the
+// JIT sees the same mix of simple, nested and charged formulas the UI does.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FormulaBenchmarks {
+
+    private final ChemEngine engine = ChemEngine.standard();
+    private int formulaIndex;
+    private int ionIndex;
+    private int dirtyIndex;
+
+    private String nextFormula() {
+        String formula = Corpus.FORMULAS[formulaIndex];
+        formulaIndex = (formulaIndex + 1) % Corpus.FORMULAS.length;
+        return formula;
+    }
+
+    @Benchmark
+    public Map<String, Integer> parseFormulaComposition() {
+        return engine.parseFormulaComposition(nextFormula());
+    }
+
+    @Benchmark
+    public Compound parseCompoundWithCharge() {
+        String ion = Corpus.IONS[ionIndex];
+        ionIndex = (ionIndex + 1) % Corpus.IONS.length;
+        return engine.parseCompound(ion);
+    }
+
+    @Benchmark
+    public MassResult formulaMass() {
+        return engine.formulaMass(nextFormula());
+    }
+
+    @Benchmark
+    public MassResult formulaMassExact() {
+        return engine.formulaMass(nextFormula(), MassResult.Precision.EXACT);
+    }
+
+    // Mixed valid and malformed input through the exception-free path, as the batch service sees it
+    @Benchmark
+    public ParseResult<MassResult> formulaMassDirtyFeed() {
+        String formula = Corpus.DIRTY_FORMULAS[dirtyIndex];
+        dirtyIndex = (dirtyIndex + 1) % Corpus.DIRTY_FORMULAS.length;
+        return engine.tryFormulaMass(formula);
+    }
+
+    @Benchmark
+    public IsotopePattern isotopePattern() {
+        return engine.isotopePattern(nextFormula());
+    }
+
+    // Protein-sized formula: thousands of atoms per element, pattern of a few dozen peaks
+    @Benchmark
+    public IsotopePattern isotopePatternProtein() {
+        return engine.isotopePattern("C2000H3000N500O600S10");
+    }
+
+    // One elemental-analysis line (caffeine, with its molar mass), as in a batch of spreadsheet rows
+    @Benchmark
+    public EmpiricalFormula empiricalFormula() {
+        return engine.empiricalFormula("C 49.48, H 5.19, N 28.85, O 16.48; 194.19");
+    }
+
+    // Unbounded CHNOPS decomposition of 1000 g/mol within 0.01
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public FormulaSearch findFormulasChnops1000() {
+        return engine.findFormulas(1000.0, 0.01, FormulaSearch.CHNOPS);
+    }
+}
@@ -0,0 +1,103 @@
+package chemcalculator.bench;
+
+import chemcalculator.service.ChemServer;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Closed-loop local load generator for ChemServer: N virtual-thread clients each send requests
+// back to back, and per-request latencies are reported as p50/p90/p99/p99.9/max plus throughput.
+// Usage: java -cp benchmarks.jar chemcalculator.bench.LoadGenerator --url <url> [--body <text>]
+//        [--requests 20000] [--concurrency 32] [--warmup 2000]
+// With --body the request is a POST of that text, otherwise a GET.
+public final class LoadGenerator {
+    private LoadGenerator() {}
+
+    public static void main(String[] args) throws Exception {
+        String url = "http://127.0.0.1:" + ChemServer.DEFAULT_PORT + "/gfm?q=Ca(NO3)2";
+        String body = null;
+        int requests = 20_000, concurrency = 32, warmup = 2_000;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--url" -> url = args[++i];
+                case "--body" -> body = args[++i];
+                case "--requests" -> requests = Integer.parseInt(args[++i]);
+                case "--concurrency" -> concurrency = Integer.parseInt(args[++i]);
+                case "--warmup" -> warmup = Integer.parseInt(args[++i]);
+                default -> {
+                    System.err.println("Usage: LoadGenerator --url <url> [--body <text>] [--requests n] "
+                                       + "[--concurrency n] [--warmup n]");
+                    System.exit(2);
+                }
+            }
+        }
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30));
+        HttpRequest request = body == null ? builder.GET().build()
+                                           : builder.POST(HttpRequest.BodyPublishers.ofString(body)).build();
+        try (HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                 .executor(Executors.newVirtualThreadPerTaskExecutor()).build()) {
+            run(client, request, warmup, concurrency);  // JIT warm-up, results discarded
+            long[] latencies = new long[requests];
+            AtomicLong failures = new AtomicLong();
+            long start = System.nanoTime();
+            runMeasured(client, request, latencies, concurrency, failures);
+            long elapsed = System.nanoTime() - start;
+            report(latencies, elapsed, failures.get(), concurrency);
+        }
+    }
+
+    private static void run(HttpClient client, HttpRequest request, int count, int concurrency) throws Exception {
+        runMeasured(client, request, new long[count], concurrency, new AtomicLong());
+    }
+
+    // Each client thread fills its own slice of the latency array, so recording needs no synchronization
+    private static void runMeasured(HttpClient client, HttpRequest request, long[] latencies, int concurrency,
+                                    AtomicLong failures) throws Exception {
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int c = 0; c < concurrency; c++) {
+                int from = (int) ((long) latencies.length * c / concurrency);
+                int to = (int) ((long) latencies.length * (c + 1) / concurrency);
+                futures.add(clients.submit(() -> {
+                    for (int i = from; i < to; i++) {
+                        long t0 = System.nanoTime();
+                        try {
+                            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                            if (response.statusCode() != 200) failures.incrementAndGet();
+                        } catch (Exception ex) {
+                            failures.incrementAndGet();
+                        }
+                        latencies[i] = System.nanoTime() - t0;
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) f.get();
+        }
+    }
+
+    private static void report(long[] latencies, long elapsedNanos, long failures, int concurrency) {
+        Arrays.sort(latencies);
+        System.out.printf("requests=%d concurrency=%d failures=%d elapsed=%.1f ms throughput=%.0f req/s%n",
+                          latencies.length, concurrency, failures, elapsedNanos / 1e6,
+                          latencies.length / (elapsedNanos / 1e9));
+        System.out.printf("latency p50=%.3f ms p90=%.3f ms p99=%.3f ms p99.9=%.3f ms max=%.3f ms%n",
+                          percentile(latencies, 0.50), percentile(latencies, 0.90), percentile(latencies, 0.99),
+                          percentile(latencies, 0.999), latencies[latencies.length - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6;
+    }
+}
@@ -0,0 +1,33 @@
+package chemcalculator.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.ProfilerConfig;
+
+// Entry point of benchmarks.jar. Takes the usual JMH command line and attaches the GC profiler
+// unless one was asked for already, so every run reports gc.alloc.rate.norm (bytes allocated per
+// operation) next to the timings. Allocation regressions in the hot paths show up there first.
+public class RunBenchmarks {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        if (cmd.shouldHelp() || cmd.shouldList() || cmd.shouldListWithParams()
+                || cmd.shouldListProfilers() || cmd.shouldListResultFormats()) {
+            // Informational flags: let JMH's own launcher print and exit
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(cmd);
+        boolean gcRequested = false;
+        for (ProfilerConfig profiler : cmd.getProfilers()) {
+            gcRequested |= profiler.getKlass().equals("gc") || profiler.getKlass().equals(GCProfiler.class.getName());
+        }
+        if (!gcRequested) {
+            options.addProfiler(GCProfiler.class);
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,84 @@
+package chemcalculator;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Acid-base description of a compound for titrations. Acids are looked up in the table below by
+// Hill formula, so any spelling (HC2H3O2, CH3COOH) finds its constants (25 C, strongest proton
+// first; strong acids get a nominal pKa that leaves them fully dissociated at any pH). Bases are
+// metal hydroxides (fully dissociated, so only the metal's charge is left in the charge balance)
+// and the weak bases in the table. Other compounds, including acids the namer recognizes but the
+// table lacks, need explicit pKa or pKb values.
+final class AcidBase {
+    // Nominal pKa of a strong acid's proton
+    static final double STRONG = -8.0;
+
+    // Hill formula -> pKa values of the fully protonated acid
+    private static final Map<String, double[]> ACIDS = new HashMap<>();
+    // Hill formula -> pKb values of the neutral base
+    private static final Map<String, double[]> BASES = new HashMap<>();
+
+    static {
+        acid("HCl", STRONG);
+        acid("HBr", STRONG);
+        acid("HI", STRONG);
+        acid("HNO3", STRONG);
+        acid("HClO4", STRONG);
+        acid("HClO3", STRONG);
+        acid("H2SO4", STRONG, 1.99);
+        acid("HF", 3.17);
+        acid("HNO2", 3.25);
+        acid("HClO2", 1.96);
+        acid("HClO", 7.53);
+        acid("HCN", 9.21);
+        acid("HC2H3O2", 4.76);
+        acid("HCOOH", 3.75);
+        acid("H2SO3", 1.85, 7.20);
+        acid("H2CO3", 6.35, 10.33);
+        acid("H2S", 7.02, 13.9);
+        acid("H3PO4", 2.15, 7.20, 12.35);
+        BASES.put(hill("NH3"), new double[] {4.75});
+    }
+
+    private AcidBase() {}
+
+    private static void acid(String formula, double... pKa) {
+        ACIDS.put(hill(formula), pKa);
+    }
+
+    private static String hill(String formula) {
+        return hill(FormulaParser.parseCompound(formula, EngineLimits.DEFAULT).value());
+    }
+
+    private static String hill(Compound compound) {
+        return Formula.text(Formula.hillOrder(compound.composition())) + "^" + compound.charge();
+    }
+
+    // The component for compound, with pK values from the caller (pKb when base is true) or, when
+    // pK is null, from the tables. UNKNOWN_SPECIES (at offset 0) when the compound is neither a known
+    // acid nor a base and no constants were given.
+    static ParseResult<Titration.Component> of(Compound compound, double[] pK, boolean base) {
+        String formula = compound.notation();
+        if (pK != null && base) {
+            // B + n H+: the conjugate acid BH_n carries charge +n and pKa_i = pKw - pKb_(n+1-i)
+            double[] pKa = new double[pK.length];
+            for (int i = 0; i < pK.length; i++) pKa[i] = Titration.PKW - pK[pK.length - 1 - i];
+            return ParseResult.of(new Titration.Component(formula, pKa, compound.charge() + pK.length, 0));
+        }
+        if (pK != null) return ParseResult.of(new Titration.Component(formula, pK.clone(), compound.charge(), 0));
+
+        // The table first: the namer only reads acid protons off the HC2H3O2 spelling, not CH3COOH
+        double[] pKa = ACIDS.get(hill(compound));
+        if (pKa != null) return ParseResult.of(new Titration.Component(formula, pKa.clone(), 0, 0));
+        int hydroxides = CompoundNamer.hydroxides(compound);
+        if (hydroxides > 0) return ParseResult.of(new Titration.Component(formula, new double[0], 0, hydroxides));
+        double[] pKb = BASES.get(hill(compound));
+        if (pKb != null) return of(compound, pKb, true);
+        if (CompoundNamer.acidProtons(compound) > 0) {
+            return ParseResult.failed(QueryError.UNKNOWN_SPECIES,
+                                      "No acid constants known for " + formula + "; give its pKa values", 0);
+        }
+        return ParseResult.failed(QueryError.UNKNOWN_SPECIES,
+                                  formula + " is not a recognized acid or base; give its pKa or pKb values", 0);
+    }
+}
@@ -0,0 +1,40 @@
+package chemcalculator;
+
+import java.util.List;
+
+// Outcome of balancing one equation: the balanced terms on each side, the printable equation,
+// the explanatory steps shown in the UI and the method that produced them. When the equation
+// could not be balanced the term lists are empty, equation is null and error holds the message
+// (which is also the last step).
+public record BalanceResult(Method method, List<Term> reactants, List<Term> products, String equation,
+                            List<String> steps, String error) {
+    // Every equation is solved by the same exact linear solve. HALF_REACTION marks redox equations
+    // whose coefficients were explained by two derived half-reactions, ALGEBRAIC everything else
+    // (including redox equations balanced without an explanation or that do not split), NONE failures.
+    public enum Method { HALF_REACTION, ALGEBRAIC, NONE }
+
+    // One species with its stoichiometric coefficient
+    public record Term(int coefficient, Compound compound) {}
+
+    public BalanceResult {
+        reactants = List.copyOf(reactants);
+        products = List.copyOf(products);
+        steps = List.copyOf(steps);
+    }
+
+    static BalanceResult failure(List<String> steps, String error) {
+        steps.add(error);
+        return new BalanceResult(Method.NONE, List.of(), List.of(), null, steps, error);
+    }
+
+    public boolean isBalanced() {
+        return error == null;
+    }
+
+    // The error as a bare message, without the "Error: " prefix and the final period the steps show
+    String reason() {
+        if (error == null) return null;
+        String message = error.startsWith("Error: ") ? error.substring("Error: ".length()) : error;
+        return message.endsWith(".") ? message.substring(0, message.length() - 1) : message;
+    }
+}
@@ -0,0 +1,666 @@
+package chemcalculator;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+// Headless entry point to the calculator: formula parsing, gram formula mass, isotope patterns,
+// formula-from-mass search, equation balancing, oxidation numbers and compound naming. Apart from
+// its lock-free metrics an engine holds no mutable state, and every operation works only on its
+// own arguments and the immutable element tables, so one instance can be shared freely between
+// threads (the Swing UI is just one client of it).
+public final class ChemEngine {
+    private static final ChemEngine STANDARD = new ChemEngine();
+
+    private final EngineMetrics metrics;
+    private final EngineLimits limits;
+
+    public ChemEngine() {
+        this(new EngineMetrics());
+    }
+
+    // Engine recording into the given metrics (several engines may share one registry)
+    public ChemEngine(EngineMetrics metrics) {
+        this(metrics, EngineLimits.DEFAULT);
+    }
+
+    // Engine with its own admission limits and per-call time budget
+    public ChemEngine(EngineMetrics metrics, EngineLimits limits) {
+        this.metrics = metrics;
+        this.limits = limits;
+    }
+
+    // Shared engine instance
+    public static ChemEngine standard() {
+        return STANDARD;
+    }
+
+    // Stage latencies and balancer path counts of this engine
+    public EngineMetrics metrics() {
+        return metrics;
+    }
+
+    public EngineLimits limits() {
+        return limits;
+    }
+
+    // Parse one species such as "2 SO4^2-" or "Fe3+(aq)" (the coefficient is dropped, the state and
+    // charge are kept). Throws IllegalArgumentException, with the column, for malformed species.
+    public Compound parseCompound(String formula) {
+        return tryParseCompound(formula).orElseThrow();
+    }
+
+    // parseCompound for untrusted input: malformed species come back as an error code and offset
+    public ParseResult<Compound> tryParseCompound(String formula) {
+        return counted(FormulaParser.parseCompound(formula, limits));
+    }
+
+    // Element counts of a formula such as "Ca(NO3)2" (a trailing charge or state is ignored).
+    // Throws IllegalArgumentException for malformed formulas.
+    public Map<String, Integer> parseFormulaComposition(String formula) {
+        return tryParseFormula(formula).orElseThrow();
+    }
+
+    // parseFormulaComposition without exceptions
+    public ParseResult<Map<String, Integer>> tryParseFormula(String formula) {
+        return counted(FormulaParser.parseFormula(formula, limits));
+    }
+
+    // Syntax tree of a formula: groups, hydrate parts and charge as written, with the composition
+    // folded once. Throws IllegalArgumentException for malformed formulas.
+    public Formula parseFormulaTree(String formula) {
+        return tryParseFormulaTree(formula).orElseThrow();
+    }
+
+    // parseFormulaTree without exceptions
+    public ParseResult<Formula> tryParseFormulaTree(String formula) {
+        return counted(FormulaParser.parseFormulaTree(formula, limits));
+    }
+
+    // Gram formula mass of a formula; unknown element symbols contribute 0 g/mol.
+    // Throws IllegalArgumentException for malformed formulas.
+    public MassResult formulaMass(String formula) {
+        return tryFormulaMass(formula).orElseThrow();
+    }
+
+    public MassResult formulaMass(String formula, MassResult.Precision precision) {
+        return tryFormulaMass(formula, precision).orElseThrow();
+    }
+
+    // formulaMass without exceptions, for batch feeds with invalid lines
+    public ParseResult<MassResult> tryFormulaMass(String formula) {
+        return tryFormulaMass(formula, MassResult.Precision.FAST);
+    }
+
+    // FAST sums double weights with Neumaier compensation, so the only rounding left is one per
+    // element product. EXACT multiplies and sums the decimal weights as BigDecimal; totalMass is
+    // then the nearest double to exactMass.
+    public ParseResult<MassResult> tryFormulaMass(String formula, MassResult.Precision precision) {
+        long start = System.nanoTime();
+        ParseResult<Map<String, Integer>> parsed = tryParseFormula(formula);
+        if (!parsed.ok()) {
+            metrics.record(EngineMetrics.Stage.GFM, start);
+            return parsed.cast();
+        }
+        Map<String, Integer> comp = parsed.value();
+        List<MassResult.Contribution> contributions = new ArrayList<>(comp.size());
+        MassResult result;
+        if (precision == MassResult.Precision.EXACT) {
+            BigDecimal total = BigDecimal.ZERO;
+            for (Map.Entry<String, Integer> entry : comp.entrySet()) {
+                String element = entry.getKey();
+                int count = entry.getValue();
+                BigDecimal mass = Elements.decimalWeight(element).multiply(BigDecimal.valueOf(count));
+                total = total.add(mass);
+                contributions.add(new MassResult.Contribution(element, count, mass.doubleValue(), mass));
+            }
+            result = new MassResult(formula, contributions, total.doubleValue(), total);
+        } else {
+            double sum = 0.0;
+            double compensation = 0.0;
+            for (Map.Entry<String, Integer> entry : comp.entrySet()) {
+                String element = entry.getKey();
+                int count = entry.getValue();
+                double mass = Elements.atomicWeight(element) * count;
+                double t = sum + mass;
+                // Neumaier: recover the low-order bits lost by whichever addend is smaller
+                compensation += Math.abs(sum) >= Math.abs(mass) ? (sum - t) + mass : (mass - t) + sum;
+                sum = t;
+                contributions.add(new MassResult.Contribution(element, count, mass));
+            }
+            result = new MassResult(formula, contributions, sum + compensation);
+        }
+        metrics.record(EngineMetrics.Stage.GFM, start);
+        return ParseResult.of(result);
+    }
+
+    // Isotope pattern of a formula, with every peak of at least 0.01% probability.
+    // Throws IllegalArgumentException for malformed formulas.
+    public IsotopePattern isotopePattern(String formula) {
+        return tryIsotopePattern(formula).orElseThrow();
+    }
+
+    // isotopePattern without exceptions
+    public ParseResult<IsotopePattern> tryIsotopePattern(String formula) {
+        return tryIsotopePattern(formula, 1e-4);
+    }
+
+    // Isotope pattern reporting peaks of at least threshold probability (0 < threshold < 1). A
+    // formula whose pattern cannot be computed within the time budget is refused as TOO_LARGE.
+    public ParseResult<IsotopePattern> tryIsotopePattern(String formula, double threshold) {
+        if (!(threshold > 0 && threshold < 1)) throw new IllegalArgumentException("threshold must be in (0, 1)");
+        long start = System.nanoTime();
+        ParseResult<Map<String, Integer>> parsed = tryParseFormula(formula);
+        ParseResult<IsotopePattern> result;
+        if (!parsed.ok()) {
+            result = parsed.cast();
+        } else {
+            IsotopePattern pattern = Isotopes.pattern(formula, parsed.value(), threshold, limits.start());
+            result = pattern != null
+                ? ParseResult.of(pattern)
+                : counted(ParseResult.failed(ParseResult.Code.TOO_LARGE,
+                                             "Formula too large for an isotope pattern within the time budget", 0));
+        }
+        metrics.record(EngineMetrics.Stage.ISOTOPES, start);
+        return result;
+    }
+
+    // Every composition within ranges whose molar mass is within tolerance of targetMass, closest
+    // first (e.g. 180.156 +/- 0.005 over CHNOPS finds C6H12O6 among others). Compositions must have
+    // an integer, non-negative RDBE. A search past the time budget returns what it found so far.
+    // A CHNOPS search near 1000 Da takes about 100 ms once the JIT has compiled the enumerator, but
+    // the first one in a JVM can approach the default 250 ms budget on a single core; give large
+    // searches a larger EngineLimits.withTimeBudget when every match is needed.
+    public FormulaSearch findFormulas(double targetMass, double tolerance, List<FormulaSearch.Range> ranges) {
+        Queue<FormulaSearch.Match> found = new ConcurrentLinkedQueue<>();
+        boolean complete = findFormulas(targetMass, tolerance, ranges, found::add);
+        List<FormulaSearch.Match> matches = new ArrayList<>(found);
+        matches.sort(Comparator.comparingDouble((FormulaSearch.Match m) -> Math.abs(m.error()))
+                               .thenComparing(FormulaSearch.Match::formula));
+        return new FormulaSearch(targetMass, tolerance, matches, complete);
+    }
+
+    // Search from a query line "<mass> <tolerance> [ranges]", e.g. "180.156 0.005 C0-20 H N O".
+    // Throws IllegalArgumentException for a malformed query.
+    public FormulaSearch findFormulas(String query) {
+        return tryFindFormulas(query).orElseThrow();
+    }
+
+    // findFormulas for untrusted query lines: a malformed one comes back as an error code and offset
+    public ParseResult<FormulaSearch> tryFindFormulas(String query) {
+        QueryField line = QueryField.of(query);
+        List<QueryField> tokens = line.tokens();
+        if (tokens.size() < 2) return line.error(QueryError.BAD_FIELD, "Expected <mass> <tolerance> [element ranges]");
+        ParseResult<Double> mass = tokens.get(0).number("mass");
+        if (!mass.ok()) return mass.cast();
+        if (!(mass.value() > 0)) return tokens.get(0).error(QueryError.BAD_NUMBER, "Target mass must be positive");
+        ParseResult<Double> tolerance = tokens.get(1).number("tolerance");
+        if (!tolerance.ok()) return tolerance.cast();
+        if (tolerance.value() < 0) return tokens.get(1).error(QueryError.BAD_NUMBER, "Tolerance must not be negative");
+        ParseResult<List<FormulaSearch.Range>> ranges = FormulaSearch.parseRanges(tokens.subList(2, tokens.size()));
+        if (!ranges.ok()) return ranges.cast();
+        return ParseResult.of(findFormulas(mass.value(), tolerance.value(), ranges.value()));
+    }
+
+    // Streaming form: each match goes to sink as soon as it is found, from the search's worker
+    // threads (sink must be thread-safe). False if the search ran past the time budget.
+    public boolean findFormulas(double targetMass, double tolerance, List<FormulaSearch.Range> ranges,
+                                Consumer<FormulaSearch.Match> sink) {
+        if (!(targetMass > 0) || !(tolerance >= 0)) {
+            throw new IllegalArgumentException("Target mass must be positive and tolerance non-negative");
+        }
+        for (int i = 0; i < ranges.size(); i++) {
+            if (FormulaSearch.repeated(ranges.subList(0, i), ranges.get(i).element()) != null) {
+                throw new IllegalArgumentException("Element " + ranges.get(i).element() + " has more than one range");
+            }
+        }
+        long start = System.nanoTime();
+        boolean complete = MassDecomposer.search(targetMass, tolerance, ranges, sink, limits.start());
+        if (!complete) metrics.countLimited();
+        metrics.record(EngineMetrics.Stage.FORMULA_SEARCH, start);
+        return complete;
+    }
+
+    // Empirical formula from mass percentages (element -> %), with each mole ratio allowed 3%
+    // relative error; scaled to the molecular formula when molarMass > 0 (pass 0 for none), which
+    // must then be a whole multiple of the empirical mass within the same tolerance
+    public EmpiricalFormula empiricalFormula(Map<String, Double> percents, double molarMass) {
+        return empiricalFormula(percents, molarMass, 0.03);
+    }
+
+    public EmpiricalFormula empiricalFormula(Map<String, Double> percents, double molarMass, double tolerance) {
+        if (!(tolerance > 0 && tolerance < 0.5)) throw new IllegalArgumentException("tolerance must be in (0, 0.5)");
+        long start = System.nanoTime();
+        EmpiricalFormula result = EmpiricalSolver.solve(percents, tolerance, molarMass);
+        metrics.record(EngineMetrics.Stage.EMPIRICAL, start);
+        return result;
+    }
+
+    // Empirical formula from a line such as "C 40.0, H 6.71, O 53.29; 180.16": element and percent
+    // pairs, then optionally ';' and the molar mass. One element may be left without a percentage
+    // to take the rest up to 100% (oxygen by difference). Throws IllegalArgumentException for a
+    // malformed line or an element given twice.
+    public EmpiricalFormula empiricalFormula(String query) {
+        return tryEmpiricalFormula(query).orElseThrow();
+    }
+
+    // empiricalFormula without exceptions for a malformed line; a line that parses but has no
+    // solution is still a value (EmpiricalFormula.isSolved() false)
+    public ParseResult<EmpiricalFormula> tryEmpiricalFormula(String query) {
+        List<QueryField> parts = new QueryField(query, 0).split(';', 2);
+        double molarMass = 0.0;
+        if (parts.size() > 1) {
+            ParseResult<Double> mass = parts.get(1).number("molar mass");
+            if (!mass.ok()) return parts.get(1).error(QueryError.BAD_NUMBER, "Expected a molar mass after ';'");
+            molarMass = mass.value();
+        }
+        QueryField pairs = parts.get(0);
+        String text = pairs.text();
+        Map<String, Double> percents = new LinkedHashMap<>();
+        String remainder = null;
+        double total = 0.0;
+        int i = 0;
+        int n = text.length();
+        while (i < n) {
+            char ch = text.charAt(i);
+            if (Character.isWhitespace(ch) || ch == ',' || ch == '%') {
+                i++;
+                continue;
+            }
+            if (!Character.isUpperCase(ch)) {
+                return ParseResult.failed(ParseResult.Code.UNEXPECTED_CHARACTER, "Expected an element symbol", pairs.offset() + i);
+            }
+            int start = i++;
+            while (i < n && Character.isLowerCase(text.charAt(i))) i++;
+            String element = text.substring(start, i);
+            if (percents.containsKey(element)) {
+                return ParseResult.failed(QueryError.BAD_FIELD, "Element " + element + " is given more than once",
+                                          pairs.offset() + start);
+            }
+            while (i < n && (text.charAt(i) == ' ' || text.charAt(i) == ':' || text.charAt(i) == '=')) i++;
+            int numberStart = i;
+            while (i < n && (Character.isDigit(text.charAt(i)) || text.charAt(i) == '.')) i++;
+            if (numberStart == i) {
+                if (remainder != null) {
+                    return ParseResult.failed(QueryError.BAD_FIELD, "Only one element can take the remainder",
+                                              pairs.offset() + start);
+                }
+                remainder = element;
+                percents.put(element, 0.0);
+                continue;
+            }
+            ParseResult<Double> percent = pairs.slice(numberStart, i).number("percentage for " + element);
+            if (!percent.ok()) return percent.cast();
+            percents.put(element, percent.value());
+            total += percent.value();
+        }
+        if (remainder != null) percents.put(remainder, 100.0 - total);
+        return ParseResult.of(empiricalFormula(percents, molarMass));
+    }
+
+    // Balance an equation such as "Fe + O2 -> Fe2O3" ("=" and "<->" are accepted as arrows), with
+    // explanatory steps
+    public BalanceResult balance(String equation) {
+        return EquationBalancer.balance(equation, true, limits, metrics);
+    }
+
+    // Balance with or without the explanation; without it the steps hold only the result line and
+    // redox equations skip deriving their half-reactions
+    public BalanceResult balance(String equation, boolean explain) {
+        return EquationBalancer.balance(equation, explain, limits, metrics);
+    }
+
+    // Balance already-parsed species exactly as written (element and charge conservation, no added
+    // H+/OH-/H2O/e-)
+    public BalanceResult balanceAlgebraic(List<Compound> reactants, List<Compound> products) {
+        long start = System.nanoTime();
+        BalanceResult result = EquationBalancer.balanceNonRedoxReaction(reactants, products, limits, metrics);
+        metrics.record(EngineMetrics.Stage.BALANCE_ALGEBRAIC, start);
+        return result;
+    }
+
+    // A balanced reaction prepared for limiting-reagent, yield and excess calculations.
+    // Throws IllegalArgumentException when the equation cannot be balanced.
+    public Stoichiometry stoichiometry(String equation) {
+        return new Stoichiometry(balanced(QueryField.of(equation)).orElseThrow());
+    }
+
+    public Stoichiometry stoichiometry(BalanceResult balanced) {
+        return new Stoichiometry(balanced);
+    }
+
+    // Limiting reagent, yields and leftovers for a query line "<equation>; <amounts>", e.g.
+    // "Al + O2 -> Al2O3; 10 g Al, 10 g O2". A malformed line, an equation that does not balance or
+    // an amount of a species that is not a reactant comes back as an error code and offset.
+    public ParseResult<Stoichiometry.Scenario> stoichiometryQuery(String query) {
+        long start = System.nanoTime();
+        ParseResult<Stoichiometry.Scenario> result = stoichiometryQuery(QueryField.of(query));
+        metrics.record(EngineMetrics.Stage.STOICHIOMETRY, start);
+        return result;
+    }
+
+    private ParseResult<Stoichiometry.Scenario> stoichiometryQuery(QueryField line) {
+        List<QueryField> parts = line.split(';', 2);
+        if (parts.size() < 2) return line.error(QueryError.BAD_FIELD, "Expected '<equation>; <amount> <unit> <formula>, ...'");
+        ParseResult<BalanceResult> reaction = balanced(parts.get(0));
+        if (!reaction.ok()) return reaction.cast();
+        return new Stoichiometry(reaction.value()).evaluate(parts.get(1));
+    }
+
+    // A balanced reaction prepared for equilibrium (ICE table) calculations.
+    // Throws IllegalArgumentException when the equation cannot be balanced.
+    public Equilibrium equilibrium(String equation) {
+        return new Equilibrium(balanced(QueryField.of(equation)).orElseThrow());
+    }
+
+    public Equilibrium equilibrium(BalanceResult balanced) {
+        return new Equilibrium(balanced);
+    }
+
+    // ICE table for a query line "<equation>; <K>; <initial concentrations>", e.g.
+    // "H2 + I2 -> HI; 50.5; 1.0 M H2, 1.0 M I2", with errors as values like stoichiometryQuery
+    public ParseResult<Equilibrium.Table> equilibriumQuery(String query) {
+        long start = System.nanoTime();
+        ParseResult<Equilibrium.Table> result = equilibriumQuery(QueryField.of(query));
+        metrics.record(EngineMetrics.Stage.EQUILIBRIUM, start);
+        return result;
+    }
+
+    private ParseResult<Equilibrium.Table> equilibriumQuery(QueryField line) {
+        List<QueryField> parts = line.split(';', 3);
+        if (parts.size() < 3) return line.error(QueryError.BAD_FIELD, "Expected '<equation>; <K>; <concentration> M <formula>, ...'");
+        ParseResult<Double> k = parts.get(1).number("K");
+        if (!k.ok()) return k.cast();
+        if (!(k.value() > 0)) return parts.get(1).error(QueryError.BAD_NUMBER, "K must be positive");
+        ParseResult<BalanceResult> reaction = balanced(parts.get(0));
+        if (!reaction.ok()) return reaction.cast();
+        return new Equilibrium(reaction.value()).solve(k.value(), parts.get(2));
+    }
+
+    // Cell potential grid over the standard reduction couples given as "Ox/Red" (any notation of the
+    // tabulated species), optionally followed by E° in volts for a couple not in the table
+    // ("Co3+/Co2+ 1.92"); "all" or an empty list takes the whole table. A custom couple is basic
+    // when either form is OH-. Throws IllegalArgumentException for malformed or unknown couples, and
+    // for more than maxSpecies couples or half-reactions not solved within one time budget.
+    public Electrochemistry electrochemistry(String couples) {
+        return electrochemistry(QueryField.of(couples)).orElseThrow();
+    }
+
+    private ParseResult<Electrochemistry> electrochemistry(QueryField couples) {
+        long start = System.nanoTime();
+        ParseResult<Electrochemistry> result = grid(couples);
+        metrics.record(EngineMetrics.Stage.CELLS, start);
+        return result;
+    }
+
+    private ParseResult<Electrochemistry> grid(QueryField couples) {
+        if (couples.text().length() > limits.maxInputLength()) {
+            return counted(couples.error(ParseResult.Code.TOO_LONG, "Input is longer than " + limits.maxInputLength() + " characters"));
+        }
+        List<StandardPotentials.Entry> entries;
+        int[] offsets;
+        if (couples.isEmpty() || couples.is("all")) {
+            entries = StandardPotentials.all();
+            offsets = new int[entries.size()];
+            Arrays.fill(offsets, couples.offset());
+        } else {
+            List<QueryField> items = couples.split(',');
+            if (items.size() > limits.maxSpecies()) {
+                return counted(items.get(limits.maxSpecies()).error(ParseResult.Code.TOO_MANY_SPECIES,
+                                                                    "At most " + limits.maxSpecies() + " couples"));
+            }
+            entries = new ArrayList<>(items.size());
+            offsets = new int[items.size()];
+            for (QueryField item : items) {
+                List<QueryField> tokens = item.tokens();
+                int slash = tokens.isEmpty() ? -1 : tokens.get(0).text().indexOf('/');
+                if (slash < 0 || tokens.size() > 2) return item.error(QueryError.BAD_FIELD, "Expected 'Ox/Red [<volts>]'");
+                QueryField couple = tokens.get(0);
+                ParseResult<Compound> ox = compound(couple.slice(0, slash));
+                if (!ox.ok()) return ox.cast();
+                ParseResult<Compound> red = compound(couple.slice(slash + 1, couple.text().length()));
+                if (!red.ok()) return red.cast();
+                offsets[entries.size()] = item.offset();
+                if (tokens.size() == 2) {
+                    ParseResult<Double> volts = tokens.get(1).number("potential");
+                    if (!volts.ok()) return volts.cast();
+                    entries.add(StandardPotentials.custom(ox.value(), red.value(), volts.value()));
+                    continue;
+                }
+                StandardPotentials.Entry entry = StandardPotentials.find(ox.value(), red.value());
+                if (entry == null) {
+                    return couple.error(QueryError.UNKNOWN_SPECIES,
+                                        "No standard potential for " + couple.text() + "; give its potential in volts after it");
+                }
+                entries.add(entry);
+            }
+        }
+        return counted(Electrochemistry.of(this, entries, offsets, limits.start()));
+    }
+
+    // Couples and the pairing count for a query line "<couples>[; top <k>]", e.g.
+    // "Ag+/Ag, Zn2+/Zn, Cu2+/Cu; top 3", with errors as values like stoichiometryQuery
+    public ParseResult<Electrochemistry.Setup> cellsQuery(String query) {
+        List<QueryField> parts = QueryField.of(query).split(';', 2);
+        ParseResult<Electrochemistry> grid = electrochemistry(parts.get(0));
+        if (!grid.ok()) return grid.cast();
+        ParseResult<Integer> top = parts.size() > 1 ? Electrochemistry.topCount(parts.get(1))
+                                                    : ParseResult.of(Electrochemistry.DEFAULT_TOP);
+        if (!top.ok()) return top.cast();
+        return ParseResult.of(new Electrochemistry.Setup(grid.value(), top.value()));
+    }
+
+    // Acid-base description of a compound for titrations: a known acid or base, or any compound
+    // with its pKa values (pKb values when base is true; pK null to use the known constants).
+    // Throws IllegalArgumentException for a formula that does not parse or an unknown acid or base
+    // without constants.
+    public Titration.Component acidBase(String formula, double[] pK, boolean base) {
+        return acidBase(QueryField.of(formula), pK, base).orElseThrow();
+    }
+
+    private ParseResult<Titration.Component> acidBase(QueryField formula, double[] pK, boolean base) {
+        ParseResult<Compound> parsed = compound(formula);
+        if (!parsed.ok()) return parsed.cast();
+        ParseResult<Titration.Component> component = AcidBase.of(parsed.value(), pK, base);
+        return component.ok() ? component : formula.within(component);
+    }
+
+    // Titration of analyteVolume mL of analyte at analyteMolarity by titrant at titrantMolarity
+    public Titration titration(Titration.Component analyte, double analyteVolume, double analyteMolarity,
+                               Titration.Component titrant, double titrantMolarity) {
+        return new Titration(analyte, analyteVolume, analyteMolarity, titrant, titrantMolarity);
+    }
+
+    // Titration from "25 mL 0.1 M HC2H3O2" and "0.1 M NaOH"; either may end in "pKa <values>" or
+    // "pKb <values>" for species without known constants. Throws IllegalArgumentException for
+    // malformed input.
+    public Titration titration(String analyte, String titrant) {
+        return titration(QueryField.of(analyte), QueryField.of(titrant)).orElseThrow();
+    }
+
+    // Titration and the volumes of its curve for a query line "<analyte>; <titrant>[; <end> mL
+    // [<points>]]", e.g. "25 mL 0.1 M HC2H3O2; 0.1 M NaOH; 50 mL 101", with errors as values like
+    // stoichiometryQuery
+    public ParseResult<Titration.Setup> titrationQuery(String query) {
+        long start = System.nanoTime();
+        ParseResult<Titration.Setup> result = titrationQuery(QueryField.of(query));
+        metrics.record(EngineMetrics.Stage.TITRATION, start);
+        return result;
+    }
+
+    private ParseResult<Titration.Setup> titrationQuery(QueryField line) {
+        List<QueryField> parts = line.split(';', 3);
+        if (parts.size() < 2) return line.error(QueryError.BAD_FIELD, "Expected '<analyte>; <titrant>[; <end> mL [<points>]]'");
+        ParseResult<Titration> titration = titration(parts.get(0), parts.get(1));
+        if (!titration.ok()) return titration.cast();
+        ParseResult<double[]> volumes = counted(titration.value().volumes(parts.size() > 2 ? parts.get(2) : QueryField.of("")));
+        if (!volumes.ok()) return volumes.cast();
+        return ParseResult.of(new Titration.Setup(titration.value(), volumes.value()));
+    }
+
+    private ParseResult<Titration> titration(QueryField analyte, QueryField titrant) {
+        List<QueryField> tokens = analyte.tokens();
+        if (tokens.size() < 5 || !tokens.get(1).is("mL")) {
+            return analyte.error(QueryError.BAD_FIELD, "Expected '<volume> mL <concentration> M <formula>' for the analyte");
+        }
+        ParseResult<Double> volume = positive(tokens.get(0), "volume");
+        if (!volume.ok()) return volume.cast();
+        double[] molarity = new double[2];
+        ParseResult<Titration.Component> a = solution(analyte, tokens.subList(2, tokens.size()), molarity, 0);
+        if (!a.ok()) return a.cast();
+        ParseResult<Titration.Component> t = solution(titrant, titrant.tokens(), molarity, 1);
+        if (!t.ok()) return t.cast();
+        if (!Titration.pairs(a.value(), t.value())) return titrant.error(QueryError.INCOMPATIBLE, Titration.MISMATCH);
+        return ParseResult.of(titration(a.value(), volume.value(), molarity[0], t.value(), molarity[1]));
+    }
+
+    // "<concentration> M <formula> [pKa|pKb <values>]" from the tokens of field, the molarity into molarity[slot]
+    private ParseResult<Titration.Component> solution(QueryField field, List<QueryField> tokens, double[] molarity, int slot) {
+        if (tokens.size() < 3 || !tokens.get(1).is("M")) {
+            return field.error(QueryError.BAD_FIELD, "Expected '<concentration> M <formula> [pKa|pKb <values>]'");
+        }
+        ParseResult<Double> concentration = positive(tokens.get(0), "concentration");
+        if (!concentration.ok()) return concentration.cast();
+        molarity[slot] = concentration.value();
+        double[] pK = null;
+        boolean base = false;
+        if (tokens.size() > 3) {
+            QueryField kind = tokens.get(3);
+            if (!kind.is("pKa") && !kind.is("pKb")) return kind.error(QueryError.BAD_FIELD, "Expected pKa or pKb after the formula");
+            base = kind.is("pKb");
+            pK = new double[tokens.size() - 4];
+            if (pK.length == 0) return kind.error(QueryError.BAD_FIELD, "Expected " + kind.text() + " values");
+            for (int i = 0; i < pK.length; i++) {
+                ParseResult<Double> value = tokens.get(4 + i).number(kind.text());
+                if (!value.ok()) return value.cast();
+                pK[i] = value.value();
+            }
+        }
+        return acidBase(tokens.get(2), pK, base);
+    }
+
+    private static ParseResult<Double> positive(QueryField token, String what) {
+        ParseResult<Double> value = token.number(what);
+        if (value.ok() && !(value.value() > 0)) return token.error(QueryError.BAD_NUMBER, "The " + what + " must be positive");
+        return value;
+    }
+
+    // A network of balanced reactions with mass-action rate laws, ready to integrate over time.
+    // Throws IllegalArgumentException when a reaction is not balanced.
+    public Kinetics kinetics(List<Kinetics.Step> steps) {
+        return new Kinetics(steps, limits, metrics);
+    }
+
+    // Network from reactions such as "N2O5 -> NO2 + O2 @ 5e-4; NO2 -> N2O4 @ 1e3 1e2": each
+    // equation is balanced (without the explanation) and followed by '@', the forward rate
+    // constant and optionally the reverse one. Throws IllegalArgumentException for malformed input.
+    public Kinetics kinetics(String reactions) {
+        return kinetics(QueryField.of(reactions)).orElseThrow();
+    }
+
+    private ParseResult<Kinetics> kinetics(QueryField reactions) {
+        List<Kinetics.Step> steps = new ArrayList<>();
+        for (QueryField item : reactions.split(';')) {
+            int at = item.text().indexOf('@');
+            if (at < 0) return item.error(QueryError.BAD_FIELD, "Expected '<equation> @ <kf> [<kr>]'");
+            List<QueryField> constants = item.slice(at + 1, item.text().length()).tokens();
+            if (constants.isEmpty() || constants.size() > 2) {
+                return item.error(QueryError.BAD_FIELD, "Expected one or two rate constants after '@'");
+            }
+            double[] k = new double[2];
+            for (int i = 0; i < constants.size(); i++) {
+                ParseResult<Double> value = constants.get(i).number("rate constant");
+                if (!value.ok()) return value.cast();
+                if (value.value() < 0) return constants.get(i).error(QueryError.BAD_NUMBER, "Rate constants must not be negative");
+                k[i] = value.value();
+            }
+            ParseResult<BalanceResult> reaction = balanced(item.slice(0, at));
+            if (!reaction.ok()) return reaction.cast();
+            steps.add(new Kinetics.Step(reaction.value(), k[0], k[1]));
+        }
+        return ParseResult.of(kinetics(steps));
+    }
+
+    // Network, initial concentrations and output times for a query line "<reactions> | <initial
+    // concentrations> | <end time> [<interval>]", e.g. "N2O5 -> NO2 + O2 @ 5e-4 | 0.1 M N2O5 | 3600 600",
+    // ready to run, with errors as values like stoichiometryQuery
+    public ParseResult<Kinetics.Setup> kineticsQuery(String query) {
+        QueryField line = QueryField.of(query);
+        List<QueryField> parts = line.split('|');
+        if (parts.size() != 3) return line.error(QueryError.BAD_FIELD, "Expected '<reactions> | <initial> | <end> [<interval>]'");
+        ParseResult<Kinetics> network = kinetics(parts.get(0));
+        if (!network.ok()) return network.cast();
+        ParseResult<double[]> initial = network.value().concentrations(parts.get(1));
+        if (!initial.ok()) return initial.cast();
+        ParseResult<double[]> times = counted(Kinetics.outputTimes(parts.get(2)));
+        if (!times.ok()) return times.cast();
+        return ParseResult.of(new Kinetics.Setup(network.value(), initial.value(), times.value()[0], times.value()[1]));
+    }
+
+    // An equation of a query balanced without the explanation. A malformed equation keeps its parse
+    // error code, moved to its column in the line; one that parses but does not balance is NOT_BALANCED.
+    private ParseResult<BalanceResult> balanced(QueryField equation) {
+        BalanceResult result = balance(equation.text(), false);
+        if (result.isBalanced()) return ParseResult.of(result);
+        ParseResult<FormulaParser.Equation> parsed = FormulaParser.parseEquation(equation.text(), limits);
+        return parsed.ok() ? equation.error(QueryError.NOT_BALANCED, result.reason()) : equation.within(parsed);
+    }
+
+    // One species of a query, a parse error moved to its place in the line
+    private ParseResult<Compound> compound(QueryField formula) {
+        ParseResult<Compound> parsed = tryParseCompound(formula.text());
+        return parsed.ok() ? parsed : formula.within(parsed);
+    }
+
+    // Null when a balanced result conserves every element and the total charge with positive
+    // coefficients, otherwise a description of the violation (or the error of a failed result)
+    public String checkConservation(BalanceResult result) {
+        if (!result.isBalanced()) return result.error();
+        return ConservationCheck.check(result.reactants(), result.products());
+    }
+
+    // Oxidation number of each element in a species
+    public Map<String, Integer> assignOxidationNumbers(Compound compound) {
+        return Map.copyOf(OxidationStates.assign(compound));
+    }
+
+    // Systematic name of a species; falls back to the formula when no naming rule applies
+    public String nameCompound(Compound compound) {
+        EngineEvents.Naming event = new EngineEvents.Naming();
+        event.begin();
+        long start = System.nanoTime();
+        String name = CompoundNamer.name(compound);
+        metrics.record(EngineMetrics.Stage.NAMING, start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.formula = compound.formula();
+            event.name = name;
+            event.path = EngineEvents.namingPath(compound, name);
+            event.commit();
+        }
+        return name;
+    }
+
+    // Convenience: parse and name in one call. Throws IllegalArgumentException for malformed species.
+    public String nameCompound(String formula) {
+        return nameCompound(tryParseCompound(formula).orElseThrow());
+    }
+
+    // Parse and name without exceptions
+    public ParseResult<String> tryNameCompound(String formula) {
+        ParseResult<Compound> parsed = tryParseCompound(formula);
+        return parsed.ok() ? ParseResult.of(nameCompound(parsed.value())) : parsed.cast();
+    }
+
+    private <T> ParseResult<T> counted(ParseResult<T> result) {
+        if (result.exceedsLimit()) metrics.countLimited();
+        return result;
+    }
+}
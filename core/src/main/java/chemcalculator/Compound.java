@@ -0,0 +1,54 @@
+package chemcalculator;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Parsed chemical species: formula text (without leading coefficient), element counts and net charge.
+// The composition map is an unmodifiable copy that keeps the parser's iteration order. structure is
+// the parsed Formula tree (groups, hydrate parts), or null for species built by hand such as ELECTRON.
+// state is the physical state label as written ("s", "l", "g" or "aq"), or null when none was given;
+// it is not part of the species' identity (speciesKey).
+public record Compound(String formula, Map<String, Integer> composition, int charge, Formula structure, String state) {
+    // Placeholder species for electrons in half-reactions
+    public static final Compound ELECTRON = new Compound("e-", Map.of(), -1);
+
+    public Compound {
+        composition = Collections.unmodifiableMap(new LinkedHashMap<>(composition));
+    }
+
+    public Compound(String formula, Map<String, Integer> composition, int charge) {
+        this(formula, composition, charge, null, null);
+    }
+
+    public Compound(String formula, Map<String, Integer> composition, int charge, Formula structure) {
+        this(formula, composition, charge, structure, null);
+    }
+
+    // Pure solid or liquid, whose activity is 1 in an equilibrium quotient
+    public boolean isCondensed() {
+        return "s".equals(state) || "l".equals(state);
+    }
+
+    // Formula with its charge in caret notation ("SO4^2-", "Fe^3+", "CuSO4·5H2O"); parseCompound reads
+    // it back unchanged. Balanced equations print it followed by the state label (labeled()).
+    public String notation() {
+        if (structure != null) return structure.toString();
+        if (charge == 0 || formula.endsWith("+") || formula.endsWith("-")) return formula;
+        String sign = charge > 0 ? "+" : "-";
+        int magnitude = Math.abs(charge);
+        return magnitude == 1 ? formula + sign : formula + "^" + magnitude + sign;
+    }
+
+    // notation() plus the state label as written, e.g. "H2O(l)" or "Fe^3+(aq)"
+    public String labeled() {
+        return state == null ? notation() : notation() + "(" + state + ")";
+    }
+
+    // Identity of the species independent of how the formula was written ("Fe3+" and "Fe^3+",
+    // "HC2H3O2" and "C2H4O2" share a key): element counts in symbol order plus the charge
+    public String speciesKey() {
+        return new TreeMap<>(composition) + "^" + charge;
+    }
+}
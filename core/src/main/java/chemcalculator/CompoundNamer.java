@@ -0,0 +1,340 @@
+package chemcalculator;
+
+import java.util.*;
+
+// Compound naming: acids, ionic compounds (with polyatomic ions and Roman-numeral-style charges),
+// hydrates and binary covalent compounds with Greek prefixes. Polyatomic ions are found in the
+// Formula tree as written (the "(NO3)2" group, the "SO4" after "Cu") rather than searched for in the
+// flat composition.
+final class CompoundNamer {
+    // Common polyatomic ions (formula -> name and charge)
+    record PolyIon(String name, int charge) {}
+    static final Map<String, PolyIon> POLY_IONS;
+    // Metals that need their charge spelled out in the name
+    private static final List<String> VARIABLE_CHARGE_METALS = List.of("Fe","Cu","Co","Sn","Pb","Hg","Cr","Mn");
+    // Order of elements in binary covalent names (more electropositive first)
+    private static final List<String> COVALENT_ORDER = List.of("C","P","N","H","Si","B","S","I","Br","Cl","O","F");
+
+    static {
+        Map<String, PolyIon> polyIons = new HashMap<>();
+        polyIons.put("NH4", new PolyIon("Ammonium", +1));
+        polyIons.put("OH",  new PolyIon("Hydroxide", -1));
+        polyIons.put("NO3", new PolyIon("Nitrate", -1));
+        polyIons.put("NO2", new PolyIon("Nitrite", -1));
+        polyIons.put("SO4", new PolyIon("Sulfate", -2));
+        polyIons.put("SO3", new PolyIon("Sulfite", -2));
+        polyIons.put("CO3", new PolyIon("Carbonate", -2));
+        polyIons.put("PO4", new PolyIon("Phosphate", -3));
+        polyIons.put("PO3", new PolyIon("Phosphite", -3));
+        polyIons.put("ClO4", new PolyIon("Perchlorate", -1));
+        polyIons.put("ClO3", new PolyIon("Chlorate", -1));
+        polyIons.put("ClO2", new PolyIon("Chlorite", -1));
+        polyIons.put("ClO",  new PolyIon("Hypochlorite", -1));
+        polyIons.put("MnO4", new PolyIon("Permanganate", -1));
+        polyIons.put("Cr2O7",new PolyIon("Dichromate", -2));
+        polyIons.put("CrO4", new PolyIon("Chromate", -2));
+        polyIons.put("CN",   new PolyIon("Cyanide", -1));
+        polyIons.put("O2",   new PolyIon("Peroxide", -2));
+        polyIons.put("C2H3O2", new PolyIon("Acetate", -1));
+        polyIons.put("SCN",  new PolyIon("Thiocyanate", -1));
+        // (Additional polyatomic ions can be added as needed)
+        // A HashMap keeps the lookup order the naming rules have always used
+        POLY_IONS = Collections.unmodifiableMap(polyIons);
+    }
+
+    private CompoundNamer() {}
+
+    static String name(Compound comp) {
+        Formula formula = comp.structure() != null ? comp.structure() : treeOf(comp.formula());
+        if (formula != null && formula.isHydrate()) {
+            String hydrate = hydrateSuffix(formula);
+            if (hydrate != null) {
+                Formula anhydrous = formula.anhydrous();
+                Compound salt = new Compound(Formula.text(anhydrous.nodes()), anhydrous.composition(),
+                                             comp.charge(), anhydrous);
+                return name(salt) + " " + hydrate;
+            }
+        }
+        List<Formula.Node> nodes = formula != null ? formula.nodes() : List.of();
+        // Handle acids first
+        if (comp.composition().containsKey("H")) {
+            // Oxyacid (contains H and O)
+            if (comp.composition().size() > 1 && comp.composition().containsKey("O")) {
+                // Anion is what follows the leading hydrogen as written (H2SO4 -> SO4)
+                String anionStr = !nodes.isEmpty() && nodes.get(0) instanceof Formula.Atom atom && atom.element().equals("H")
+                    ? Formula.text(nodes.subList(1, nodes.size()))
+                    : "";
+                if (POLY_IONS.containsKey(anionStr)) {
+                    String anionName = POLY_IONS.get(anionStr).name();
+                    if (anionName.endsWith("ate")) {
+                        // e.g. sulfate -> sulfuric acid
+                        String base = anionName.substring(0, anionName.length()-3);
+                        if (base.endsWith("sulf")) base = "sulfur";
+                        if (base.endsWith("phosph")) base = "phosphor";
+                        return capitalize(base + "ic acid");
+                    } else if (anionName.endsWith("ite")) {
+                        // e.g. sulfite -> sulfurous acid
+                        String base = anionName.substring(0, anionName.length()-3);
+                        if (base.endsWith("sulf")) base = "sulfur";
+                        if (base.endsWith("phosph")) base = "phosphor";
+                        return capitalize(base + "ous acid");
+                    }
+                }
+            }
+            // Binary acid (no oxygen, e.g. HCl)
+            if (comp.composition().size() == 2) {
+                String otherElem = null;
+                for (String e : comp.composition().keySet()) {
+                    if (!e.equals("H")) { otherElem = e; break; }
+                }
+                if (otherElem != null && Elements.hasAnionName(otherElem)) {
+                    String anionBase = Elements.anionName(otherElem);
+                    if (anionBase.endsWith("ide")) {
+                        String base = anionBase.substring(0, anionBase.length()-3);
+                        if (base.equals("sulf")) base = "sulfur";
+                        if (base.equals("phosph")) base = "phosphor";
+                        return "Hydro" + base + "ic acid";
+                    }
+                }
+            }
+        }
+        // If ionic (contains metal, ammonium or overall charge)
+        boolean containsMetal = false;
+        for (String elem : comp.composition().keySet()) {
+            if (Elements.isMetal(elem) && !elem.equals("H")) {
+                containsMetal = true;
+                break;
+            }
+        }
+        IonPair ions = splitIons(nodes);
+        if (containsMetal || comp.charge() != 0 || (ions != null && ions.cationPoly() != null)) {
+            // If compound itself is a polyatomic ion (more than one element and has charge)
+            if (comp.charge() != 0 && comp.composition().size() > 1) {
+                PolyIon poly = POLY_IONS.get(Formula.text(nodes));
+                if (poly != null) {
+                    return poly.name() + " ion";
+                }
+            }
+            // Monatomic ion
+            if (comp.charge() != 0 && comp.composition().size() == 1) {
+                String elem = comp.composition().keySet().iterator().next();
+                if (comp.charge() > 0) {
+                    // Cation (positive ion)
+                    String elemName = Elements.name(elem, elem);
+                    // If it's a transition metal with multiple possible charges, include Roman numeral
+                    if (VARIABLE_CHARGE_METALS.contains(elem) && comp.charge() != 0) {
+                        return elemName + " (" + comp.charge() + (comp.charge() > 0 ? "+" : "-") + ") ion";
+                    } else {
+                        return elemName + " ion";
+                    }
+                } else {
+                    // Anion (negative ion)
+                    if (Elements.hasAnionName(elem)) {
+                        return Elements.anionName(elem) + " ion";
+                    } else {
+                        String elemName = Elements.name(elem, elem);
+                        return elemName + " ion";
+                    }
+                }
+            }
+            // Neutral ionic compound: a metal or ammonium cation, then the anion as written
+            if (ions != null) {
+                if (ions.cationElement() == null && ions.cationPoly() == null) {
+                    // The entire compound is just the polyatomic ion repeated
+                    return ions.anionPoly() != null ? ions.anionPoly().name() : comp.formula();
+                }
+                String cationName;
+                if (ions.cationPoly() != null) {
+                    cationName = ions.cationPoly().name();
+                } else {
+                    String catElem = ions.cationElement();
+                    cationName = Elements.name(catElem, catElem);
+                    // Determine cation charge by charge balance
+                    int totalAnionCharge = ions.anionCharge() * ions.anionCount();
+                    int cationCharge = - totalAnionCharge / ions.cationCount();
+                    if (VARIABLE_CHARGE_METALS.contains(catElem) && cationCharge != 0) {
+                        cationName += " (" + cationCharge + "+)";
+                    }
+                }
+                String anionName = ions.anionPoly() != null
+                    ? ions.anionPoly().name()
+                    : Elements.anionName(ions.anionElement(), ions.anionElement());
+                return cationName + " " + anionName;
+            }
+            // If no polyatomic anion found, assume binary ionic (metal + nonmetal)
+            if (comp.composition().size() == 2) {
+                String metalElem = null, nonmetalElem = null;
+                for (String e : comp.composition().keySet()) {
+                    if (Elements.isMetal(e)) metalElem = e;
+                    else nonmetalElem = e;
+                }
+                if (metalElem != null && nonmetalElem != null) {
+                    String metalName = Elements.name(metalElem, metalElem);
+                    int metalCount = comp.composition().get(metalElem);
+                    int nonCount = comp.composition().get(nonmetalElem);
+                    // Determine nonmetal's typical charge
+                    int nonCharge;
+                    if      (nonmetalElem.equals("O")) nonCharge = -2;
+                    else if (nonmetalElem.equals("N")) nonCharge = -3;
+                    else if (nonmetalElem.equals("S")) nonCharge = -2;
+                    else if (nonmetalElem.equals("P")) nonCharge = -3;
+                    else nonCharge = -1;
+                    // Calculate metal charge needed to balance
+                    int metalCharge = 0;
+                    if (nonCharge != 0) {
+                        metalCharge = (- nonCharge * nonCount) / metalCount;
+                    }
+                    if (VARIABLE_CHARGE_METALS.contains(metalElem) && metalCharge != 0) {
+                        metalName += " (" + metalCharge + "+)";
+                    }
+                    String baseAnion = Elements.anionName(nonmetalElem, nonmetalElem);
+                    return metalName + " " + baseAnion;
+                }
+            }
+            // If reached here, fallback to formula as name (unlikely)
+        }
+        // If covalent (all nonmetals, no overall charge)
+        if (comp.charge() == 0) {
+            // Use Greek prefixes for number of atoms (binary covalent compounds)
+            if (comp.composition().size() == 2) {
+                Iterator<String> it = comp.composition().keySet().iterator();
+                String e1 = it.next();
+                String e2 = it.next();
+                // Order elements: more electropositive (lower group number, except that halogens and others: use a common order list)
+                if (COVALENT_ORDER.indexOf(e2) < COVALENT_ORDER.indexOf(e1)) {
+                    String temp = e1; e1 = e2; e2 = temp;
+                }
+                int c1 = comp.composition().get(e1);
+                int c2 = comp.composition().get(e2);
+                String name1 = Elements.name(e1, e1);
+                String base2;
+                if (Elements.hasAnionName(e2)) {
+                    String anName = Elements.anionName(e2);  // e.g. "Oxide"
+                    base2 = anName.endsWith("ide") ? anName.substring(0, anName.length()-3) : anName;
+                } else {
+                    base2 = Elements.name(e2, e2);
+                }
+                String prefix1 = prefixForNumber(c1);
+                String prefix2 = prefixForNumber(c2);
+                if (prefix1.equals("mono")) prefix1 = "";  // no "mono" for first element
+                String compoundName = "";
+                if (!prefix1.isEmpty()) compoundName += prefix1;
+                compoundName += name1.toLowerCase();
+                compoundName += " " + prefix2 + base2.toLowerCase() + "ide";
+                return capitalize(compoundName);
+            }
+        }
+        // Fallback: return formula as name if no rules matched
+        return comp.formula();
+    }
+
+    // Tree of a hand-built compound's formula, or null when it does not parse (e.g. "e-")
+    private static Formula treeOf(String formula) {
+        ParseResult<Formula> tree = FormulaParser.parseFormulaTree(formula, EngineLimits.DEFAULT);
+        return tree.ok() ? tree.value() : null;
+    }
+
+    // "pentahydrate" for CuSO4·5H2O; null unless every part after the first is water
+    private static String hydrateSuffix(Formula formula) {
+        int water = 0;
+        for (Formula.Part part : formula.parts().subList(1, formula.parts().size())) {
+            if (!Formula.text(part.nodes()).equals("H2O")) return null;
+            water += part.count();
+        }
+        return (water == 1 ? "mono" : prefixForNumber(water)) + "hydrate";
+    }
+
+    // Cation and anion of an ionic formula as written. The cation is one metal atom ("Cu", "Al2") or
+    // ammonium ("NH4", "(NH4)2"); the anion is a final group ("(NO3)2"), the longest run of trailing
+    // atoms that is a polyatomic anion ("SO4"), or a single atom after ammonium ("Cl")
+    record IonPair(String cationElement, int cationCount, PolyIon cationPoly,
+                   PolyIon anionPoly, String anionElement, int anionCharge, int anionCount) {}
+
+    private static IonPair splitIons(List<Formula.Node> nodes) {
+        int n = nodes.size();
+        if (n == 0) return null;
+        if (nodes.get(n - 1) instanceof Formula.Group group) {
+            PolyIon poly = POLY_IONS.get(Formula.text(group.nodes()));
+            if (poly != null && poly.charge() < 0) {
+                return withCation(nodes.subList(0, n - 1), poly, null, poly.charge(), group.count());
+            }
+            return null;
+        }
+        for (int k = 0; k < n; k++) {
+            PolyIon poly = POLY_IONS.get(Formula.text(nodes.subList(k, n)));
+            if (poly != null && poly.charge() < 0) {
+                IonPair pair = withCation(nodes.subList(0, k), poly, null, poly.charge(), 1);
+                if (pair != null) return pair;
+            }
+        }
+        // Ammonium salt of a monatomic anion (NH4Cl)
+        if (n >= 2 && nodes.get(n - 1) instanceof Formula.Atom anion && anion.count() == 1) {
+            IonPair pair = withCation(nodes.subList(0, n - 1), null, anion.element(), -1, 1);
+            if (pair != null && pair.cationPoly() != null) return pair;
+        }
+        return null;
+    }
+
+    // The pair with nodes as cation; null when nodes are neither empty, one atom, nor ammonium
+    private static IonPair withCation(List<Formula.Node> nodes, PolyIon anionPoly, String anionElement,
+                                      int anionCharge, int anionCount) {
+        if (nodes.isEmpty()) {
+            return anionPoly != null ? new IonPair(null, 0, null, anionPoly, null, anionCharge, anionCount) : null;
+        }
+        if (nodes.size() == 1 && nodes.get(0) instanceof Formula.Atom atom) {
+            return new IonPair(atom.element(), atom.count(), null, anionPoly, anionElement, anionCharge, anionCount);
+        }
+        // Polyatomic cation, bare or in its own group
+        int count = 1;
+        List<Formula.Node> inner = nodes;
+        if (nodes.size() == 1 && nodes.get(0) instanceof Formula.Group group) {
+            count = group.count();
+            inner = group.nodes();
+        }
+        PolyIon poly = POLY_IONS.get(Formula.text(inner));
+        if (poly == null || poly.charge() <= 0) return null;
+        return new IonPair(null, count, poly, anionPoly, anionElement, anionCharge, anionCount);
+    }
+
+    // Protons an acid can give up, by the acid rules of name: the leading hydrogen of an oxyacid as
+    // written (H3PO4 -> 3, HC2H3O2 -> 1) or all the hydrogen of a binary acid (H2S -> 2); 0 when the
+    // compound is not named as an acid
+    static int acidProtons(Compound comp) {
+        if (comp.charge() != 0 || !name(comp).endsWith(" acid")) return 0;
+        if (!comp.composition().containsKey("O")) return comp.composition().get("H");
+        Formula formula = comp.structure() != null ? comp.structure() : treeOf(comp.formula());
+        return formula != null && formula.nodes().get(0) instanceof Formula.Atom atom ? atom.count() : 0;
+    }
+
+    // Hydroxide ions per formula unit of a metal hydroxide (NaOH -> 1, Ca(OH)2 -> 2), otherwise 0
+    static int hydroxides(Compound comp) {
+        Formula formula = comp.structure() != null ? comp.structure() : treeOf(comp.formula());
+        if (comp.charge() != 0 || formula == null) return 0;
+        IonPair ions = splitIons(formula.nodes());
+        if (ions == null || ions.cationElement() == null || !Elements.isMetal(ions.cationElement())
+            || ions.anionPoly() != POLY_IONS.get("OH")) {
+            return 0;
+        }
+        return ions.anionCount();
+    }
+
+    static String capitalize(String s) {
+        if (s == null || s.isEmpty()) return s;
+        return Character.toUpperCase(s.charAt(0)) + s.substring(1);
+    }
+    static String prefixForNumber(int n) {
+        return switch (n) {
+            case 1 -> "mono";
+            case 2 -> "di";
+            case 3 -> "tri";
+            case 4 -> "tetra";
+            case 5 -> "penta";
+            case 6 -> "hexa";
+            case 7 -> "hepta";
+            case 8 -> "octa";
+            case 9 -> "nona";
+            case 10 -> "deca";
+            default -> "";
+        };
+    }
+}
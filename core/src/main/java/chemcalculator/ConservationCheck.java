@@ -0,0 +1,91 @@
+package chemcalculator;
+
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Verifies a balanced result: every coefficient positive, and the coefficient vector times the
+// (element + charge) x species matrix equal to zero. The matrix is a flat int array with product
+// columns negated, so each row check is one primitive multiply-add loop. The sum is overflow-checked;
+// a row whose running total leaves the long range is redone in BigInteger instead of wrapping round
+// to a false zero.
+// Stateless; safe to call from any thread.
+final class ConservationCheck {
+    private ConservationCheck() {}
+
+    // Null when atoms and charge are conserved, otherwise a description of the first violation
+    static String check(List<BalanceResult.Term> reactants, List<BalanceResult.Term> products) {
+        int n = reactants.size() + products.size();
+        if (reactants.isEmpty() || products.isEmpty()) return "a side has no species";
+        int[] coefficients = new int[n];
+        Compound[] species = new Compound[n];
+        for (int j = 0; j < n; j++) {
+            BalanceResult.Term term = j < reactants.size() ? reactants.get(j) : products.get(j - reactants.size());
+            if (term.coefficient() <= 0) {
+                return "coefficient of " + term.compound().formula() + " is " + term.coefficient();
+            }
+            coefficients[j] = term.coefficient();
+            species[j] = term.compound();
+        }
+        // Row 0 is charge, then one row per element in order of first appearance
+        Map<String, Integer> rowOf = new HashMap<>();
+        for (Compound compound : species) {
+            for (String element : compound.composition().keySet()) {
+                rowOf.putIfAbsent(element, rowOf.size() + 1);
+            }
+        }
+        int rows = rowOf.size() + 1;
+        int[] matrix = new int[rows * n];
+        for (int j = 0; j < n; j++) {
+            int sign = j < reactants.size() ? 1 : -1;
+            matrix[j] = sign * species[j].charge();
+            for (Map.Entry<String, Integer> entry : species[j].composition().entrySet()) {
+                matrix[rowOf.get(entry.getKey()) * n + j] = sign * entry.getValue();
+            }
+        }
+        for (int row = 0; row < rows; row++) {
+            int base = row * n;
+            if (netSignum(matrix, base, coefficients) != 0) {
+                return describe(row == 0 ? "charge" : elementOfRow(rowOf, row), matrix, base, coefficients,
+                                reactants.size());
+            }
+        }
+        return null;
+    }
+
+    // Sign of one row's net; an int times an int always fits a long, only the sum can overflow
+    private static int netSignum(int[] matrix, int base, int[] coefficients) {
+        long net = 0;
+        try {
+            for (int j = 0; j < coefficients.length; j++) {
+                net = Math.addExact(net, (long) matrix[base + j] * coefficients[j]);
+            }
+            return Long.signum(net);
+        } catch (ArithmeticException ex) {
+            BigInteger exact = BigInteger.ZERO;
+            for (int j = 0; j < coefficients.length; j++) {
+                exact = exact.add(BigInteger.valueOf((long) matrix[base + j] * coefficients[j]));
+            }
+            return exact.signum();
+        }
+    }
+
+    private static String elementOfRow(Map<String, Integer> rowOf, int row) {
+        for (Map.Entry<String, Integer> entry : rowOf.entrySet()) {
+            if (entry.getValue() == row) return entry.getKey();
+        }
+        return "?";
+    }
+
+    private static String describe(String what, int[] matrix, int base, int[] coefficients, int reactantCount) {
+        // Either side alone may exceed a long
+        BigInteger left = BigInteger.ZERO, right = BigInteger.ZERO;
+        for (int j = 0; j < coefficients.length; j++) {
+            BigInteger amount = BigInteger.valueOf((long) matrix[base + j] * coefficients[j]);
+            if (j < reactantCount) left = left.add(amount);
+            else                   right = right.subtract(amount);
+        }
+        return what + " not conserved (" + left + " on the left, " + right + " on the right)";
+    }
+}
@@ -0,0 +1,282 @@
+package chemcalculator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+// Standard cell potentials for every pairing of a set of reduction couples. Couples are sorted by
+// E° (most oxidizing first) and each one's half-reaction, and so its electron count, is balanced
+// once by the balancer's half-reaction solve. The cathode x anode grid of E°cell, electrons
+// transferred and ΔG° = -nFE°cell is kept in flat row-major arrays indexed cathode * size + anode,
+// and the spontaneous pairs (E°cell > 0) are ranked once, so top(k) is a prefix of that ranking.
+// The overall reaction of any pair is balanced through ChemEngine.balance. Two basic couples are
+// compared as tabulated; any other pair is compared in acid, with a basic couple's E° moved to the
+// acidic scale by its hydroxide term (0.05916 V x pKw per OH- per electron, so O2/OH- at 0.401 V
+// becomes 1.229 V, the E° of O2/H2O). Immutable and safe to share between threads.
+public final class Electrochemistry {
+    // Faraday constant, C/mol
+    public static final double FARADAY = 96485.33212;
+    // Pairings listed when no count is given
+    public static final int DEFAULT_TOP = 5;
+    // RT ln 10 / F at 25 C, volts per decade
+    static final double NERNST_SLOPE = 0.05916;
+    private static final String HYDROXIDE = EquationBalancer.HYDROXIDE.speciesKey();
+
+    // One reduction couple: oxidized + n e- -> reduced at E° volts
+    public record Couple(String oxidized, String reduced, int electrons, double potential, String halfReaction) {
+        public String name() {
+            return oxidized + "/" + reduced;
+        }
+    }
+
+    // A pairing: the cathode couple is reduced, the anode couple's reduced form oxidized. electrons
+    // is n for the overall reaction with the smallest whole-number coefficients; ΔG° in kJ/mol.
+    // potential is on the acidic scale unless both couples are basic.
+    public record Cell(Couple cathode, Couple anode, double potential, int electrons, double deltaG) {
+        public boolean spontaneous() {
+            return potential > 0;
+        }
+    }
+
+    private final ChemEngine engine;
+    private final List<Couple> couples;
+    private final Compound[] oxidized;
+    private final Compound[] reduced;
+    private final BalanceResult[] halves;
+    private final boolean[] basic;
+    private final double[] acidPotential;   // E° of the couple restated for acid
+    private final int size;
+    private final double[] potential;   // E°cell, [cathode * size + anode]
+    private final int[] electrons;
+    private final double[] deltaG;
+    private final int[] ranking;        // spontaneous pair indices, highest E°cell first
+
+    // A grid with the pairing count asked for, as read from one query line
+    public record Setup(Electrochemistry grid, int top) {
+        public List<Cell> cells() {
+            return grid.top(top);
+        }
+    }
+
+    // Grid over entries with every half-reaction solved within the one budget. More than maxSpecies
+    // couples, or running past the budget, is refused as a limit; a couple without a balanced
+    // half-reaction is NOT_BALANCED at offsets[i], the place of entries[i] in the query line.
+    static ParseResult<Electrochemistry> of(ChemEngine engine, List<StandardPotentials.Entry> entries, int[] offsets,
+                                            EngineLimits.Budget budget) {
+        if (entries.isEmpty()) return ParseResult.failed(QueryError.BAD_FIELD, "No couples given", 0);
+        int max = budget.limits().maxSpecies();
+        if (entries.size() > max) {
+            return ParseResult.failed(ParseResult.Code.TOO_MANY_SPECIES, "At most " + max + " couples", offsets[max]);
+        }
+        BalanceResult[] halves = new BalanceResult[entries.size()];
+        for (int i = 0; i < halves.length; i++) {
+            StandardPotentials.Entry entry = entries.get(i);
+            halves[i] = EquationBalancer.halfReaction(entry.oxidized(), entry.reduced(), entry.basic(), budget);
+            if (budget.expired()) {
+                return ParseResult.failed(ParseResult.Code.TOO_LARGE, "Couples not balanced within the time budget", 0);
+            }
+            if (!halves[i].isBalanced()) {
+                return ParseResult.failed(QueryError.NOT_BALANCED, halves[i].reason(), offsets[i]);
+            }
+        }
+        return ParseResult.of(new Electrochemistry(engine, entries, halves));
+    }
+
+    private Electrochemistry(ChemEngine engine, List<StandardPotentials.Entry> entries, BalanceResult[] solved) {
+        this.engine = engine;
+        Integer[] order = new Integer[entries.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, Comparator.comparingDouble((Integer i) -> entries.get(i).potential()).reversed());
+        size = order.length;
+        oxidized = new Compound[size];
+        reduced = new Compound[size];
+        halves = new BalanceResult[size];
+        basic = new boolean[size];
+        acidPotential = new double[size];
+        List<Couple> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            StandardPotentials.Entry entry = entries.get(order[i]);
+            BalanceResult half = solved[order[i]];
+            halves[i] = half;
+            int electronCount = EquationBalancer.electrons(half.reactants());
+            basic[i] = entry.basic();
+            acidPotential[i] = entry.potential()
+                + NERNST_SLOPE * Titration.PKW * (hydroxides(half.products()) - hydroxides(half.reactants())) / electronCount;
+            oxidized[i] = entry.oxidized();
+            reduced[i] = entry.reduced();
+            list.add(new Couple(entry.oxidized().notation(), entry.reduced().notation(),
+                                electronCount, entry.potential(), half.equation()));
+        }
+        couples = List.copyOf(list);
+
+        potential = new double[size * size];
+        electrons = new int[size * size];
+        deltaG = new double[size * size];
+        for (int c = 0; c < size; c++) {
+            double cathode = couples.get(c).potential();
+            int nc = couples.get(c).electrons();
+            for (int a = 0; a < size; a++) {
+                int at = c * size + a;
+                int na = couples.get(a).electrons();
+                int n = nc / EquationBalancer.gcd(nc, na) * na;
+                potential[at] = basic[c] && basic[a] ? cathode - couples.get(a).potential()
+                                                     : acidPotential[c] - acidPotential[a];
+                electrons[at] = n;
+                deltaG[at] = -n * FARADAY * potential[at] / 1000;
+            }
+        }
+        // A couple against itself in the other medium has no net reaction and is left out
+        ranking = IntStream.range(0, size * size)
+            .filter(at -> potential[at] > 0 && !net(at / size, at % size).isEmpty())
+            .boxed()
+            .sorted(Comparator.comparingDouble((Integer at) -> potential[at]).reversed())
+            .mapToInt(Integer::intValue)
+            .toArray();
+    }
+
+    // Couples, most oxidizing first; grid indices refer to this order
+    public List<Couple> couples() {
+        return couples;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Index of a couple written "Ox/Red" (any notation of the same species), or -1
+    public int index(String couple) {
+        int slash = couple.indexOf('/');
+        if (slash < 0) return -1;
+        ParseResult<Compound> ox = FormulaParser.parseCompound(couple.substring(0, slash).trim(), EngineLimits.DEFAULT);
+        ParseResult<Compound> red = FormulaParser.parseCompound(couple.substring(slash + 1).trim(), EngineLimits.DEFAULT);
+        if (!ox.ok() || !red.ok()) return -1;
+        String key = StandardPotentials.key(ox.value(), red.value());
+        for (int i = 0; i < size; i++) {
+            if (StandardPotentials.key(oxidized[i], reduced[i]).equals(key)) return i;
+        }
+        return -1;
+    }
+
+    public double potential(int cathode, int anode) {
+        return potential[cathode * size + anode];
+    }
+
+    public int electrons(int cathode, int anode) {
+        return electrons[cathode * size + anode];
+    }
+
+    public double deltaG(int cathode, int anode) {
+        return deltaG[cathode * size + anode];
+    }
+
+    public Cell cell(int cathode, int anode) {
+        int at = cathode * size + anode;
+        return new Cell(couples.get(cathode), couples.get(anode), potential[at], electrons[at], deltaG[at]);
+    }
+
+    // Number of spontaneous pairings
+    public int spontaneousCount() {
+        return ranking.length;
+    }
+
+    // Pairing count from "top <k>", or DEFAULT_TOP when text is blank
+    public static int topCount(String text) {
+        return topCount(QueryField.of(text)).orElseThrow();
+    }
+
+    static ParseResult<Integer> topCount(QueryField text) {
+        List<QueryField> tokens = text.tokens();
+        if (tokens.isEmpty()) return ParseResult.of(DEFAULT_TOP);
+        if (tokens.size() != 2 || !tokens.get(0).is("top")) return text.error(QueryError.BAD_FIELD, "Expected 'top <count>'");
+        return tokens.get(1).count("count");
+    }
+
+    // The k spontaneous pairings with the highest E°cell
+    public List<Cell> top(int k) {
+        int count = Math.min(Math.max(k, 0), ranking.length);
+        List<Cell> cells = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            cells.add(cell(ranking[i] / size, ranking[i] % size));
+        }
+        return cells;
+    }
+
+    // The overall reaction of a pairing: the cathode half-reaction plus the reversed anode
+    // half-reaction, each scaled to the same electrons, with species on both sides cancelled (so
+    // Fe^3+/Fe^2+ against Fe^2+/Fe gives Fe^3+ + Fe -> Fe^2+), balanced by the engine. When the
+    // engine finds the species admit more than one balance (MnO4- with H2O2), the summed
+    // half-reactions decide it. A failure result when nothing is left after cancelling.
+    public BalanceResult balance(int cathode, int anode) {
+        Map<String, BalanceResult.Term> net = net(cathode, anode);
+        if (net.isEmpty()) {
+            return BalanceResult.failure(new ArrayList<>(), "Error: " + couples.get(cathode).name() + " against "
+                                                             + couples.get(anode).name() + " leaves no net reaction.");
+        }
+        int divisor = 0;
+        for (BalanceResult.Term term : net.values()) divisor = EquationBalancer.gcd(divisor, Math.abs(term.coefficient()));
+        List<BalanceResult.Term> left = new ArrayList<>();
+        List<BalanceResult.Term> right = new ArrayList<>();
+        for (BalanceResult.Term term : net.values()) {
+            int coefficient = term.coefficient() / divisor;
+            if (coefficient > 0) left.add(new BalanceResult.Term(coefficient, term.compound()));
+            else right.add(new BalanceResult.Term(-coefficient, term.compound()));
+        }
+        BalanceResult result = engine.balance(notations(left) + " -> " + notations(right), false);
+        if (result.isBalanced()) return result;
+        List<String> steps = new ArrayList<>();
+        steps.add(couples.get(cathode).halfReaction());
+        steps.add(couples.get(anode).halfReaction());
+        return new BalanceResult(BalanceResult.Method.HALF_REACTION, left, right,
+                                 EquationBalancer.formatEquation(left, right), steps, null);
+    }
+
+    public BalanceResult balance(Cell cell) {
+        return balance(couples.indexOf(cell.cathode()), couples.indexOf(cell.anode()));
+    }
+
+    private static String notations(List<BalanceResult.Term> terms) {
+        List<String> names = new ArrayList<>(terms.size());
+        for (BalanceResult.Term term : terms) names.add(term.compound().notation());
+        return String.join(" + ", names);
+    }
+
+    // Net overall reaction of a pairing by species key, reactant coefficients positive, electrons
+    // and unchanged species left out. Unless both couples are basic it is stated for acid, with
+    // each OH- written as H2O less H+.
+    private Map<String, BalanceResult.Term> net(int cathode, int anode) {
+        int n = electrons[cathode * size + anode];
+        Map<String, BalanceResult.Term> net = new LinkedHashMap<>();
+        add(halves[cathode], n / couples.get(cathode).electrons(), net);
+        add(halves[anode], -n / couples.get(anode).electrons(), net);
+        BalanceResult.Term hydroxide = basic[cathode] && basic[anode] ? null : net.remove(HYDROXIDE);
+        if (hydroxide != null) {
+            add(new BalanceResult.Term(hydroxide.coefficient(), EquationBalancer.WATER), 1, net);
+            add(new BalanceResult.Term(hydroxide.coefficient(), EquationBalancer.PROTON), -1, net);
+        }
+        net.values().removeIf(term -> term.coefficient() == 0);
+        return net;
+    }
+
+    // Reactants of half times factor, products times -factor, into net
+    private static void add(BalanceResult half, int factor, Map<String, BalanceResult.Term> net) {
+        for (BalanceResult.Term term : half.reactants()) add(term, factor, net);
+        for (BalanceResult.Term term : half.products()) add(term, -factor, net);
+    }
+
+    private static void add(BalanceResult.Term term, int factor, Map<String, BalanceResult.Term> net) {
+        if (term.compound() == Compound.ELECTRON) return;
+        net.merge(term.compound().speciesKey(), new BalanceResult.Term(factor * term.coefficient(), term.compound()),
+                  (a, b) -> new BalanceResult.Term(a.coefficient() + b.coefficient(), a.compound()));
+    }
+
+    private static int hydroxides(List<BalanceResult.Term> side) {
+        for (BalanceResult.Term term : side) {
+            if (term.compound().speciesKey().equals(HYDROXIDE)) return term.coefficient();
+        }
+        return 0;
+    }
+}
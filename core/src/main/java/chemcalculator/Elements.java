@@ -0,0 +1,169 @@
+package chemcalculator;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+// Immutable element data: symbols in atomic number order (1=H ... 118=Og), standard atomic weights,
+// names and monatomic anion names. Everything is built once in the static initializer and never
+// modified afterwards, so it can be read from any thread without synchronization.
+public final class Elements {
+    // Element symbols, index = atomic number - 1
+    private static final String[] SYMBOLS = {
+        "H", "He", "Li", "Be", "B", "C", "N", "O", "F", "Ne",
+        "Na", "Mg", "Al", "Si", "P", "S", "Cl", "Ar", "K", "Ca",
+        "Sc", "Ti", "V", "Cr", "Mn", "Fe", "Co", "Ni", "Cu", "Zn",
+        "Ga", "Ge", "As", "Se", "Br", "Kr", "Rb", "Sr", "Y", "Zr",
+        "Nb", "Mo", "Tc", "Ru", "Rh", "Pd", "Ag", "Cd", "In", "Sn",
+        "Sb", "Te", "I", "Xe", "Cs", "Ba", "La", "Ce", "Pr", "Nd",
+        "Pm", "Sm", "Eu", "Gd", "Tb", "Dy", "Ho", "Er", "Tm", "Yb",
+        "Lu", "Hf", "Ta", "W", "Re", "Os", "Ir", "Pt", "Au", "Hg",
+        "Tl", "Pb", "Bi", "Po", "At", "Rn", "Fr", "Ra", "Ac", "Th",
+        "Pa", "U", "Np", "Pu", "Am", "Cm", "Bk", "Cf", "Es", "Fm",
+        "Md", "No", "Lr", "Rf", "Db", "Sg", "Bh", "Hs", "Mt", "Ds",
+        "Rg", "Cn", "Nh", "Fl", "Mc", "Lv", "Ts", "Og"
+    };
+    // Atomic weights (g/mol), index = atomic number - 1
+    private static final double[] WEIGHTS = {
+        1.008, 4.0026, 6.94, 9.0122, 10.81, 12.011, 14.007, 15.999, 18.998, 20.180,   // 1-10
+        22.990, 24.305, 26.982, 28.085, 30.974, 32.06, 35.45, 39.948, 39.098, 40.078,   // 11-20
+        44.956, 47.867, 50.942, 51.996, 54.938, 55.845, 58.933, 58.693, 63.546, 65.38,   // 21-30
+        69.723, 72.630, 74.922, 78.971, 79.904, 83.798, 85.468, 87.62, 88.906, 91.224,   // 31-40
+        92.906, 95.95, 98.0, 101.07, 102.91, 106.42, 107.87, 112.41, 114.82, 118.71,   // 41-50
+        121.76, 127.60, 126.90, 131.29, 132.91, 137.33, 138.91, 140.12, 140.91, 144.24,   // 51-60
+        145.0, 150.36, 151.96, 157.25, 158.93, 162.50, 164.93, 167.26, 168.93, 173.04,   // 61-70
+        174.97, 178.49, 180.95, 183.84, 186.21, 190.23, 192.22, 195.08, 196.97, 200.59,   // 71-80
+        204.38, 207.2, 208.98, 209.0, 210.0, 222.0, 223.0, 226.0, 227.0, 232.04,   // 81-90
+        231.04, 238.03, 237.0, 244.0, 243.0, 247.0, 247.0, 251.0, 252.0, 257.0,   // 91-100
+        258.0, 259.0, 262.0, 267.0, 270.0, 271.0, 270.0, 277.0, 278.0, 281.0,   // 101-110
+        282.0, 285.0, 286.0, 289.0, 290.0, 293.0, 294.0, 294.0,   // 111-118
+    };
+    // The same weights as decimals, exactly as tabulated above (BigDecimal.valueOf gives back the
+    // shortest decimal of each double, which is the literal)
+    private static final BigDecimal[] DECIMAL_WEIGHTS;
+    // Symbol -> atomic number
+    private static final Map<String, Integer> ATOMIC_NUMBERS;
+    // Element full names for a selection of elements (for naming and tooltips)
+    private static final Map<String, String> NAMES;
+    // Monatomic anion names (for naming binary ionic compounds)
+    private static final Map<String, String> ANION_NAMES;
+    // Known nonmetals and metalloids (everything else is treated as a metal)
+    private static final Set<String> NONMETALS = Set.of(
+        "H","He","B","C","N","O","F","Ne","Si","P","S","Cl","Ar",
+        "As","Se","Br","Kr","Te","I","Xe","At","Rn","Og"
+    );
+    private static final Set<String> GROUP1 = Set.of("Li","Na","K","Rb","Cs","Fr");
+    private static final Set<String> GROUP2 = Set.of("Be","Mg","Ca","Sr","Ba","Ra");
+
+    static {
+        Map<String, Integer> numbers = new HashMap<>();
+        for (int i = 0; i < SYMBOLS.length; i++) {
+            numbers.put(SYMBOLS[i], i + 1);
+        }
+        ATOMIC_NUMBERS = Collections.unmodifiableMap(numbers);
+
+        DECIMAL_WEIGHTS = new BigDecimal[WEIGHTS.length];
+        for (int i = 0; i < WEIGHTS.length; i++) {
+            DECIMAL_WEIGHTS[i] = BigDecimal.valueOf(WEIGHTS[i]);
+        }
+
+        Map<String, String> names = new HashMap<>();
+        names.put("H", "Hydrogen");    names.put("He", "Helium");
+        names.put("Li", "Lithium");    names.put("Be", "Beryllium");
+        names.put("B", "Boron");       names.put("C", "Carbon");
+        names.put("N", "Nitrogen");    names.put("O", "Oxygen");
+        names.put("F", "Fluorine");    names.put("Ne", "Neon");
+        names.put("Na", "Sodium");     names.put("Mg", "Magnesium");
+        names.put("Al", "Aluminum");   names.put("Si", "Silicon");
+        names.put("P", "Phosphorus");  names.put("S", "Sulfur");
+        names.put("Cl", "Chlorine");   names.put("Ar", "Argon");
+        names.put("K", "Potassium");   names.put("Ca", "Calcium");
+        names.put("Sc", "Scandium");   names.put("Ti", "Titanium");
+        names.put("V", "Vanadium");    names.put("Cr", "Chromium");
+        names.put("Mn", "Manganese");  names.put("Fe", "Iron");
+        names.put("Co", "Cobalt");     names.put("Ni", "Nickel");
+        names.put("Cu", "Copper");     names.put("Zn", "Zinc");
+        names.put("Ag", "Silver");     names.put("Au", "Gold");
+        names.put("Hg", "Mercury");    names.put("Pb", "Lead");
+        names.put("I", "Iodine");      names.put("U", "Uranium");
+        names.put("Pu", "Plutonium");  // ... (etc., can add more as needed)
+        NAMES = Collections.unmodifiableMap(names);
+
+        // Monatomic anion names (negative ions of single elements)
+        Map<String, String> anions = new HashMap<>();
+        anions.put("H", "Hydride");
+        anions.put("F", "Fluoride");
+        anions.put("Cl", "Chloride");
+        anions.put("Br", "Bromide");
+        anions.put("I", "Iodide");
+        anions.put("O", "Oxide");
+        anions.put("S", "Sulfide");
+        anions.put("N", "Nitride");
+        anions.put("P", "Phosphide");
+        anions.put("C", "Carbide");
+        ANION_NAMES = Collections.unmodifiableMap(anions);
+    }
+
+    private Elements() {}
+
+    // Number of elements in the table (118)
+    public static int count() {
+        return SYMBOLS.length;
+    }
+
+    // Symbol for an atomic number (1-based)
+    public static String symbol(int atomicNumber) {
+        return SYMBOLS[atomicNumber - 1];
+    }
+
+    // Atomic number for a symbol, or 0 if the symbol is not a known element
+    public static int atomicNumber(String symbol) {
+        return ATOMIC_NUMBERS.getOrDefault(symbol, 0);
+    }
+
+    public static boolean isKnown(String symbol) {
+        return ATOMIC_NUMBERS.containsKey(symbol);
+    }
+
+    // Atomic weight in g/mol; unknown symbols weigh 0.0 (as the GFM calculator has always treated them)
+    public static double atomicWeight(String symbol) {
+        int z = atomicNumber(symbol);
+        return z == 0 ? 0.0 : WEIGHTS[z - 1];
+    }
+
+    // Atomic weight as the tabulated decimal; unknown symbols weigh 0
+    public static BigDecimal decimalWeight(String symbol) {
+        int z = atomicNumber(symbol);
+        return z == 0 ? BigDecimal.ZERO : DECIMAL_WEIGHTS[z - 1];
+    }
+
+    // Atomic weight by atomic number (1-based)
+    public static double atomicWeight(int atomicNumber) {
+        return WEIGHTS[atomicNumber - 1];
+    }
+
+    // Full element name, or the fallback if the element has no name on record
+    public static String name(String symbol, String fallback) {
+        return NAMES.getOrDefault(symbol, fallback);
+    }
+
+    // --- Package-private helpers used by the naming and oxidation-state rules ---
+    static boolean hasAnionName(String symbol) {
+        return ANION_NAMES.containsKey(symbol);
+    }
+    static String anionName(String symbol) {
+        return ANION_NAMES.get(symbol);
+    }
+    static String anionName(String symbol, String fallback) {
+        return ANION_NAMES.getOrDefault(symbol, fallback);
+    }
+    static boolean isMetal(String element) {
+        // Simplified: treat everything not explicitly a known nonmetal as metal
+        return !NONMETALS.contains(element);
+    }
+    static boolean isGroup1(String element) {
+        return GROUP1.contains(element);
+    }
+    static boolean isGroup2(String element) {
+        return GROUP2.contains(element);
+    }
+}
@@ -0,0 +1,26 @@
+package chemcalculator;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Empirical formula solved from mass percentages: integer counts in Hill order, the formula text
+// and its mass, and the largest relative deviation of a count from the measured mole ratio. When a
+// molar mass was given, factor is molar mass / empirical mass rounded and molecular the scaled
+// formula; otherwise factor is 1 and molecular is null. error is set (and the rest empty) when no
+// small integer ratio fits, or the molar mass is not a whole multiple of the empirical mass within
+// the tolerance.
+public record EmpiricalFormula(Map<String, Integer> counts, String formula, double mass, double deviation,
+                               int factor, String molecular, String error) {
+    public EmpiricalFormula {
+        counts = Collections.unmodifiableMap(new LinkedHashMap<>(counts));
+    }
+
+    static EmpiricalFormula failure(String error) {
+        return new EmpiricalFormula(Map.of(), null, 0.0, 0.0, 0, null, error);
+    }
+
+    public boolean isSolved() {
+        return error == null;
+    }
+}
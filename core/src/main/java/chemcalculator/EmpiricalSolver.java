@@ -0,0 +1,122 @@
+package chemcalculator;
+
+import java.util.*;
+
+// Empirical formula from mass percentages. Each element's moles (percent / atomic weight) are
+// divided by the smallest, and every ratio is replaced by the simplest fraction p/q within the
+// relative tolerance, found from its continued fraction (the Stern-Brocot descent to the interval)
+// rather than by trying multipliers one by one. The common multiplier is the least common multiple
+// of the denominators. Work is a few arithmetic steps per element, so whole analysis sheets can be
+// run line by line.
+final class EmpiricalSolver {
+    // Largest multiplier an elemental analysis can support; beyond it the data is too noisy
+    static final int MAX_MULTIPLIER = 12;
+
+    private EmpiricalSolver() {}
+
+    static EmpiricalFormula solve(Map<String, Double> percents, double tolerance, double molarMass) {
+        if (percents.isEmpty()) return EmpiricalFormula.failure("No elements given");
+        Map<String, Double> moles = new LinkedHashMap<>();
+        double least = Double.POSITIVE_INFINITY;
+        for (Map.Entry<String, Double> entry : percents.entrySet()) {
+            String element = entry.getKey();
+            if (!Elements.isKnown(element)) return EmpiricalFormula.failure("Unknown element " + element);
+            if (!(entry.getValue() > 0)) return EmpiricalFormula.failure("Percentage of " + element + " must be positive");
+            double n = entry.getValue() / Elements.atomicWeight(element);
+            moles.put(element, n);
+            least = Math.min(least, n);
+        }
+
+        // Simplest fraction for each ratio, and the least common multiple of their denominators
+        Map<String, long[]> fractions = new LinkedHashMap<>();
+        long multiplier = 1;
+        for (Map.Entry<String, Double> entry : moles.entrySet()) {
+            double ratio = entry.getValue() / least;
+            long[] fraction = simplest(ratio * (1 - tolerance), ratio * (1 + tolerance));
+            if (fraction == null || fraction[1] > MAX_MULTIPLIER) {
+                return EmpiricalFormula.failure("No ratio with a multiplier up to " + MAX_MULTIPLIER + " fits "
+                                                + entry.getKey() + " within the tolerance");
+            }
+            fractions.put(entry.getKey(), fraction);
+            multiplier = lcm(multiplier, fraction[1]);
+            if (multiplier > MAX_MULTIPLIER) {
+                return EmpiricalFormula.failure("No common multiplier up to " + MAX_MULTIPLIER + " fits the ratios");
+            }
+        }
+
+        Map<String, Integer> counts = new HashMap<>();
+        double mass = 0.0;
+        double deviation = 0.0;
+        for (Map.Entry<String, long[]> entry : fractions.entrySet()) {
+            String element = entry.getKey();
+            long[] fraction = entry.getValue();
+            int count = (int) (fraction[0] * (multiplier / fraction[1]));
+            counts.put(element, count);
+            mass += count * Elements.atomicWeight(element);
+            double measured = moles.get(element) / least * multiplier;
+            deviation = Math.max(deviation, Math.abs(measured - count) / count);
+        }
+        Map<String, Integer> ordered = Formula.hillOrder(counts);
+        String formula = Formula.text(ordered);
+        if (!(molarMass > 0)) {
+            return new EmpiricalFormula(ordered, formula, mass, deviation, 1, null, null);
+        }
+        // The molecular formula is a whole multiple of the empirical one, to within the tolerance
+        double multiple = molarMass / mass;
+        int factor = (int) Math.max(1, Math.round(multiple));
+        if (Math.abs(multiple - factor) / factor > tolerance) {
+            return EmpiricalFormula.failure(String.format("Molar mass %.2f g/mol is not a whole multiple of the "
+                                                          + "empirical formula mass %.2f g/mol", molarMass, mass));
+        }
+        Map<String, Integer> molecular = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : ordered.entrySet()) {
+            molecular.put(entry.getKey(), entry.getValue() * factor);
+        }
+        return new EmpiricalFormula(ordered, formula, mass, deviation, factor, Formula.text(molecular), null);
+    }
+
+    // Simplest positive fraction {p, q} in [lo, hi] (smallest q, then smallest p), or null if the
+    // continued fraction runs past the multiplier limit. Walks the continued fraction expansion of
+    // both ends together until they take different terms; the simplest fraction takes the shared
+    // terms plus the smaller differing term + 1 (or just the shared terms when an end is hit).
+    static long[] simplest(double lo, double hi) {
+        // Convergents h/k of the shared terms so far: h = a * h1 + h2, k = a * k1 + k2
+        long h1 = 1, h2 = 0, k1 = 0, k2 = 1;
+        for (int depth = 0; depth < 64; depth++) {
+            double floor = Math.floor(lo);
+            long a;
+            if (floor == lo) {
+                a = (long) floor;                      // lo itself is an integer
+            } else if (floor + 1 <= hi) {
+                a = (long) floor + 1;                  // smallest integer inside (lo, hi]
+            } else {
+                a = -1;                                // both ends share this term
+            }
+            if (a >= 0) {
+                return new long[] {a * h1 + h2, a * k1 + k2};
+            }
+            a = (long) floor;
+            long h = a * h1 + h2;
+            long k = a * k1 + k2;
+            if (k > MAX_MULTIPLIER) return null;
+            h2 = h1; h1 = h;
+            k2 = k1; k1 = k;
+            // Continue with the reciprocals of the fractional parts; the order of the ends flips
+            double nextLo = 1 / (hi - floor);
+            double nextHi = 1 / (lo - floor);
+            lo = nextLo;
+            hi = nextHi;
+        }
+        return null;
+    }
+
+    private static long lcm(long a, long b) {
+        long x = a, y = b;
+        while (y != 0) {
+            long t = x % y;
+            x = y;
+            y = t;
+        }
+        return a / x * b;
+    }
+}
@@ -0,0 +1,165 @@
+package chemcalculator;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.List;
+
+// JDK Flight Recorder events for the engine's expensive steps, so a slow equation shows up in a
+// recording next to GC and JIT activity. Callers follow the usual pattern: begin(), do the work,
+// end(), and only fill in the fields inside shouldCommit(). With recording off shouldCommit() is
+// a constant false after JIT, the event object is scalar-replaced and nothing is formatted.
+final class EngineEvents {
+    private static final String CATEGORY = "Chemistry Calculator";
+
+    private EngineEvents() {}
+
+    @Name("chemcalculator.Parse")
+    @Label("Formula Parse")
+    @Category({CATEGORY, "Parsing"})
+    @StackTrace(false)
+    static final class Parse extends Event {
+        @Label("Input")
+        String input;
+
+        @Label("Kind")
+        @Description("equation, species (with charge and coefficient) or formula (composition only)")
+        String kind;
+
+        @Label("Species")
+        @Description("Species on both sides, for equations")
+        int species;
+
+        @Label("Distinct Elements")
+        int elements;
+
+        @Label("Charge")
+        int charge;
+
+        @Label("Error")
+        String error;
+    }
+
+    @Name("chemcalculator.Balance")
+    @Label("Balance Equation")
+    @Category({CATEGORY, "Balancing"})
+    @StackTrace(false)
+    static final class Balance extends Event {
+        @Label("Equation")
+        String equation;
+
+        @Label("Method")
+        @Description("HALF_REACTION, ALGEBRAIC or NONE (rejected)")
+        String method;
+
+        @Label("Balanced")
+        String balanced;
+
+        @Label("Error")
+        String error;
+    }
+
+    @Name("chemcalculator.RedoxDetection")
+    @Label("Redox Detection")
+    @Category({CATEGORY, "Balancing"})
+    @StackTrace(false)
+    static final class RedoxDetection extends Event {
+        @Label("Equation")
+        String equation;
+
+        @Label("Redox")
+        boolean redox;
+
+        @Label("Oxidized Elements")
+        String oxidized;
+
+        @Label("Reduced Elements")
+        String reduced;
+    }
+
+    @Name("chemcalculator.HalfReactions")
+    @Label("Half-Reaction Construction")
+    @Category({CATEGORY, "Balancing"})
+    @StackTrace(false)
+    static final class HalfReactions extends Event {
+        @Label("Equation")
+        String equation;
+
+        @Label("Half-Reactions")
+        int count;
+
+        @Label("Medium")
+        String medium;
+
+        @Label("Path")
+        @Description("explained, or algebraic when the equation did not split into two half-reactions")
+        String path;
+    }
+
+    @Name("chemcalculator.Elimination")
+    @Label("Matrix Elimination")
+    @Category({CATEGORY, "Balancing"})
+    @StackTrace(false)
+    static final class Elimination extends Event {
+        @Label("Equation")
+        String equation;
+
+        @Label("Rows")
+        @Description("Distinct elements plus the charge row")
+        int rows;
+
+        @Label("Columns")
+        @Description("Species, including added H+/OH-/H2O/e-")
+        int columns;
+
+        @Label("Max Coefficient Bits")
+        @Description("Largest entry bit length during fraction-free elimination")
+        int maxCoefficientBits;
+    }
+
+    @Name("chemcalculator.Naming")
+    @Label("Compound Naming")
+    @Category({CATEGORY, "Naming"})
+    @StackTrace(false)
+    static final class Naming extends Event {
+        @Label("Formula")
+        String formula;
+
+        @Label("Name")
+        String name;
+
+        @Label("Path")
+        @Description("acid, ion, ionic, covalent or fallback (formula returned unchanged)")
+        String path;
+    }
+
+    // Species list as equation text, for events raised below the string entry point
+    static String equationText(List<Compound> reactants, List<Compound> products) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < reactants.size(); i++) {
+            if (i > 0) sb.append(" + ");
+            sb.append(reactants.get(i).formula());
+        }
+        sb.append(" -> ");
+        for (int i = 0; i < products.size(); i++) {
+            if (i > 0) sb.append(" + ");
+            sb.append(products.get(i).formula());
+        }
+        return sb.toString();
+    }
+
+    // Which naming rule produced a name, recovered from the result so the namer itself stays untouched
+    static String namingPath(Compound compound, String name) {
+        if (name.equals(compound.formula())) return "fallback";
+        if (name.endsWith(" acid")) return "acid";
+        if (name.endsWith(" ion") || CompoundNamer.POLY_IONS.containsKey(compound.formula())) return "ion";
+        for (String element : compound.composition().keySet()) {
+            if (Elements.isMetal(element)) return "ionic";
+        }
+        return compound.formula().contains("NH4") ? "ionic" : "covalent";
+    }
+}
@@ -0,0 +1,70 @@
+package chemcalculator;
+
+import java.time.Duration;
+
+// Admission limits and work budget of an engine. Input beyond the parse limits is rejected by the
+// lexer before anything is built (ParseResult codes TOO_LONG, TOO_DEEP, TOO_LARGE, TOO_MANY_SPECIES);
+// the balancer refuses oversized matrices up front and abandons an elimination whose entries
+// outgrow maxCoefficientBits or that runs past the time budget. One request can therefore only
+// take a bounded share of a shared engine.
+public record EngineLimits(int maxInputLength,      // characters of one formula or equation
+                           int maxDepth,            // bracket nesting, at most 64
+                           int maxSubscript,        // any single subscript, coefficient or charge
+                           int maxSpecies,          // species in one equation, both sides together
+                           int maxMatrixCells,      // (elements + 1) x species, including added H+/OH-/H2O/e-
+                           int maxCoefficientBits,  // entry size during elimination
+                           long timeBudgetNanos) {  // per balance call
+
+    // Generous for real chemistry (the largest corpus equations use a few percent of each)
+    public static final EngineLimits DEFAULT =
+        new EngineLimits(4096, 16, 100_000, 64, 4096, 1024, Duration.ofMillis(250).toNanos());
+
+    public EngineLimits {
+        if (maxInputLength <= 0 || maxDepth <= 0 || maxSubscript <= 0 || maxSpecies <= 0 || maxMatrixCells <= 0
+            || maxCoefficientBits <= 0 || timeBudgetNanos <= 0) {
+            throw new IllegalArgumentException("Engine limits must be positive");
+        }
+        if (maxDepth > 64) throw new IllegalArgumentException("maxDepth must be at most 64");
+    }
+
+    public EngineLimits withMaxInputLength(int value) {
+        return new EngineLimits(value, maxDepth, maxSubscript, maxSpecies, maxMatrixCells, maxCoefficientBits, timeBudgetNanos);
+    }
+
+    public EngineLimits withMaxDepth(int value) {
+        return new EngineLimits(maxInputLength, value, maxSubscript, maxSpecies, maxMatrixCells, maxCoefficientBits, timeBudgetNanos);
+    }
+
+    public EngineLimits withMaxSubscript(int value) {
+        return new EngineLimits(maxInputLength, maxDepth, value, maxSpecies, maxMatrixCells, maxCoefficientBits, timeBudgetNanos);
+    }
+
+    public EngineLimits withMaxSpecies(int value) {
+        return new EngineLimits(maxInputLength, maxDepth, maxSubscript, value, maxMatrixCells, maxCoefficientBits, timeBudgetNanos);
+    }
+
+    public EngineLimits withMaxMatrixCells(int value) {
+        return new EngineLimits(maxInputLength, maxDepth, maxSubscript, maxSpecies, value, maxCoefficientBits, timeBudgetNanos);
+    }
+
+    public EngineLimits withMaxCoefficientBits(int value) {
+        return new EngineLimits(maxInputLength, maxDepth, maxSubscript, maxSpecies, maxMatrixCells, value, timeBudgetNanos);
+    }
+
+    public EngineLimits withTimeBudget(Duration value) {
+        return new EngineLimits(maxInputLength, maxDepth, maxSubscript, maxSpecies, maxMatrixCells, maxCoefficientBits,
+                                value.toNanos());
+    }
+
+    // Budget of one call, started now
+    Budget start() {
+        return new Budget(this, System.nanoTime() + timeBudgetNanos);
+    }
+
+    // Limits plus the deadline of the call in progress
+    record Budget(EngineLimits limits, long deadline) {
+        boolean expired() {
+            return System.nanoTime() - deadline > 0;
+        }
+    }
+}
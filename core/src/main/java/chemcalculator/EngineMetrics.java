@@ -0,0 +1,242 @@
+package chemcalculator;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// Lock-free latency histograms per engine stage and counters for the balancer's path selection.
+// Recording is a couple of atomic adds, so it stays on in production; readers take a snapshot
+// through JMX (EngineMetricsMXBean) or as text (dump) from the headless modes.
+public final class EngineMetrics implements EngineMetricsMXBean {
+
+    // Timed stages. PARSE..FORMAT are the pieces of a balance call, the rest are whole operations.
+    public enum Stage {
+        PARSE("parse"),                  // splitting the equation and parsing each species
+        OXIDATION("oxidation"),          // oxidation numbers and redox detection
+        HALF_REACTION("halfReaction"),   // deriving the half-reactions of an explained redox equation
+        ELIMINATION("elimination"),      // the exact linear solve (including H+/OH-/H2O/e- retries)
+        FORMAT("format"),                // building the balanced equation text
+        BALANCE("balance"),              // whole balance(equation) call
+        BALANCE_ALGEBRAIC("balanceAlgebraic"),
+        GFM("gfm"),
+        ISOTOPES("isotopes"),
+        FORMULA_SEARCH("formulaSearch"),
+        EMPIRICAL("empirical"),
+        KINETICS("kinetics"),
+        STOICHIOMETRY("stoichiometry"),
+        EQUILIBRIUM("equilibrium"),
+        TITRATION("titration"),
+        CELLS("cells"),
+        NAMING("naming");
+
+        final String key;
+
+        Stage(String key) {
+            this.key = key;
+        }
+    }
+
+    // Point-in-time view of one histogram; latencies in nanoseconds
+    public record Snapshot(long count, double mean, long p50, long p90, long p99, long p999, long max) {}
+
+    private final Histogram[] histograms = new Histogram[Stage.values().length];
+    private final LongAdder redoxPath = new LongAdder();
+    private final LongAdder algebraicPath = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder limited = new LongAdder();
+    private final LongAdder standardHalves = new LongAdder();
+    private final LongAdder derivedHalves = new LongAdder();
+
+    public EngineMetrics() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new Histogram();
+        }
+    }
+
+    // Record the time since startNanos against a stage and return the current time, so
+    // consecutive stages can be chained: t = metrics.record(Stage.PARSE, t);
+    public long record(Stage stage, long startNanos) {
+        long now = System.nanoTime();
+        histograms[stage.ordinal()].record(now - startNanos);
+        return now;
+    }
+
+    void countRedoxPath() { redoxPath.increment(); }
+    void countAlgebraicPath() { algebraicPath.increment(); }
+    void countFallback() { fallbacks.increment(); }
+    void countFailure() { failures.increment(); }
+    void countRejected() { rejected.increment(); }
+    void countLimited() { limited.increment(); }
+    void countStandardHalf() { standardHalves.increment(); }
+    void countDerivedHalf() { derivedHalves.increment(); }
+
+    public Snapshot snapshot(Stage stage) {
+        return histograms[stage.ordinal()].snapshot();
+    }
+
+    @Override
+    public Map<String, Snapshot> getStages() {
+        Map<String, Snapshot> stages = new LinkedHashMap<>();
+        for (Stage stage : Stage.values()) {
+            stages.put(stage.key, snapshot(stage));
+        }
+        return stages;
+    }
+
+    @Override
+    public long getRedoxPathCount() { return redoxPath.sum(); }
+
+    @Override
+    public long getAlgebraicPathCount() { return algebraicPath.sum(); }
+
+    @Override
+    public long getFallbackCount() { return fallbacks.sum(); }
+
+    @Override
+    public long getFailureCount() { return failures.sum(); }
+
+    @Override
+    public long getRejectedCount() { return rejected.sum(); }
+
+    @Override
+    public long getLimitedCount() { return limited.sum(); }
+
+    @Override
+    public long getStandardHalfCount() { return standardHalves.sum(); }
+
+    @Override
+    public long getDerivedHalfCount() { return derivedHalves.sum(); }
+
+    @Override
+    public void reset() {
+        for (Histogram histogram : histograms) {
+            histogram.reset();
+        }
+        redoxPath.reset();
+        algebraicPath.reset();
+        fallbacks.reset();
+        failures.reset();
+        rejected.reset();
+        limited.reset();
+        standardHalves.reset();
+        derivedHalves.reset();
+    }
+
+    // Register with the platform MBean server as chemcalculator:type=EngineMetrics,name=<name>.
+    // Registering the same name twice is a no-op.
+    public void register(String name) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName objectName = new ObjectName("chemcalculator:type=EngineMetrics,name=" + ObjectName.quote(name));
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(this, objectName);
+            }
+        } catch (JMException ex) {
+            throw new IllegalStateException("Cannot register engine metrics: " + ex.getMessage(), ex);
+        }
+    }
+
+    // Plain-text dump: the path and half-reaction counters, then one line per stage that has samples
+    // (latencies in microseconds)
+    public String dump() {
+        StringBuilder out = new StringBuilder(1024);
+        out.append("paths redox=").append(getRedoxPathCount())
+           .append(" algebraic=").append(getAlgebraicPathCount())
+           .append(" fallback=").append(getFallbackCount())
+           .append(" failed=").append(getFailureCount())
+           .append(" rejected=").append(getRejectedCount())
+           .append(" limited=").append(getLimitedCount()).append('\n');
+        out.append("halves standard=").append(getStandardHalfCount())
+           .append(" derived=").append(getDerivedHalfCount()).append('\n');
+        for (Stage stage : Stage.values()) {
+            Snapshot s = snapshot(stage);
+            if (s.count() == 0) continue;
+            out.append(String.format("%-16s count=%d mean=%.1fus p50=%.1fus p90=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus%n",
+                                     stage.key, s.count(), s.mean() / 1e3, s.p50() / 1e3, s.p90() / 1e3,
+                                     s.p99() / 1e3, s.p999() / 1e3, s.max() / 1e3));
+        }
+        return out.toString();
+    }
+
+    // Log-linear histogram in the style of HdrHistogram: values below 32 get their own bucket,
+    // above that every power of two is split into 16 sub-buckets (relative error under 6.25%).
+    // Covers the whole positive long range in 976 buckets.
+    static final class Histogram {
+        private static final int SUB_BITS = 4;
+        private static final int SUB_COUNT = 1 << SUB_BITS;
+        private static final int BUCKETS = (64 - SUB_BITS) * SUB_COUNT + SUB_COUNT;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        void record(long value) {
+            if (value < 0) value = 0;
+            counts.incrementAndGet(bucketOf(value));
+            count.increment();
+            sum.add(value);
+            max.accumulate(value);
+        }
+
+        static int bucketOf(long value) {
+            if (value < SUB_COUNT) return (int) value;
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            return (exponent - SUB_BITS + 1) * SUB_COUNT + (int) ((value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1));
+        }
+
+        // Smallest value that falls into a bucket
+        static long lowerBound(int bucket) {
+            if (bucket < SUB_COUNT) return bucket;
+            int exponent = bucket / SUB_COUNT + SUB_BITS - 1;
+            return (long) (SUB_COUNT + bucket % SUB_COUNT) << (exponent - SUB_BITS);
+        }
+
+        Snapshot snapshot() {
+            // Concurrent recorders may land between these reads; the snapshot is approximate
+            long[] copy = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                copy[i] = counts.get(i);
+                total += copy[i];
+            }
+            if (total == 0) return new Snapshot(0, 0.0, 0, 0, 0, 0, 0);
+            long maxValue = max.get();
+            return new Snapshot(total, (double) sum.sum() / count.sum(),
+                                percentile(copy, total, 0.50, maxValue), percentile(copy, total, 0.90, maxValue),
+                                percentile(copy, total, 0.99, maxValue), percentile(copy, total, 0.999, maxValue),
+                                maxValue);
+        }
+
+        // Upper end of the bucket holding the given fraction of samples, capped at the maximum seen
+        private static long percentile(long[] buckets, long total, double fraction, long maxValue) {
+            long rank = (long) Math.ceil(total * fraction);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    long upper = i + 1 < BUCKETS ? lowerBound(i + 1) - 1 : Long.MAX_VALUE;
+                    return Math.min(upper, maxValue);
+                }
+            }
+            return maxValue;
+        }
+
+        void reset() {
+            for (int i = 0; i < BUCKETS; i++) {
+                counts.set(i, 0);
+            }
+            count.reset();
+            sum.reset();
+            max.reset();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package chemcalculator;
+
+import java.util.Map;
+
+// JMX view of EngineMetrics (chemcalculator:type=EngineMetrics). Stage snapshots appear as
+// composite data keyed by stage name; latencies are in nanoseconds.
+public interface EngineMetricsMXBean {
+    Map<String, EngineMetrics.Snapshot> getStages();
+
+    // balance() calls answered by the half-reaction method: explained redox equations that split
+    // into two half-reactions
+    long getRedoxPathCount();
+
+    // balance() calls answered algebraically: equations without electron transfer, redox equations
+    // not explained or not split into halves, and equations with no positive balance
+    long getAlgebraicPathCount();
+
+    // Explained redox equations that did not split into two half-reactions
+    long getFallbackCount();
+
+    // balance() calls rejected (unparseable equation)
+    long getFailureCount();
+
+    // Equations with no unique positive balance (or results failing the conservation check)
+    long getRejectedCount();
+
+    // Requests refused by an EngineLimits limit: parse admission, matrix size, coefficient growth or time budget
+    long getLimitedCount();
+
+    // Half-reactions of explained redox equations taken pre-balanced from the standard couples
+    long getStandardHalfCount();
+
+    // Half-reactions of explained redox equations balanced on the spot
+    long getDerivedHalfCount();
+
+    void reset();
+}
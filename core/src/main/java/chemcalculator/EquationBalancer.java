@@ -0,0 +1,578 @@
+package chemcalculator;
+
+import java.math.BigInteger;
+import java.util.*;
+
+// Equation balancing by one exact linear solve: a row per element plus a charge row, a column per
+// species, and the balanced coefficients are the (one-dimensional) null space. Ionic equations that
+// cannot balance as written get H+ and H2O (acidic) or OH- and H2O (basic) columns, and bare
+// half-equations an e- column; the solution decides which side those species land on. For redox
+// equations the oxidation and reduction half-reactions are derived afterwards, only when an
+// explanation is requested; halves between standard couples come pre-balanced from a table, and a
+// pair of halves whose species cannot balance alone follows the atoms of the elements that change state.
+// Each call runs under an EngineLimits budget: oversized matrices are refused before elimination and
+// an elimination that outgrows the coefficient or time limit is abandoned.
+// Stateless; every call works on its own data, so it is safe to call from any thread.
+final class EquationBalancer {
+    static final Compound WATER = FormulaParser.parseCompound("H2O", EngineLimits.DEFAULT).orElseThrow();
+    static final Compound PROTON = FormulaParser.parseCompound("H+", EngineLimits.DEFAULT).orElseThrow();
+    static final Compound HYDROXIDE = FormulaParser.parseCompound("OH-", EngineLimits.DEFAULT).orElseThrow();
+
+    // Balanced terms per side, or the reason no balance exists; limited marks an EngineLimits rejection
+    private record Solution(List<BalanceResult.Term> left, List<BalanceResult.Term> right, String error, boolean limited) {
+        static Solution failed(String error) {
+            return new Solution(List.of(), List.of(), error, false);
+        }
+
+        static Solution limited(String error) {
+            return new Solution(List.of(), List.of(), error, true);
+        }
+    }
+
+    // Half-reaction lookup key: source and target species by composition and charge, and the medium
+    private record HalfKey(Map<String, Integer> source, int sourceCharge, Map<String, Integer> target, int targetCharge,
+                           boolean basic) {
+        HalfKey(Compound source, Compound target, Compound medium) {
+            this(source.composition(), source.charge(), target.composition(), target.charge(), medium == HYDROXIDE);
+        }
+    }
+
+    private EquationBalancer() {}
+
+    // Pre-balanced half-reactions of the standard couples, as reductions and as oxidations in both
+    // media, so explaining a redox equation between common couples skips both half-reaction solves.
+    // A holder class, so the table is built when half() first needs it rather than on the first
+    // balance() of any kind.
+    private static final class StandardHalves {
+        // Common couples the explanation meets that have no entry in StandardPotentials (whose table
+        // is the electrochemistry grid and stays as it is)
+        private static final String[][] EXTRA_COUPLES = {
+            {"MnO4-", "MnO2"},
+            {"ClO3-", "Cl2"},
+            {"SO4^2-", "SO3^2-"},
+        };
+
+        static final Map<HalfKey, Solution> TABLE = build();
+
+        private static Map<HalfKey, Solution> build() {
+            Map<HalfKey, Solution> halves = new HashMap<>();
+            for (StandardPotentials.Entry entry : StandardPotentials.all()) {
+                add(halves, entry.oxidized(), entry.reduced());
+            }
+            for (String[] couple : EXTRA_COUPLES) {
+                add(halves, FormulaParser.parseCompound(couple[0], EngineLimits.DEFAULT).orElseThrow(),
+                    FormulaParser.parseCompound(couple[1], EngineLimits.DEFAULT).orElseThrow());
+            }
+            return Map.copyOf(halves);
+        }
+
+        private static void add(Map<HalfKey, Solution> halves, Compound oxidized, Compound reduced) {
+            for (Compound medium : new Compound[] {PROTON, HYDROXIDE}) {
+                BalanceResult half = halfReaction(oxidized, reduced, medium == HYDROXIDE, EngineLimits.DEFAULT.start());
+                if (!half.isBalanced()) continue;
+                halves.put(new HalfKey(oxidized, reduced, medium), new Solution(half.reactants(), half.products(), null, false));
+                halves.put(new HalfKey(reduced, oxidized, medium), new Solution(half.products(), half.reactants(), null, false));
+            }
+        }
+    }
+
+    static BalanceResult balance(String equation, boolean explain, EngineLimits limits, EngineMetrics metrics) {
+        EngineEvents.Balance event = new EngineEvents.Balance();
+        event.begin();
+        BalanceResult result = balanceEquation(equation, explain, limits.start(), metrics);
+        event.end();
+        if (event.shouldCommit()) {
+            event.equation = equation;
+            event.method = result.method().name();
+            event.balanced = result.equation();
+            event.error = result.error();
+            event.commit();
+        }
+        return result;
+    }
+
+    private static BalanceResult balanceEquation(String equation, boolean explain, EngineLimits.Budget budget,
+                                                 EngineMetrics metrics) {
+        long start = System.nanoTime();
+        long t = start;
+        List<String> steps = new ArrayList<>();
+        // One lexer pass over the whole equation; errors carry their column
+        ParseResult<FormulaParser.Equation> parsed = FormulaParser.parseEquation(equation, budget.limits());
+        if (!parsed.ok()) {
+            if (parsed.exceedsLimit()) metrics.countLimited();
+            return failed(metrics, start, BalanceResult.failure(steps, "Error: " + parsed.describe() + "."));
+        }
+        List<Compound> reactants = parsed.value().reactants();
+        List<Compound> products = parsed.value().products();
+        t = metrics.record(EngineMetrics.Stage.PARSE, t);
+
+        // Identify if redox by checking changes in oxidation numbers
+        EngineEvents.RedoxDetection detection = new EngineEvents.RedoxDetection();
+        detection.begin();
+        // An element is oxidized if some product has it in a higher state than every reactant does,
+        // reduced if lower; both at once is disproportionation
+        Map<String, int[]> startOx = oxidationRanges(reactants);
+        Map<String, int[]> endOx = oxidationRanges(products);
+        List<String> oxidizedElements = new ArrayList<>();
+        List<String> reducedElements = new ArrayList<>();
+        for (Map.Entry<String, int[]> entry : startOx.entrySet()) {
+            int[] before = entry.getValue();
+            int[] after = endOx.get(entry.getKey());
+            if (after == null) continue;
+            if (after[1] > before[1]) oxidizedElements.add(entry.getKey());
+            if (after[0] < before[0]) reducedElements.add(entry.getKey());
+        }
+        boolean isRedox = !oxidizedElements.isEmpty() && !reducedElements.isEmpty();
+        t = metrics.record(EngineMetrics.Stage.OXIDATION, t);
+        detection.end();
+        if (detection.shouldCommit()) {
+            detection.equation = equation;
+            detection.redox = isRedox;
+            detection.oxidized = String.join(",", oxidizedElements);
+            detection.reduced = String.join(",", reducedElements);
+            detection.commit();
+        }
+
+        // One exact solve; ionic equations may take up solvent species and electrons
+        Compound medium = isBasic(reactants, products) ? HYDROXIDE : PROTON;
+        Solution solution = solveWithMedium(reactants, products, medium, budget);
+        t = metrics.record(EngineMetrics.Stage.ELIMINATION, t);
+        if (solution.limited()) {
+            metrics.countLimited();
+            return finish(metrics, start, BalanceResult.failure(steps, "Error: Equation rejected: " + solution.error() + "."));
+        }
+        if (solution.error() != null) {
+            if (explain) steps.add("Using algebraic method for balancing:");
+            metrics.countAlgebraicPath();
+            metrics.countRejected();
+            return finish(metrics, start, BalanceResult.failure(steps, "Error: Cannot balance the equation: " + solution.error() + "."));
+        }
+        // Safety net: the solve is exact, so this only trips on a bug
+        String violation = ConservationCheck.check(solution.left(), solution.right());
+        if (violation != null) {
+            metrics.countRejected();
+            return finish(metrics, start, BalanceResult.failure(steps, "Error: No balanced solution found: " + violation + "."));
+        }
+
+        // HALF_REACTION only when the two halves were derived and scaled to these coefficients; a
+        // redox equation that is not explained, or does not split, was balanced algebraically
+        boolean halves = false;
+        if (explain) {
+            if (isRedox) {
+                EngineEvents.HalfReactions construction = new EngineEvents.HalfReactions();
+                construction.begin();
+                List<String> halfSteps = explainHalfReactions(reactants, products, oxidizedElements, reducedElements, medium,
+                                                              budget, metrics);
+                t = metrics.record(EngineMetrics.Stage.HALF_REACTION, t);
+                construction.end();
+                if (construction.shouldCommit()) {
+                    construction.equation = equation;
+                    construction.count = halfSteps == null ? 0 : 2;
+                    construction.medium = medium == HYDROXIDE ? "basic" : "acidic";
+                    construction.path = halfSteps == null ? "algebraic" : "explained";
+                    construction.commit();
+                }
+                if (halfSteps != null) {
+                    halves = true;
+                    steps.add("Redox reaction detected. Using half-reaction method:");
+                    steps.addAll(halfSteps);
+                } else {
+                    metrics.countFallback();
+                    steps.add("Redox reaction detected (" + String.join(", ", oxidizedElements) + " oxidized, "
+                              + String.join(", ", reducedElements) + " reduced); with more than one element changing"
+                              + " state on a side it is not split into two half-reactions.");
+                    steps.add("Using algebraic method for balancing:");
+                }
+            } else {
+                steps.add("Using algebraic method for balancing:");
+            }
+            String added = addedSpecies(solution, reactants, products);
+            if (added != null) steps.add(added);
+        }
+        String balanced = formatEquation(solution.left(), solution.right());
+        steps.add("Balanced Equation: " + balanced);
+        BalanceResult.Method method = halves ? BalanceResult.Method.HALF_REACTION : BalanceResult.Method.ALGEBRAIC;
+        BalanceResult result = new BalanceResult(method, solution.left(), solution.right(), balanced, steps, null);
+        metrics.record(EngineMetrics.Stage.FORMAT, t);
+        if (halves) metrics.countRedoxPath();
+        else        metrics.countAlgebraicPath();
+        return finish(metrics, start, result);
+    }
+
+    // Lowest and highest oxidation state of each element across a side
+    private static Map<String, int[]> oxidationRanges(List<Compound> side) {
+        Map<String, int[]> ranges = new LinkedHashMap<>();
+        for (Compound comp : side) {
+            for (Map.Entry<String, Integer> entry : OxidationStates.assign(comp).entrySet()) {
+                int state = entry.getValue();
+                int[] range = ranges.computeIfAbsent(entry.getKey(), k -> new int[] {state, state});
+                range[0] = Math.min(range[0], state);
+                range[1] = Math.max(range[1], state);
+            }
+        }
+        return ranges;
+    }
+
+    private static BalanceResult finish(EngineMetrics metrics, long start, BalanceResult result) {
+        metrics.record(EngineMetrics.Stage.BALANCE, start);
+        return result;
+    }
+
+    private static BalanceResult failed(EngineMetrics metrics, long start, BalanceResult result) {
+        metrics.countFailure();
+        return finish(metrics, start, result);
+    }
+
+    // Balance already-parsed species as written: element rows plus the charge row, no extra species
+    static BalanceResult balanceNonRedoxReaction(List<Compound> reactants, List<Compound> products,
+                                                 EngineLimits limits, EngineMetrics metrics) {
+        long t = System.nanoTime();
+        List<String> steps = new ArrayList<>();
+        steps.add("Using algebraic method for balancing:");
+        Solution solution = reactants.size() + products.size() > limits.maxSpecies()
+            ? Solution.limited("more than " + limits.maxSpecies() + " species")
+            : solve(reactants, products, List.of(), limits.start());
+        t = metrics.record(EngineMetrics.Stage.ELIMINATION, t);
+        if (solution.limited()) {
+            metrics.countLimited();
+            return BalanceResult.failure(steps, "Error: Equation rejected: " + solution.error() + ".");
+        }
+        if (solution.error() != null) {
+            metrics.countRejected();
+            return BalanceResult.failure(steps, "Error: Cannot balance the equation: " + solution.error() + ".");
+        }
+        String balanced = formatEquation(solution.left(), solution.right());
+        steps.add("Balanced Equation: " + balanced);
+        BalanceResult result = new BalanceResult(BalanceResult.Method.ALGEBRAIC, solution.left(), solution.right(),
+                                                 balanced, steps, null);
+        metrics.record(EngineMetrics.Stage.FORMAT, t);
+        return result;
+    }
+
+    // Try the species as written, then (for ionic equations) with solvent species, electrons, or both.
+    // In the retries H2O, H+ and OH- the user wrote may also change sides, as the added ones do.
+    // The first attempt with a unique positive balance wins; otherwise the first attempt's reason is kept.
+    private static Solution solveWithMedium(List<Compound> reactants, List<Compound> products, Compound medium,
+                                            EngineLimits.Budget budget) {
+        Solution asWritten = solve(reactants, products, List.of(), budget);
+        if (asWritten.error() == null || asWritten.limited() || !isIonic(reactants, products)) return asWritten;
+        List<Compound> fixedReactants = withoutSolvent(reactants);
+        List<Compound> fixedProducts = withoutSolvent(products);
+        if (fixedReactants.isEmpty() || fixedProducts.isEmpty()) return asWritten;
+        List<Compound> solvent = new ArrayList<>();
+        for (Compound comp : List.of(medium, WATER)) {
+            if (!contains(solvent, comp)) solvent.add(comp);
+        }
+        for (Compound comp : reactants) if (isSolvent(comp) && !contains(solvent, comp)) solvent.add(comp);
+        for (Compound comp : products) if (isSolvent(comp) && !contains(solvent, comp)) solvent.add(comp);
+        List<Compound> electrons = missing(reactants, products, Compound.ELECTRON);
+        List<Compound> both = new ArrayList<>(solvent);
+        both.addAll(electrons);
+        for (List<Compound> extras : List.of(solvent, electrons, both)) {
+            if (extras.isEmpty()) continue;
+            Solution solution = extras == electrons ? solve(reactants, products, extras, budget)
+                                                    : solve(fixedReactants, fixedProducts, extras, budget);
+            if (solution.error() == null || solution.limited()) return solution;
+        }
+        return asWritten;
+    }
+
+    private static boolean isSolvent(Compound comp) {
+        return sameSpecies(comp, WATER) || sameSpecies(comp, PROTON) || sameSpecies(comp, HYDROXIDE);
+    }
+
+    private static List<Compound> withoutSolvent(List<Compound> species) {
+        List<Compound> kept = new ArrayList<>(species.size());
+        for (Compound comp : species) {
+            if (!isSolvent(comp)) kept.add(comp);
+        }
+        return kept;
+    }
+
+    // Solve for positive coefficients of the given species. Extra species may take any sign: a
+    // positive coefficient puts them with the reactants, a negative one with the products, zero drops them.
+    private static Solution solve(List<Compound> reactants, List<Compound> products, List<Compound> extras,
+                                  EngineLimits.Budget budget) {
+        List<Compound> columns = new ArrayList<>(reactants.size() + products.size() + extras.size());
+        columns.addAll(reactants);
+        columns.addAll(products);
+        columns.addAll(extras);
+        int n = columns.size();
+        int reactantCount = reactants.size();
+        int given = reactantCount + products.size();
+        // Rows: charge, then elements in order of first appearance
+        Map<String, Integer> rowOf = new LinkedHashMap<>();
+        for (Compound comp : columns) {
+            for (String element : comp.composition().keySet()) {
+                rowOf.putIfAbsent(element, rowOf.size() + 1);
+            }
+        }
+        // Admission: refuse oversized systems before allocating them
+        int cells = (rowOf.size() + 1) * n;
+        if (cells > budget.limits().maxMatrixCells()) {
+            return Solution.limited("it needs a " + (rowOf.size() + 1) + " x " + n + " matrix (limit "
+                                    + budget.limits().maxMatrixCells() + " cells)");
+        }
+        BigInteger[][] matrix = new BigInteger[rowOf.size() + 1][n];
+        for (BigInteger[] row : matrix) Arrays.fill(row, BigInteger.ZERO);
+        for (int j = 0; j < n; j++) {
+            Compound comp = columns.get(j);
+            int sign = j >= reactantCount && j < given ? -1 : 1;
+            matrix[0][j] = BigInteger.valueOf((long) sign * comp.charge());
+            for (Map.Entry<String, Integer> entry : comp.composition().entrySet()) {
+                matrix[rowOf.get(entry.getKey())][j] = BigInteger.valueOf((long) sign * entry.getValue());
+            }
+        }
+        EngineEvents.Elimination event = new EngineEvents.Elimination();
+        event.begin();
+        NullSpace.Kernel kernel = NullSpace.of(matrix, n, budget);
+        event.end();
+        if (event.shouldCommit()) {
+            event.equation = EngineEvents.equationText(reactants, products);
+            event.rows = matrix.length;
+            event.columns = n;
+            event.maxCoefficientBits = kernel.maxBits();
+            event.commit();
+        }
+        if (kernel.exceeded() != null) return Solution.limited(kernel.exceeded());
+        if (kernel.nullity() == 0) return Solution.failed("no coefficients conserve every element and the charge");
+        if (kernel.nullity() > 1) {
+            return Solution.failed("the coefficients are not unique (it combines " + kernel.nullity() + " independent reactions)");
+        }
+        BigInteger[] x = kernel.vector();
+        // Every species as written needs a nonzero coefficient of the same sign
+        int orientation = x[0].signum();
+        for (int j = 0; j < given; j++) {
+            if (x[j].signum() == 0 || x[j].signum() != orientation) {
+                return Solution.failed(columns.get(j).notation() + " would need a zero or negative coefficient");
+            }
+        }
+        List<BalanceResult.Term> left = new ArrayList<>();
+        List<BalanceResult.Term> right = new ArrayList<>();
+        List<BalanceResult.Term> extraLeft = new ArrayList<>();
+        List<BalanceResult.Term> extraRight = new ArrayList<>();
+        for (int j = 0; j < n; j++) {
+            BigInteger value = orientation < 0 ? x[j].negate() : x[j];
+            if (value.signum() == 0) continue;
+            if (value.bitLength() > 31) return Solution.failed("the coefficients are too large");
+            Compound comp = columns.get(j);
+            if (j < reactantCount)       left.add(new BalanceResult.Term(value.intValue(), comp));
+            else if (j < given)          right.add(new BalanceResult.Term(value.intValue(), comp));
+            else if (value.signum() > 0) extraLeft.add(new BalanceResult.Term(value.intValue(), comp));
+            else                         extraRight.add(new BalanceResult.Term(-value.intValue(), comp));
+        }
+        left.addAll(extraLeft);
+        right.addAll(extraRight);
+        return new Solution(left, right, null, false);
+    }
+
+    // One half-reaction as printed and the electrons it transfers
+    private record Half(String equation, int electrons) {}
+
+    // Derive "Oxidation: ..." / "Reduction: ..." steps and the electron multipliers, or null when the
+    // equation does not split into one oxidation and one reduction half-reaction. A half between
+    // whole species comes from the standard table or is balanced with the medium ion, water and
+    // electrons. When either half's species cannot balance alone (H2 -> H2O needs the oxygen of the
+    // other half, KMnO4 -> MnCl2 the chloride) both halves follow the atoms of the element whose
+    // state changes, so the scaled halves still add up to the equation.
+    private static List<String> explainHalfReactions(List<Compound> reactants, List<Compound> products,
+                                                     List<String> oxidized, List<String> reduced, Compound medium,
+                                                     EngineLimits.Budget budget, EngineMetrics metrics) {
+        if (oxidized.size() != 1 || reduced.size() != 1) return null;
+        Compound[] oxidation = halfReactionSpecies(reactants, products, oxidized.get(0), true);
+        Compound[] reduction = halfReactionSpecies(reactants, products, reduced.get(0), false);
+        if (oxidation == null || reduction == null) return null;
+        Half ox = half(oxidation, true, medium, budget, metrics);
+        Half red = half(reduction, false, medium, budget, metrics);
+        if (ox == null || red == null) {
+            ox = elementHalf(oxidation, oxidized.get(0), true);
+            red = elementHalf(reduction, reduced.get(0), false);
+        }
+        if (ox.electrons() == 0 || red.electrons() == 0) return null;
+        List<String> steps = new ArrayList<>();
+        steps.add("Oxidation: " + ox.equation());
+        steps.add("Reduction: " + red.equation());
+        int transferred = lcm(ox.electrons(), red.electrons());
+        if (ox.electrons() != red.electrons()) {
+            steps.add("Multiply the oxidation by " + transferred / ox.electrons() + " and the reduction by "
+                      + transferred / red.electrons() + " so " + transferred + " electrons are transferred");
+        }
+        return steps;
+    }
+
+    // Reactant and product species that carry an element through its change in oxidation state.
+    // With disproportionation the same reactant feeds both halves and the products are told apart
+    // by oxidation state.
+    private static Compound[] halfReactionSpecies(List<Compound> reactants, List<Compound> products,
+                                                  String element, boolean oxidation) {
+        for (Compound src : reactants) {
+            if (!src.composition().containsKey(element)) continue;
+            int before = OxidationStates.assign(src).getOrDefault(element, 0);
+            for (Compound dst : products) {
+                if (!dst.composition().containsKey(element)) continue;
+                int after = OxidationStates.assign(dst).getOrDefault(element, 0);
+                if (oxidation ? after > before : after < before) return new Compound[] {src, dst};
+            }
+        }
+        return null;
+    }
+
+    // The standard couple's pre-balanced half-reaction, src -> dst derived by solveHalf, or null when
+    // neither balances
+    private static Half half(Compound[] species, boolean oxidation, Compound medium, EngineLimits.Budget budget,
+                             EngineMetrics metrics) {
+        Solution solution = StandardHalves.TABLE.get(new HalfKey(species[0], species[1], medium));
+        if (solution != null) {
+            metrics.countStandardHalf();
+        } else {
+            metrics.countDerivedHalf();
+            solution = solveHalf(species, medium, budget);
+            if (solution == null) return null;
+        }
+        int electrons = oxidation ? electrons(solution.right()) : electrons(solution.left());
+        return new Half(formatEquation(solution.left(), solution.right()), electrons);
+    }
+
+    // Half-reaction of the element's atoms alone, with each atom written in its oxidation state,
+    // e.g. "H2 -> 2 H(+1) + 2 e-" or "Mn(+7) + 5 e- -> Mn(+2)". An elemental species (H2, O2, Fe)
+    // keeps its formula; the atom count is the least that keeps elemental species whole.
+    private static Half elementHalf(Compound[] species, String element, boolean oxidation) {
+        int before = OxidationStates.assign(species[0]).getOrDefault(element, 0);
+        int after = OxidationStates.assign(species[1]).getOrDefault(element, 0);
+        int srcAtoms = isElemental(species[0], element) ? species[0].composition().get(element) : 1;
+        int dstAtoms = isElemental(species[1], element) ? species[1].composition().get(element) : 1;
+        int atoms = lcm(srcAtoms, dstAtoms);
+        int electrons = atoms * Math.abs(after - before);
+        String left = atomTerm(species[0], element, before, atoms, srcAtoms);
+        String right = atomTerm(species[1], element, after, atoms, dstAtoms);
+        String transfer = (electrons == 1 ? "" : electrons + " ") + "e-";
+        String equation = oxidation ? left + " -> " + right + " + " + transfer
+                                    : left + " + " + transfer + " -> " + right;
+        return new Half(equation, electrons);
+    }
+
+    private static boolean isElemental(Compound compound, String element) {
+        return compound.charge() == 0 && compound.composition().size() == 1 && compound.composition().containsKey(element);
+    }
+
+    // "2 H2", "Fe" or "2 H(+1)"
+    private static String atomTerm(Compound compound, String element, int state, int atoms, int perUnit) {
+        int count = atoms / perUnit;
+        String coefficient = count == 1 ? "" : count + " ";
+        if (perUnit > 1 || isElemental(compound, element)) return coefficient + compound.notation();
+        return coefficient + element + "(" + (state > 0 ? "+" : "") + state + ")";
+    }
+
+    // Balance src -> dst with the medium ion and electrons, adding water only when those alone have
+    // no unique balance (O2/H2O2 is unique without water, ambiguous with); null if neither has one.
+    // The one routine behind both the standard table and derived halves.
+    private static Solution solveHalf(Compound[] species, Compound medium, EngineLimits.Budget budget) {
+        List<Compound> reactant = List.of(species[0]);
+        List<Compound> product = List.of(species[1]);
+        Solution solution = solve(reactant, product, missing(reactant, product, medium, Compound.ELECTRON), budget);
+        if (solution.error() != null) {
+            solution = solve(reactant, product, missing(reactant, product, WATER, medium, Compound.ELECTRON), budget);
+        }
+        return solution.error() == null ? solution : null;
+    }
+
+    // Half-reaction oxidized + n e- -> reduced, balanced with water and H+ (OH- when basic) the same
+    // way the half-reaction explanation balances its halves (solveHalf); a failure result when it has
+    // no unique balance or the electrons do not end up with the oxidized form. Solves within budget,
+    // which the caller may share across several couples.
+    static BalanceResult halfReaction(Compound oxidized, Compound reduced, boolean basic, EngineLimits.Budget budget) {
+        Compound medium = basic ? HYDROXIDE : PROTON;
+        Solution solution = solveHalf(new Compound[] {oxidized, reduced}, medium, budget);
+        List<String> steps = new ArrayList<>();
+        String couple = oxidized.notation() + "/" + reduced.notation();
+        if (solution == null) return BalanceResult.failure(steps, "Error: " + couple + " has no unique half-reaction.");
+        if (electrons(solution.left()) == 0) {
+            return BalanceResult.failure(steps, "Error: " + couple + " is not a reduction.");
+        }
+        return new BalanceResult(BalanceResult.Method.HALF_REACTION, solution.left(), solution.right(),
+                                 formatEquation(solution.left(), solution.right()), steps, null);
+    }
+
+    static int electrons(List<BalanceResult.Term> side) {
+        for (BalanceResult.Term term : side) {
+            if (term.compound() == Compound.ELECTRON) return term.coefficient();
+        }
+        return 0;
+    }
+
+    // Step describing solvent species and electrons the solve added (or moved), or null if none were needed
+    private static String addedSpecies(Solution solution, List<Compound> reactants, List<Compound> products) {
+        List<String> added = new ArrayList<>();
+        for (BalanceResult.Term term : solution.left()) {
+            if (!contains(reactants, term.compound())) added.add(term.compound().notation());
+        }
+        for (BalanceResult.Term term : solution.right()) {
+            if (!contains(products, term.compound())) added.add(term.compound().notation());
+        }
+        if (added.isEmpty()) return null;
+        String medium = added.contains(HYDROXIDE.notation()) ? " (basic solution)"
+                      : added.contains(PROTON.notation()) ? " (acidic solution)" : "";
+        String list = added.size() == 1 ? added.get(0)
+                    : String.join(", ", added.subList(0, added.size() - 1)) + " and " + added.get(added.size() - 1);
+        return "Added " + list + medium + " to balance atoms and charge";
+    }
+
+    // Candidate species that do not already appear in the equation
+    private static List<Compound> missing(List<Compound> reactants, List<Compound> products, Compound... candidates) {
+        List<Compound> missing = new ArrayList<>();
+        for (Compound candidate : candidates) {
+            if (!contains(reactants, candidate) && !contains(products, candidate)) missing.add(candidate);
+        }
+        return missing;
+    }
+
+    private static boolean contains(List<Compound> species, Compound candidate) {
+        for (Compound comp : species) {
+            if (sameSpecies(comp, candidate)) return true;
+        }
+        return false;
+    }
+
+    private static boolean sameSpecies(Compound a, Compound b) {
+        return a.charge() == b.charge() && a.composition().equals(b.composition());
+    }
+
+    private static boolean isIonic(List<Compound> reactants, List<Compound> products) {
+        for (Compound comp : reactants) if (comp.charge() != 0) return true;
+        for (Compound comp : products) if (comp.charge() != 0) return true;
+        return false;
+    }
+
+    // Basic solution when hydroxide appears anywhere in the equation
+    private static boolean isBasic(List<Compound> reactants, List<Compound> products) {
+        return contains(reactants, HYDROXIDE) || contains(products, HYDROXIDE);
+    }
+
+    // "coef Species + ... -> coef Species + ..." (coefficient 1 is not printed); species keep the state
+    // label they were written with
+    static String formatEquation(List<BalanceResult.Term> left, List<BalanceResult.Term> right) {
+        StringBuilder sb = new StringBuilder();
+        appendSide(sb, left);
+        sb.append(" -> ");
+        appendSide(sb, right);
+        return sb.toString();
+    }
+
+    private static void appendSide(StringBuilder sb, List<BalanceResult.Term> terms) {
+        for (int i = 0; i < terms.size(); i++) {
+            BalanceResult.Term term = terms.get(i);
+            if (i > 0) sb.append(" + ");
+            if (term.coefficient() != 1) sb.append(term.coefficient()).append(' ');
+            sb.append(term.compound().labeled());
+        }
+    }
+
+    private static int lcm(int a, int b) {
+        if (a == 0 || b == 0) return 0;
+        return Math.abs(a / gcd(a, b) * b);
+    }
+
+    static int gcd(int a, int b) {
+        return BigInteger.valueOf(a).gcd(BigInteger.valueOf(b)).intValue();
+    }
+}
@@ -0,0 +1,454 @@
+package chemcalculator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Single-pass tokenizer for equation and species text. Each species comes out as its coefficient,
+// the [start, end) span of the formula, its charge and its state label; the arrow splits the sides.
+// Charge rules:
+//   "SO4^2-", "Ag^+1", "SO4(2-)"  explicit charge, the formula keeps its digits
+//   "MnO4-", "NH4+"               charge of one
+//   "Fe3+", "O2-"                 a single element symbol with digits: the digits are the charge
+// A '+' or '-' written directly after a formula is its charge unless the next formula (or its
+// coefficient) follows, immediately or after whitespace, so "Fe3+ + MnO4-", "H2+O2" and "N2+ H2"
+// all lex as two species. A charge that must stand before a following formula is written
+// explicitly: "Fe^3+", "Fe(3+)" or "Fe+3".
+// Problems come back as a ParseResult code, message and character offset; nothing is thrown.
+// Not thread-safe; every lex call uses its own instance.
+final class EquationLexer {
+    private static final String[] STATES = {"aq", "s", "l", "g"};
+
+    // One species as written; state is null when no (s)/(l)/(g)/(aq) label follows
+    record Species(int coefficient, int start, int end, int charge, String state, boolean electron) {}
+
+    // Species per side; on failure code and message are set and offset points at the offending character
+    record Lexed(List<Species> reactants, List<Species> products, ParseResult.Code code, String message, int offset) {
+        static Lexed failed(ParseResult.Code code, String message, int offset) {
+            return new Lexed(List.of(), List.of(), code, message, offset);
+        }
+
+        <T> ParseResult<T> failure() {
+            return ParseResult.failed(code, message, offset);
+        }
+    }
+
+    private final String text;
+    private final int length;
+    private final EngineLimits limits;
+    private int pos;
+    private int speciesCount;
+    private ParseResult.Code error;
+    private String errorMessage;
+    private int errorOffset;
+    // Set by charge() when "Fe3+" style digits were taken as the charge
+    private boolean chargeFromDigits;
+    private int symbolEnd;
+
+    private EquationLexer(String text, EngineLimits limits) {
+        this.text = text;
+        this.length = text.length();
+        this.limits = limits;
+    }
+
+    // Cheap admission check before any scanning; null when the text is short enough
+    private static Lexed tooLong(String text, EngineLimits limits) {
+        if (text.length() <= limits.maxInputLength()) return null;
+        return Lexed.failed(ParseResult.Code.TOO_LONG, "Input is longer than " + limits.maxInputLength() + " characters",
+                            limits.maxInputLength());
+    }
+
+    // "reactants -> products"; the arrow may be ->, =, <->, <=>, => or the Unicode arrows
+    static Lexed lexEquation(String equation, EngineLimits limits) {
+        Lexed rejected = tooLong(equation, limits);
+        if (rejected != null) return rejected;
+        EquationLexer lexer = new EquationLexer(equation, limits);
+        if (equation.isBlank()) return Lexed.failed(ParseResult.Code.EMPTY, "Nothing to balance", 0);
+        List<Species> reactants = new ArrayList<>();
+        List<Species> products = new ArrayList<>();
+        if (!lexer.side(reactants, "reactant")) return lexer.failure();
+        int arrowAt = lexer.pos;
+        if (lexer.pos >= lexer.length) {
+            return Lexed.failed(ParseResult.Code.ARROW, "Equation must have a single '->' (or '=') separating reactants and products", arrowAt);
+        }
+        lexer.arrow();
+        if (!lexer.side(products, "product")) return lexer.failure();
+        if (lexer.pos < lexer.length) {
+            return Lexed.failed(ParseResult.Code.ARROW, "Equation must have a single '->' (or '=') separating reactants and products", lexer.pos);
+        }
+        return new Lexed(reactants, products, null, null, -1);
+    }
+
+    // One species with an optional leading coefficient, e.g. "2 SO4^2-" or "Fe3+(aq)"
+    static Lexed lexSpecies(String text, EngineLimits limits) {
+        Lexed rejected = tooLong(text, limits);
+        if (rejected != null) return rejected;
+        EquationLexer lexer = new EquationLexer(text, limits);
+        if (text.isBlank()) return Lexed.failed(ParseResult.Code.EMPTY, "No formula given", 0);
+        lexer.skipSpace();
+        Species species = lexer.species();
+        if (species == null) return lexer.failure();
+        lexer.skipSpace();
+        if (lexer.pos < lexer.length) {
+            return Lexed.failed(ParseResult.Code.UNEXPECTED_CHARACTER,
+                                "Unexpected '" + text.charAt(lexer.pos) + "' after the formula", lexer.pos);
+        }
+        return new Lexed(List.of(species), List.of(), null, null, -1);
+    }
+
+    // A formula without coefficient, e.g. "Ca(NO3)2"; a trailing charge or state ("SO4^2-", "NaCl(s)")
+    // is accepted so ions can be weighed. Whitespace around it is allowed.
+    static Lexed lexFormula(String text, EngineLimits limits) {
+        Lexed rejected = tooLong(text, limits);
+        if (rejected != null) return rejected;
+        EquationLexer lexer = new EquationLexer(text, limits);
+        if (text.isBlank()) return Lexed.failed(ParseResult.Code.EMPTY, "No formula given", 0);
+        lexer.skipSpace();
+        int start = lexer.pos;
+        char first = text.charAt(start);
+        if (!isUpper(first) && first != '(' && first != '[') {
+            return Lexed.failed(ParseResult.Code.UNEXPECTED_CHARACTER, "Expected a formula but found '" + first + "'", start);
+        }
+        int end = lexer.formula(start);
+        if (end < 0) return lexer.failure();
+        int charge = lexer.charge(start, end);
+        if (lexer.error != null) return lexer.failure();
+        if (lexer.chargeFromDigits) end = lexer.symbolEnd;
+        String state = lexer.state();
+        lexer.skipSpace();
+        if (lexer.pos < lexer.length) {
+            return Lexed.failed(ParseResult.Code.UNEXPECTED_CHARACTER,
+                                "Unexpected '" + text.charAt(lexer.pos) + "' in the formula", lexer.pos);
+        }
+        return new Lexed(List.of(new Species(1, start, end, charge, state, false)), List.of(), null, null, -1);
+    }
+
+    private Lexed failure() {
+        return Lexed.failed(error, errorMessage, errorOffset);
+    }
+
+    private boolean fail(ParseResult.Code code, String message, int offset) {
+        error = code;
+        errorMessage = message;
+        errorOffset = offset;
+        return false;
+    }
+
+    // species ('+' species)* up to the arrow or the end of the text
+    private boolean side(List<Species> out, String what) {
+        skipSpace();
+        if (pos >= length || atArrow()) {
+            return fail(ParseResult.Code.EMPTY_SIDE, "The " + what + " side is empty", pos);
+        }
+        while (true) {
+            int speciesAt = pos;
+            Species species = species();
+            if (species == null) return false;
+            if (++speciesCount > limits.maxSpecies()) {
+                return fail(ParseResult.Code.TOO_MANY_SPECIES, "More than " + limits.maxSpecies() + " species", speciesAt);
+            }
+            out.add(species);
+            skipSpace();
+            if (pos >= length || atArrow()) return true;
+            if (text.charAt(pos) != '+') {
+                return fail(ParseResult.Code.UNEXPECTED_CHARACTER, "Expected '+' or '->' but found '" + text.charAt(pos) + "'", pos);
+            }
+            int plusAt = pos++;
+            skipSpace();
+            if (pos >= length || atArrow()) {
+                return fail(ParseResult.Code.MISSING_SPECIES, "Expected a species after '+'", plusAt);
+            }
+        }
+    }
+
+    private boolean atArrow() {
+        char c = text.charAt(pos);
+        if (c == '=' || c == '→' || c == '⇌' || c == '⇄') return true;
+        if (c == '-') return peek(1) == '>';
+        if (c == '<') return (peek(1) == '-' || peek(1) == '=') && peek(2) == '>';
+        return false;
+    }
+
+    private void arrow() {
+        char c = text.charAt(pos);
+        if (c == '<') pos += 3;
+        else if (c == '-') pos += 2;
+        else if (c == '=' && peek(1) == '>') pos += 2;
+        else pos++;
+    }
+
+    private Species species() {
+        int coefficient = 1;
+        if (isDigit(peek(0))) {
+            int digitsAt = pos;
+            coefficient = number();
+            if (error != null) return null;
+            if (coefficient <= 0) {
+                fail(ParseResult.Code.BAD_COEFFICIENT, "Coefficient must be a positive integer", digitsAt);
+                return null;
+            }
+            skipSpace();
+        }
+        int start = pos;
+        if (pos >= length) {
+            fail(ParseResult.Code.MISSING_SPECIES, "Expected a formula", pos);
+            return null;
+        }
+        char first = text.charAt(pos);
+        if (first == 'e' && (peek(1) == '-' || peek(1) == '^')) {
+            // Electron: "e-" (or "e^-")
+            pos++;
+            int charge = charge(start, pos);
+            if (error != null) return null;
+            if (charge != -1) {
+                fail(ParseResult.Code.BAD_CHARGE, "An electron has charge -1", start);
+                return null;
+            }
+            return new Species(coefficient, start, pos, -1, state(), true);
+        }
+        if (!isUpper(first) && first != '(' && first != '[') {
+            fail(ParseResult.Code.UNEXPECTED_CHARACTER, "Expected a formula but found '" + first + "'", pos);
+            return null;
+        }
+        int end = formula(start);
+        if (end < 0) return null;
+        int charge = charge(start, end);
+        if (error != null) return null;
+        if (chargeFromDigits) {
+            // "Fe3+": the digits after the symbol were the charge magnitude, not a subscript
+            end = symbolEnd;
+        }
+        return new Species(coefficient, start, end, charge, state(), false);
+    }
+
+    // Scan the formula body; returns its end offset or -1 after reporting an error. A top-level
+    // "(2-)" or "(aq)" ends the formula instead of opening a group.
+    private int formula(int start) {
+        // Bracket stack as bits: 1 for '[', 0 for '('
+        long brackets = 0;
+        int depth = 0;
+        int outerOpen = -1;
+        while (pos < length) {
+            char c = text.charAt(pos);
+            if (isUpper(c) || isLower(c) || c == '·' || c == '*' || c == '.') {
+                pos++;
+            } else if (isDigit(c)) {
+                number();
+                if (error != null) return -1;
+            } else if (c == '(' || c == '[') {
+                if (depth == 0 && pos > start && c == '(' && (stateLength() > 0 || parenChargeLength() > 0)) break;
+                if (depth == limits.maxDepth()) {
+                    fail(ParseResult.Code.TOO_DEEP, "Brackets are nested deeper than " + limits.maxDepth() + " levels", pos);
+                    return -1;
+                }
+                brackets = (brackets << 1) | (c == '[' ? 1 : 0);
+                if (depth++ == 0) outerOpen = pos;
+                pos++;
+            } else if (c == ')' || c == ']') {
+                if (depth == 0) {
+                    fail(ParseResult.Code.UNMATCHED_BRACKET, "Unmatched '" + c + "'", pos);
+                    return -1;
+                }
+                if (((brackets & 1) == 1) != (c == ']')) {
+                    fail(ParseResult.Code.UNMATCHED_BRACKET, "Mismatched '" + c + "'", pos);
+                    return -1;
+                }
+                brackets >>>= 1;
+                depth--;
+                pos++;
+            } else {
+                break;
+            }
+        }
+        if (depth != 0) {
+            fail(ParseResult.Code.UNCLOSED_BRACKET, "Unclosed '" + text.charAt(outerOpen) + "'", outerOpen);
+            return -1;
+        }
+        return pos;
+    }
+
+    // Optional charge after the formula at [start, end); 0 when none is written
+    private int charge(int start, int end) {
+        chargeFromDigits = false;
+        if (pos >= length) return 0;
+        char c = text.charAt(pos);
+        if (c == '^') {
+            int caretAt = pos++;
+            int magnitude = 1;
+            int sign;
+            if (isDigit(peek(0))) {
+                magnitude = number();
+                sign = sign();
+            } else {
+                sign = sign();
+                if (sign != 0 && isDigit(peek(0))) magnitude = number();
+            }
+            if (sign == 0) {
+                fail(ParseResult.Code.BAD_CHARGE, "Expected '+' or '-' in the charge", caretAt);
+                return 0;
+            }
+            return sign * magnitude;
+        }
+        if (c == '(') {
+            int chargeLength = parenChargeLength();
+            if (chargeLength == 0) return 0;
+            pos++;
+            int magnitude = 1;
+            int sign;
+            if (isDigit(peek(0))) {
+                magnitude = number();
+                sign = sign();
+            } else {
+                sign = sign();
+                if (isDigit(peek(0))) magnitude = number();
+            }
+            pos++; // ')'
+            return sign * magnitude;
+        }
+        if (c == '-' && peek(1) == '>') return 0;
+        if (c != '+' && c != '-') return 0;
+        // A '+' directly followed by the next formula or coefficient separates species ("H2+O2")
+        int digitsEnd = pos + 1;
+        while (digitsEnd < length && isDigit(text.charAt(digitsEnd))) digitsEnd++;
+        char next = digitsEnd < length ? text.charAt(digitsEnd) : '\0';
+        if (c == '+' && (isUpper(next) || next == '[' || (next == '(' && !isStateAt(digitsEnd)))) {
+            return 0;
+        }
+        // A bare '+', whitespace, then a formula or coefficient: "N2+ H2", "N2+ 3 H2"
+        if (c == '+' && digitsEnd == pos + 1 && Character.isWhitespace(next) && speciesAfterSpace(digitsEnd)) {
+            return 0;
+        }
+        pos++;
+        int sign = c == '+' ? 1 : -1;
+        // "Fe+3": sign first, then the magnitude
+        if (digitsEnd > pos) return sign * number();
+        // "Fe3+": one element symbol followed only by digits carries the charge magnitude
+        int symbol = start + 1;
+        if (symbol < end && isLower(text.charAt(symbol))) symbol++;
+        if (symbol < end && isUpper(text.charAt(start)) && allDigits(symbol, end)) {
+            chargeFromDigits = true;
+            symbolEnd = symbol;
+            return sign * parseInt(symbol, end);
+        }
+        return sign;
+    }
+
+    // Whether whitespace at at is followed by the start of a formula, with or without a coefficient
+    private boolean speciesAfterSpace(int at) {
+        while (at < length && Character.isWhitespace(text.charAt(at))) at++;
+        while (at < length && isDigit(text.charAt(at))) at++;
+        while (at < length && Character.isWhitespace(text.charAt(at))) at++;
+        if (at >= length) return false;
+        char c = text.charAt(at);
+        return isUpper(c) || c == '[' || (c == '(' && !isStateAt(at));
+    }
+
+    // Optional (s), (l), (g) or (aq) label
+    private String state() {
+        int labelLength = stateLength();
+        if (labelLength == 0) return null;
+        String label = text.substring(pos + 1, pos + 1 + labelLength);
+        pos += labelLength + 2;
+        return label;
+    }
+
+    private int stateLength() {
+        return stateLengthAt(pos);
+    }
+
+    private boolean isStateAt(int at) {
+        return stateLengthAt(at) > 0;
+    }
+
+    private int stateLengthAt(int at) {
+        if (at >= length || text.charAt(at) != '(') return 0;
+        for (String state : STATES) {
+            int close = at + 1 + state.length();
+            if (close < length && text.charAt(close) == ')' && text.startsWith(state, at + 1)) {
+                return state.length();
+            }
+        }
+        return 0;
+    }
+
+    // Length of a "(2-)", "(+)" or "(+3)" charge at pos, 0 if there is none
+    private int parenChargeLength() {
+        int i = pos + 1;
+        boolean digits = false;
+        boolean sign = false;
+        while (i < length && isDigit(text.charAt(i))) {
+            i++;
+            digits = true;
+        }
+        if (i < length && (text.charAt(i) == '+' || text.charAt(i) == '-')) {
+            i++;
+            sign = true;
+        }
+        if (!digits) {
+            while (i < length && isDigit(text.charAt(i))) i++;
+        }
+        if (!sign || i >= length || text.charAt(i) != ')') return 0;
+        return i - pos + 1;
+    }
+
+    private int sign() {
+        char c = peek(0);
+        if (c == '+') {
+            pos++;
+            return 1;
+        }
+        if (c == '-' && peek(1) != '>') {
+            pos++;
+            return -1;
+        }
+        return 0;
+    }
+
+    // Digits at pos; values above maxSubscript are reported as TOO_LARGE
+    private int number() {
+        int start = pos;
+        while (pos < length && isDigit(text.charAt(pos))) pos++;
+        int value = parseInt(start, pos);
+        if (value > limits.maxSubscript()) {
+            fail(ParseResult.Code.TOO_LARGE, "Number is larger than " + limits.maxSubscript(), start);
+        }
+        return value;
+    }
+
+    // Saturates instead of overflowing; number() rejects anything above the subscript limit
+    private int parseInt(int from, int to) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            value = Math.min(value * 10 + (text.charAt(i) - '0'), Integer.MAX_VALUE);
+        }
+        return (int) value;
+    }
+
+    private boolean allDigits(int from, int to) {
+        if (from >= to) return false;
+        for (int i = from; i < to; i++) {
+            if (!isDigit(text.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    private void skipSpace() {
+        while (pos < length && Character.isWhitespace(text.charAt(pos))) pos++;
+    }
+
+    private char peek(int ahead) {
+        int i = pos + ahead;
+        return i < length ? text.charAt(i) : '\0';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isUpper(char c) {
+        return c >= 'A' && c <= 'Z';
+    }
+
+    private static boolean isLower(char c) {
+        return c >= 'a' && c <= 'z';
+    }
+}
@@ -0,0 +1,250 @@
+package chemcalculator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Equilibrium concentrations of a balanced reaction from K and initial concentrations (an ICE
+// table). Species are the reactants then the products, with stoichiometric numbers -a (reactants)
+// and +c (products); a species whose initial concentration is NaN (a pure solid, liquid or the
+// solvent) has activity 1 and stays out of K. Species labelled (s) or (l) in the equation are always
+// taken as pure, whatever initial concentration is passed for them. The reaction extent x solves
+//     f(x) = sum(nu_i * ln(c0_i + nu_i * x)) - ln K = 0
+// on the interval where every concentration is positive. f is strictly increasing there
+// (f' = sum(nu_i^2 / c_i) > 0), so a Newton step that would leave the bracket is replaced by a
+// bisection step and the iteration always converges. Before iterating, the origin is moved to
+// the end of the interval the root lies nearer to (the reaction run to completion in that
+// direction), so a species that nearly runs out is computed as nu * x from a tiny x rather than as
+// a difference of nearly equal concentrations. Solving works on primitive arrays allocated once
+// per call or sweep, not per iteration. Immutable and safe to share between threads.
+public final class Equilibrium {
+    // One species row of an ICE table (concentrations in mol/L)
+    public record Row(String formula, double initial, double change, double equilibrium) {}
+
+    // Solved table; rows follow the balanced equation (reactants, then products)
+    public record Table(String equation, double k, double extent, List<Row> rows) {
+        public Table {
+            rows = List.copyOf(rows);
+        }
+    }
+
+    private static final int MAX_ITERATIONS = 200;
+
+    private final BalanceResult reaction;
+    private final String[] formulas;
+    private final int[] nu;
+    private final boolean[] pure;   // labelled (s) or (l): activity 1
+    private final SpeciesIndex index;
+
+    Equilibrium(BalanceResult reaction) {
+        if (!reaction.isBalanced()) throw new IllegalArgumentException(reaction.reason());
+        this.reaction = reaction;
+        int r = reaction.reactants().size();
+        int n = r + reaction.products().size();
+        formulas = new String[n];
+        nu = new int[n];
+        pure = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            BalanceResult.Term term = i < r ? reaction.reactants().get(i) : reaction.products().get(i - r);
+            formulas[i] = term.compound().notation();
+            nu[i] = i < r ? -term.coefficient() : term.coefficient();
+            pure[i] = term.compound().isCondensed();
+        }
+        List<Compound> species = new ArrayList<>(n);
+        for (BalanceResult.Term term : reaction.reactants()) species.add(term.compound());
+        for (BalanceResult.Term term : reaction.products()) species.add(term.compound());
+        index = new SpeciesIndex(species);
+    }
+
+    public BalanceResult reaction() {
+        return reaction;
+    }
+
+    public int speciesCount() {
+        return formulas.length;
+    }
+
+    // Index of a species written as formula (reactants first), or -1
+    public int speciesIndex(String formula) {
+        return index.indexOf(formula);
+    }
+
+    // ICE table for one set of initial concentrations (NaN for species outside K)
+    public Table solve(double k, double[] initial) {
+        double[] equilibrium = new double[formulas.length];
+        double extent = sweep(k, initial, 1, equilibrium, null);
+        List<Row> rows = new ArrayList<>(formulas.length);
+        for (int i = 0; i < formulas.length; i++) {
+            double c0 = pure[i] ? Double.NaN : initial[i];
+            rows.add(new Row(formulas[i], c0, Double.isNaN(c0) ? Double.NaN : nu[i] * extent, equilibrium[i]));
+        }
+        return new Table(reaction.equation(), k, extent, rows);
+    }
+
+    // ICE table from a list such as "1.0 M H2, 1.0 M I2, pure H2O"; species not listed start at 0 M,
+    // except those labelled (s) or (l), which are pure. Throws IllegalArgumentException for a
+    // malformed list, a species not in the reaction or a concentration given for a labelled solid
+    // or liquid.
+    public Table solve(double k, String initial) {
+        return solve(k, QueryField.of(initial)).orElseThrow();
+    }
+
+    ParseResult<Table> solve(double k, QueryField initial) {
+        double[] c0 = new double[formulas.length];
+        for (int i = 0; i < c0.length; i++) {
+            if (pure[i]) c0[i] = Double.NaN;
+        }
+        for (QueryField item : initial.split(',')) {
+            List<QueryField> tokens = item.tokens();
+            if (tokens.size() == 2 && tokens.get(0).is("pure")) {
+                int i = speciesIndex(tokens.get(1).text());
+                if (i < 0) return notInReaction(tokens.get(1));
+                c0[i] = Double.NaN;
+                continue;
+            }
+            if (tokens.size() < 3 || !tokens.get(1).is("M")) {
+                return item.error(QueryError.BAD_FIELD, "Expected '<concentration> M <formula>' or 'pure <formula>'");
+            }
+            ParseResult<Double> c = tokens.get(0).number("concentration");
+            if (!c.ok()) return c.cast();
+            if (c.value() < 0) return tokens.get(0).error(QueryError.BAD_NUMBER, "Concentrations must not be negative");
+            QueryField formula = item.from(tokens.get(2));
+            int i = speciesIndex(formula.text());
+            if (i < 0) return notInReaction(formula);
+            if (pure[i]) {
+                return formula.error(QueryError.INCOMPATIBLE,
+                                     formula.text() + " is labelled as a solid or liquid and has no concentration");
+            }
+            c0[i] = c.value();
+        }
+        return ParseResult.of(solve(k, c0));
+    }
+
+    private static <T> ParseResult<T> notInReaction(QueryField formula) {
+        return formula.error(QueryError.UNKNOWN_SPECIES, formula.text() + " is not in the reaction");
+    }
+
+    // Solve many initial conditions laid out scenario-major (initial[s * speciesCount + i]) into
+    // equilibrium (same layout; NaN stays NaN, and species labelled (s) or (l) are NaN) and, if
+    // extents is not null, extents[s]. Returns the extent of the last scenario.
+    public double sweep(double k, double[] initial, int scenarios, double[] equilibrium, double[] extents) {
+        if (!(k > 0) || Double.isInfinite(k)) throw new IllegalArgumentException("K must be positive and finite");
+        int n = formulas.length;
+        if (initial.length < scenarios * n || equilibrium.length < scenarios * n) {
+            throw new IllegalArgumentException("Expected " + scenarios * n + " concentrations");
+        }
+        double lnK = Math.log(k);
+        double[] c0 = new double[n];
+        double extent = 0.0;
+        for (int s = 0; s < scenarios; s++) {
+            int base = s * n;
+            for (int i = 0; i < n; i++) {
+                double c = initial[base + i];
+                if (c < 0) throw new IllegalArgumentException("Concentrations must not be negative");
+                c0[i] = pure[i] ? Double.NaN : c;
+            }
+            extent = solveExtent(lnK, c0);
+            System.arraycopy(c0, 0, equilibrium, base, n);
+            if (extents != null) extents[s] = extent;
+        }
+        return extent;
+    }
+
+    // Extent for initial concentrations c0 (NaN entries ignored); on return c0 holds the equilibrium
+    // concentrations
+    private double solveExtent(double lnK, double[] c0) {
+        int n = nu.length;
+        // Bounds where every included concentration stays positive
+        double lo = Double.NEGATIVE_INFINITY;
+        double hi = Double.POSITIVE_INFINITY;
+        int loSpecies = -1;
+        int hiSpecies = -1;
+        for (int i = 0; i < n; i++) {
+            if (Double.isNaN(c0[i])) continue;
+            double bound = -c0[i] / nu[i];
+            if (nu[i] < 0 && bound < hi) {
+                hi = bound;
+                hiSpecies = i;
+            } else if (nu[i] > 0 && bound > lo) {
+                lo = bound;
+                loSpecies = i;
+            }
+        }
+        if (loSpecies < 0 && hiSpecies < 0) return 0.0;   // nothing in K
+        if (lo >= hi) return 0.0;                          // no room to react either way
+
+        // Move the origin to the end the root is nearer to
+        double origin;
+        int zeroSpecies;
+        double from;
+        double to;
+        if (loSpecies >= 0 && hiSpecies >= 0) {
+            double mid = 0.5 * (lo + hi);
+            if (f(lnK, c0, mid) < 0) {
+                origin = hi;
+                zeroSpecies = hiSpecies;
+                from = mid - hi;
+                to = 0.0;
+            } else {
+                origin = lo;
+                zeroSpecies = loSpecies;
+                from = 0.0;
+                to = mid - lo;
+            }
+        } else if (loSpecies >= 0) {
+            origin = lo;
+            zeroSpecies = loSpecies;
+            from = 0.0;
+            to = Double.POSITIVE_INFINITY;
+        } else {
+            origin = hi;
+            zeroSpecies = hiSpecies;
+            from = Double.NEGATIVE_INFINITY;
+            to = 0.0;
+        }
+        for (int i = 0; i < n; i++) {
+            if (!Double.isNaN(c0[i])) c0[i] += nu[i] * origin;
+        }
+        c0[zeroSpecies] = 0.0;
+
+        double x = Double.isInfinite(from) ? to - 1.0 : Double.isInfinite(to) ? from + 1.0 : 0.5 * (from + to);
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            double value = 0.0;
+            double slope = 0.0;
+            for (int i = 0; i < n; i++) {
+                if (Double.isNaN(c0[i])) continue;
+                double c = c0[i] + nu[i] * x;
+                value += nu[i] * Math.log(c);
+                slope += (double) nu[i] * nu[i] / c;
+            }
+            value -= lnK;
+            if (value == 0.0) break;
+            if (value < 0) from = x;
+            else to = x;
+            double next = x - value / slope;
+            if (!(next > from && next < to)) {
+                // Newton left the bracket: bisect, or step out geometrically on an open side
+                if (Double.isInfinite(to)) next = x + Math.max(1.0, Math.abs(x));
+                else if (Double.isInfinite(from)) next = x - Math.max(1.0, Math.abs(x));
+                else next = 0.5 * (from + to);
+            }
+            if (Math.abs(next - x) <= 1e-15 * Math.max(Math.abs(x), Double.MIN_NORMAL)) {
+                x = next;
+                break;
+            }
+            x = next;
+        }
+        for (int i = 0; i < n; i++) {
+            if (!Double.isNaN(c0[i])) c0[i] += nu[i] * x;
+        }
+        return origin + x;
+    }
+
+    // ln Q - ln K at extent x
+    private double f(double lnK, double[] c0, double x) {
+        double value = -lnK;
+        for (int i = 0; i < nu.length; i++) {
+            if (!Double.isNaN(c0[i])) value += nu[i] * Math.log(c0[i] + nu[i] * x);
+        }
+        return value;
+    }
+}
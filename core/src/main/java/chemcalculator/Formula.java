@@ -0,0 +1,167 @@
+package chemcalculator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Immutable syntax tree of one formula as written: hydrate parts joined by '·', each a sequence of
+// element atoms and bracketed groups with their multipliers, plus the charge. Ca(NO3)2 is one part
+// [Ca, (N O3)2]; CuSO4·5H2O is two parts, the second with multiplier 5. The flat element composition
+// is folded from the tree once, when the parser builds it, and kept with it.
+public final class Formula {
+    public sealed interface Node permits Atom, Group {}
+
+    // Element symbol with its subscript ("O3" -> O, 3)
+    public record Atom(String element, int count) implements Node {}
+
+    // Bracketed group with its multiplier; open is '(' or '['
+    public record Group(char open, List<Node> nodes, int count) implements Node {
+        public Group {
+            nodes = List.copyOf(nodes);
+        }
+    }
+
+    // One '·'-separated part with its leading multiplier ("5H2O" -> 5)
+    public record Part(int count, List<Node> nodes) {
+        public Part {
+            nodes = List.copyOf(nodes);
+        }
+    }
+
+    private final List<Part> parts;
+    private final int charge;
+    private final Map<String, Integer> composition;
+
+    // Built by FormulaParser, which folds the composition with overflow checks
+    Formula(List<Part> parts, int charge, Map<String, Integer> composition) {
+        this.parts = List.copyOf(parts);
+        this.charge = charge;
+        this.composition = Collections.unmodifiableMap(composition);
+    }
+
+    public List<Part> parts() {
+        return parts;
+    }
+
+    public int charge() {
+        return charge;
+    }
+
+    // Element counts over every part and group, in the parser's iteration order
+    public Map<String, Integer> composition() {
+        return composition;
+    }
+
+    public boolean isHydrate() {
+        return parts.size() > 1;
+    }
+
+    // Atoms and groups of the first part (the anhydrous compound of a hydrate)
+    public List<Node> nodes() {
+        return parts.get(0).nodes();
+    }
+
+    // The first part alone, e.g. CuSO4 of CuSO4·5H2O; this formula itself when it is not a hydrate
+    public Formula anhydrous() {
+        if (!isHydrate()) return this;
+        Map<String, Integer> comp = new HashMap<>();
+        fold(nodes(), parts.get(0).count(), comp);  // cannot overflow: a subset of the whole
+        return new Formula(List.of(parts.get(0)), charge, comp);
+    }
+
+    // Formula text of a node sequence without charge, e.g. [N, O3] -> "NO3"
+    public static String text(List<Node> nodes) {
+        StringBuilder sb = new StringBuilder();
+        appendNodes(sb, nodes);
+        return sb.toString();
+    }
+
+    // comp in Hill order: C, then H, then the rest alphabetically; alphabetical throughout when there
+    // is no carbon. Elements with a zero count are left out.
+    static Map<String, Integer> hillOrder(Map<String, Integer> comp) {
+        List<String> elements = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : comp.entrySet()) {
+            if (entry.getValue() > 0) elements.add(entry.getKey());
+        }
+        Collections.sort(elements);
+        Map<String, Integer> ordered = new LinkedHashMap<>();
+        if (elements.contains("C")) {
+            ordered.put("C", comp.get("C"));
+            if (elements.contains("H")) ordered.put("H", comp.get("H"));
+        }
+        for (String element : elements) {
+            ordered.putIfAbsent(element, comp.get(element));
+        }
+        return ordered;
+    }
+
+    // Formula text of a composition in its iteration order ("C6H12O6")
+    static String text(Map<String, Integer> comp) {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Integer> entry : comp.entrySet()) {
+            sb.append(entry.getKey());
+            if (entry.getValue() > 1) sb.append(entry.getValue());
+        }
+        return sb.toString();
+    }
+
+    // Canonical text: parts joined by '·', charge in caret notation ("CuSO4·5H2O", "SO4^2-")
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < parts.size(); i++) {
+            Part part = parts.get(i);
+            if (i > 0) sb.append('·');
+            if (part.count() > 1) sb.append(part.count());
+            appendNodes(sb, part.nodes());
+        }
+        if (charge != 0) {
+            int magnitude = Math.abs(charge);
+            if (magnitude > 1) sb.append('^').append(magnitude);
+            sb.append(charge > 0 ? '+' : '-');
+        }
+        return sb.toString();
+    }
+
+    private static void appendNodes(StringBuilder sb, List<Node> nodes) {
+        for (Node node : nodes) {
+            if (node instanceof Atom atom) {
+                sb.append(atom.element());
+                if (atom.count() > 1) sb.append(atom.count());
+            } else if (node instanceof Group group) {
+                sb.append(group.open());
+                appendNodes(sb, group.nodes());
+                sb.append(group.open() == '[' ? ']' : ')');
+                if (group.count() > 1) sb.append(group.count());
+            }
+        }
+    }
+
+    // Add the element counts of nodes times multiplier into comp; false if a total overflows an int
+    static boolean fold(List<Node> nodes, long multiplier, Map<String, Integer> comp) {
+        for (Node node : nodes) {
+            if (node instanceof Atom atom) {
+                long total = comp.getOrDefault(atom.element(), 0) + atom.count() * multiplier;
+                if (total > Integer.MAX_VALUE) return false;
+                comp.put(atom.element(), (int) total);
+            } else if (node instanceof Group group) {
+                long inner = multiplier * group.count();
+                if (inner > Integer.MAX_VALUE || !fold(group.nodes(), inner, comp)) return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Formula other && charge == other.charge && parts.equals(other.parts);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * parts.hashCode() + charge;
+    }
+}
@@ -0,0 +1,252 @@
+package chemcalculator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Formula parsing: equation and species text -> Compound, formula -> Formula tree (groups, hydrate
+// parts, charge) and its element composition. Input is checked by EquationLexer and problems come
+// back as ParseResult errors, so invalid input never costs an exception.
+// Stateless; all methods are safe to call from any thread.
+final class FormulaParser {
+    private FormulaParser() {}
+
+    // One species such as "2 SO4^2-" or "Fe3+(aq)"; the coefficient is dropped, the state kept
+    static ParseResult<Compound> parseCompound(String formulaStr, EngineLimits limits) {
+        EngineEvents.Parse event = new EngineEvents.Parse();
+        event.begin();
+        EquationLexer.Lexed lexed = EquationLexer.lexSpecies(formulaStr, limits);
+        ParseResult<Compound> result = lexed.code() != null
+            ? lexed.failure()
+            : toCompound(formulaStr, lexed.reactants().get(0));
+        event.end();
+        if (event.shouldCommit()) {
+            event.input = formulaStr;
+            event.kind = "species";
+            if (result.ok()) {
+                event.elements = result.value().composition().size();
+                event.charge = result.value().charge();
+            }
+            event.error = result.describe();
+            event.commit();
+        }
+        return result;
+    }
+
+    // Species on both sides of "reactants -> products"
+    record Equation(List<Compound> reactants, List<Compound> products) {}
+
+    // Lex the whole equation once and build each species from its span
+    static ParseResult<Equation> parseEquation(String equation, EngineLimits limits) {
+        EngineEvents.Parse event = new EngineEvents.Parse();
+        event.begin();
+        EquationLexer.Lexed lexed = EquationLexer.lexEquation(equation, limits);
+        ParseResult<Equation> result;
+        if (lexed.code() != null) {
+            result = lexed.failure();
+        } else {
+            List<Compound> reactants = new ArrayList<>(lexed.reactants().size());
+            List<Compound> products = new ArrayList<>(lexed.products().size());
+            ParseResult<?> failure = toCompounds(equation, lexed.reactants(), reactants);
+            if (failure == null) failure = toCompounds(equation, lexed.products(), products);
+            result = failure != null ? failure.cast() : ParseResult.of(new Equation(reactants, products));
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.input = equation;
+            event.kind = "equation";
+            if (result.ok()) event.species = result.value().reactants().size() + result.value().products().size();
+            event.error = result.describe();
+            event.commit();
+        }
+        return result;
+    }
+
+    // Element composition of a bare formula such as "Ca(NO3)2" or "CuSO4·5H2O". Folds the text
+    // directly without building the tree; use parseFormulaTree when the structure is needed.
+    static ParseResult<Map<String,Integer>> parseFormula(String formula, EngineLimits limits) {
+        EngineEvents.Parse event = new EngineEvents.Parse();
+        event.begin();
+        EquationLexer.Lexed lexed = EquationLexer.lexFormula(formula, limits);
+        ParseResult<Map<String,Integer>> result;
+        if (lexed.code() != null) {
+            result = lexed.failure();
+        } else {
+            EquationLexer.Species span = lexed.reactants().get(0);
+            Walker walker = new Walker(formula, span.end(), false);
+            walker.parts(span.start());
+            result = walker.overflowAt < 0 ? ParseResult.of(walker.comp) : overflow(walker.overflowAt);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.input = formula;
+            event.kind = "formula";
+            if (result.ok()) event.elements = result.value().size();
+            event.error = result.describe();
+            event.commit();
+        }
+        return result;
+    }
+
+    // Syntax tree of a formula with optional charge, e.g. "[Cu(NH3)4]SO4", "CuSO4·5H2O" or "SO4^2-"
+    static ParseResult<Formula> parseFormulaTree(String formula, EngineLimits limits) {
+        EngineEvents.Parse event = new EngineEvents.Parse();
+        event.begin();
+        EquationLexer.Lexed lexed = EquationLexer.lexFormula(formula, limits);
+        ParseResult<Formula> result;
+        if (lexed.code() != null) {
+            result = lexed.failure();
+        } else {
+            EquationLexer.Species span = lexed.reactants().get(0);
+            result = buildFormula(formula, span.start(), span.end(), span.charge());
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.input = formula;
+            event.kind = "formula";
+            if (result.ok()) {
+                event.elements = result.value().composition().size();
+                event.charge = result.value().charge();
+            }
+            event.error = result.describe();
+            event.commit();
+        }
+        return result;
+    }
+
+    // Build each species into out; the failed result of the first species that overflows, else null
+    private static ParseResult<?> toCompounds(String text, List<EquationLexer.Species> species, List<Compound> out) {
+        for (EquationLexer.Species s : species) {
+            ParseResult<Compound> compound = toCompound(text, s);
+            if (!compound.ok()) return compound;
+            out.add(compound.value());
+        }
+        return null;
+    }
+
+    private static ParseResult<Compound> toCompound(String text, EquationLexer.Species species) {
+        if (species.electron()) return ParseResult.of(Compound.ELECTRON);
+        ParseResult<Formula> tree = buildFormula(text, species.start(), species.end(), species.charge());
+        if (!tree.ok()) return tree.cast();
+        Formula formula = tree.value();
+        return ParseResult.of(new Compound(text.substring(species.start(), species.end()), formula.composition(),
+                                           species.charge(), formula, species.state()));
+    }
+
+    // Tree of text[from, to) and its folded composition. The span has already been checked by
+    // EquationLexer: brackets are balanced, nesting is bounded and every subscript is within the
+    // limit, so the only failure left is an element total that overflows an int.
+    private static ParseResult<Formula> buildFormula(String text, int from, int to, int charge) {
+        Walker walker = new Walker(text, to, true);
+        List<Formula.Part> parts = walker.parts(from);
+        return walker.overflowAt < 0 ? ParseResult.of(new Formula(parts, charge, walker.comp)) : overflow(walker.overflowAt);
+    }
+
+    private static <T> ParseResult<T> overflow(int offset) {
+        return ParseResult.failed(ParseResult.Code.TOO_LARGE, "Element count overflows", offset);
+    }
+
+    // The one walk over a formula span (already checked by EquationLexer): element counts are folded
+    // into comp as they are read, and the parts and nodes of the tree are collected alongside only
+    // when tree is set, so parseFormula allocates nothing but the composition. A group's multiplier
+    // follows its closing bracket, so it is read ahead before the group's contents are folded.
+    private static final class Walker {
+        private final String text;
+        private final int to;
+        private final boolean tree;
+        final Map<String,Integer> comp = new HashMap<>();
+        int overflowAt = -1;   // offset of the first element or group whose count overflows an int
+        private int i;
+
+        Walker(String text, int to, boolean tree) {
+            this.text = text;
+            this.to = to;
+            this.tree = tree;
+        }
+
+        // Hydrate parts from 'from' on, each with its optional leading multiplier ("5H2O"); null
+        // when not building the tree
+        List<Formula.Part> parts(int from) {
+            List<Formula.Part> parts = tree ? new ArrayList<>(1) : null;
+            i = from;
+            while (i < to && overflowAt < 0) {
+                int count = number();
+                List<Formula.Node> nodes = tree ? new ArrayList<>() : null;
+                nodes(count, true, nodes);
+                if (tree) parts.add(new Formula.Part(count, nodes));
+                if (i < to) i++;  // the separator
+            }
+            return parts;
+        }
+
+        // Atoms and bracketed groups until a closing bracket (or, at the top level, a hydrate
+        // separator), folded times multiplier; nodes are added to out unless it is null
+        private void nodes(long multiplier, boolean top, List<Formula.Node> out) {
+            while (i < to && overflowAt < 0) {
+                char ch = text.charAt(i);
+                if (ch == '(' || ch == '[') {
+                    int open = i;
+                    i = closing(open + 1) + 1;
+                    int count = number();
+                    int after = i;
+                    long inner = multiplier * count;
+                    if (inner > Integer.MAX_VALUE) {
+                        overflowAt = open;
+                        return;
+                    }
+                    List<Formula.Node> nodes = out != null ? new ArrayList<>() : null;
+                    i = open + 1;
+                    nodes(inner, false, nodes);
+                    i = after;
+                    if (out != null) out.add(new Formula.Group(ch, nodes, count));
+                } else if (ch == ')' || ch == ']') {
+                    return;
+                } else if (Character.isUpperCase(ch)) {
+                    // Element symbol: uppercase letter plus any lowercase letters (Fe, Na, ...)
+                    int symbolStart = i++;
+                    while (i < to && Character.isLowerCase(text.charAt(i))) {
+                        i++;
+                    }
+                    String element = text.substring(symbolStart, i);
+                    int count = number();
+                    long total = comp.getOrDefault(element, 0) + count * multiplier;
+                    if (total > Integer.MAX_VALUE) {
+                        overflowAt = symbolStart;
+                        return;
+                    }
+                    comp.put(element, (int) total);
+                    if (out != null) out.add(new Formula.Atom(element, count));
+                } else if (top && (ch == '·' || ch == '*' || ch == '.')) {
+                    return;
+                } else {
+                    // Skip anything else (a separator inside brackets, stray digits)
+                    i++;
+                }
+            }
+        }
+
+        // Index of the bracket closing the group whose contents start at from
+        private int closing(int from) {
+            int depth = 1;
+            int j = from;
+            for (; j < to; j++) {
+                char c = text.charAt(j);
+                if (c == '(' || c == '[') depth++;
+                else if ((c == ')' || c == ']') && --depth == 0) break;
+            }
+            return j;
+        }
+
+        // Digits at i as a count, 1 when there are none
+        private int number() {
+            int start = i;
+            int count = 0;
+            while (i < to && Character.isDigit(text.charAt(i))) {
+                count = count * 10 + (text.charAt(i) - '0');
+                i++;
+            }
+            return i == start ? 1 : count;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package chemcalculator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Outcome of a formula-from-mass search: every composition within the element ranges whose molar
+// mass is within the tolerance of the target, closest first. complete is false when the search ran
+// past the engine's time budget and the matches are only those found until then.
+public record FormulaSearch(double targetMass, double tolerance, List<Match> matches, boolean complete) {
+    // Allowed count of one element; max is clipped to what fits in the target mass
+    public record Range(String element, int min, int max) {
+        public Range {
+            if (!Elements.isKnown(element)) throw new IllegalArgumentException("Unknown element " + element);
+            if (min < 0 || max < min) throw new IllegalArgumentException("Bad range for " + element + ": " + min + "-" + max);
+        }
+
+        // Any number of atoms of element
+        public static Range of(String element) {
+            return new Range(element, 0, Integer.MAX_VALUE);
+        }
+
+        // "C" (any count), "C6" (exactly 6) or "C0-20". Throws IllegalArgumentException for a
+        // malformed range or an unknown element.
+        public static Range parse(String token) {
+            return parse(QueryField.of(token)).orElseThrow();
+        }
+
+        static ParseResult<Range> parse(QueryField token) {
+            String text = token.text();
+            int i = 1;
+            while (i < text.length() && Character.isLowerCase(text.charAt(i))) i++;
+            String element = text.substring(0, Math.min(i, text.length()));
+            if (!Elements.isKnown(element)) return token.error(QueryError.UNKNOWN_SPECIES, "Unknown element " + element);
+            if (i == text.length()) return ParseResult.of(of(element));
+            int dash = text.indexOf('-', i);
+            ParseResult<Integer> min = token.slice(i, dash < 0 ? text.length() : dash).count("element range");
+            if (!min.ok()) return token.error(QueryError.BAD_NUMBER, "Bad element range '" + text + "'");
+            if (dash < 0) return ParseResult.of(new Range(element, min.value(), min.value()));
+            ParseResult<Integer> max = token.slice(dash + 1, text.length()).count("element range");
+            if (!max.ok() || max.value() < min.value()) {
+                return token.error(QueryError.BAD_NUMBER, "Bad element range '" + text + "'");
+            }
+            return ParseResult.of(new Range(element, min.value(), max.value()));
+        }
+    }
+
+    // The default search space: carbon, hydrogen, nitrogen, oxygen, phosphorus and sulfur
+    public static final List<Range> CHNOPS =
+        List.of(Range.of("C"), Range.of("H"), Range.of("N"), Range.of("O"), Range.of("P"), Range.of("S"));
+
+    // One matching composition (Hill order), its mass, mass - target, and ring-plus-double-bond
+    // equivalents (RDBE)
+    public record Match(String formula, Map<String, Integer> composition, double mass, double error, double rdbe) {}
+
+    public FormulaSearch {
+        matches = List.copyOf(matches);
+    }
+
+    // Ranges from whitespace-separated tokens such as "C0-20 H N0-4 O"; CHNOPS when there are none.
+    // Throws IllegalArgumentException for a malformed range or an element named twice.
+    public static List<Range> parseRanges(String text) {
+        return parseRanges(QueryField.of(text).tokens()).orElseThrow();
+    }
+
+    static ParseResult<List<Range>> parseRanges(List<QueryField> tokens) {
+        if (tokens.isEmpty()) return ParseResult.of(CHNOPS);
+        List<Range> ranges = new ArrayList<>(tokens.size());
+        for (QueryField token : tokens) {
+            ParseResult<Range> range = Range.parse(token);
+            if (!range.ok()) return range.cast();
+            if (repeated(ranges, range.value().element()) != null) {
+                return token.error(QueryError.BAD_FIELD, "Element " + range.value().element() + " has more than one range");
+            }
+            ranges.add(range.value());
+        }
+        return ParseResult.of(ranges);
+    }
+
+    // The range already given for element, or null
+    static Range repeated(List<Range> ranges, String element) {
+        for (Range range : ranges) {
+            if (range.element().equals(element)) return range;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,19 @@
+package chemcalculator;
+
+import java.util.List;
+
+// Isotope pattern of one neutral formula: the monoisotopic mass (most abundant isotope of each
+// element), the mean mass of the pattern and one peak per nominal mass in increasing mass order.
+// averaged lists the elements without a natural isotopic composition (Tc, Pm, Po and the like), which
+// count as one peak at their atomic weight.
+public record IsotopePattern(String formula, double monoisotopicMass, double averageMass, List<Peak> peaks,
+                             List<String> averaged) {
+    // Peak at one nominal mass: centroid of its isotopologues (u), probability, and intensity relative
+    // to the tallest peak (%)
+    public record Peak(int nominalMass, double mass, double abundance, double relative) {}
+
+    public IsotopePattern {
+        peaks = List.copyOf(peaks);
+        averaged = List.copyOf(averaged);
+    }
+}
@@ -0,0 +1,255 @@
+package chemcalculator;
+
+import java.util.*;
+
+// Isotope masses and natural abundances, and the isotope pattern of a composition. Each element's
+// distribution is raised to its count by repeated squaring and the per-element results convolved
+// together, on bins of one nominal mass unit. Every bin keeps its probability and its
+// probability-weighted exact mass, so the peak masses are exact centroids. Bins at either end below
+// a fraction of the reporting threshold are pruned after every convolution; a distribution then
+// only grows with the square root of the atom count, and a protein-sized formula needs a few
+// hundred bins at most.
+// The table is built once in the static initializer and never modified afterwards.
+final class Isotopes {
+    // One stable isotope: exact mass (u) and natural abundance (fraction)
+    record Isotope(double mass, double abundance) {}
+
+    // Pruning is this much stricter than the reporting threshold, so that probability dropped at the
+    // ends of intermediate results cannot add up to a reported peak
+    private static final double PRUNE_FACTOR = 1e-3;
+
+    private static final Map<String, Isotope[]> ISOTOPES;
+
+    static {
+        Map<String, Isotope[]> isotopes = new HashMap<>();
+        put(isotopes, "H", 1.00782503207, 0.999885, 2.0141017778, 0.000115);
+        put(isotopes, "He", 3.0160293191, 0.00000134, 4.00260325415, 0.99999866);
+        put(isotopes, "Li", 6.015122795, 0.0759, 7.01600455, 0.9241);
+        put(isotopes, "Be", 9.0121822, 1.0);
+        put(isotopes, "B", 10.0129370, 0.199, 11.0093054, 0.801);
+        put(isotopes, "C", 12.0, 0.9893, 13.0033548378, 0.0107);
+        put(isotopes, "N", 14.0030740048, 0.99636, 15.0001088982, 0.00364);
+        put(isotopes, "O", 15.99491461956, 0.99757, 16.99913170, 0.00038, 17.9991610, 0.00205);
+        put(isotopes, "F", 18.99840322, 1.0);
+        put(isotopes, "Ne", 19.9924401754, 0.9048, 20.99384668, 0.0027, 21.991385114, 0.0925);
+        put(isotopes, "Na", 22.9897692809, 1.0);
+        put(isotopes, "Mg", 23.985041700, 0.7899, 24.98583692, 0.1000, 25.982592929, 0.1101);
+        put(isotopes, "Al", 26.98153863, 1.0);
+        put(isotopes, "Si", 27.9769265325, 0.92223, 28.976494700, 0.04685, 29.97377017, 0.03092);
+        put(isotopes, "P", 30.97376163, 1.0);
+        put(isotopes, "S", 31.97207100, 0.9499, 32.97145876, 0.0075, 33.96786690, 0.0425, 35.96708076, 0.0001);
+        put(isotopes, "Cl", 34.96885268, 0.7576, 36.96590259, 0.2424);
+        put(isotopes, "Ar", 35.967545106, 0.003365, 37.9627324, 0.000632, 39.9623831225, 0.996003);
+        put(isotopes, "K", 38.96370668, 0.932581, 39.96399848, 0.000117, 40.96182576, 0.067302);
+        put(isotopes, "Ca", 39.96259098, 0.96941, 41.95861801, 0.00647, 42.9587666, 0.00135,
+            43.9554818, 0.02086, 45.9536926, 0.00004, 47.952534, 0.00187);
+        put(isotopes, "Sc", 44.9559119, 1.0);
+        put(isotopes, "Ti", 45.9526316, 0.0825, 46.9517631, 0.0744, 47.9479463, 0.7372,
+            48.9478700, 0.0541, 49.9447912, 0.0518);
+        put(isotopes, "V", 49.9471585, 0.00250, 50.9439595, 0.99750);
+        put(isotopes, "Cr", 49.9460442, 0.04345, 51.9405075, 0.83789, 52.9406494, 0.09501, 53.9388804, 0.02365);
+        put(isotopes, "Mn", 54.9380451, 1.0);
+        put(isotopes, "Fe", 53.9396105, 0.05845, 55.9349375, 0.91754, 56.9353940, 0.02119, 57.9332756, 0.00282);
+        put(isotopes, "Co", 58.9331950, 1.0);
+        put(isotopes, "Ni", 57.9353429, 0.680769, 59.9307864, 0.262231, 60.9310560, 0.011399,
+            61.9283451, 0.036345, 63.9279660, 0.009256);
+        put(isotopes, "Cu", 62.9295975, 0.6915, 64.9277895, 0.3085);
+        put(isotopes, "Zn", 63.9291422, 0.48268, 65.9260334, 0.27975, 66.9271273, 0.04102,
+            67.9248442, 0.19024, 69.9253193, 0.00631);
+        put(isotopes, "Ga", 68.9255736, 0.60108, 70.9247013, 0.39892);
+        put(isotopes, "Ge", 69.9242474, 0.2038, 71.9220758, 0.2731, 72.9234589, 0.0776,
+            73.9211778, 0.3672, 75.9214026, 0.0783);
+        put(isotopes, "As", 74.9215965, 1.0);
+        put(isotopes, "Se", 73.9224764, 0.0089, 75.9192136, 0.0937, 76.9199140, 0.0763,
+            77.9173091, 0.2377, 79.9165213, 0.4961, 81.9166994, 0.0873);
+        put(isotopes, "Br", 78.9183371, 0.5069, 80.9162906, 0.4931);
+        put(isotopes, "Kr", 77.9203648, 0.00355, 79.9163790, 0.02286, 81.9134836, 0.11593,
+            82.914136, 0.11500, 83.911507, 0.56987, 85.91061073, 0.17279);
+        put(isotopes, "Rb", 84.911789738, 0.7217, 86.909180527, 0.2783);
+        put(isotopes, "Sr", 83.913425, 0.0056, 85.9092602, 0.0986, 86.9088771, 0.0700, 87.9056121, 0.8258);
+        put(isotopes, "Y", 88.9058483, 1.0);
+        put(isotopes, "Zr", 89.9047044, 0.5145, 90.9056458, 0.1122, 91.9050408, 0.1715,
+            93.9063152, 0.1738, 95.9082734, 0.0280);
+        put(isotopes, "Nb", 92.9063781, 1.0);
+        put(isotopes, "Mo", 91.906811, 0.1453, 93.9050883, 0.0915, 94.9058421, 0.1584, 95.9046795, 0.1667,
+            96.9060215, 0.0960, 97.9054082, 0.2439, 99.907477, 0.0982);
+        put(isotopes, "Ru", 95.907598, 0.0554, 97.905287, 0.0187, 98.9059393, 0.1276, 99.9042195, 0.1260,
+            100.9055821, 0.1706, 101.9043493, 0.3155, 103.905433, 0.1862);
+        put(isotopes, "Rh", 102.905504, 1.0);
+        put(isotopes, "Pd", 101.905609, 0.0102, 103.904036, 0.1114, 104.905085, 0.2233,
+            105.903486, 0.2733, 107.903892, 0.2646, 109.905153, 0.1172);
+        put(isotopes, "Ag", 106.905097, 0.51839, 108.904752, 0.48161);
+        put(isotopes, "Cd", 105.906459, 0.0125, 107.904184, 0.0089, 109.9030021, 0.1249, 110.9041781, 0.1280,
+            111.9027578, 0.2413, 112.9044017, 0.1222, 113.9033585, 0.2873, 115.904756, 0.0749);
+        put(isotopes, "In", 112.904058, 0.0429, 114.903878, 0.9571);
+        put(isotopes, "Sn", 111.904818, 0.0097, 113.902779, 0.0066, 114.903342, 0.0034, 115.901741, 0.1454,
+            116.902952, 0.0768, 117.901603, 0.2422, 118.903308, 0.0859, 119.9021947, 0.3258,
+            121.903439, 0.0463, 123.9052739, 0.0579);
+        put(isotopes, "Sb", 120.9038157, 0.5721, 122.904214, 0.4279);
+        put(isotopes, "Te", 119.90402, 0.0009, 121.9030439, 0.0255, 122.90427, 0.0089, 123.9028179, 0.0474,
+            124.9044307, 0.0707, 125.9033117, 0.1884, 127.9044631, 0.3174, 129.9062244, 0.3408);
+        put(isotopes, "I", 126.904473, 1.0);
+        put(isotopes, "Xe", 123.905893, 0.000952, 125.904274, 0.000890, 127.9035313, 0.019102,
+            128.9047794, 0.264006, 129.903508, 0.040710, 130.9050824, 0.212324, 131.9041535, 0.269086,
+            133.9053945, 0.104357, 135.907219, 0.088573);
+        put(isotopes, "Cs", 132.905451933, 1.0);
+        put(isotopes, "Ba", 129.9063208, 0.00106, 131.9050613, 0.00101, 133.9045084, 0.02417, 134.9056886, 0.06592,
+            135.9045759, 0.07854, 136.9058274, 0.11232, 137.9052472, 0.71698);
+        put(isotopes, "La", 137.907112, 0.00090, 138.9063533, 0.99910);
+        put(isotopes, "Ce", 135.907172, 0.00185, 137.905991, 0.00251, 139.9054387, 0.88450, 141.909244, 0.11114);
+        put(isotopes, "Pr", 140.9076528, 1.0);
+        put(isotopes, "Nd", 141.9077233, 0.272, 142.9098143, 0.122, 143.9100873, 0.238, 144.9125736, 0.083,
+            145.9131169, 0.172, 147.916893, 0.057, 149.920891, 0.056);
+        put(isotopes, "Sm", 143.911999, 0.0307, 146.9148979, 0.1499, 147.9148227, 0.1124, 148.9171847, 0.1382,
+            149.9172755, 0.0738, 151.9197324, 0.2675, 153.9222093, 0.2275);
+        put(isotopes, "Eu", 150.9198502, 0.4781, 152.9212303, 0.5219);
+        put(isotopes, "Gd", 151.919791, 0.0020, 153.9208656, 0.0218, 154.922622, 0.1480, 155.9221227, 0.2047,
+            156.9239601, 0.1565, 157.9241039, 0.2484, 159.9270541, 0.2186);
+        put(isotopes, "Tb", 158.9253468, 1.0);
+        put(isotopes, "Dy", 155.924283, 0.00056, 157.924409, 0.00095, 159.9251975, 0.02329, 160.9269334, 0.18889,
+            161.9267984, 0.25475, 162.9287312, 0.24896, 163.9291748, 0.28260);
+        put(isotopes, "Ho", 164.9303221, 1.0);
+        put(isotopes, "Er", 161.928778, 0.00139, 163.9292, 0.01601, 165.9302931, 0.33503, 166.9320482, 0.22869,
+            167.9323702, 0.26978, 169.9354643, 0.14910);
+        put(isotopes, "Tm", 168.9342133, 1.0);
+        put(isotopes, "Yb", 167.933897, 0.0013, 169.9347618, 0.0304, 170.9363258, 0.1428, 171.9363815, 0.2183,
+            172.9382108, 0.1613, 173.9388621, 0.3183, 175.9425717, 0.1276);
+        put(isotopes, "Lu", 174.9407718, 0.9741, 175.9426863, 0.0259);
+        put(isotopes, "Hf", 173.940046, 0.0016, 175.9414086, 0.0526, 176.9432207, 0.1860, 177.9436988, 0.2728,
+            178.9458161, 0.1362, 179.94655, 0.3508);
+        put(isotopes, "Ta", 179.9474648, 0.00012, 180.9479958, 0.99988);
+        put(isotopes, "W", 179.946704, 0.0012, 181.9482042, 0.2650, 182.950223, 0.1431, 183.9509312, 0.3064,
+            185.9543641, 0.2843);
+        put(isotopes, "Re", 184.952955, 0.3740, 186.9557531, 0.6260);
+        put(isotopes, "Os", 183.9524891, 0.0002, 185.9538382, 0.0159, 186.9557505, 0.0196, 187.9558382, 0.1324,
+            188.9581475, 0.1615, 189.958447, 0.2626, 191.9614807, 0.4078);
+        put(isotopes, "Ir", 190.960594, 0.373, 192.9629264, 0.627);
+        put(isotopes, "Pt", 189.959932, 0.00014, 191.961038, 0.00782, 193.9626803, 0.32967, 194.9647911, 0.33832,
+            195.9649515, 0.25242, 197.967893, 0.07163);
+        put(isotopes, "Au", 196.9665687, 1.0);
+        put(isotopes, "Hg", 195.965833, 0.0015, 197.9667690, 0.0997, 198.9682799, 0.1687, 199.9683260, 0.2310,
+            200.9703023, 0.1318, 201.9706430, 0.2986, 203.9734939, 0.0687);
+        put(isotopes, "Tl", 202.9723442, 0.2952, 204.9744275, 0.7048);
+        put(isotopes, "Pb", 203.9730436, 0.014, 205.9744653, 0.241, 206.9758969, 0.221, 207.9766521, 0.524);
+        put(isotopes, "Bi", 208.9803987, 1.0);
+        put(isotopes, "Th", 232.0380553, 1.0);
+        put(isotopes, "Pa", 231.035884, 1.0);
+        put(isotopes, "U", 234.0409521, 0.000054, 235.0439299, 0.007204, 238.0507882, 0.992742);
+        // Tc, Pm, Po, At, Rn, Fr, Ra, Ac and the transuranium elements have no natural isotopic
+        // composition; they count as one peak at their standard atomic weight and are reported as
+        // averaged
+        ISOTOPES = Collections.unmodifiableMap(isotopes);
+    }
+
+    private Isotopes() {}
+
+    // mass, abundance pairs in increasing mass order
+    private static void put(Map<String, Isotope[]> isotopes, String symbol, double... pairs) {
+        Isotope[] list = new Isotope[pairs.length / 2];
+        for (int i = 0; i < list.length; i++) {
+            list[i] = new Isotope(pairs[2 * i], pairs[2 * i + 1]);
+        }
+        isotopes.put(symbol, list);
+    }
+
+    static boolean hasData(String symbol) {
+        return ISOTOPES.containsKey(symbol);
+    }
+
+    // Distribution over nominal masses first .. first + p.length - 1: probability of each bin and
+    // the sum of probability x exact mass over the isotopologues that fall into it
+    private record Dist(int first, double[] p, double[] pm) {}
+
+    // The pattern of comp, reporting peaks with at least threshold probability; null if the work
+    // runs past the budget
+    static IsotopePattern pattern(String formula, Map<String, Integer> comp, double threshold,
+                                  EngineLimits.Budget budget) {
+        double prune = threshold * PRUNE_FACTOR;
+        Dist total = new Dist(0, new double[] {1.0}, new double[] {0.0});
+        double monoisotopic = 0.0;
+        List<String> averaged = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : comp.entrySet()) {
+            String element = entry.getKey();
+            int count = entry.getValue();
+            if (count == 0) continue;   // "C0H4": contributes nothing
+            Isotope[] isotopes = ISOTOPES.get(element);
+            if (isotopes == null) {
+                // One peak at the standard weight (0 for unknown symbols, as in the GFM)
+                averaged.add(element);
+                isotopes = new Isotope[] {new Isotope(Elements.atomicWeight(element), 1.0)};
+            }
+            Isotope mostAbundant = isotopes[0];
+            for (Isotope isotope : isotopes) {
+                if (isotope.abundance() > mostAbundant.abundance()) mostAbundant = isotope;
+            }
+            monoisotopic += mostAbundant.mass() * count;
+            Dist power = power(of(isotopes), count, prune, budget);
+            if (power == null) return null;
+            total = convolve(total, power, prune);
+        }
+
+        double sum = 0.0;
+        double weighted = 0.0;
+        double max = 0.0;
+        for (int k = 0; k < total.p().length; k++) {
+            sum += total.p()[k];
+            weighted += total.pm()[k];
+            max = Math.max(max, total.p()[k]);
+        }
+        List<IsotopePattern.Peak> peaks = new ArrayList<>();
+        for (int k = 0; k < total.p().length; k++) {
+            double p = total.p()[k] / sum;
+            if (p < threshold) continue;
+            peaks.add(new IsotopePattern.Peak(total.first() + k, total.pm()[k] / total.p()[k], p,
+                                              100.0 * total.p()[k] / max));
+        }
+        return new IsotopePattern(formula, monoisotopic, weighted / sum, peaks, averaged);
+    }
+
+    private static Dist of(Isotope[] isotopes) {
+        int first = (int) Math.round(isotopes[0].mass());
+        int last = (int) Math.round(isotopes[isotopes.length - 1].mass());
+        double[] p = new double[last - first + 1];
+        double[] pm = new double[p.length];
+        for (Isotope isotope : isotopes) {
+            int k = (int) Math.round(isotope.mass()) - first;
+            p[k] += isotope.abundance();
+            pm[k] += isotope.abundance() * isotope.mass();
+        }
+        return new Dist(first, p, pm);
+    }
+
+    // dist^n by repeated squaring; null if the budget runs out
+    private static Dist power(Dist dist, int n, double prune, EngineLimits.Budget budget) {
+        Dist result = null;
+        Dist square = dist;
+        while (true) {
+            if ((n & 1) != 0) result = result == null ? square : convolve(result, square, prune);
+            n >>>= 1;
+            if (n == 0) return result;
+            if (budget.expired()) return null;
+            square = convolve(square, square, prune);
+        }
+    }
+
+    // Distribution of the sum of two independent masses, with bins below prune cut from both ends
+    private static Dist convolve(Dist a, Dist b, double prune) {
+        double[] ap = a.p(), apm = a.pm(), bp = b.p(), bpm = b.pm();
+        double[] p = new double[ap.length + bp.length - 1];
+        double[] pm = new double[p.length];
+        for (int i = 0; i < ap.length; i++) {
+            double pi = ap[i];
+            double pmi = apm[i];
+            for (int j = 0; j < bp.length; j++) {
+                p[i + j] += pi * bp[j];
+                pm[i + j] += pmi * bp[j] + pi * bpm[j];
+            }
+        }
+        int lo = 0;
+        int hi = p.length - 1;
+        while (lo < hi && p[lo] < prune) lo++;
+        while (hi > lo && p[hi] < prune) hi--;
+        if (lo == 0 && hi == p.length - 1) return new Dist(a.first() + b.first(), p, pm);
+        return new Dist(a.first() + b.first() + lo, Arrays.copyOfRange(p, lo, hi + 1), Arrays.copyOfRange(pm, lo, hi + 1));
+    }
+}
@@ -0,0 +1,480 @@
+package chemcalculator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+// Concentration-versus-time for a network of balanced reactions under mass-action rate laws: each
+// step runs forward at kf * prod(reactant^coefficient) and backward at kr * prod(product^coefficient).
+// Species are pooled across the equations (the same formula written differently is one species) and
+// the stoichiometric matrix is kept per reaction, so the Jacobian is assembled straight into a
+// compressed sparse row pattern fixed at construction: every entry a reaction touches has a slot
+// computed once. Integration is the two-stage L-stable Rosenbrock method ROS2 (gamma = 1 + 1/sqrt 2)
+// with its embedded first-order solution for step-size control; the Jacobian is evaluated once per
+// step and one factorization of I - gamma*h*J serves both stages. The linear solve is a dense LU
+// over the species, which stay few even when reactions are many. Work arrays are allocated once per
+// run, and concentrations stream to a sink at fixed output times instead of being stored.
+// Immutable and safe to share between threads.
+public final class Kinetics {
+    // One reaction of the network: a balanced equation and its forward and reverse rate constants
+    public record Step(BalanceResult reaction, double forward, double reverse) {
+        public Step {
+            if (!(forward >= 0) || !(reverse >= 0) || Double.isInfinite(forward) || Double.isInfinite(reverse)) {
+                throw new IllegalArgumentException("Rate constants must be non-negative and finite");
+            }
+        }
+    }
+
+    // Receives the concentrations at each output time; the array is reused between calls
+    @FunctionalInterface
+    public interface Sink {
+        void accept(double time, double[] concentrations);
+    }
+
+    // Summary of one run: the time reached, accepted and rejected steps, and whether the run got
+    // to its end time within the engine's time budget
+    public record Run(double endTime, int steps, int rejected, boolean complete) {}
+
+    // A network with its initial concentrations and output times, as read from one query line
+    public record Setup(Kinetics network, double[] initial, double endTime, double interval) {
+        public Run run(Sink sink) {
+            return network.integrate(initial, endTime, interval, sink);
+        }
+    }
+
+    public static final double DEFAULT_RELATIVE_TOLERANCE = 1e-4;
+    public static final double DEFAULT_ABSOLUTE_TOLERANCE = 1e-10;
+
+    // Output times allowed by outputTimes, for the text and service front ends
+    public static final int MAX_OUTPUTS = 10_000;
+
+    private static final double GAMMA = 1 + 1 / Math.sqrt(2);
+    private static final int MAX_STEPS = 1_000_000;
+    // The time budget is checked this often (in steps)
+    private static final int CHECK_INTERVAL = 64;
+
+    private final List<String> species;
+    private final SpeciesIndex speciesIndex;
+    private final int n;
+    private final int reactions;
+    private final double[] forward;
+    private final double[] reverse;
+    // Rate-law species and orders per reaction: forward entries [forwardStart[j], forwardStart[j + 1])
+    private final int[] forwardStart;
+    private final int[] forwardSpecies;
+    private final int[] forwardOrder;
+    private final int[] reverseStart;
+    private final int[] reverseSpecies;
+    private final int[] reverseOrder;
+    // Net stoichiometric numbers per reaction (one column of the stoichiometric matrix)
+    private final int[] netStart;
+    private final int[] netSpecies;
+    private final double[] netNu;
+    // Jacobian pattern (CSR) and, per (rate-law entry, net entry) pair, its slot in the values array
+    private final int[] rowStart;
+    private final int[] column;
+    private final int[] forwardSlot;   // at forwardSlotStart[e] + (m - netStart[j]) for entry e, net entry m
+    private final int[] forwardSlotStart;
+    private final int[] reverseSlot;
+    private final int[] reverseSlotStart;
+    private final EngineLimits limits;
+    private final EngineMetrics metrics;
+
+    Kinetics(List<Step> steps, EngineLimits limits, EngineMetrics metrics) {
+        if (steps.isEmpty()) throw new IllegalArgumentException("No reactions given");
+        this.limits = limits;
+        this.metrics = metrics;
+        reactions = steps.size();
+        forward = new double[reactions];
+        reverse = new double[reactions];
+
+        // Pool the species
+        Map<String, Integer> index = new LinkedHashMap<>();
+        List<String> names = new ArrayList<>();
+        List<Compound> pooled = new ArrayList<>();
+        for (Step step : steps) {
+            BalanceResult reaction = step.reaction();
+            if (!reaction.isBalanced()) throw new IllegalArgumentException(reaction.reason());
+            for (BalanceResult.Term term : terms(reaction)) {
+                if (index.putIfAbsent(term.compound().speciesKey(), names.size()) == null) {
+                    names.add(term.compound().notation());
+                    pooled.add(term.compound());
+                }
+            }
+        }
+        species = List.copyOf(names);
+        speciesIndex = new SpeciesIndex(pooled);
+        n = names.size();
+
+        forwardStart = new int[reactions + 1];
+        reverseStart = new int[reactions + 1];
+        netStart = new int[reactions + 1];
+        List<int[]> forwardEntries = new ArrayList<>();
+        List<int[]> reverseEntries = new ArrayList<>();
+        List<int[]> netEntries = new ArrayList<>();
+        for (int j = 0; j < reactions; j++) {
+            Step step = steps.get(j);
+            forward[j] = step.forward();
+            reverse[j] = step.reverse();
+            Map<Integer, Integer> net = new TreeMap<>();
+            for (BalanceResult.Term term : step.reaction().reactants()) {
+                int s = index.get(term.compound().speciesKey());
+                forwardEntries.add(new int[] {s, term.coefficient()});
+                net.merge(s, -term.coefficient(), Integer::sum);
+            }
+            for (BalanceResult.Term term : step.reaction().products()) {
+                int s = index.get(term.compound().speciesKey());
+                reverseEntries.add(new int[] {s, term.coefficient()});
+                net.merge(s, term.coefficient(), Integer::sum);
+            }
+            for (Map.Entry<Integer, Integer> entry : net.entrySet()) {
+                if (entry.getValue() != 0) netEntries.add(new int[] {entry.getKey(), entry.getValue()});
+            }
+            forwardStart[j + 1] = forwardEntries.size();
+            reverseStart[j + 1] = reverseEntries.size();
+            netStart[j + 1] = netEntries.size();
+        }
+        forwardSpecies = new int[forwardEntries.size()];
+        forwardOrder = new int[forwardEntries.size()];
+        for (int e = 0; e < forwardSpecies.length; e++) {
+            forwardSpecies[e] = forwardEntries.get(e)[0];
+            forwardOrder[e] = forwardEntries.get(e)[1];
+        }
+        reverseSpecies = new int[reverseEntries.size()];
+        reverseOrder = new int[reverseEntries.size()];
+        for (int e = 0; e < reverseSpecies.length; e++) {
+            reverseSpecies[e] = reverseEntries.get(e)[0];
+            reverseOrder[e] = reverseEntries.get(e)[1];
+        }
+        netSpecies = new int[netEntries.size()];
+        netNu = new double[netEntries.size()];
+        for (int e = 0; e < netSpecies.length; e++) {
+            netSpecies[e] = netEntries.get(e)[0];
+            netNu[e] = netEntries.get(e)[1];
+        }
+
+        // Jacobian pattern: d(species i)/d(species k) for every net species i and rate-law species k
+        // of the same reaction, plus the diagonal for the LU
+        List<TreeSet<Integer>> pattern = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            TreeSet<Integer> row = new TreeSet<>();
+            row.add(i);
+            pattern.add(row);
+        }
+        for (int j = 0; j < reactions; j++) {
+            for (int m = netStart[j]; m < netStart[j + 1]; m++) {
+                for (int e = forwardStart[j]; e < forwardStart[j + 1]; e++) pattern.get(netSpecies[m]).add(forwardSpecies[e]);
+                for (int e = reverseStart[j]; e < reverseStart[j + 1]; e++) pattern.get(netSpecies[m]).add(reverseSpecies[e]);
+            }
+        }
+        rowStart = new int[n + 1];
+        for (int i = 0; i < n; i++) rowStart[i + 1] = rowStart[i] + pattern.get(i).size();
+        column = new int[rowStart[n]];
+        for (int i = 0; i < n; i++) {
+            int at = rowStart[i];
+            for (int k : pattern.get(i)) column[at++] = k;
+        }
+        forwardSlotStart = new int[forwardSpecies.length];
+        forwardSlot = slots(forwardStart, forwardSpecies, forwardSlotStart);
+        reverseSlotStart = new int[reverseSpecies.length];
+        reverseSlot = slots(reverseStart, reverseSpecies, reverseSlotStart);
+    }
+
+    private static List<BalanceResult.Term> terms(BalanceResult reaction) {
+        List<BalanceResult.Term> terms = new ArrayList<>(reaction.reactants());
+        terms.addAll(reaction.products());
+        return terms;
+    }
+
+    // Slot of (row netSpecies[m], column rateSpecies[e]) for each rate-law entry e and net entry m
+    // of the same reaction
+    private int[] slots(int[] rateStart, int[] rateSpecies, int[] slotStart) {
+        List<Integer> slots = new ArrayList<>();
+        for (int j = 0; j < reactions; j++) {
+            for (int e = rateStart[j]; e < rateStart[j + 1]; e++) {
+                slotStart[e] = slots.size();
+                for (int m = netStart[j]; m < netStart[j + 1]; m++) {
+                    slots.add(slot(netSpecies[m], rateSpecies[e]));
+                }
+            }
+        }
+        return slots.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private int slot(int row, int col) {
+        for (int at = rowStart[row]; at < rowStart[row + 1]; at++) {
+            if (column[at] == col) return at;
+        }
+        throw new IllegalStateException("No Jacobian slot for " + row + ", " + col);
+    }
+
+    public List<String> species() {
+        return species;
+    }
+
+    public int speciesCount() {
+        return n;
+    }
+
+    public int reactionCount() {
+        return reactions;
+    }
+
+    // Non-zero entries of the Jacobian pattern
+    public int jacobianEntries() {
+        return column.length;
+    }
+
+    // Index of a species written as formula, or -1
+    public int speciesIndex(String formula) {
+        return speciesIndex.indexOf(formula);
+    }
+
+    // Initial concentrations from a list such as "1.0 M N2O5, 0.1 M O2"; species not listed start
+    // at 0 M. Throws IllegalArgumentException for a malformed list or a species not in the network.
+    public double[] concentrations(String list) {
+        return concentrations(QueryField.of(list)).orElseThrow();
+    }
+
+    ParseResult<double[]> concentrations(QueryField list) {
+        double[] c = new double[n];
+        for (QueryField item : list.split(',')) {
+            List<QueryField> tokens = item.tokens();
+            if (tokens.size() != 3 || !tokens.get(1).is("M")) {
+                return item.error(QueryError.BAD_FIELD, "Expected '<concentration> M <formula>'");
+            }
+            ParseResult<Double> value = tokens.get(0).number("concentration");
+            if (!value.ok()) return value.cast();
+            if (value.value() < 0) return tokens.get(0).error(QueryError.BAD_NUMBER, "Concentrations must not be negative");
+            QueryField formula = tokens.get(2);
+            int s = speciesIndex(formula.text());
+            if (s < 0) return formula.error(QueryError.UNKNOWN_SPECIES, formula.text() + " is not in the reaction network");
+            c[s] = value.value();
+        }
+        return ParseResult.of(c);
+    }
+
+    // {end time, output interval} from "<end> [<interval>]"; the interval defaults to a tenth of the
+    // run, and at most MAX_OUTPUTS output times are allowed
+    public static double[] outputTimes(String text) {
+        return outputTimes(QueryField.of(text)).orElseThrow();
+    }
+
+    static ParseResult<double[]> outputTimes(QueryField text) {
+        List<QueryField> tokens = text.tokens();
+        if (tokens.isEmpty() || tokens.size() > 2) return text.error(QueryError.BAD_FIELD, "Expected '<end time> [<output interval>]'");
+        ParseResult<Double> end = tokens.get(0).number("end time");
+        if (!end.ok()) return end.cast();
+        if (!(end.value() > 0)) return tokens.get(0).error(QueryError.BAD_NUMBER, "End time must be positive");
+        double interval = end.value() / 10;
+        if (tokens.size() > 1) {
+            ParseResult<Double> given = tokens.get(1).number("output interval");
+            if (!given.ok()) return given.cast();
+            if (!(given.value() > 0)) return tokens.get(1).error(QueryError.BAD_NUMBER, "Output interval must be positive");
+            interval = given.value();
+        }
+        if (end.value() / interval > MAX_OUTPUTS) return text.error(ParseResult.Code.TOO_LARGE, "At most " + MAX_OUTPUTS + " output times");
+        return ParseResult.of(new double[] {end.value(), interval});
+    }
+
+    public Run integrate(double[] initial, double endTime, double interval, Sink sink) {
+        return integrate(initial, endTime, interval, DEFAULT_RELATIVE_TOLERANCE, DEFAULT_ABSOLUTE_TOLERANCE, sink);
+    }
+
+    // Integrate from t = 0 to endTime, passing the concentrations to sink at t = 0 and every
+    // interval (and at endTime). Stops early, with complete false, past the engine's time budget.
+    public Run integrate(double[] initial, double endTime, double interval, double relativeTolerance,
+                         double absoluteTolerance, Sink sink) {
+        if (initial.length != n) throw new IllegalArgumentException("Expected " + n + " initial concentrations");
+        if (!(endTime > 0) || !(interval > 0) || Double.isInfinite(endTime)) {
+            throw new IllegalArgumentException("End time and output interval must be positive");
+        }
+        if (!(relativeTolerance > 0) || !(absoluteTolerance > 0)) {
+            throw new IllegalArgumentException("Tolerances must be positive");
+        }
+        long started = System.nanoTime();
+        EngineLimits.Budget budget = limits.start();
+        double[] y = initial.clone();
+        double[] f = new double[n];
+        double[] k1 = new double[n];
+        double[] k2 = new double[n];
+        double[] trial = new double[n];
+        double[] jacobian = new double[column.length];
+        double[] matrix = new double[n * n];
+        int[] pivot = new int[n];
+
+        double t = 0.0;
+        long outputs = 1;
+        double nextOutput = outputTime(outputs, interval, endTime);
+        double h = Math.min(nextOutput, endTime * 1e-6);
+        int steps = 0;
+        int rejected = 0;
+        boolean complete = true;
+        sink.accept(t, y);
+        jacobian(y, jacobian);
+        derivative(y, f);
+        while (t < endTime) {
+            if (steps + rejected >= MAX_STEPS || ((steps + rejected) % CHECK_INTERVAL == 0 && budget.expired())) {
+                complete = false;
+                break;
+            }
+            // Land exactly on the next output time; the unclipped size carries on afterwards
+            boolean output = t + h >= nextOutput * (1 - 1e-12);
+            double step = output ? nextOutput - t : h;
+
+            if (!factor(jacobian, step, matrix, pivot)) {
+                h = step * 0.25;
+                rejected++;
+                continue;
+            }
+            System.arraycopy(f, 0, k1, 0, n);
+            solve(matrix, pivot, k1);
+            for (int i = 0; i < n; i++) trial[i] = y[i] + step * k1[i];
+            derivative(trial, k2);
+            for (int i = 0; i < n; i++) k2[i] -= 2 * k1[i];
+            solve(matrix, pivot, k2);
+
+            // Error against the embedded first-order solution y + step * k1
+            double error = 0.0;
+            for (int i = 0; i < n; i++) {
+                double next = y[i] + step * (1.5 * k1[i] + 0.5 * k2[i]);
+                trial[i] = next;
+                double scale = absoluteTolerance + relativeTolerance * Math.max(Math.abs(y[i]), Math.abs(next));
+                error = Math.max(error, Math.abs(0.5 * step * (k1[i] + k2[i])) / scale);
+            }
+            if (!(error <= 1.0)) {
+                rejected++;
+                h = step * (Double.isNaN(error) ? 0.25 : Math.max(0.2, 0.9 / Math.sqrt(error)));
+                continue;
+            }
+            steps++;
+            System.arraycopy(trial, 0, y, 0, n);
+            t = output ? nextOutput : t + step;
+            double grow = Math.min(5.0, error == 0 ? 5.0 : 0.9 / Math.sqrt(error));
+            h = output ? Math.max(h, step * grow) : step * grow;
+            derivative(y, f);
+            jacobian(y, jacobian);
+            if (output) {
+                sink.accept(t, y);
+                nextOutput = outputTime(++outputs, interval, endTime);
+            }
+        }
+        if (!complete) metrics.countLimited();
+        metrics.record(EngineMetrics.Stage.KINETICS, started);
+        return new Run(t, steps, rejected, complete);
+    }
+
+    // Output k falls at k * interval, computed from the count so rounding does not build up; one
+    // within a relative 1e-9 of endTime is endTime itself, so no point lands just before the end
+    static double outputTime(long k, double interval, double endTime) {
+        double time = k * interval;
+        return endTime - time <= 1e-9 * endTime ? endTime : time;
+    }
+
+    // Net rate of change of every species at concentrations c
+    void derivative(double[] c, double[] out) {
+        Arrays.fill(out, 0.0);
+        for (int j = 0; j < reactions; j++) {
+            double rate = forward[j] * product(c, forwardStart[j], forwardStart[j + 1], forwardSpecies, forwardOrder, -1)
+                          - reverse[j] * product(c, reverseStart[j], reverseStart[j + 1], reverseSpecies, reverseOrder, -1);
+            for (int m = netStart[j]; m < netStart[j + 1]; m++) {
+                out[netSpecies[m]] += netNu[m] * rate;
+            }
+        }
+    }
+
+    // Jacobian values into the CSR pattern
+    void jacobian(double[] c, double[] out) {
+        Arrays.fill(out, 0.0);
+        for (int j = 0; j < reactions; j++) {
+            accumulate(c, j, forwardStart, forwardSpecies, forwardOrder, forwardSlot, forwardSlotStart, forward[j], out);
+            accumulate(c, j, reverseStart, reverseSpecies, reverseOrder, reverseSlot, reverseSlotStart, -reverse[j], out);
+        }
+    }
+
+    private void accumulate(double[] c, int j, int[] start, int[] rateSpecies, int[] order, int[] slot, int[] slotStart,
+                            double k, double[] out) {
+        if (k == 0) return;
+        for (int e = start[j]; e < start[j + 1]; e++) {
+            // d/dc of k * c^a * (others) = k * a * c^(a-1) * (others)
+            double d = k * order[e] * power(c[rateSpecies[e]], order[e] - 1)
+                       * product(c, start[j], start[j + 1], rateSpecies, order, e);
+            int base = slotStart[e];
+            for (int m = netStart[j]; m < netStart[j + 1]; m++) {
+                out[slot[base + m - netStart[j]]] += netNu[m] * d;
+            }
+        }
+    }
+
+    // prod(c[species]^order) over entries [from, to), skipping entry skip
+    private static double product(double[] c, int from, int to, int[] species, int[] order, int skip) {
+        double p = 1.0;
+        for (int e = from; e < to; e++) {
+            if (e != skip) p *= power(c[species[e]], order[e]);
+        }
+        return p;
+    }
+
+    private static double power(double x, int a) {
+        double p = 1.0;
+        for (int i = 0; i < a; i++) p *= x;
+        return p;
+    }
+
+    // LU factorization with partial pivoting of I - GAMMA * h * J into matrix; false if singular
+    private boolean factor(double[] jacobian, double h, double[] matrix, int[] pivot) {
+        Arrays.fill(matrix, 0.0);
+        double scale = -GAMMA * h;
+        for (int i = 0; i < n; i++) {
+            for (int at = rowStart[i]; at < rowStart[i + 1]; at++) {
+                matrix[i * n + column[at]] = scale * jacobian[at];
+            }
+            matrix[i * n + i] += 1.0;
+        }
+        for (int col = 0; col < n; col++) {
+            int best = col;
+            for (int r = col + 1; r < n; r++) {
+                if (Math.abs(matrix[r * n + col]) > Math.abs(matrix[best * n + col])) best = r;
+            }
+            pivot[col] = best;
+            if (matrix[best * n + col] == 0.0 || !Double.isFinite(matrix[best * n + col])) return false;
+            if (best != col) {
+                for (int k = 0; k < n; k++) {
+                    double tmp = matrix[col * n + k];
+                    matrix[col * n + k] = matrix[best * n + k];
+                    matrix[best * n + k] = tmp;
+                }
+            }
+            double diagonal = matrix[col * n + col];
+            for (int r = col + 1; r < n; r++) {
+                double factor = matrix[r * n + col] / diagonal;
+                if (factor == 0.0) continue;
+                matrix[r * n + col] = factor;
+                for (int k = col + 1; k < n; k++) matrix[r * n + k] -= factor * matrix[col * n + k];
+            }
+        }
+        return true;
+    }
+
+    // Solve with the factored matrix in place
+    private void solve(double[] matrix, int[] pivot, double[] b) {
+        for (int col = 0; col < n; col++) {
+            int p = pivot[col];
+            if (p != col) {
+                double tmp = b[col];
+                b[col] = b[p];
+                b[p] = tmp;
+            }
+            for (int r = col + 1; r < n; r++) b[r] -= matrix[r * n + col] * b[col];
+        }
+        for (int r = n - 1; r >= 0; r--) {
+            double s = b[r];
+            for (int k = r + 1; k < n; k++) s -= matrix[r * n + k] * b[k];
+            b[r] = s / matrix[r * n + r];
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package chemcalculator;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+// Formula-from-mass enumeration by branch and bound. Elements are taken heaviest first, so the
+// deep levels are the light elements with the widest count ranges, and the lightest element's count
+// is solved directly from the remaining mass instead of enumerated. A branch is cut when the
+// remaining elements cannot reach the target window even at their minimum or maximum counts, or
+// when the remaining elements cannot raise the RDBE back to zero; just above the leaf the RDBE's cap
+// on the lightest element also sets where the enumeration starts. Leaves must have an integer,
+// non-negative RDBE (a neutral, even-electron molecule). The counts of the heaviest element are
+// independent top-level branches and run in parallel.
+final class MassDecomposer {
+    // Valences for the RDBE rule; elements not listed count as divalent (no effect on the RDBE)
+    private static final Map<String, Integer> VALENCES = Map.ofEntries(
+        Map.entry("H", 1), Map.entry("F", 1), Map.entry("Cl", 1), Map.entry("Br", 1), Map.entry("I", 1),
+        Map.entry("Li", 1), Map.entry("Na", 1), Map.entry("K", 1),
+        Map.entry("O", 2), Map.entry("S", 2), Map.entry("Se", 2),
+        Map.entry("B", 3), Map.entry("N", 3), Map.entry("P", 3), Map.entry("As", 3),
+        Map.entry("C", 4), Map.entry("Si", 4), Map.entry("Ge", 4));
+
+    // Slack for floating-point comparisons against the window edges
+    private static final double EPSILON = 1e-9;
+    // The time budget is checked on every node this shallow; deeper subtrees are small
+    private static final int CHECK_DEPTH = 2;
+
+    private final int n;
+    private final String[] elements;
+    private final double[] masses;
+    private final int[] lo;
+    private final int[] hi;
+    private final int[] excess;            // valence - 2 per element; RDBE = 1 + sum(count * excess) / 2
+    private final double[] suffixMin;      // mass of elements i.. at their minimum counts
+    private final double[] suffixMax;      // ... at their maximum counts
+    private final int[] suffixExcessMax;   // largest sum(count * excess) over elements i..
+    private final double low;
+    private final double high;
+    private final double target;
+    private final Consumer<FormulaSearch.Match> sink;
+    private final EngineLimits.Budget budget;
+    private final AtomicBoolean expired = new AtomicBoolean();
+
+    private MassDecomposer(double target, double tolerance, List<FormulaSearch.Range> ranges,
+                           Consumer<FormulaSearch.Match> sink, EngineLimits.Budget budget) {
+        List<FormulaSearch.Range> sorted = new ArrayList<>(ranges);
+        sorted.sort(Comparator.comparingDouble((FormulaSearch.Range r) -> Elements.atomicWeight(r.element())).reversed());
+        this.n = sorted.size();
+        this.target = target;
+        this.low = target - tolerance - EPSILON;
+        this.high = target + tolerance + EPSILON;
+        this.sink = sink;
+        this.budget = budget;
+        elements = new String[n];
+        masses = new double[n];
+        lo = new int[n];
+        hi = new int[n];
+        excess = new int[n];
+        for (int i = 0; i < n; i++) {
+            FormulaSearch.Range range = sorted.get(i);
+            elements[i] = range.element();
+            masses[i] = Elements.atomicWeight(range.element());
+            lo[i] = range.min();
+            hi[i] = (int) Math.min(range.max(), Math.floor(high / masses[i]));
+            excess[i] = VALENCES.getOrDefault(range.element(), 2) - 2;
+        }
+        suffixMin = new double[n + 1];
+        suffixMax = new double[n + 1];
+        suffixExcessMax = new int[n + 1];
+        for (int i = n - 1; i >= 0; i--) {
+            suffixMin[i] = suffixMin[i + 1] + lo[i] * masses[i];
+            suffixMax[i] = suffixMax[i + 1] + Math.max(lo[i], hi[i]) * masses[i];
+            suffixExcessMax[i] = suffixExcessMax[i + 1] + (excess[i] > 0 ? hi[i] : lo[i]) * excess[i];
+        }
+    }
+
+    // Stream every match to sink (possibly from several threads at once); false if the search ran
+    // past the budget
+    static boolean search(double target, double tolerance, List<FormulaSearch.Range> ranges,
+                          Consumer<FormulaSearch.Match> sink, EngineLimits.Budget budget) {
+        if (ranges.isEmpty()) return true;
+        MassDecomposer search = new MassDecomposer(target, tolerance, ranges, sink, budget);
+        if (search.suffixMin[0] > search.high || search.lo[0] > search.hi[0]) return true;
+        if (search.n == 1) {
+            search.branch(new int[1], 0, 0.0, 0);
+        } else {
+            IntStream.rangeClosed(search.lo[0], search.hi[0]).parallel().forEach(count -> {
+                int[] counts = new int[search.n];
+                counts[0] = count;
+                search.branch(counts, 1, count * search.masses[0], count * search.excess[0]);
+            });
+        }
+        return !search.expired.get();
+    }
+
+    // Enumerate element i onwards given the mass and excess of elements before it
+    private void branch(int[] counts, int i, double mass, int excessSum) {
+        if (expired.get()) return;
+        if (i == n - 1) {
+            leaf(counts, mass, excessSum);
+            return;
+        }
+        for (int c = first(i, mass, excessSum); c <= hi[i]; c++) {
+            double m = mass + c * masses[i];
+            if (m + suffixMin[i + 1] > high) break;
+            if (m + suffixMax[i + 1] < low) continue;
+            int e = excessSum + c * excess[i];
+            if (2 + e + suffixExcessMax[i + 1] < 0) {
+                // RDBE out of reach; more of a low-valence element only makes it worse
+                if (excess[i] < 0) break;
+                continue;
+            }
+            if (i <= CHECK_DEPTH && budget.expired()) {
+                expired.set(true);
+                return;
+            }
+            counts[i] = c;
+            branch(counts, i + 1, m, e);
+        }
+        counts[i] = 0;
+    }
+
+    // Lowest count of element i worth trying. Just above the leaf, when the last element lowers the
+    // RDBE (hydrogen) and element i raises it (carbon), the RDBE caps the last element's count at
+    // (2 + excess) / -excess[last], so low counts of element i cannot reach the window however many
+    // of the last element follow; start at the first count whose capped mass can.
+    private int first(int i, double mass, int excessSum) {
+        int last = n - 1;
+        if (i != last - 1 || excess[last] >= 0 || excess[i] < 0) return lo[i];
+        double perLast = masses[last] / -excess[last];
+        double rate = masses[i] + excess[i] * perLast;
+        double c = (low - mass - (2 + excessSum) * perLast) / rate;
+        return c <= lo[i] ? lo[i] : (int) Math.min(Math.floor(c), hi[i] + 1L);
+    }
+
+    // Solve the last (lightest) element's count from the remaining mass
+    private void leaf(int[] counts, double mass, int excessSum) {
+        int last = n - 1;
+        double m = masses[last];
+        int from = Math.max(lo[last], (int) Math.ceil((low - mass) / m));
+        int to = Math.min(hi[last], (int) Math.floor((high - mass) / m));
+        for (int c = from; c <= to; c++) {
+            int e = excessSum + c * excess[last];
+            // RDBE = (2 + e) / 2 must be a non-negative integer
+            if (e + 2 < 0 || (e & 1) != 0) continue;
+            counts[last] = c;
+            emit(counts, mass + c * m, (2 + e) / 2.0);
+        }
+        counts[last] = 0;
+    }
+
+    private void emit(int[] counts, double mass, double rdbe) {
+        Map<String, Integer> comp = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            comp.put(elements[i], counts[i]);
+        }
+        Map<String, Integer> ordered = Formula.hillOrder(comp);
+        if (ordered.isEmpty()) return;
+        sink.accept(new FormulaSearch.Match(Formula.text(ordered), Collections.unmodifiableMap(ordered), mass,
+                                            mass - target, rdbe));
+    }
+}
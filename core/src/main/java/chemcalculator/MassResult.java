@@ -0,0 +1,29 @@
+package chemcalculator;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// Gram formula mass of one formula, with the contribution of each element in parse order.
+// exactMass (and each contribution's exactMass) is set only for Precision.EXACT.
+public record MassResult(String formula, List<Contribution> contributions, double totalMass, BigDecimal exactMass) {
+    // How the total is computed
+    public enum Precision {
+        FAST,   // double weights, Neumaier-compensated sum
+        EXACT   // decimal weights, exact BigDecimal products and sum
+    }
+
+    // Mass contributed by count atoms of one element (g/mol)
+    public record Contribution(String element, int count, double mass, BigDecimal exactMass) {
+        public Contribution(String element, int count, double mass) {
+            this(element, count, mass, null);
+        }
+    }
+
+    public MassResult {
+        contributions = List.copyOf(contributions);
+    }
+
+    public MassResult(String formula, List<Contribution> contributions, double totalMass) {
+        this(formula, contributions, totalMass, null);
+    }
+}
@@ -0,0 +1,96 @@
+package chemcalculator;
+
+import java.math.BigInteger;
+
+// Exact null space of an integer matrix by fraction-free Gauss-Jordan elimination: rows are
+// combined by cross-multiplying with the pivot and divided by their gcd again, so entries stay
+// small integers instead of growing fractions. Balancing only needs the one-dimensional case,
+// where the kernel vector is returned in lowest terms.
+final class NullSpace {
+    // Rank and nullity of the matrix; vector is the primitive kernel vector when nullity == 1 (else null).
+    // maxBits is the largest entry bit length seen during elimination. exceeded is non-null when the
+    // budget ran out (time, or entries beyond maxCoefficientBits) and the elimination was abandoned.
+    record Kernel(int rank, int nullity, BigInteger[] vector, int maxBits, String exceeded) {
+        static Kernel abandoned(int maxBits, String reason) {
+            return new Kernel(0, 0, null, maxBits, reason);
+        }
+    }
+
+    private NullSpace() {}
+
+    // Reduces the matrix in place; the budget is checked once per pivot column
+    static Kernel of(BigInteger[][] matrix, int columns, EngineLimits.Budget budget) {
+        int bitLimit = budget.limits().maxCoefficientBits();
+        int rows = matrix.length;
+        int[] pivotColumn = new int[rows];
+        int rank = 0;
+        int maxBits = 0;
+        for (int col = 0; col < columns && rank < rows; col++) {
+            int pivot = -1;
+            for (int r = rank; r < rows; r++) {
+                if (matrix[r][col].signum() != 0 && (pivot < 0 || matrix[r][col].bitLength() < matrix[pivot][col].bitLength())) {
+                    pivot = r;
+                }
+            }
+            if (pivot < 0) continue;
+            if (budget.expired()) {
+                return Kernel.abandoned(maxBits, "the time budget ran out");
+            }
+            BigInteger[] pivotRow = matrix[pivot];
+            matrix[pivot] = matrix[rank];
+            matrix[rank] = pivotRow;
+            BigInteger p = pivotRow[col];
+            for (int r = 0; r < rows; r++) {
+                BigInteger f = matrix[r][col];
+                if (r == rank || f.signum() == 0) continue;
+                BigInteger g = f.gcd(p);
+                BigInteger rowScale = p.divide(g);
+                BigInteger pivotScale = f.divide(g);
+                BigInteger[] row = matrix[r];
+                for (int j = 0; j < columns; j++) {
+                    row[j] = row[j].multiply(rowScale).subtract(pivotRow[j].multiply(pivotScale));
+                }
+                maxBits = Math.max(maxBits, reduce(row));
+                if (maxBits > bitLimit) {
+                    return Kernel.abandoned(maxBits, "the elimination grew beyond " + bitLimit + "-bit numbers");
+                }
+            }
+            pivotColumn[rank++] = col;
+        }
+        int nullity = columns - rank;
+        if (nullity != 1) return new Kernel(rank, nullity, null, maxBits, null);
+        // The one free column gets value L (lcm of the pivots); each pivot variable follows from its row
+        boolean[] isPivot = new boolean[columns];
+        for (int i = 0; i < rank; i++) isPivot[pivotColumn[i]] = true;
+        int free = 0;
+        while (isPivot[free]) free++;
+        BigInteger lcm = BigInteger.ONE;
+        for (int i = 0; i < rank; i++) {
+            BigInteger p = matrix[i][pivotColumn[i]].abs();
+            lcm = lcm.divide(lcm.gcd(p)).multiply(p);
+        }
+        BigInteger[] vector = new BigInteger[columns];
+        vector[free] = lcm;
+        for (int i = 0; i < rank; i++) {
+            int pc = pivotColumn[i];
+            vector[pc] = matrix[i][free].negate().multiply(lcm.divide(matrix[i][pc]));
+        }
+        for (int j = 0; j < columns; j++) {
+            if (vector[j] == null) vector[j] = BigInteger.ZERO;
+        }
+        reduce(vector);
+        return new Kernel(rank, nullity, vector, maxBits, null);
+    }
+
+    // Divide a row by the gcd of its entries; returns the largest remaining bit length
+    private static int reduce(BigInteger[] row) {
+        BigInteger g = BigInteger.ZERO;
+        for (BigInteger v : row) g = g.gcd(v);
+        int bits = 0;
+        for (int j = 0; j < row.length; j++) {
+            if (g.signum() != 0 && !g.equals(BigInteger.ONE)) row[j] = row[j].divide(g);
+            bits = Math.max(bits, row[j].bitLength());
+        }
+        return bits;
+    }
+}
@@ -0,0 +1,138 @@
+package chemcalculator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Oxidation-number assignment by the usual textbook priority rules (H, O, F, groups 1/2, ...).
+final class OxidationStates {
+    private OxidationStates() {}
+
+    // Compute oxidation numbers for each element in a compound (heuristic rules)
+    static Map<String,Integer> assign(Compound comp) {
+        Map<String,Integer> oxMap = new HashMap<>();
+        Map<String,Integer> compMap = comp.composition();
+        int netCharge = comp.charge();
+        if (compMap.isEmpty()) return oxMap;
+        if (compMap.size() == 1) {
+            // Single element compound (element in elemental form or monatomic ion)
+            String elem = compMap.keySet().iterator().next();
+            if (netCharge == 0) {
+                // Elemental form (e.g., O2, Fe)
+                oxMap.put(elem, 0);
+            } else {
+                // Monatomic ion: oxidation = charge / count
+                int count = compMap.get(elem);
+                oxMap.put(elem, netCharge / count);
+            }
+            return oxMap;
+        }
+        int sumKnown = 0;
+        List<String> unknowns = new ArrayList<>();
+        for (String elem : compMap.keySet()) {
+            int count = compMap.get(elem);
+            int ox = 0;
+            if (elem.equals("H")) {
+                // Hydrogen: +1 except when with metals (then -1)
+                boolean withMetal = false;
+                for (String e2 : compMap.keySet()) {
+                    if (!e2.equals("H") && Elements.isMetal(e2)) { withMetal = true; break; }
+                }
+                ox = withMetal ? -1 : +1;
+                oxMap.put(elem, ox);
+                sumKnown += ox * count;
+            } else if (elem.equals("O")) {
+                // Oxygen: assume -2 (adjust later for peroxides)
+                ox = -2;
+                oxMap.put(elem, ox);
+                sumKnown += ox * count;
+            } else if (elem.equals("F")) {
+                ox = -1;
+                oxMap.put(elem, ox);
+                sumKnown += ox * count;
+            } else if (Elements.isGroup1(elem)) {
+                ox = +1;
+                oxMap.put(elem, ox);
+                sumKnown += ox * count;
+            } else if (Elements.isGroup2(elem)) {
+                ox = +2;
+                oxMap.put(elem, ox);
+                sumKnown += ox * count;
+            } else if (elem.equals("Al")) {
+                ox = +3;
+                oxMap.put(elem, ox);
+                sumKnown += ox * count;
+            } else if (elem.equals("Zn")) {
+                ox = +2;
+                oxMap.put(elem, ox);
+                sumKnown += ox * count;
+            } else if (elem.equals("Ag")) {
+                ox = +1;
+                oxMap.put(elem, ox);
+                sumKnown += ox * count;
+            } else if (Elements.hasAnionName(elem)) {
+                // Elements typically forming negative ions (halogens, chalcogens, etc.)
+                if ((elem.equals("Cl")||elem.equals("Br")||elem.equals("I")) && compMap.containsKey("O")) {
+                    // Halogen present with oxygen (likely positive oxidation state) -> leave as unknown
+                    unknowns.add(elem);
+                } else if ((elem.equals("S")||elem.equals("Se")||elem.equals("Te")) && compMap.containsKey("O")) {
+                    // Sulfur/selenium/tellurium in an oxyanion -> unknown (varied oxidation states)
+                    unknowns.add(elem);
+                } else if ((elem.equals("N")||elem.equals("P")) && compMap.containsKey("O")) {
+                    // Nitrogen/phosphorus in presence of oxygen -> unknown
+                    unknowns.add(elem);
+                } else {
+                    // Otherwise assign typical negative oxidation state
+                    if (elem.equals("Cl")||elem.equals("Br")||elem.equals("I")) ox = -1;
+                    else if (elem.equals("S")||elem.equals("Se")||elem.equals("Te")) ox = -2;
+                    else if (elem.equals("N")||elem.equals("P")) ox = -3;
+                    else ox = -1;
+                    oxMap.put(elem, ox);
+                    sumKnown += ox * count;
+                }
+            } else {
+                // Unknown (likely transition metal or element with variable states)
+                unknowns.add(elem);
+            }
+        }
+        if (!unknowns.isEmpty()) {
+            if (unknowns.size() == 1) {
+                String elem = unknowns.get(0);
+                int count = compMap.get(elem);
+                // Assign whatever oxidation number balances net charge
+                int ox = (netCharge - sumKnown) / count;
+                oxMap.put(elem, ox);
+            } else {
+                // Multiple unknown oxidation states (e.g., organic molecules) -> assign 0 as placeholder
+                for (String elem : unknowns) {
+                    oxMap.put(elem, 0);
+                }
+            }
+        }
+        // Adjust for peroxides: if O appears to be -2 but total doesn't match, treat O as -1
+        if (compMap.containsKey("O")) {
+            int Ocount = compMap.get("O");
+            if (Ocount == 2 && oxMap.getOrDefault("O", -2) == -2) {
+                // Check if using -2 for O leads to incorrect total charge
+                int totalCalc = 0;
+                for (String elem : compMap.keySet()) {
+                    totalCalc += oxMap.getOrDefault(elem, 0) * compMap.get(elem);
+                }
+                if (totalCalc != netCharge) {
+                    // Assume it's a peroxide: set O to -1
+                    oxMap.put("O", -1);
+                    // Recompute one unknown element's oxidation state if applicable
+                    for (String elem : unknowns) {
+                        if (!elem.equals("O")) {
+                            int count = compMap.get(elem);
+                            int ox = (netCharge - (sumKnown + Ocount)) / count;
+                            oxMap.put(elem, ox);
+                        }
+                    }
+                }
+            }
+        }
+        return oxMap;
+    }
+}
@@ -0,0 +1,64 @@
+package chemcalculator;
+
+// Outcome of parsing user text without exceptions: the value, or an error code with a message and
+// the character offset where the problem was found. Batch feeds carry many invalid lines, so the
+// parser reports them as values and only the throwing convenience methods build exceptions.
+// Query lines use the same values, with a QueryError once their formulas have parsed.
+public record ParseResult<T>(T value, ErrorCode code, String message, int offset) {
+    // A Code for text that does not parse, or a QueryError for a query that asks for something wrong
+    public sealed interface ErrorCode permits Code, QueryError {
+        String name();
+    }
+
+    public enum Code implements ErrorCode {
+        EMPTY,                 // blank input
+        UNEXPECTED_CHARACTER,  // a character that cannot start or continue a formula here
+        UNMATCHED_BRACKET,     // ')' or ']' without its opening bracket, or of the wrong kind
+        UNCLOSED_BRACKET,      // '(' or '[' never closed
+        TOO_LONG,              // input longer than EngineLimits.maxInputLength
+        TOO_DEEP,              // brackets nested beyond EngineLimits.maxDepth
+        TOO_LARGE,             // a subscript, coefficient or charge above EngineLimits.maxSubscript,
+                               // an element count that overflows, work that cannot finish within
+                               // the time budget (an isotope pattern, a set of couples), or more
+                               // output points than a query allows
+        TOO_MANY_SPECIES,      // more species than EngineLimits.maxSpecies
+        BAD_CHARGE,            // charge notation without a sign, or an electron that is not e-
+        BAD_COEFFICIENT,       // coefficient of zero
+        MISSING_SPECIES,       // '+' or coefficient with no formula after it
+        EMPTY_SIDE,            // nothing before or after the arrow
+        ARROW                  // no arrow, or more than one
+    }
+
+    static <T> ParseResult<T> of(T value) {
+        return new ParseResult<>(value, null, null, -1);
+    }
+
+    static <T> ParseResult<T> failed(ErrorCode code, String message, int offset) {
+        return new ParseResult<>(null, code, message, offset);
+    }
+
+    // Same error, different value type
+    <U> ParseResult<U> cast() {
+        return new ParseResult<>(null, code, message, offset);
+    }
+
+    // True when the input was refused by an EngineLimits limit rather than being malformed
+    public boolean exceedsLimit() {
+        return code == Code.TOO_LONG || code == Code.TOO_DEEP || code == Code.TOO_LARGE || code == Code.TOO_MANY_SPECIES;
+    }
+
+    public boolean ok() {
+        return code == null;
+    }
+
+    // "message at column N" (1-based), or null when parsing succeeded
+    public String describe() {
+        return code == null ? null : message + " at column " + (offset + 1);
+    }
+
+    // The value, or an IllegalArgumentException carrying describe()
+    public T orElseThrow() {
+        if (code != null) throw new IllegalArgumentException(describe());
+        return value;
+    }
+}
@@ -0,0 +1,13 @@
+package chemcalculator;
+
+// Why a query line was refused once its formulas and equations parsed: a field in the wrong form, a
+// number out of range, or something the chemistry cannot do. Carried by ParseResult next to the
+// parse codes, with the offset of the field at fault.
+public enum QueryError implements ParseResult.ErrorCode {
+    BAD_FIELD,        // a query line missing a part, or a part not in the expected form
+                      // (e.g. "<amount> <unit> <formula>")
+    BAD_NUMBER,       // a number that does not parse, is not finite or is out of range
+    UNKNOWN_SPECIES,  // an element, species or couple with no data, or not in the reaction
+    NOT_BALANCED,     // an equation in a query that cannot be balanced
+    INCOMPATIBLE      // species that cannot play their part, e.g. an acid titrated with an acid
+}
@@ -0,0 +1,127 @@
+package chemcalculator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// A piece of a query line and its offset in that line. Query parsers cut their line into fields and
+// report a problem as a ParseResult pointing at the field, so a malformed batch line costs no
+// exception.
+record QueryField(String text, int offset) {
+    // The whole line, trimmed (offsets still count from the start of line)
+    static QueryField of(String line) {
+        return new QueryField(line, 0).trim();
+    }
+
+    QueryField trim() {
+        return slice(0, text.length());
+    }
+
+    boolean isEmpty() {
+        return text.isEmpty();
+    }
+
+    boolean is(String word) {
+        return text.equals(word);
+    }
+
+    // text[from, to) trimmed, keeping its place in the line
+    QueryField slice(int from, int to) {
+        while (from < to && Character.isWhitespace(text.charAt(from))) from++;
+        while (to > from && Character.isWhitespace(text.charAt(to - 1))) to--;
+        return new QueryField(text.substring(from, to), offset + from);
+    }
+
+    // From the start of token (a field within this one) to the end, e.g. a formula written with spaces
+    QueryField from(QueryField token) {
+        return slice(token.offset - offset, text.length());
+    }
+
+    // Trimmed pieces between separators; at most limit pieces, the last keeping any further separators
+    List<QueryField> split(char separator, int limit) {
+        List<QueryField> pieces = new ArrayList<>();
+        int from = 0;
+        int at;
+        while (pieces.size() < limit - 1 && (at = text.indexOf(separator, from)) >= 0) {
+            pieces.add(slice(from, at));
+            from = at + 1;
+        }
+        pieces.add(slice(from, text.length()));
+        return pieces;
+    }
+
+    List<QueryField> split(char separator) {
+        return split(separator, Integer.MAX_VALUE);
+    }
+
+    // Whitespace-separated tokens; none for a blank field
+    List<QueryField> tokens() {
+        List<QueryField> tokens = new ArrayList<>();
+        int n = text.length();
+        int i = 0;
+        while (i < n) {
+            while (i < n && Character.isWhitespace(text.charAt(i))) i++;
+            int start = i;
+            while (i < n && !Character.isWhitespace(text.charAt(i))) i++;
+            if (i > start) tokens.add(new QueryField(text.substring(start, i), offset + start));
+        }
+        return tokens;
+    }
+
+    // The field as a finite decimal number ("0.1", "-2", "5e-4"); BAD_NUMBER naming what otherwise.
+    // The syntax is checked first, so a bad number does not go through NumberFormatException.
+    ParseResult<Double> number(String what) {
+        if (isDecimal(text)) {
+            double value = Double.parseDouble(text);
+            if (Double.isFinite(value)) return ParseResult.of(value);
+        }
+        return error(QueryError.BAD_NUMBER, "Bad " + what + " '" + text + "'");
+    }
+
+    // The field as a count of up to nine digits; BAD_NUMBER naming what otherwise
+    ParseResult<Integer> count(String what) {
+        int n = text.length();
+        boolean digits = n > 0 && n <= 9;
+        for (int i = 0; digits && i < n; i++) digits = text.charAt(i) >= '0' && text.charAt(i) <= '9';
+        return digits ? ParseResult.of(Integer.parseInt(text)) : error(QueryError.BAD_NUMBER, "Bad " + what + " '" + text + "'");
+    }
+
+    <T> ParseResult<T> error(ParseResult.ErrorCode code, String message) {
+        return ParseResult.failed(code, message, offset);
+    }
+
+    // A failure from parsing this field's text on its own, moved to the field's place in the line
+    <T> ParseResult<T> within(ParseResult<?> failure) {
+        return ParseResult.failed(failure.code(), failure.message(), offset + Math.max(0, failure.offset()));
+    }
+
+    // [+-] digits [. digits] [e [+-] digits], with digits on at least one side of the point
+    private static boolean isDecimal(String s) {
+        int n = s.length();
+        int i = sign(s, 0);
+        int start = i;
+        i = digits(s, i);
+        int whole = i - start;
+        if (i < n && s.charAt(i) == '.') {
+            int point = ++i;
+            i = digits(s, i);
+            if (whole == 0 && i == point) return false;
+        } else if (whole == 0) {
+            return false;
+        }
+        if (i < n && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+            int exponent = sign(s, i + 1);
+            i = digits(s, exponent);
+            if (i == exponent) return false;
+        }
+        return i == n;
+    }
+
+    private static int sign(String s, int i) {
+        return i < s.length() && (s.charAt(i) == '+' || s.charAt(i) == '-') ? i + 1 : i;
+    }
+
+    private static int digits(String s, int i) {
+        while (i < s.length() && s.charAt(i) >= '0' && s.charAt(i) <= '9') i++;
+        return i;
+    }
+}
@@ -0,0 +1,33 @@
+package chemcalculator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Species of a reaction or network, looked up the way a query writes them: as printed ("Fe^3+") or
+// in any other notation of the same species ("Fe3+", CH3COOH for C2H4O2), matched on
+// Compound.speciesKey. The keys are computed once, so a lookup parses only the name asked for.
+// Immutable.
+final class SpeciesIndex {
+    private final List<String> notations;
+    private final List<String> keys;
+
+    SpeciesIndex(List<Compound> species) {
+        List<String> notations = new ArrayList<>(species.size());
+        List<String> keys = new ArrayList<>(species.size());
+        for (Compound compound : species) {
+            notations.add(compound.notation());
+            keys.add(compound.speciesKey());
+        }
+        this.notations = List.copyOf(notations);
+        this.keys = List.copyOf(keys);
+    }
+
+    // Index of the species written as formula, or -1
+    int indexOf(String formula) {
+        String trimmed = formula.trim();
+        int i = notations.indexOf(trimmed);
+        if (i >= 0) return i;
+        ParseResult<Compound> parsed = FormulaParser.parseCompound(trimmed, EngineLimits.DEFAULT);
+        return parsed.ok() ? keys.indexOf(parsed.value().speciesKey()) : -1;
+    }
+}
@@ -0,0 +1,88 @@
+package chemcalculator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Standard reduction potentials (25 C, 1 M, 1 atm; volts against the standard hydrogen electrode)
+// keyed by the species keys of the oxidized and reduced forms, so "Fe3+/Fe2+" and "Fe^3+/Fe^2+"
+// find the same couple. Couples are acidic unless marked basic (balanced with OH- and water). The
+// electron count is not stored: it comes from balancing the half-reaction.
+final class StandardPotentials {
+    record Entry(Compound oxidized, Compound reduced, double potential, boolean basic) {}
+
+    private static final Map<String, Entry> TABLE;
+
+    static {
+        Map<String, Entry> table = new LinkedHashMap<>();
+        Object[][] rows = {
+            {"F2", "F-", 2.87},
+            {"H2O2", "H2O", 1.776},
+            {"MnO4-", "Mn2+", 1.507},
+            {"Au3+", "Au", 1.498},
+            {"Cl2", "Cl-", 1.358},
+            {"Cr2O7^2-", "Cr3+", 1.232},
+            {"O2", "H2O", 1.229},
+            {"Br2", "Br-", 1.066},
+            {"NO3-", "NO", 0.957},
+            {"Hg2+", "Hg", 0.851},
+            {"Ag+", "Ag", 0.7996},
+            {"Fe3+", "Fe2+", 0.771},
+            {"O2", "H2O2", 0.695},
+            {"I2", "I-", 0.5355},
+            {"Cu+", "Cu", 0.521},
+            {"O2", "OH-", 0.401, true},
+            {"Cu2+", "Cu", 0.3419},
+            {"Sn4+", "Sn2+", 0.151},
+            {"H+", "H2", 0.0},
+            {"Pb2+", "Pb", -0.1262},
+            {"Sn2+", "Sn", -0.1375},
+            {"Ni2+", "Ni", -0.257},
+            {"Co2+", "Co", -0.28},
+            {"Cd2+", "Cd", -0.403},
+            {"Fe2+", "Fe", -0.447},
+            {"Cr3+", "Cr", -0.744},
+            {"Zn2+", "Zn", -0.7618},
+            {"H2O", "H2", -0.8277, true},
+            {"Al3+", "Al", -1.662},
+            {"Mg2+", "Mg", -2.372},
+            {"Na+", "Na", -2.71},
+            {"Ca2+", "Ca", -2.868},
+            {"K+", "K", -2.931},
+            {"Li+", "Li", -3.0401},
+        };
+        for (Object[] row : rows) {
+            Compound oxidized = FormulaParser.parseCompound((String) row[0], EngineLimits.DEFAULT).orElseThrow();
+            Compound reduced = FormulaParser.parseCompound((String) row[1], EngineLimits.DEFAULT).orElseThrow();
+            boolean basic = row.length > 3 && (Boolean) row[3];
+            table.put(key(oxidized, reduced), new Entry(oxidized, reduced, (Double) row[2], basic));
+        }
+        TABLE = Collections.unmodifiableMap(table);
+    }
+
+    private static final String HYDROXIDE = EquationBalancer.HYDROXIDE.speciesKey();
+
+    private StandardPotentials() {}
+
+    // A couple not in the table; basic when either form is hydroxide
+    static Entry custom(Compound oxidized, Compound reduced, double potential) {
+        boolean basic = oxidized.speciesKey().equals(HYDROXIDE) || reduced.speciesKey().equals(HYDROXIDE);
+        return new Entry(oxidized, reduced, potential, basic);
+    }
+
+    static String key(Compound oxidized, Compound reduced) {
+        return oxidized.speciesKey() + "/" + reduced.speciesKey();
+    }
+
+    // The tabulated couple, or null
+    static Entry find(Compound oxidized, Compound reduced) {
+        return TABLE.get(key(oxidized, reduced));
+    }
+
+    // Every couple, most oxidizing first
+    static List<Entry> all() {
+        return new ArrayList<>(TABLE.values());
+    }
+}
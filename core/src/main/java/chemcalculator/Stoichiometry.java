@@ -0,0 +1,236 @@
+package chemcalculator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// A balanced reaction prepared for amount calculations: the coefficients and molar masses of every
+// species are taken once, so each scenario (one set of reactant amounts) costs a handful of
+// multiplications. Reactants without an amount (NaN), such as water or H+ added by the balancer,
+// are taken to be in excess. Immutable and safe to share between threads.
+public final class Stoichiometry {
+    // One species amount: moles and grams
+    public record Quantity(String formula, double moles, double grams) {}
+
+    // Result of one scenario for the balanced equation. limiting is the reactant that runs out first
+    // (null when no reactant had an amount), extent the moles of reaction, products the theoretical
+    // yields and leftovers what remains of each reactant that had an amount.
+    public record Scenario(String equation, String limiting, double extent, List<Quantity> products, List<Quantity> leftovers) {
+        public Scenario {
+            products = List.copyOf(products);
+            leftovers = List.copyOf(leftovers);
+        }
+    }
+
+    // Results of many scenarios in flat arrays, scenario-major: limiting[s] is a reactant index (or -1),
+    // productGrams[s * productCount + p], leftoverGrams[s * reactantCount + r] (NaN for reactants
+    // without an amount)
+    public record Batch(int scenarios, int[] limiting, double[] extent, double[] productGrams, double[] leftoverGrams) {}
+
+    private final BalanceResult reaction;
+    private final String[] reactantFormulas;
+    private final String[] productFormulas;
+    private final int[] reactantCoefficients;
+    private final int[] productCoefficients;
+    private final double[] reactantMasses;   // g/mol
+    private final double[] productMasses;
+    private final SpeciesIndex reactants;
+
+    Stoichiometry(BalanceResult reaction) {
+        if (!reaction.isBalanced()) throw new IllegalArgumentException(reaction.reason());
+        this.reaction = reaction;
+        int r = reaction.reactants().size();
+        int p = reaction.products().size();
+        reactantFormulas = new String[r];
+        reactantCoefficients = new int[r];
+        reactantMasses = new double[r];
+        for (int i = 0; i < r; i++) {
+            BalanceResult.Term term = reaction.reactants().get(i);
+            reactantFormulas[i] = term.compound().notation();
+            reactantCoefficients[i] = term.coefficient();
+            reactantMasses[i] = molarMass(term.compound());
+        }
+        reactants = new SpeciesIndex(reaction.reactants().stream().map(BalanceResult.Term::compound).toList());
+        productFormulas = new String[p];
+        productCoefficients = new int[p];
+        productMasses = new double[p];
+        for (int i = 0; i < p; i++) {
+            BalanceResult.Term term = reaction.products().get(i);
+            productFormulas[i] = term.compound().notation();
+            productCoefficients[i] = term.coefficient();
+            productMasses[i] = molarMass(term.compound());
+        }
+    }
+
+    private static double molarMass(Compound compound) {
+        double mass = 0.0;
+        for (var entry : compound.composition().entrySet()) {
+            mass += Elements.atomicWeight(entry.getKey()) * entry.getValue();
+        }
+        return mass;
+    }
+
+    public BalanceResult reaction() {
+        return reaction;
+    }
+
+    public int reactantCount() {
+        return reactantFormulas.length;
+    }
+
+    public int productCount() {
+        return productFormulas.length;
+    }
+
+    // Index of the reactant written as formula ("O2", "Fe^3+" or "Fe3+"), or -1
+    public int reactantIndex(String formula) {
+        return reactants.indexOf(formula);
+    }
+
+    public double reactantMolarMass(int reactant) {
+        return reactantMasses[reactant];
+    }
+
+    public double productMolarMass(int product) {
+        return productMasses[product];
+    }
+
+    // Moles of a reactant from grams, or from solution volume (L) times molarity (mol/L)
+    public double molesFromGrams(int reactant, double grams) {
+        return grams / reactantMasses[reactant];
+    }
+
+    public static double molesFromSolution(double liters, double molarity) {
+        return liters * molarity;
+    }
+
+    // One scenario from reactant moles (NaN for reactants in excess)
+    public Scenario evaluate(double[] moles) {
+        Batch batch = batch(moles, 1);
+        int limiting = batch.limiting()[0];
+        double extent = batch.extent()[0];
+        List<Quantity> products = new ArrayList<>(productFormulas.length);
+        for (int p = 0; p < productFormulas.length; p++) {
+            products.add(new Quantity(productFormulas[p], productCoefficients[p] * extent, batch.productGrams()[p]));
+        }
+        List<Quantity> leftovers = new ArrayList<>();
+        for (int r = 0; r < reactantFormulas.length; r++) {
+            if (Double.isNaN(moles[r])) continue;
+            double grams = batch.leftoverGrams()[r];
+            leftovers.add(new Quantity(reactantFormulas[r], grams / reactantMasses[r], grams));
+        }
+        return new Scenario(reaction.equation(), limiting < 0 ? null : reactantFormulas[limiting], extent, products, leftovers);
+    }
+
+    // One scenario from a list such as "10 g Al, 0.5 mol O2, 250 mL 2 M HCl" (g, mg, kg, mol, mmol,
+    // or L / mL followed by a molarity in M). Throws IllegalArgumentException for a malformed list
+    // or a species that is not a reactant.
+    public Scenario evaluate(String amounts) {
+        return evaluate(QueryField.of(amounts)).orElseThrow();
+    }
+
+    ParseResult<Scenario> evaluate(QueryField amounts) {
+        double[] moles = new double[reactantFormulas.length];
+        Arrays.fill(moles, Double.NaN);
+        for (QueryField item : amounts.split(',')) {
+            List<QueryField> tokens = item.tokens();
+            if (tokens.size() < 3) return item.error(QueryError.BAD_FIELD, "Expected '<amount> <unit> <formula>'");
+            ParseResult<Double> value = amount(tokens.get(0));
+            if (!value.ok()) return value.cast();
+            QueryField unit = tokens.get(1);
+            int next = 2;
+            double n;
+            switch (unit.text()) {
+                case "mol" -> n = value.value();
+                case "mmol" -> n = value.value() / 1000;
+                case "g", "mg", "kg" -> n = Double.NaN;  // converted once the species is known
+                case "L", "mL" -> {
+                    if (tokens.size() < 5 || !tokens.get(3).is("M")) {
+                        return item.error(QueryError.BAD_FIELD, "Expected '<volume> " + unit.text() + " <molarity> M <formula>'");
+                    }
+                    ParseResult<Double> molarity = amount(tokens.get(2));
+                    if (!molarity.ok()) return molarity.cast();
+                    n = molesFromSolution(unit.is("mL") ? value.value() / 1000 : value.value(), molarity.value());
+                    next = 4;
+                }
+                default -> {
+                    return unit.error(QueryError.BAD_FIELD, "Unknown unit '" + unit.text() + "'");
+                }
+            }
+            QueryField formula = item.from(tokens.get(next));
+            int r = reactantIndex(formula.text());
+            if (r < 0) return formula.error(QueryError.UNKNOWN_SPECIES, formula.text() + " is not a reactant");
+            if (Double.isNaN(n)) {
+                double grams = switch (unit.text()) {
+                    case "mg" -> value.value() / 1000;
+                    case "kg" -> value.value() * 1000;
+                    default -> value.value();
+                };
+                n = molesFromGrams(r, grams);
+            }
+            moles[r] = n;
+        }
+        return ParseResult.of(evaluate(moles));
+    }
+
+    private static ParseResult<Double> amount(QueryField token) {
+        ParseResult<Double> value = token.number("number");
+        if (value.ok() && value.value() < 0) return token.error(QueryError.BAD_NUMBER, "Amounts must not be negative");
+        return value;
+    }
+
+    // Many scenarios over reactant moles laid out scenario-major (moles[s * reactantCount + r]),
+    // NaN for reactants in excess
+    public Batch batch(double[] moles, int scenarios) {
+        int r = reactantFormulas.length;
+        int p = productFormulas.length;
+        if (moles.length < scenarios * r) throw new IllegalArgumentException("Expected " + scenarios * r + " amounts");
+        int[] limiting = new int[scenarios];
+        double[] extent = new double[scenarios];
+        double[] productGrams = new double[scenarios * p];
+        double[] leftoverGrams = new double[scenarios * r];
+        // Per-species constants, so the loop below is multiplications only
+        double[] perCoefficient = new double[r];
+        for (int i = 0; i < r; i++) perCoefficient[i] = 1.0 / reactantCoefficients[i];
+        double[] productYield = new double[p];
+        for (int j = 0; j < p; j++) productYield[j] = productCoefficients[j] * productMasses[j];
+        double[] reactantUse = new double[r];
+        for (int i = 0; i < r; i++) reactantUse[i] = reactantCoefficients[i] * reactantMasses[i];
+
+        for (int s = 0; s < scenarios; s++) {
+            int base = s * r;
+            int limit = -1;
+            double xi = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < r; i++) {
+                double e = moles[base + i] * perCoefficient[i];
+                if (e < xi) {           // false for NaN: no amount, in excess
+                    xi = e;
+                    limit = i;
+                }
+            }
+            if (limit < 0) xi = Double.NaN;
+            limiting[s] = limit;
+            extent[s] = xi;
+            for (int j = 0; j < p; j++) {
+                productGrams[s * p + j] = xi * productYield[j];
+            }
+            for (int i = 0; i < r; i++) {
+                // NaN amounts stay NaN; the limiting reagent is exactly 0
+                leftoverGrams[base + i] = i == limit ? 0.0 : moles[base + i] * reactantMasses[i] - xi * reactantUse[i];
+            }
+        }
+        return new Batch(scenarios, limiting, extent, productGrams, leftoverGrams);
+    }
+
+    // Batch from reactant grams in the same layout
+    public Batch batchFromGrams(double[] grams, int scenarios) {
+        int r = reactantFormulas.length;
+        double[] moles = new double[scenarios * r];
+        for (int s = 0; s < scenarios; s++) {
+            for (int i = 0; i < r; i++) {
+                moles[s * r + i] = grams[s * r + i] / reactantMasses[i];
+            }
+        }
+        return batch(moles, scenarios);
+    }
+}
@@ -0,0 +1,236 @@
+package chemcalculator;
+
+import java.util.List;
+
+// Plain-text renderings of engine results, exactly as the Swing tabs show them. Shared by the UI,
+// the command-line runner and the daemon so that every front end prints the same output.
+public final class TextReports {
+    private TextReports() {}
+
+    // GFM report for a comma-separated list of formulas
+    public static String gfm(ChemEngine engine, String input) {
+        return gfm(engine, input, MassResult.Precision.FAST);
+    }
+
+    // GFM report at the given precision; EXACT prints every digit of the decimal sums
+    public static String gfm(ChemEngine engine, String input, MassResult.Precision precision) {
+        StringBuilder result = new StringBuilder();
+        String[] formulas = input.trim().split("\\s*,\\s*");
+        for (String formula : formulas) {
+            if (formula.isEmpty()) continue;
+            result.append("Formula: ").append(formula).append("\n");
+            ParseResult<MassResult> parsed = engine.tryFormulaMass(formula, precision);
+            if (!parsed.ok()) {
+                result.append("  Error parsing formula: ").append(parsed.describe()).append(".\n\n");
+                continue;
+            }
+            MassResult mass = parsed.value();
+            if (mass.exactMass() != null) {
+                for (MassResult.Contribution part : mass.contributions()) {
+                    result.append(String.format("  %s: %s g/mol (x%d)\n", part.element(),
+                                                part.exactMass().toPlainString(), part.count()));
+                }
+                result.append(String.format("  Total GFM: %s g/mol\n\n", mass.exactMass().toPlainString()));
+                continue;
+            }
+            for (MassResult.Contribution part : mass.contributions()) {
+                result.append(String.format("  %s: %.3f g/mol (x%d)\n", part.element(), part.mass(), part.count()));
+            }
+            result.append(String.format("  Total GFM: %.3f g/mol\n\n", mass.totalMass()));
+        }
+        return result.toString();
+    }
+
+    // Isotope pattern report for a comma-separated list of formulas
+    public static String isotopes(ChemEngine engine, String input) {
+        StringBuilder result = new StringBuilder();
+        String[] formulas = input.trim().split("\\s*,\\s*");
+        for (String formula : formulas) {
+            if (formula.isEmpty()) continue;
+            result.append("Formula: ").append(formula).append("\n");
+            ParseResult<IsotopePattern> parsed = engine.tryIsotopePattern(formula);
+            if (!parsed.ok()) {
+                result.append("  Error parsing formula: ").append(parsed.describe()).append(".\n\n");
+                continue;
+            }
+            IsotopePattern pattern = parsed.value();
+            result.append(String.format("  Monoisotopic mass: %.5f u\n", pattern.monoisotopicMass()));
+            result.append(String.format("  Average mass: %.5f u\n", pattern.averageMass()));
+            for (IsotopePattern.Peak peak : pattern.peaks()) {
+                result.append(String.format("  %.5f  %7.3f%%  (%.5f)\n", peak.mass(), peak.relative(), peak.abundance()));
+            }
+            if (!pattern.averaged().isEmpty()) {
+                result.append("  No isotope data (atomic weight used): ")
+                      .append(String.join(", ", pattern.averaged())).append("\n");
+            }
+            result.append("\n");
+        }
+        return result.toString();
+    }
+
+    // Formula-from-mass matches for "<mass> <tolerance> [ranges]", closest first
+    public static String formulas(ChemEngine engine, String query) {
+        ParseResult<FormulaSearch> parsed = engine.tryFindFormulas(query);
+        if (!parsed.ok()) return error(parsed);
+        FormulaSearch search = parsed.value();
+        StringBuilder result = new StringBuilder();
+        result.append(String.format("Target: %.4f g/mol +/- %.4f (%d matches)\n", search.targetMass(),
+                                    search.tolerance(), search.matches().size()));
+        for (FormulaSearch.Match match : search.matches()) {
+            result.append(String.format("  %-24s %.4f g/mol  error %+.4f  RDBE %.0f\n", match.formula(), match.mass(),
+                                        match.error(), match.rdbe()));
+        }
+        if (!search.complete()) result.append("  (search stopped at the time budget; matches are incomplete)\n");
+        return result.toString();
+    }
+
+    // Empirical (and molecular) formula for "C 40.0, H 6.71, O 53.29[; molar mass]"
+    public static String empirical(ChemEngine engine, String query) {
+        ParseResult<EmpiricalFormula> parsed = engine.tryEmpiricalFormula(query);
+        if (!parsed.ok()) return error(parsed);
+        EmpiricalFormula result = parsed.value();
+        if (!result.isSolved()) return "Error: " + result.error() + ".\n";
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("Empirical formula: %s (%.3f g/mol, ratios within %.1f%%)\n", result.formula(),
+                                 result.mass(), 100 * result.deviation()));
+        if (result.molecular() != null) {
+            out.append(String.format("Molecular formula: %s (x%d)\n", result.molecular(), result.factor()));
+        }
+        return out.toString();
+    }
+
+    // Limiting reagent, yields and leftovers for "<equation>; <amounts>", e.g.
+    // "Al + O2 -> Al2O3; 10 g Al, 10 g O2"
+    public static String stoichiometry(ChemEngine engine, String query) {
+        ParseResult<Stoichiometry.Scenario> parsed = engine.stoichiometryQuery(query);
+        if (!parsed.ok()) return error(parsed);
+        Stoichiometry.Scenario scenario = parsed.value();
+        StringBuilder out = new StringBuilder();
+        out.append("Balanced Equation: ").append(scenario.equation()).append('\n');
+        if (scenario.limiting() == null) {
+            out.append("No reactant amounts given.\n");
+            return out.toString();
+        }
+        out.append("Limiting reagent: ").append(scenario.limiting()).append('\n');
+        out.append(String.format("Extent of reaction: %.4f mol\n", scenario.extent()));
+        out.append("Theoretical yield:\n");
+        for (Stoichiometry.Quantity q : scenario.products()) {
+            out.append(String.format("  %s: %.4f mol, %.4f g\n", q.formula(), q.moles(), q.grams()));
+        }
+        out.append("Left over:\n");
+        for (Stoichiometry.Quantity q : scenario.leftovers()) {
+            out.append(String.format("  %s: %.4f mol, %.4f g\n", q.formula(), q.moles(), q.grams()));
+        }
+        return out.toString();
+    }
+
+    // ICE table for "<equation>; <K>; <initial concentrations>", e.g.
+    // "H2 + I2 -> HI; 50.5; 1.0 M H2, 1.0 M I2"
+    public static String equilibrium(ChemEngine engine, String query) {
+        ParseResult<Equilibrium.Table> parsed = engine.equilibriumQuery(query);
+        if (!parsed.ok()) return error(parsed);
+        Equilibrium.Table table = parsed.value();
+        StringBuilder out = new StringBuilder();
+        out.append("Balanced Equation: ").append(table.equation()).append('\n');
+        out.append(String.format("K = %.6g, extent of reaction: %.6g M\n", table.k(), table.extent()));
+        out.append(String.format("  %-12s %12s %12s %12s\n", "Species", "Initial", "Change", "Equilibrium"));
+        for (Equilibrium.Row row : table.rows()) {
+            if (Double.isNaN(row.initial())) {
+                out.append(String.format("  %-12s %12s %12s %12s\n", row.formula(), "pure", "", "pure"));
+            } else {
+                out.append(String.format("  %-12s %12.6g %+12.6g %12.6g\n", row.formula(), row.initial(),
+                                         row.change(), row.equilibrium()));
+            }
+        }
+        return out.toString();
+    }
+
+    // Concentration-time table for "<reactions> | <initial concentrations> | <end time> [<interval>]",
+    // e.g. "N2O5 -> NO2 + O2 @ 5e-4 | 0.1 M N2O5 | 3600 600"
+    public static String kinetics(ChemEngine engine, String query) {
+        ParseResult<Kinetics.Setup> parsed = engine.kineticsQuery(query);
+        if (!parsed.ok()) return error(parsed);
+        Kinetics network = parsed.value().network();
+        StringBuilder rows = new StringBuilder();
+        Kinetics.Run run = parsed.value().run((t, c) -> {
+            rows.append(String.format("  %-12.6g", t));
+            for (double value : c) rows.append(String.format(" %12.6g", value));
+            rows.append('\n');
+        });
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%d reactions, %d species, %d steps (%d rejected)\n", network.reactionCount(),
+                                 network.speciesCount(), run.steps(), run.rejected()));
+        out.append(String.format("  %-12s", "t"));
+        for (String species : network.species()) out.append(String.format(" %12s", species));
+        out.append('\n').append(rows);
+        if (!run.complete()) out.append(String.format("Stopped at t = %.6g: time budget exceeded.\n", run.endTime()));
+        return out.toString();
+    }
+
+    // Titration curve as CSV for "<analyte>; <titrant>[; <end volume> mL [<points>]]", e.g.
+    // "25 mL 0.1 M HC2H3O2; 0.1 M NaOH; 50 mL 101"
+    public static String titration(ChemEngine engine, String query) {
+        ParseResult<Titration.Setup> parsed = engine.titrationQuery(query);
+        if (!parsed.ok()) return error(parsed);
+        Titration titration = parsed.value().titration();
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("Analyte: %s mL of %s M %s\n", number(titration.analyteVolume()),
+                                 number(titration.analyteMolarity()), titration.analyte().formula()));
+        out.append(String.format("Titrant: %s M %s\n", number(titration.titrantMolarity()), titration.titrant().formula()));
+        double[] equivalence = titration.equivalenceVolumes();
+        for (int k = 0; k < equivalence.length; k++) {
+            out.append(String.format("Equivalence point %d: %.3f mL, pH %.2f\n", k + 1, equivalence[k],
+                                     titration.pH(equivalence[k])));
+        }
+        out.append("volume_mL,pH\n");
+        titration.curve(parsed.value().volumes(), (v, pH) -> out.append(String.format("%.4f,%.4f\n", v, pH)));
+        return out.toString();
+    }
+
+    // Couples and the strongest cells for "<couples>[; top <k>]", where couples is "all" or
+    // "Ox/Red [E°], ...", e.g. "Ag+/Ag, Zn2+/Zn, Cu2+/Cu; top 3"
+    public static String cells(ChemEngine engine, String query) {
+        ParseResult<Electrochemistry.Setup> parsed = engine.cellsQuery(query);
+        if (!parsed.ok()) return error(parsed);
+        Electrochemistry grid = parsed.value().grid();
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%d couples, %d spontaneous cells\n", grid.size(), grid.spontaneousCount()));
+        out.append("Couples (E0, V):\n");
+        for (Electrochemistry.Couple couple : grid.couples()) {
+            out.append(String.format("  %+8.4f  %-14s %s\n", couple.potential(), couple.name(), couple.halfReaction()));
+        }
+        List<Electrochemistry.Cell> cells = parsed.value().cells();
+        if (!cells.isEmpty()) out.append("Strongest cells:\n");
+        for (Electrochemistry.Cell cell : cells) {
+            BalanceResult overall = grid.balance(cell);
+            out.append(String.format("  %s | %s: E0cell %.4f V, n = %d, dG0 %.1f kJ/mol\n", cell.cathode().name(),
+                                     cell.anode().name(), cell.potential(), cell.electrons(), cell.deltaG()));
+            out.append("    ").append(overall.isBalanced() ? overall.equation() : overall.error()).append('\n');
+        }
+        return out.toString();
+    }
+
+    // "Error: <message> at column N." for a query the engine refused
+    private static String error(ParseResult<?> parsed) {
+        return "Error: " + parsed.describe() + ".\n";
+    }
+
+    private static String number(double value) {
+        return value == Math.rint(value) && Math.abs(value) < 1e15 ? Long.toString((long) value) : Double.toString(value);
+    }
+
+    // Balancing steps, one per line
+    public static String balance(ChemEngine engine, String equation) {
+        StringBuilder result = new StringBuilder();
+        for (String step : engine.balance(equation.trim()).steps()) {
+            result.append(step).append('\n');
+        }
+        return result.toString();
+    }
+
+    // Compound name (no trailing newline)
+    public static String name(ChemEngine engine, String formula) {
+        ParseResult<String> name = engine.tryNameCompound(formula.trim());
+        return name.ok() ? name.value() : "Unable to name the compound. Please check the formula.";
+    }
+}
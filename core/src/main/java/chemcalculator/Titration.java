@@ -0,0 +1,249 @@
+package chemcalculator;
+
+import java.util.Arrays;
+import java.util.List;
+
+// A titration curve: the pH of an analyte solution as titrant is added. Every point solves the
+// charge balance
+//     [H+] - Kw/[H+] + sum(C * average charge) + spectator cations = 0
+// for [H+], where each component's average charge follows from its pKa values and [H+] (a
+// polyprotic acid contributes every protonation state). The balance is strictly increasing in
+// ln[H+], so a Newton step that leaves the bracket is replaced by bisection; along a curve the
+// previous point's root seeds the next, which takes a few iterations even across the equivalence
+// jumps. Each point is a handful of multiplications and one exp per iteration on primitive fields,
+// with nothing allocated per point. Volumes are in mL and concentrations in mol/L; 25 C (pKw 14).
+// Immutable and safe to share between threads.
+public final class Titration {
+    static final double PKW = 14.0;
+    private static final double KW = Math.pow(10, -PKW);
+    // ln[H+] bracket: pH 16 to pH -2
+    private static final double LN_LOW = -16 * Math.log(10);
+    private static final double LN_HIGH = 2 * Math.log(10);
+    private static final int MAX_ITERATIONS = 100;
+    // Convergence in ln[H+], about 1e-10 pH units
+    private static final double TOLERANCE = 2e-10;
+
+    // Points of a curve when none are given, and the most one curve may have (the service front ends
+    // build the whole curve in memory, so this stays with Kinetics.MAX_OUTPUTS)
+    public static final int DEFAULT_POINTS = 101;
+    public static final int MAX_POINTS = 10_000;
+
+    // One acid-base component: pKa values of its fully protonated form (strongest proton first),
+    // that form's charge, and the charge of spectator cations per formula unit (the metal of a
+    // hydroxide, whose OH- the water equilibrium takes care of)
+    public record Component(String formula, double[] pKa, int protonatedCharge, int spectatorCharge) {
+        // Protons it can give up from its neutral form
+        public int acidEquivalents() {
+            return Math.max(0, pKa.length - protonatedCharge);
+        }
+
+        // Protons it can take up (or hydroxides it releases)
+        public int baseEquivalents() {
+            return protonatedCharge + spectatorCharge;
+        }
+    }
+
+    // A titration with the volumes of its curve, as read from one query line
+    public record Setup(Titration titration, double[] volumes) {}
+
+    // Receives each point of a curve as it is solved
+    @FunctionalInterface
+    public interface Sink {
+        void accept(double volume, double pH);
+    }
+
+    private final Component analyte;
+    private final Component titrant;
+    private final double analyteVolume;
+    private final double analyteMolarity;
+    private final double titrantMolarity;
+    private final double[] analyteK;
+    private final double[] titrantK;
+    private final double[] equivalenceVolumes;
+
+    Titration(Component analyte, double analyteVolume, double analyteMolarity, Component titrant, double titrantMolarity) {
+        if (!(analyteVolume > 0) || !(analyteMolarity > 0) || !(titrantMolarity > 0)) {
+            throw new IllegalArgumentException("Volumes and concentrations must be positive");
+        }
+        this.analyte = analyte;
+        this.titrant = titrant;
+        this.analyteVolume = analyteVolume;
+        this.analyteMolarity = analyteMolarity;
+        this.titrantMolarity = titrantMolarity;
+        analyteK = constants(analyte.pKa());
+        titrantK = constants(titrant.pKa());
+        int analyteEquivalents;
+        int titrantEquivalents;
+        boolean acid;
+        if (analyte.acidEquivalents() > 0 && titrant.baseEquivalents() > 0) {
+            acid = true;
+            analyteEquivalents = analyte.acidEquivalents();
+            titrantEquivalents = titrant.baseEquivalents();
+        } else if (analyte.baseEquivalents() > 0 && titrant.acidEquivalents() > 0) {
+            acid = false;
+            analyteEquivalents = analyte.baseEquivalents();
+            titrantEquivalents = titrant.acidEquivalents();
+        } else {
+            throw new IllegalArgumentException(MISMATCH);
+        }
+        // One point per step the curve can show: a strong proton (pKa below 0) or a hydroxide merges
+        // into the next step (H2SO4 and Ca(OH)2 have one equivalence point)
+        double[] volumes = new double[analyteEquivalents];
+        int count = 0;
+        for (int k = 1; k <= analyteEquivalents; k++) {
+            boolean strong = acid ? analyte.pKa()[analyte.protonatedCharge() + k - 1] < 0 : k <= analyte.spectatorCharge();
+            if (strong && k < analyteEquivalents) continue;
+            volumes[count++] = k * analyteMolarity * analyteVolume / (titrantMolarity * titrantEquivalents);
+        }
+        equivalenceVolumes = Arrays.copyOf(volumes, count);
+    }
+
+    static final String MISMATCH = "The titrant must be a base for an acid analyte, or an acid for a base";
+
+    // Whether titrant can titrate analyte: a base for an acid, or an acid for a base
+    static boolean pairs(Component analyte, Component titrant) {
+        return analyte.acidEquivalents() > 0 && titrant.baseEquivalents() > 0
+            || analyte.baseEquivalents() > 0 && titrant.acidEquivalents() > 0;
+    }
+
+    private static double[] constants(double[] pKa) {
+        double[] k = new double[pKa.length];
+        for (int i = 0; i < k.length; i++) k[i] = Math.pow(10, -pKa[i]);
+        return k;
+    }
+
+    public Component analyte() {
+        return analyte;
+    }
+
+    public Component titrant() {
+        return titrant;
+    }
+
+    public double analyteVolume() {
+        return analyteVolume;
+    }
+
+    public double analyteMolarity() {
+        return analyteMolarity;
+    }
+
+    public double titrantMolarity() {
+        return titrantMolarity;
+    }
+
+    // Titrant volume at each equivalence point, in mL
+    public double[] equivalenceVolumes() {
+        return equivalenceVolumes.clone();
+    }
+
+    // pH after adding volume mL of titrant
+    public double pH(double volume) {
+        return -solve(volume, Math.log(1e-7)) / Math.log(10);
+    }
+
+    // points evenly spaced volumes from 0 to endVolume
+    public static double[] volumes(double endVolume, int points) {
+        if (!(endVolume > 0) || Double.isInfinite(endVolume) || points < 2 || points > MAX_POINTS) {
+            throw new IllegalArgumentException("Expected a positive end volume and 2 to " + MAX_POINTS + " points");
+        }
+        double[] volumes = new double[points];
+        for (int i = 0; i < points; i++) volumes[i] = endVolume * i / (points - 1);
+        return volumes;
+    }
+
+    // Volumes from "<end> mL [<points>]", or when text is blank twice the last equivalence volume
+    // in DEFAULT_POINTS steps
+    public double[] volumes(String text) {
+        return volumes(QueryField.of(text)).orElseThrow();
+    }
+
+    ParseResult<double[]> volumes(QueryField text) {
+        List<QueryField> tokens = text.tokens();
+        if (tokens.isEmpty()) return ParseResult.of(volumes(2 * equivalenceVolumes[equivalenceVolumes.length - 1], DEFAULT_POINTS));
+        if (tokens.size() < 2 || tokens.size() > 3 || !tokens.get(1).is("mL")) {
+            return text.error(QueryError.BAD_FIELD, "Expected '<end volume> mL [<points>]'");
+        }
+        ParseResult<Double> end = tokens.get(0).number("end volume");
+        if (!end.ok()) return end.cast();
+        if (!(end.value() > 0)) return tokens.get(0).error(QueryError.BAD_NUMBER, "End volume must be positive");
+        int points = DEFAULT_POINTS;
+        if (tokens.size() > 2) {
+            QueryField count = tokens.get(2);
+            ParseResult<Integer> given = count.count("point count");
+            if (!given.ok()) return given.cast();
+            if (given.value() > MAX_POINTS) return count.error(ParseResult.Code.TOO_LARGE, "At most " + MAX_POINTS + " points");
+            if (given.value() < 2) return count.error(QueryError.BAD_NUMBER, "Expected at least 2 points");
+            points = given.value();
+        }
+        return ParseResult.of(volumes(end.value(), points));
+    }
+
+    // Each volume's pH passed to sink as soon as it is solved
+    public void curve(double[] volumes, Sink sink) {
+        double u = Math.log(1e-7);
+        for (double volume : volumes) {
+            u = solve(volume, u);
+            sink.accept(volume, -u / Math.log(10));
+        }
+    }
+
+    // pH[i] at volumes[i], each point seeded from the one before
+    public void curve(double[] volumes, double[] pH) {
+        if (pH.length < volumes.length) throw new IllegalArgumentException("Expected " + volumes.length + " pH slots");
+        double u = Math.log(1e-7);
+        for (int i = 0; i < volumes.length; i++) {
+            u = solve(volumes[i], u);
+            pH[i] = -u / Math.log(10);
+        }
+    }
+
+    // ln[H+] at volume mL of titrant, starting Newton from u
+    private double solve(double volume, double u) {
+        if (!(volume >= 0)) throw new IllegalArgumentException("Volumes must not be negative");
+        double total = analyteVolume + volume;
+        double ca = analyteMolarity * analyteVolume / total;
+        double ct = titrantMolarity * volume / total;
+        double spectators = ca * analyte.spectatorCharge() + ct * titrant.spectatorCharge();
+        double lo = LN_LOW;
+        double hi = LN_HIGH;
+        u = Math.min(hi, Math.max(lo, u));
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            double h = Math.exp(u);
+            double inverse = 1 / h;
+            double oh = KW * inverse;
+            // Charge balance and its derivative in ln[H+]
+            double g = h - oh + spectators;
+            double slope = h + oh;
+            for (int side = 0; side < 2; side++) {
+                double c = side == 0 ? ca : ct;
+                double[] k = side == 0 ? analyteK : titrantK;
+                if (c == 0 || k.length == 0) continue;
+                // Weights of the states with j protons removed, relative to the fully protonated
+                // form; their mean j and its variance (the derivative of the mean in ln[H+])
+                double w = 1.0;
+                double sum = 1.0;
+                double first = 0.0;
+                double second = 0.0;
+                for (int j = 1; j <= k.length; j++) {
+                    w *= k[j - 1] * inverse;
+                    sum += w;
+                    first += j * w;
+                    second += (double) j * j * w;
+                }
+                double mean = first / sum;
+                int z = side == 0 ? analyte.protonatedCharge() : titrant.protonatedCharge();
+                g += c * (z - mean);
+                slope += c * (second / sum - mean * mean);
+            }
+            if (g == 0) return u;
+            if (g < 0) lo = u;
+            else hi = u;
+            double next = u - g / slope;
+            if (!(next > lo && next < hi)) next = 0.5 * (lo + hi);
+            if (Math.abs(next - u) < TOLERANCE) return next;
+            u = next;
+        }
+        return u;
+    }
+}
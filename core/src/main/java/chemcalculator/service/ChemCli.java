@@ -0,0 +1,34 @@
+package chemcalculator.service;
+
+import chemcalculator.ChemEngine;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+// Direct (in-process) command-line runner. Runs one command given as arguments, or one command
+// per line from standard input when there are none:
+//   ChemCli gfm "Ca(NO3)2, H2O"
+//   printf 'name H2SO4\nbalance H2 + O2 -> H2O\n' | ChemCli
+public final class ChemCli {
+    private ChemCli() {}
+
+    public static void main(String[] args) throws IOException {
+        ChemEngine engine = ChemEngine.standard();
+        StringBuilder out = new StringBuilder();
+        if (args.length > 0) {
+            Commands.execute(engine, Commands.join(args, 0), out);
+            System.out.print(out);
+            System.out.flush();
+            return;
+        }
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        for (String line; (line = in.readLine()) != null; ) {
+            out.setLength(0);
+            Commands.execute(engine, line, out);
+            System.out.print(out);
+        }
+        System.out.flush();
+    }
+}
@@ -0,0 +1,57 @@
+package chemcalculator.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// Thin client for ChemDaemon: forwards one command (from the arguments) or every line of standard
+// input to the daemon and copies the reply to standard output. It loads no engine or AWT classes.
+//   ChemClient [--socket <path>] gfm H2O
+//   cat commands.txt | ChemClient
+public final class ChemClient {
+    private ChemClient() {}
+
+    public static void main(String[] args) throws IOException {
+        Path socket = ChemDaemon.defaultSocketPath();
+        int first = 0;
+        if (args.length >= 2 && args[0].equals("--socket")) {
+            socket = Path.of(args[1]);
+            first = 2;
+        }
+        String command = first < args.length ? String.join(" ", Arrays.copyOfRange(args, first, args.length)) : null;
+        run(socket, command, System.in, System.out);
+    }
+
+    // Send command (or, when it is null, everything on in) and copy the reply to out
+    static void run(Path socket, String command, InputStream in, OutputStream out) throws IOException {
+        try (SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            channel.connect(UnixDomainSocketAddress.of(socket));
+            if (command != null) {
+                writeFully(channel, ByteBuffer.wrap((command + "\n").getBytes(StandardCharsets.UTF_8)));
+            } else {
+                byte[] buf = new byte[64 * 1024];
+                for (int n; (n = in.read(buf)) > 0; ) {
+                    writeFully(channel, ByteBuffer.wrap(buf, 0, n));
+                }
+            }
+            channel.shutdownOutput();
+            ByteBuffer reply = ByteBuffer.allocate(64 * 1024);
+            while (channel.read(reply) >= 0) {
+                out.write(reply.array(), 0, reply.position());
+                reply.clear();
+            }
+            out.flush();
+        }
+    }
+
+    private static void writeFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) channel.write(buffer);
+    }
+}
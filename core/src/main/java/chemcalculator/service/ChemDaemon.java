@@ -0,0 +1,171 @@
+package chemcalculator.service;
+
+import chemcalculator.ChemEngine;
+
+import java.io.*;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+
+// Keeps a warm engine listening on a Unix-domain socket so shell pipelines do not pay JVM and AWT
+// start-up on every call. Protocol: the client writes one command per line (see Commands), closes
+// its output side, and reads the concatenated results until the daemon closes the connection.
+// Any client that can speak to a Unix socket works, e.g. printf 'gfm H2O\n' | nc -U <socket>.
+// Each connection is served on its own virtual thread. A line is read only up to the engine's
+// maxInputLength (plus room for the command word); a longer one is dropped unread past that point
+// and answered in place with the same TOO_LONG error the engine gives, so no client can make the
+// daemon buffer an arbitrarily long line.
+public final class ChemDaemon {
+    // Characters allowed before the argument of a command ("gfm-exact " and the like)
+    private static final int COMMAND_ROOM = 16;
+
+    private final Path socketPath;
+    // Runs one command line and appends its output (Commands.execute on the engine)
+    private final BiConsumer<String, StringBuilder> commands;
+    private final int maxInputLength;
+    private volatile ServerSocketChannel server;
+
+    public ChemDaemon(Path socketPath, ChemEngine engine) {
+        this(socketPath, (line, out) -> Commands.execute(engine, line, out), engine.limits().maxInputLength());
+    }
+
+    // Tests substitute the command runner to exercise the per-command error line
+    ChemDaemon(Path socketPath, BiConsumer<String, StringBuilder> commands, int maxInputLength) {
+        this.socketPath = socketPath;
+        this.commands = commands;
+        this.maxInputLength = maxInputLength;
+    }
+
+    // Socket path: $CHEM_SOCKET if set, otherwise chemcalculator.sock in the temp directory
+    public static Path defaultSocketPath() {
+        String env = System.getenv("CHEM_SOCKET");
+        if (env != null && !env.isBlank()) return Path.of(env);
+        return Path.of(System.getProperty("java.io.tmpdir"), "chemcalculator.sock");
+    }
+
+    // Usage: ChemDaemon [--socket <path>]
+    public static void main(String[] args) throws IOException {
+        Path socket = defaultSocketPath();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--socket") && i + 1 < args.length) {
+                socket = Path.of(args[++i]);
+            } else {
+                System.err.println("Usage: ChemDaemon [--socket <path>]");
+                System.exit(2);
+            }
+        }
+        ChemEngine engine = ChemEngine.standard();
+        engine.metrics().register("standard");
+        new ChemDaemon(socket, engine).serve();
+    }
+
+    // Accept connections until the process is stopped or close() is called
+    public void serve() throws IOException {
+        removeStaleSocket();
+        // Removes the socket file if the process is stopped while serving; unregistered again when
+        // serve() returns, so repeated serve() calls do not pile up hooks
+        Thread cleanup = new Thread(() -> {
+            try {
+                Files.deleteIfExists(socketPath);
+            } catch (IOException ignored) {
+                // Nothing left to clean up
+            }
+        });
+        try (ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            server.bind(UnixDomainSocketAddress.of(socketPath));
+            this.server = server;
+            Runtime.getRuntime().addShutdownHook(cleanup);
+            System.out.println("Chemistry daemon listening on " + socketPath);
+            while (true) {
+                SocketChannel client;
+                try {
+                    client = server.accept();
+                } catch (ClosedChannelException ex) {
+                    break;  // close() was called
+                }
+                executor.execute(() -> handle(client));
+            }
+        } finally {
+            try {
+                Runtime.getRuntime().removeShutdownHook(cleanup);
+            } catch (IllegalStateException ex) {
+                // Already shutting down; the hook runs anyway
+            }
+            Files.deleteIfExists(socketPath);
+        }
+    }
+
+    // True once serve() is accepting connections
+    public boolean isListening() {
+        ServerSocketChannel current = server;
+        return current != null && current.isOpen();
+    }
+
+    // Stop accepting; serve() returns after the connections in progress are answered
+    public void close() throws IOException {
+        ServerSocketChannel current = server;
+        if (current != null) current.close();
+    }
+
+    private void handle(SocketChannel channel) {
+        try (channel;
+             BufferedReader in = new BufferedReader(
+                 new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+             Writer out = new BufferedWriter(
+                 new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8), 16 * 1024)) {
+            LineReader lines = new LineReader(in, maxInputLength + COMMAND_ROOM, Long.MAX_VALUE);
+            StringBuilder result = new StringBuilder(512);
+            for (String line; (line = lines.next()) != null; ) {
+                result.setLength(0);
+                if (lines.truncated()) {
+                    result.append("Error: Input is longer than ").append(maxInputLength).append(" characters.\n");
+                } else {
+                    run(line, result);
+                }
+                out.append(result);
+                if (!lines.ready()) out.flush();
+            }
+        } catch (IOException ex) {
+            // Client went away mid-request; nothing to report back to
+        }
+    }
+
+    private void run(String line, StringBuilder result) {
+        try {
+            commands.accept(line, result);
+        } catch (RuntimeException ex) {
+            // Malformed input is reported as text already; this only keeps a bug in one command
+            // from dropping the connection and the client's remaining lines
+            result.setLength(0);
+            result.append("Error: ")
+                  .append(ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName())
+                  .append('\n');
+        }
+    }
+
+    // A socket file left behind by a crashed daemon blocks bind(); remove it if nobody answers on it
+    private void removeStaleSocket() throws IOException {
+        if (!Files.exists(socketPath)) return;
+        boolean alive;
+        try {
+            SocketChannel.open(UnixDomainSocketAddress.of(socketPath)).close();
+            alive = true;
+        } catch (IOException ex) {
+            alive = false;
+        }
+        if (alive) {
+            throw new IOException("Another daemon is already listening on " + socketPath);
+        }
+        Files.deleteIfExists(socketPath);
+    }
+}
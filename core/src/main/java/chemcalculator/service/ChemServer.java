@@ -0,0 +1,285 @@
+package chemcalculator.service;
+
+import chemcalculator.ChemEngine;
+import chemcalculator.EngineLimits;
+import chemcalculator.EngineMetrics;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Long-lived local HTTP service around ChemEngine, so tooling pays JVM startup once instead of per call.
+// Every exchange runs on its own virtual thread. Endpoints (for op = gfm, gfm/exact, isotopes, formulas,
+// empirical, stoichiometry, equilibrium, kinetics, titration, cells, balance, name):
+//   GET  /op?q=<input>      or  POST /op with the input as the body  -> one JSON object
+//   POST /op/batch          body is a JSON array of strings, or NDJSON (one JSON string or plain
+//                           text input per line)                      -> NDJSON, one result per line
+//   GET  /health
+//   GET  /metrics           stage latency percentiles and balancer path counts (text)
+// Batch results are written as they are produced, so large NDJSON inputs stream end to end. A batch
+// body is bounded as a whole (MAX_BATCH_CHARS by default) and per input as in the single endpoints: a line
+// longer than a maximal input could take is dropped unread past that point, and any input over
+// maxInputLength is answered in place with the same error the single endpoints give.
+public final class ChemServer {
+    public static final int DEFAULT_PORT = 8765;
+    private static final String NDJSON = "application/x-ndjson; charset=utf-8";
+    private static final String JSON = "application/json; charset=utf-8";
+    // Characters of one batch body; an array is parsed whole, so this bounds its memory
+    private static final int MAX_BATCH_CHARS = 16 * 1024 * 1024;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ChemEngine engine;
+    private final int maxBatchChars;
+
+    public ChemServer(InetSocketAddress address, ChemEngine engine) throws IOException {
+        this(address, engine, MAX_BATCH_CHARS);
+    }
+
+    // Tests pass a small batch bound so the oversized path needs no 16 MB body
+    ChemServer(InetSocketAddress address, ChemEngine engine, int maxBatchChars) throws IOException {
+        this.engine = engine;
+        this.maxBatchChars = maxBatchChars;
+        this.server = HttpServer.create(address, 0);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        for (Operation op : Operation.values()) {
+            server.createContext("/" + op.path, exchange -> handleSingle(exchange, op));
+            server.createContext("/" + op.path + "/batch", exchange -> handleBatch(exchange, op));
+        }
+        server.createContext("/health", exchange -> {
+            try (exchange) {
+                respond(exchange, 200, "text/plain; charset=utf-8", "ok\n");
+            }
+        });
+        server.createContext("/metrics", exchange -> {
+            try (exchange) {
+                respond(exchange, 200, "text/plain; charset=utf-8", engine.metrics().dump());
+            }
+        });
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.close();
+    }
+
+    public InetSocketAddress address() {
+        return server.getAddress();
+    }
+
+    // Usage: ChemServer [--host 127.0.0.1] [--port 8765] [--max-input <chars>] [--time-budget-ms <ms>]
+    public static void main(String[] args) throws IOException {
+        // Small responses go out as a header write plus a body write; without TCP_NODELAY every
+        // keep-alive request then waits for a delayed ACK (~40 ms). The property is read once per
+        // process when the first HttpServer is created, so it is set here, unless given with -D,
+        // rather than by every constructor. Embedders that want it pass -Dsun.net.httpserver.nodelay=true.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        String host = "127.0.0.1";
+        int port = DEFAULT_PORT;
+        EngineLimits limits = EngineLimits.DEFAULT;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--host" -> host = args[++i];
+                case "--port" -> port = Integer.parseInt(args[++i]);
+                case "--max-input" -> limits = limits.withMaxInputLength(Integer.parseInt(args[++i]));
+                case "--time-budget-ms" -> limits = limits.withTimeBudget(Duration.ofMillis(Long.parseLong(args[++i])));
+                default -> {
+                    System.err.println("Usage: ChemServer [--host <address>] [--port <port>] [--max-input <chars>]"
+                                       + " [--time-budget-ms <ms>]");
+                    System.exit(2);
+                }
+            }
+        }
+        ChemEngine engine = limits == EngineLimits.DEFAULT ? ChemEngine.standard()
+                                                           : new ChemEngine(new EngineMetrics(), limits);
+        engine.metrics().register("standard");
+        ChemServer server = new ChemServer(new InetSocketAddress(host, port), engine);
+        server.start();
+        System.out.println("Chemistry service listening on http://" + host + ":" + server.address().getPort());
+    }
+
+    private void handleSingle(HttpExchange exchange, Operation op) throws IOException {
+        try {
+            if (!exchange.getRequestURI().getPath().equals("/" + op.path)) {
+                respond(exchange, 404, JSON, "{\"error\":\"Not found\"}\n");
+                return;
+            }
+            String input;
+            if ("GET".equals(exchange.getRequestMethod())) {
+                input = queryParam(exchange.getRequestURI().getRawQuery(), "q");
+            } else if ("POST".equals(exchange.getRequestMethod())) {
+                // Read at most what a maximal input could take as escaped JSON; anything longer is refused unread
+                int maxBytes = maxEncodedInput();
+                byte[] bytes = exchange.getRequestBody().readNBytes(maxBytes + 1);
+                if (bytes.length > maxBytes) {
+                    respond(exchange, 413, JSON, tooLong(new StringBuilder()).append('\n').toString());
+                    return;
+                }
+                String body = new String(bytes, StandardCharsets.UTF_8).trim();
+                input = body.startsWith("\"") ? (String) Json.parse(body) : body;
+            } else {
+                respond(exchange, 405, JSON, "{\"error\":\"Use GET or POST\"}\n");
+                return;
+            }
+            if (input == null || input.isBlank()) {
+                respond(exchange, 400, JSON, "{\"error\":\"Missing input\"}\n");
+                return;
+            }
+            StringBuilder out = new StringBuilder(256);
+            op.appendJson(engine, input.trim(), out);
+            respond(exchange, 200, JSON, out.append('\n').toString());
+        } catch (RuntimeException ex) {
+            respondError(exchange, ex);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleBatch(HttpExchange exchange, Operation op) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, JSON, "{\"error\":\"Use POST\"}\n");
+                return;
+            }
+            BufferedReader reader = new BufferedReader(
+                new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8), 64 * 1024);
+            if (firstNonBlank(reader) == '[') {
+                // JSON array: parse it whole, then stream the results
+                StringBuilder body = new StringBuilder();
+                char[] buf = new char[8192];
+                for (int n; (n = reader.read(buf)) > 0; ) {
+                    body.append(buf, 0, n);
+                    if (body.length() > maxBatchChars) {
+                        respond(exchange, 413, JSON, "{\"error\":\"Batch is longer than " + maxBatchChars + " characters\"}\n");
+                        return;
+                    }
+                }
+                if (!(Json.parse(body.toString()) instanceof List<?> items)) {
+                    respond(exchange, 400, JSON, "{\"error\":\"Expected a JSON array\"}\n");
+                    return;
+                }
+                streamResults(exchange, op, null, items.iterator());
+            } else {
+                // NDJSON: one input per line, processed while the body is still arriving
+                streamResults(exchange, op, new LineReader(reader, maxEncodedInput(), maxBatchChars), null);
+            }
+        } catch (RuntimeException ex) {
+            respondError(exchange, ex);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // Write one NDJSON result line per input, either from a parsed array or read line by line.
+    // Output is flushed whenever no more input is immediately available, so slow producers
+    // see their results without waiting for the whole batch.
+    private void streamResults(HttpExchange exchange, Operation op, LineReader lines,
+                               Iterator<?> items) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", NDJSON);
+        exchange.sendResponseHeaders(200, 0);  // chunked
+        Writer out = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8),
+                                        64 * 1024);
+        StringBuilder line = new StringBuilder(256);
+        while (true) {
+            String input;
+            if (items != null) {
+                if (!items.hasNext()) break;
+                Object item = items.next();
+                input = item == null ? "" : item.toString();
+            } else {
+                String raw = lines.next();
+                if (lines.exhausted()) {
+                    out.append("{\"error\":\"Batch is longer than " + maxBatchChars + " characters\"}\n");
+                    break;
+                }
+                if (raw == null) break;
+                raw = raw.trim();
+                if (raw.isEmpty()) continue;
+                input = !lines.truncated() && raw.startsWith("\"") ? parseLine(raw) : raw;
+            }
+            line.setLength(0);
+            if (input == null) {
+                line.append("{\"error\":\"Malformed JSON string\"}");
+            } else if (input.length() > engine.limits().maxInputLength() || lines != null && lines.truncated()) {
+                tooLong(line);
+            } else {
+                op.appendJson(engine, input.trim(), line);
+            }
+            out.append(line).append('\n');
+            if (items == null && !lines.ready()) out.flush();
+        }
+        out.flush();
+    }
+
+    // Longest body or NDJSON line a maximal input can take as escaped JSON (six characters apiece)
+    private int maxEncodedInput() {
+        return engine.limits().maxInputLength() * 6 + 2;
+    }
+
+    private StringBuilder tooLong(StringBuilder out) {
+        return out.append("{\"error\":\"Input is longer than ").append(engine.limits().maxInputLength())
+                  .append(" characters\"}");
+    }
+
+    private static String parseLine(String raw) {
+        try {
+            return Json.parse(raw) instanceof String s ? s : null;
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    // Skip leading whitespace and return the next character without consuming it (-1 at end)
+    private static int firstNonBlank(BufferedReader reader) throws IOException {
+        while (true) {
+            reader.mark(1);
+            int c = reader.read();
+            if (c == -1 || !Character.isWhitespace(c)) {
+                reader.reset();
+                return c;
+            }
+        }
+    }
+
+    private static String queryParam(String rawQuery, String name) {
+        if (rawQuery == null) return null;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            if (key.equals(name)) {
+                return eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private static void respondError(HttpExchange exchange, RuntimeException ex) throws IOException {
+        // Only possible before the response headers went out (malformed request bodies)
+        if (exchange.getResponseCode() != -1) return;
+        StringBuilder body = new StringBuilder("{\"error\":");
+        Json.quote(body, ex.getMessage());
+        respond(exchange, 400, JSON, body.append("}\n").toString());
+    }
+}
@@ -0,0 +1,50 @@
+package chemcalculator.service;
+
+import chemcalculator.ChemEngine;
+import chemcalculator.MassResult;
+import chemcalculator.TextReports;
+
+// Line-oriented command language shared by the direct command-line runner and the daemon:
+//   gfm <formula>[, <formula>...]   |   gfm-exact <formula>[, ...]   |   isotopes <formula>[, ...]
+//   formulas <mass> <tolerance> [C0-20 H N O ...]   |   empirical C 40.0, H 6.71, O[; <molar mass>]
+//   stoich <equation>; <amount> <unit> <formula>, ...   |   ice <equation>; <K>; <c> M <formula>, ...
+//   kinetics <equation> @ <kf> [<kr>]; ... | <c> M <formula>, ... | <end> [<interval>]
+//   titrate <volume> mL <c> M <formula>; <c> M <formula>[; <end> mL [<points>]]
+//   cells all | <ox>/<red> [<E°>], ...[; top <k>]
+//   balance <equation>   |   name <formula>   |   metrics
+// Output is the same text the Swing tabs display, so a daemon round trip prints exactly what a
+// direct run prints.
+final class Commands {
+    private Commands() {}
+
+    static void execute(ChemEngine engine, String line, StringBuilder out) {
+        String trimmed = line.trim();
+        if (trimmed.isEmpty()) return;
+        int space = trimmed.indexOf(' ');
+        String command = space < 0 ? trimmed : trimmed.substring(0, space);
+        String argument = space < 0 ? "" : trimmed.substring(space + 1).trim();
+        switch (command) {
+            case "gfm" -> out.append(TextReports.gfm(engine, argument));
+            case "gfm-exact" -> out.append(TextReports.gfm(engine, argument, MassResult.Precision.EXACT));
+            case "isotopes" -> out.append(TextReports.isotopes(engine, argument));
+            case "formulas" -> out.append(TextReports.formulas(engine, argument));
+            case "empirical" -> out.append(TextReports.empirical(engine, argument));
+            case "stoich" -> out.append(TextReports.stoichiometry(engine, argument));
+            case "ice" -> out.append(TextReports.equilibrium(engine, argument));
+            case "kinetics" -> out.append(TextReports.kinetics(engine, argument));
+            case "titrate" -> out.append(TextReports.titration(engine, argument));
+            case "cells" -> out.append(TextReports.cells(engine, argument));
+            case "balance" -> out.append(TextReports.balance(engine, argument));
+            case "name" -> out.append(TextReports.name(engine, argument)).append('\n');
+            case "metrics" -> out.append(engine.metrics().dump());
+            default -> out.append("Error: unknown command '").append(command)
+                          .append("' (expected gfm, gfm-exact, isotopes, formulas, empirical, stoich, ice, kinetics, titrate, ")
+                          .append("cells, balance, name or metrics)\n");
+        }
+    }
+
+    // Join command-line arguments back into one command line
+    static String join(String[] args, int from) {
+        return String.join(" ", java.util.Arrays.copyOfRange(args, from, args.length));
+    }
+}
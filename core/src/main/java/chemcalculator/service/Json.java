@@ -0,0 +1,171 @@
+package chemcalculator.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Minimal JSON support for the service endpoints: a recursive-descent reader producing
+// String / Double / Boolean / null / List / Map values, and string quoting for the writers.
+final class Json {
+    private final String text;
+    private int pos;
+
+    private Json(String text) {
+        this.text = text;
+    }
+
+
+    // Parse a complete JSON document; throws IllegalArgumentException on malformed input
+    static Object parse(String text) {
+        Json reader = new Json(text);
+        reader.skipWhitespace();
+        Object value = reader.readValue();
+        reader.skipWhitespace();
+        if (reader.pos != text.length()) {
+            throw reader.error("Unexpected trailing characters");
+        }
+        return value;
+    }
+
+    // Append s as a quoted JSON string
+    static StringBuilder quote(StringBuilder sb, String s) {
+        if (s == null) return sb.append("null");
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+                }
+            }
+        }
+        return sb.append('"');
+    }
+
+    // Append a list of strings as a JSON array
+    static StringBuilder quoteAll(StringBuilder sb, List<String> values) {
+        sb.append('[');
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) sb.append(',');
+            quote(sb, values.get(i));
+        }
+        return sb.append(']');
+    }
+
+    private Object readValue() {
+        if (pos >= text.length()) throw error("Unexpected end of input");
+        char c = text.charAt(pos);
+        switch (c) {
+            case '"': return readString();
+            case '[': return readArray();
+            case '{': return readObject();
+            case 't': expect("true"); return Boolean.TRUE;
+            case 'f': expect("false"); return Boolean.FALSE;
+            case 'n': expect("null"); return null;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) return readNumber();
+                throw error("Unexpected character '" + c + "'");
+        }
+    }
+
+    private List<Object> readArray() {
+        List<Object> list = new ArrayList<>();
+        pos++;  // '['
+        skipWhitespace();
+        if (peek() == ']') { pos++; return list; }
+        while (true) {
+            skipWhitespace();
+            list.add(readValue());
+            skipWhitespace();
+            char c = next();
+            if (c == ']') return list;
+            if (c != ',') throw error("Expected ',' or ']'");
+        }
+    }
+
+    private Map<String, Object> readObject() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        pos++;  // '{'
+        skipWhitespace();
+        if (peek() == '}') { pos++; return map; }
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') throw error("Expected object key");
+            String key = readString();
+            skipWhitespace();
+            if (next() != ':') throw error("Expected ':'");
+            skipWhitespace();
+            map.put(key, readValue());
+            skipWhitespace();
+            char c = next();
+            if (c == '}') return map;
+            if (c != ',') throw error("Expected ',' or '}'");
+        }
+    }
+
+    private String readString() {
+        StringBuilder sb = new StringBuilder();
+        pos++;  // opening quote
+        while (true) {
+            char c = next();
+            if (c == '"') return sb.toString();
+            if (c != '\\') { sb.append(c); continue; }
+            char esc = next();
+            switch (esc) {
+                case '"', '\\', '/' -> sb.append(esc);
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'n' -> sb.append('\n');
+                case 'r' -> sb.append('\r');
+                case 't' -> sb.append('\t');
+                case 'u' -> {
+                    if (pos + 4 > text.length()) throw error("Bad unicode escape");
+                    sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                    pos += 4;
+                }
+                default -> throw error("Bad escape '\\" + esc + "'");
+            }
+        }
+    }
+
+    private Double readNumber() {
+        int start = pos;
+        while (pos < text.length() && "+-0123456789.eE".indexOf(text.charAt(pos)) >= 0) pos++;
+        try {
+            return Double.valueOf(text.substring(start, pos));
+        } catch (NumberFormatException ex) {
+            throw error("Bad number");
+        }
+    }
+
+    private void expect(String word) {
+        if (!text.startsWith(word, pos)) throw error("Expected " + word);
+        pos += word.length();
+    }
+
+    private char peek() {
+        if (pos >= text.length()) throw error("Unexpected end of input");
+        return text.charAt(pos);
+    }
+
+    private char next() {
+        char c = peek();
+        pos++;
+        return c;
+    }
+
+    private void skipWhitespace() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) pos++;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at offset " + pos);
+    }
+}
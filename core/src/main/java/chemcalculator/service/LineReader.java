@@ -0,0 +1,52 @@
+package chemcalculator.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+// Text lines with a bound on each line and on the whole stream, so one client cannot make a shared
+// service buffer an arbitrarily long line: the rest of a line past maxLine is read and dropped, and
+// reading stops once the stream passes maxTotal. Used for ChemServer's NDJSON batches and the
+// daemon's command lines.
+final class LineReader {
+    private final BufferedReader reader;
+    private final int maxLine;
+    private long remaining;
+    private boolean truncated;
+    private boolean exhausted;
+
+    LineReader(BufferedReader reader, int maxLine, long maxTotal) {
+        this.reader = reader;
+        this.maxLine = maxLine;
+        this.remaining = maxTotal;
+    }
+
+    // The next line without its terminator (at most maxLine characters), or null at the end
+    String next() throws IOException {
+        StringBuilder line = new StringBuilder(128);
+        truncated = false;
+        int c;
+        while ((c = reader.read()) != -1) {
+            if (--remaining < 0) {
+                exhausted = true;
+                return null;
+            }
+            if (c == '\n') break;
+            if (line.length() < maxLine) line.append((char) c);
+            else truncated = true;
+        }
+        return c == -1 && line.isEmpty() ? null : line.toString();
+    }
+
+    // The last line was longer than maxLine
+    boolean truncated() {
+        return truncated;
+    }
+
+    boolean exhausted() {
+        return exhausted;
+    }
+
+    boolean ready() throws IOException {
+        return reader.ready();
+    }
+}
@@ -0,0 +1,385 @@
+package chemcalculator.service;
+
+import chemcalculator.BalanceResult;
+import chemcalculator.ChemEngine;
+import chemcalculator.Electrochemistry;
+import chemcalculator.EmpiricalFormula;
+import chemcalculator.Equilibrium;
+import chemcalculator.FormulaSearch;
+import chemcalculator.IsotopePattern;
+import chemcalculator.Kinetics;
+import chemcalculator.MassResult;
+import chemcalculator.ParseResult;
+import chemcalculator.Stoichiometry;
+import chemcalculator.Titration;
+
+import java.util.List;
+
+// The engine operations exposed by the service, each turning one input line into one JSON object.
+// Failures are reported in the object ({"input": ..., "error": ...}, plus the parse error code and
+// offset for malformed input) so a batch never aborts halfway.
+enum Operation {
+    GFM("gfm") {
+        @Override
+        void appendResult(ChemEngine engine, String input, StringBuilder out) {
+            appendMass(engine, input, MassResult.Precision.FAST, out);
+        }
+    },
+    // Masses as exact decimals (JSON numbers with every digit of the BigDecimal sum)
+    GFM_EXACT("gfm/exact") {
+        @Override
+        void appendResult(ChemEngine engine, String input, StringBuilder out) {
+            appendMass(engine, input, MassResult.Precision.EXACT, out);
+        }
+    },
+    ISOTOPES("isotopes") {
+        @Override
+        void appendResult(ChemEngine engine, String input, StringBuilder out) {
+            ParseResult<IsotopePattern> parsed = engine.tryIsotopePattern(input);
+            if (!parsed.ok()) {
+                appendParseError(input, parsed, out);
+                return;
+            }
+            IsotopePattern pattern = parsed.value();
+            out.append("{\"formula\":");
+            Json.quote(out, input);
+            out.append(",\"monoisotopicMass\":").append(pattern.monoisotopicMass())
+               .append(",\"averageMass\":").append(pattern.averageMass())
+               .append(",\"peaks\":[");
+            for (int i = 0; i < pattern.peaks().size(); i++) {
+                IsotopePattern.Peak peak = pattern.peaks().get(i);
+                if (i > 0) out.append(',');
+                out.append("{\"nominalMass\":").append(peak.nominalMass())
+                   .append(",\"mass\":").append(peak.mass())
+                   .append(",\"abundance\":").append(peak.abundance())
+                   .append(",\"relative\":").append(peak.relative()).append('}');
+            }
+            out.append("],\"averaged\":");
+            Json.quoteAll(out, pattern.averaged());
+            out.append('}');
+        }
+    },
+    // Input is "<mass> <tolerance> [element ranges]"
+    FORMULAS("formulas") {
+        @Override
+        void appendResult(ChemEngine engine, String input, StringBuilder out) {
+            ParseResult<FormulaSearch> parsed = engine.tryFindFormulas(input);
+            if (!parsed.ok()) {
+                appendParseError(input, parsed, out);
+                return;
+            }
+            FormulaSearch search = parsed.value();
+            out.append("{\"query\":");
+            Json.quote(out, input);
+            out.append(",\"complete\":").append(search.complete()).append(",\"matches\":[");
+            for (int i = 0; i < search.matches().size(); i++) {
+                FormulaSearch.Match match = search.matches().get(i);
+                if (i > 0) out.append(',');
+                out.append("{\"formula\":");
+                Json.quote(out, match.formula());
+                out.append(",\"mass\":").append(match.mass())
+                   .append(",\"error\":").append(match.error())
+                   .append(",\"rdbe\":").append(match.rdbe()).append('}');
+            }
+            out.append("]}");
+        }
+    },
+    // Input is "C 40.0, H 6.71, O 53.29[; molar mass]", one analysis per batch line
+    EMPIRICAL("empirical") {
+        @Override
+        void appendResult(ChemEngine engine, String input, StringBuilder out) {
+            ParseResult<EmpiricalFormula> parsed = engine.tryEmpiricalFormula(input);
+            if (!parsed.ok()) {
+                appendParseError(input, parsed, out);
+                return;
+            }
+            EmpiricalFormula result = parsed.value();
+            out.append("{\"analysis\":");
+            Json.quote(out, input);
+            if (!result.isSolved()) {
+                out.append(",\"error\":");
+                Json.quote(out, result.error());
+                out.append('}');
+                return;
+            }
+            out.append(",\"empirical\":");
+            Json.quote(out, result.formula());
+            out.append(",\"mass\":").append(result.mass())
+               .append(",\"deviation\":").append(result.deviation());
+            if (result.molecular() != null) {
+                out.append(",\"molecular\":");
+                Json.quote(out, result.molecular());
+                out.append(",\"factor\":").append(result.factor());
+            }
+            out.append('}');
+        }
+    },
+    // Input is "<equation>; <amount> <unit> <formula>, ..."
+    STOICHIOMETRY("stoichiometry") {
+        @Override
+        void appendResult(ChemEngine engine, String input, StringBuilder out) {
+            ParseResult<Stoichiometry.Scenario> parsed = engine.stoichiometryQuery(input);
+            if (!parsed.ok()) {
+                appendParseError(input, parsed, out);
+                return;
+            }
+            Stoichiometry.Scenario scenario = parsed.value();
+            out.append("{\"query\":");
+            Json.quote(out, input);
+            out.append(",\"balanced\":");
+            Json.quote(out, scenario.equation());
+            out.append(",\"limiting\":");
+            if (scenario.limiting() == null) out.append("null");
+            else Json.quote(out, scenario.limiting());
+            out.append(",\"extent\":").append(scenario.extent()).append(",\"products\":");
+            appendQuantities(scenario.products(), out);
+            out.append(",\"leftovers\":");
+            appendQuantities(scenario.leftovers(), out);
+            out.append('}');
+        }
+    },
+    // Input is "<equation>; <K>; <concentration> M <formula>, ..."
+    EQUILIBRIUM("equilibrium") {
+        @Override
+        void appendResult(ChemEngine engine, String input, StringBuilder out) {
+            ParseResult<Equilibrium.Table> parsed = engine.equilibriumQuery(input);
+            if (!parsed.ok()) {
+                appendParseError(input, parsed, out);
+                return;
+            }
+            Equilibrium.Table table = parsed.value();
+            out.append("{\"query\":");
+            Json.quote(out, input);
+            out.append(",\"balanced\":");
+            Json.quote(out, table.equation());
+            out.append(",\"k\":").append(table.k()).append(",\"extent\":").append(table.extent())
+               .append(",\"species\":[");
+            for (int i = 0; i < table.rows().size(); i++) {
+                Equilibrium.Row row = table.rows().get(i);
+                if (i > 0) out.append(',');
+                out.append("{\"formula\":");
+                Json.quote(out, row.formula());
+                if (Double.isNaN(row.initial())) {
+                    out.append(",\"pure\":true}");
+                } else {
+                    out.append(",\"initial\":").append(row.initial()).append(",\"change\":").append(row.change())
+                       .append(",\"equilibrium\":").append(row.equilibrium()).append('}');
+                }
+            }
+            out.append("]}");
+        }
+    },
+    // Input is "<equation> @ <kf> [<kr>]; ... | <c> M <formula>, ... | <end> [<interval>]"
+    KINETICS("kinetics") {
+        @Override
+        void appendResult(ChemEngine engine, String input, StringBuilder out) {
+            ParseResult<Kinetics.Setup> parsed = engine.kineticsQuery(input);
+            if (!parsed.ok()) {
+                appendParseError(input, parsed, out);
+                return;
+            }
+            Kinetics network = parsed.value().network();
+            StringBuilder points = new StringBuilder();
+            Kinetics.Run run = parsed.value().run((t, c) -> {
+                if (!points.isEmpty()) points.append(',');
+                points.append("{\"t\":").append(t).append(",\"c\":[");
+                for (int i = 0; i < c.length; i++) {
+                    if (i > 0) points.append(',');
+                    points.append(c[i]);
+                }
+                points.append("]}");
+            });
+            out.append("{\"query\":");
+            Json.quote(out, input);
+            out.append(",\"species\":[");
+            for (int i = 0; i < network.speciesCount(); i++) {
+                if (i > 0) out.append(',');
+                Json.quote(out, network.species().get(i));
+            }
+            out.append("],\"steps\":").append(run.steps()).append(",\"rejected\":").append(run.rejected())
+               .append(",\"complete\":").append(run.complete()).append(",\"points\":[").append(points).append("]}");
+        }
+    },
+    // Input is "<volume> mL <c> M <formula>; <c> M <formula>[; <end> mL [<points>]]"
+    TITRATION("titration") {
+        @Override
+        void appendResult(ChemEngine engine, String input, StringBuilder out) {
+            ParseResult<Titration.Setup> parsed = engine.titrationQuery(input);
+            if (!parsed.ok()) {
+                appendParseError(input, parsed, out);
+                return;
+            }
+            Titration titration = parsed.value().titration();
+            out.append("{\"query\":");
+            Json.quote(out, input);
+            out.append(",\"equivalence\":[");
+            double[] equivalence = titration.equivalenceVolumes();
+            for (int k = 0; k < equivalence.length; k++) {
+                if (k > 0) out.append(',');
+                out.append("{\"volume\":").append(equivalence[k]).append(",\"pH\":")
+                   .append(titration.pH(equivalence[k])).append('}');
+            }
+            out.append("],\"points\":[");
+            titration.curve(parsed.value().volumes(), (v, pH) -> {
+                if (out.charAt(out.length() - 1) != '[') out.append(',');
+                out.append('[').append(v).append(',').append(pH).append(']');
+            });
+            out.append("]}");
+        }
+    },
+    // Input is "all | <ox>/<red> [<E°>], ...[; top <k>]"
+    CELLS("cells") {
+        @Override
+        void appendResult(ChemEngine engine, String input, StringBuilder out) {
+            ParseResult<Electrochemistry.Setup> parsed = engine.cellsQuery(input);
+            if (!parsed.ok()) {
+                appendParseError(input, parsed, out);
+                return;
+            }
+            Electrochemistry grid = parsed.value().grid();
+            out.append("{\"query\":");
+            Json.quote(out, input);
+            out.append(",\"couples\":[");
+            for (int i = 0; i < grid.size(); i++) {
+                Electrochemistry.Couple couple = grid.couples().get(i);
+                if (i > 0) out.append(',');
+                out.append("{\"couple\":");
+                Json.quote(out, couple.name());
+                out.append(",\"potential\":").append(couple.potential()).append(",\"electrons\":").append(couple.electrons())
+                   .append(",\"halfReaction\":");
+                Json.quote(out, couple.halfReaction());
+                out.append('}');
+            }
+            out.append("],\"spontaneous\":").append(grid.spontaneousCount()).append(",\"top\":[");
+            List<Electrochemistry.Cell> cells = parsed.value().cells();
+            for (int i = 0; i < cells.size(); i++) {
+                Electrochemistry.Cell cell = cells.get(i);
+                BalanceResult overall = grid.balance(cell);
+                if (i > 0) out.append(',');
+                out.append("{\"cathode\":");
+                Json.quote(out, cell.cathode().name());
+                out.append(",\"anode\":");
+                Json.quote(out, cell.anode().name());
+                out.append(",\"potential\":").append(cell.potential()).append(",\"electrons\":").append(cell.electrons())
+                   .append(",\"deltaG\":").append(cell.deltaG());
+                if (overall.isBalanced()) {
+                    out.append(",\"balanced\":");
+                    Json.quote(out, overall.equation());
+                } else {
+                    out.append(",\"error\":");
+                    Json.quote(out, overall.error());
+                }
+                out.append('}');
+            }
+            out.append("]}");
+        }
+    },
+    BALANCE("balance") {
+        @Override
+        void appendResult(ChemEngine engine, String input, StringBuilder out) {
+            BalanceResult result = engine.balance(input);
+            out.append("{\"equation\":");
+            Json.quote(out, input);
+            out.append(",\"method\":");
+            Json.quote(out, result.method().name());
+            out.append(",\"balanced\":");
+            Json.quote(out, result.equation());
+            out.append(",\"steps\":");
+            Json.quoteAll(out, result.steps());
+            if (result.error() != null) {
+                out.append(",\"error\":");
+                Json.quote(out, result.error());
+            }
+            out.append('}');
+        }
+    },
+    NAME("name") {
+        @Override
+        void appendResult(ChemEngine engine, String input, StringBuilder out) {
+            ParseResult<String> name = engine.tryNameCompound(input);
+            if (!name.ok()) {
+                appendParseError(input, name, out);
+                return;
+            }
+            out.append("{\"formula\":");
+            Json.quote(out, input);
+            out.append(",\"name\":");
+            Json.quote(out, name.value());
+            out.append('}');
+        }
+    };
+
+    final String path;
+
+    Operation(String path) {
+        this.path = path;
+    }
+
+    abstract void appendResult(ChemEngine engine, String input, StringBuilder out);
+
+    static void appendMass(ChemEngine engine, String input, MassResult.Precision precision, StringBuilder out) {
+        ParseResult<MassResult> parsed = engine.tryFormulaMass(input, precision);
+        if (!parsed.ok()) {
+            appendParseError(input, parsed, out);
+            return;
+        }
+        MassResult mass = parsed.value();
+        out.append("{\"formula\":");
+        Json.quote(out, input);
+        out.append(",\"contributions\":[");
+        for (int i = 0; i < mass.contributions().size(); i++) {
+            MassResult.Contribution part = mass.contributions().get(i);
+            if (i > 0) out.append(',');
+            out.append("{\"element\":");
+            Json.quote(out, part.element());
+            out.append(",\"count\":").append(part.count()).append(",\"mass\":");
+            if (part.exactMass() != null) out.append(part.exactMass().toPlainString());
+            else out.append(part.mass());
+            out.append('}');
+        }
+        out.append("],\"totalMass\":");
+        if (mass.exactMass() != null) out.append(mass.exactMass().toPlainString());
+        else out.append(mass.totalMass());
+        out.append('}');
+    }
+
+    static void appendQuantities(List<Stoichiometry.Quantity> quantities, StringBuilder out) {
+        out.append('[');
+        for (int i = 0; i < quantities.size(); i++) {
+            Stoichiometry.Quantity q = quantities.get(i);
+            if (i > 0) out.append(',');
+            out.append("{\"formula\":");
+            Json.quote(out, q.formula());
+            out.append(",\"moles\":").append(q.moles()).append(",\"grams\":").append(q.grams()).append('}');
+        }
+        out.append(']');
+    }
+
+    // {"input": ..., "error": ..., "code": ..., "offset": ...} for input the parser rejected
+    static void appendParseError(String input, ParseResult<?> parsed, StringBuilder out) {
+        out.append("{\"input\":");
+        Json.quote(out, input);
+        out.append(",\"error\":");
+        Json.quote(out, parsed.describe());
+        out.append(",\"code\":");
+        Json.quote(out, parsed.code().name());
+        out.append(",\"offset\":").append(parsed.offset()).append('}');
+    }
+
+    // Append the result object for one input. Malformed input comes back from the engine as a
+    // ParseResult and is written by appendParseError; the catch only keeps a bug in one line from
+    // aborting the rest of a batch.
+    void appendJson(ChemEngine engine, String input, StringBuilder out) {
+        int start = out.length();
+        try {
+            appendResult(engine, input, out);
+        } catch (RuntimeException ex) {
+            out.setLength(start);
+            out.append("{\"input\":");
+            Json.quote(out, input);
+            out.append(",\"error\":");
+            Json.quote(out, ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName());
+            out.append('}');
+        }
+    }
+}
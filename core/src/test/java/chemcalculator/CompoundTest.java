@@ -0,0 +1,46 @@
+package chemcalculator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompoundTest {
+    @Test
+    void compositionIsACopyInTheGivenOrder() {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        counts.put("O", 4);
+        counts.put("S", 1);
+        Compound sulfate = new Compound("SO4", counts, -2);
+        counts.put("O", 3);
+        counts.put("H", 1);
+        assertEquals(Map.of("O", 4, "S", 1), sulfate.composition());
+        assertEquals(List.of("O", "S"), List.copyOf(sulfate.composition().keySet()));
+        assertThrows(UnsupportedOperationException.class, () -> sulfate.composition().put("H", 1));
+    }
+
+    @Test
+    void speciesKeyIgnoresNotationAndStateButNotCharge() {
+        ChemEngine engine = new ChemEngine();
+        String copper = engine.parseCompound("Cu2+").speciesKey();
+        assertEquals(copper, engine.parseCompound("Cu^2+").speciesKey());
+        assertEquals(copper, engine.parseCompound("2 Cu2+(aq)").speciesKey());
+        assertNotEquals(copper, engine.parseCompound("Cu+").speciesKey());
+        assertEquals(engine.parseCompound("C2H4O2").speciesKey(), engine.parseCompound("CH3COOH").speciesKey());
+    }
+
+    @Test
+    void solidsAndLiquidsAreCondensed() {
+        ChemEngine engine = new ChemEngine();
+        assertTrue(engine.parseCompound("CaCO3(s)").isCondensed());
+        assertTrue(engine.parseCompound("H2O(l)").isCondensed());
+        assertFalse(engine.parseCompound("H2O(g)").isCondensed());
+        assertFalse(engine.parseCompound("Na+(aq)").isCondensed());
+        assertFalse(engine.parseCompound("H2O").isCondensed());
+        BalanceResult water = engine.balance("H2(g) + O2(g) -> H2O(l)");
+        assertTrue(water.products().get(0).compound().isCondensed());
+    }
+}
@@ -0,0 +1,61 @@
+package chemcalculator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConservationCheckTest {
+    private static BalanceResult.Term term(int coefficient, String formula) {
+        return new BalanceResult.Term(coefficient, FormulaParser.parseCompound(formula, EngineLimits.DEFAULT).orElseThrow());
+    }
+
+    @Test
+    void balancedTermsPass() {
+        assertNull(ConservationCheck.check(List.of(term(2, "H2"), term(1, "O2")), List.of(term(2, "H2O"))));
+        assertNull(ConservationCheck.check(List.of(term(1, "MnO4-"), term(5, "Fe^2+"), term(8, "H+")),
+                                           List.of(term(1, "Mn^2+"), term(5, "Fe^3+"), term(4, "H2O"))));
+    }
+
+    @Test
+    void elementImbalanceNamesTheElement() {
+        String violation = ConservationCheck.check(List.of(term(1, "H2"), term(1, "O2")), List.of(term(2, "H2O")));
+        assertNotNull(violation);
+        assertTrue(violation.contains("H"), violation);
+    }
+
+    @Test
+    void chargeImbalanceIsReported() {
+        String violation = ConservationCheck.check(List.of(term(1, "Fe^3+")), List.of(term(1, "Fe^2+")));
+        assertNotNull(violation);
+        assertTrue(violation.contains("charge"), violation);
+    }
+
+    @Test
+    void nonPositiveCoefficientsAndEmptySidesFail() {
+        assertNotNull(ConservationCheck.check(List.of(term(0, "H2")), List.of(term(1, "H2"))));
+        assertNotNull(ConservationCheck.check(List.of(), List.of(term(1, "H2"))));
+    }
+
+    @Test
+    void overflowingTotalsDoNotWrapToBalanced() {
+        // Sixteen terms of 2^30 x 2^30 oxygen atoms total 2^64, which a long sum wraps round to zero
+        BalanceResult.Term heavy = new BalanceResult.Term(1 << 30, new Compound("X", Map.of("O", 1 << 30), 0));
+        List<BalanceResult.Term> left = new ArrayList<>(Collections.nCopies(16, heavy));
+        left.add(term(1, "He"));
+        String violation = ConservationCheck.check(left, List.of(term(1, "He")));
+        assertNotNull(violation);
+        assertEquals("O not conserved (18446744073709551616 on the left, 0 on the right)", violation);
+    }
+
+    @Test
+    void balancedRowsWithPartialSumsBeyondALongPass() {
+        BalanceResult.Term heavy = new BalanceResult.Term(Integer.MAX_VALUE, new Compound("X", Map.of("O", Integer.MAX_VALUE), 0));
+        List<BalanceResult.Term> side = Collections.nCopies(3, heavy);
+        assertNull(ConservationCheck.check(side, side));
+    }
+}
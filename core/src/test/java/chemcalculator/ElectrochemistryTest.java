@@ -0,0 +1,71 @@
+package chemcalculator;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ElectrochemistryTest {
+    private final ChemEngine engine = new ChemEngine();
+
+    @Test
+    void silverAgainstZinc() {
+        Electrochemistry cells = engine.electrochemistry("Ag+/Ag, Zn^2+/Zn");
+        Electrochemistry.Cell cell = cells.cell(cells.index("Ag+/Ag"), cells.index("Zn^2+/Zn"));
+        assertEquals(1.5614, cell.potential(), 1e-9);
+        assertEquals(2, cell.electrons());
+        assertEquals(-301.3, cell.deltaG(), 0.1);
+        assertEquals("2 Ag+ + Zn -> 2 Ag + Zn^2+", cells.balance(cell).equation());
+        assertEquals(1, cells.spontaneousCount());
+    }
+
+    @Test
+    void basicCoupleIsMovedToTheAcidicScale() {
+        Electrochemistry cells = engine.electrochemistry("O2/H2O, H2O/H2, O2/OH-, H+/H2");
+        int oxygen = cells.index("O2/H2O");
+        int hydrogen = cells.index("H2O/H2");
+        assertEquals(1.229, cells.potential(oxygen, hydrogen), 1e-3);
+        assertEquals("O2 + 2 H2 -> 2 H2O", cells.balance(oxygen, hydrogen).equation());
+        // Both basic: as tabulated
+        assertEquals(0.401 + 0.8277, cells.potential(cells.index("O2/OH-"), hydrogen), 1e-9);
+    }
+
+    @Test
+    void couplesAgainstThemselvesInTheOtherMediumAreNotRanked() {
+        Electrochemistry cells = engine.electrochemistry("O2/H2O, H2O/H2, O2/OH-, H+/H2");
+        assertFalse(cells.balance(cells.index("O2/H2O"), cells.index("O2/OH-")).isBalanced());
+        assertFalse(cells.balance(cells.index("H+/H2"), cells.index("H2O/H2")).isBalanced());
+        for (Electrochemistry.Cell cell : cells.top(cells.spontaneousCount())) {
+            assertTrue(cells.balance(cell).isBalanced(), cell.cathode().name() + " against " + cell.anode().name());
+        }
+    }
+
+    @Test
+    void permanganateAgainstIron() {
+        Electrochemistry cells = engine.electrochemistry("MnO4-/Mn^2+, Fe^3+/Fe^2+");
+        BalanceResult result = cells.balance(cells.index("MnO4-/Mn^2+"), cells.index("Fe^3+/Fe^2+"));
+        assertEquals("MnO4- + 8 H+ + 5 Fe^2+ -> Mn^2+ + 4 H2O + 5 Fe^3+", result.equation());
+    }
+
+    @Test
+    void tooManyCouplesAreRefusedAndCounted() {
+        ChemEngine small = new ChemEngine(new EngineMetrics(), EngineLimits.DEFAULT.withMaxSpecies(2));
+        assertThrows(IllegalArgumentException.class, () -> small.electrochemistry("Ag+/Ag, Zn^2+/Zn, Cu^2+/Cu"));
+        assertThrows(IllegalArgumentException.class, () -> small.electrochemistry("all"));
+        assertEquals(2, small.metrics().getLimitedCount());
+        assertEquals(2, small.electrochemistry("Ag+/Ag, Zn^2+/Zn").size());
+    }
+
+    @Test
+    void malformedQueriesAreReportedAtTheirField() {
+        String query = "Ag+/Ag, Au^3+/Zn";
+        ParseResult<Electrochemistry.Setup> parsed = engine.cellsQuery(query);
+        assertEquals(QueryError.UNKNOWN_SPECIES, parsed.code());
+        assertEquals(query.indexOf("Au"), parsed.offset());
+        parsed = engine.cellsQuery("Ag+/Ag, Zn^2+/Zn; top x");
+        assertEquals(QueryError.BAD_NUMBER, parsed.code());
+        assertEquals(22, parsed.offset());
+        parsed = engine.cellsQuery("Ag+/Ag, Zn^2+/Zn 1e999");
+        assertEquals(QueryError.BAD_NUMBER, parsed.code());
+        assertEquals(3, engine.cellsQuery("Ag+/Ag, Zn^2+/Zn, Cu^2+/Cu; top 3").value().cells().size());
+    }
+}
@@ -0,0 +1,66 @@
+package chemcalculator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmpiricalSolverTest {
+    private final ChemEngine engine = new ChemEngine();
+
+    @Test
+    void glucoseFromPercentages() {
+        EmpiricalFormula result = engine.empiricalFormula("C 40.0, H 6.71, O; 180.16");
+        assertTrue(result.isSolved(), result.error());
+        assertEquals("CH2O", result.formula());
+        assertEquals(6, result.factor());
+        assertEquals("C6H12O6", result.molecular());
+    }
+
+    @Test
+    void countsKeepHillOrder() {
+        EmpiricalFormula result = engine.empiricalFormula("O 56.47, Na 27.06, N 16.47");
+        assertEquals("NNaO3", result.formula());
+        assertEquals(List.of("N", "Na", "O"), List.copyOf(result.counts().keySet()));
+        result = engine.empiricalFormula("Cl 60.66, Na 39.34");
+        assertEquals(List.of("Cl", "Na"), List.copyOf(result.counts().keySet()));
+    }
+
+    @Test
+    void molarMassMustBeAWholeMultiple() {
+        EmpiricalFormula result = engine.empiricalFormula("C 40.0, H 6.71, O; 250");
+        assertFalse(result.isSolved());
+        assertTrue(result.error().startsWith("Molar mass 250.00 g/mol is not a whole multiple"), result.error());
+        // Within 3% of 8 x 30.03 is still accepted
+        assertEquals("C8H16O8", engine.empiricalFormula("C 40.0, H 6.71, O; 242").molecular());
+    }
+
+    @Test
+    void ratiosNeedingAMultiplier() {
+        EmpiricalFormula result = engine.empiricalFormula("Fe 69.94, O 30.06");
+        assertEquals("Fe2O3", result.formula());
+        assertEquals(1, result.factor());
+        assertNull(result.molecular());
+    }
+
+    @Test
+    void malformedLinesAreReportedAtTheirColumn() {
+        ParseResult<EmpiricalFormula> parsed = engine.tryEmpiricalFormula("C 40.0, h 6.71");
+        assertEquals(ParseResult.Code.UNEXPECTED_CHARACTER, parsed.code());
+        assertEquals(8, parsed.offset());
+        parsed = engine.tryEmpiricalFormula("C 40.0, H 6.7.1, O");
+        assertEquals(QueryError.BAD_NUMBER, parsed.code());
+        assertEquals(10, parsed.offset());
+        assertEquals(QueryError.BAD_NUMBER, engine.tryEmpiricalFormula("C 40.0, H 6.71, O; x").code());
+        assertEquals(QueryError.BAD_FIELD, engine.tryEmpiricalFormula("C 40.0, H, O").code());
+    }
+
+    @Test
+    void anElementGivenTwiceIsRejected() {
+        ParseResult<EmpiricalFormula> parsed = engine.tryEmpiricalFormula("C 40.0, C 10, H 6.71, O");
+        assertEquals(QueryError.BAD_FIELD, parsed.code());
+        assertEquals(8, parsed.offset());
+        assertEquals(QueryError.BAD_FIELD, engine.tryEmpiricalFormula("C 40.0, H 6.71, O, H").code());
+    }
+}
@@ -0,0 +1,97 @@
+package chemcalculator;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EngineEventsTest {
+    private static final String[] EVENTS = {
+        "chemcalculator.Parse", "chemcalculator.Balance", "chemcalculator.RedoxDetection",
+        "chemcalculator.HalfReactions", "chemcalculator.Elimination", "chemcalculator.Naming"
+    };
+
+    @TempDir
+    Path dir;
+
+    // Run the body under a recording of the engine events and return what was committed
+    private List<RecordedEvent> record(Runnable body) throws Exception {
+        Path file = dir.resolve("engine.jfr");
+        try (Recording recording = new Recording()) {
+            for (String event : EVENTS) recording.enable(event).withThreshold(Duration.ZERO);
+            recording.start();
+            body.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file);
+    }
+
+    private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+        return events.stream().filter(e -> e.getEventType().getName().equals(name)).toList();
+    }
+
+    @Test
+    void balanceEmitsEveryStage() throws Exception {
+        ChemEngine engine = new ChemEngine();
+        List<RecordedEvent> events = record(() -> engine.balance("MnO4- + Fe2+ -> Mn2+ + Fe3+"));
+
+        RecordedEvent balance = named(events, "chemcalculator.Balance").get(0);
+        assertEquals("MnO4- + Fe2+ -> Mn2+ + Fe3+", balance.getString("equation"));
+        assertEquals("HALF_REACTION", balance.getString("method"));
+        assertEquals("MnO4- + 5 Fe^2+ + 8 H+ -> Mn^2+ + 5 Fe^3+ + 4 H2O", balance.getString("balanced"));
+        assertNull(balance.getString("error"));
+
+        // Class initialization may parse the solvent species first; take the equation parse
+        RecordedEvent parse = named(events, "chemcalculator.Parse").stream()
+            .filter(e -> "equation".equals(e.getString("kind"))).findFirst().orElseThrow();
+        assertEquals(4, parse.getInt("species"));
+
+        RecordedEvent detection = named(events, "chemcalculator.RedoxDetection").get(0);
+        assertTrue(detection.getBoolean("redox"));
+        assertEquals("Fe", detection.getString("oxidized"));
+        assertEquals("Mn", detection.getString("reduced"));
+
+        RecordedEvent halves = named(events, "chemcalculator.HalfReactions").get(0);
+        assertEquals(2, halves.getInt("count"));
+        assertEquals("acidic", halves.getString("medium"));
+        assertEquals("explained", halves.getString("path"));
+
+        // As written (charge, Mn, O, Fe rows) there is no balance; the retry adds H+ and H2O columns
+        List<RecordedEvent> eliminations = named(events, "chemcalculator.Elimination");
+        assertTrue(eliminations.stream().anyMatch(e -> e.getInt("rows") == 4 && e.getInt("columns") == 4));
+        assertTrue(eliminations.stream().anyMatch(e -> e.getInt("rows") == 5 && e.getInt("columns") == 6));
+    }
+
+    @Test
+    void failedParseCarriesTheError() throws Exception {
+        ChemEngine engine = new ChemEngine();
+        List<RecordedEvent> events = record(() -> engine.tryFormulaMass("Ca("));
+        RecordedEvent parse = named(events, "chemcalculator.Parse").get(0);
+        assertEquals("formula", parse.getString("kind"));
+        assertEquals("Ca(", parse.getString("input"));
+        assertTrue(parse.getString("error").contains("column"), parse.getString("error"));
+    }
+
+    @Test
+    void namingRecordsThePath() throws Exception {
+        ChemEngine engine = new ChemEngine();
+        List<RecordedEvent> events = record(() -> {
+            engine.nameCompound("NaCl");
+            engine.nameCompound("CO2");
+        });
+        List<RecordedEvent> naming = named(events, "chemcalculator.Naming");
+        assertEquals(2, naming.size());
+        assertEquals("NaCl", naming.get(0).getString("formula"));
+        assertEquals("ionic", naming.get(0).getString("path"));
+        assertEquals("covalent", naming.get(1).getString("path"));
+        assertEquals(engine.nameCompound("CO2"), naming.get(1).getString("name"));
+    }
+}
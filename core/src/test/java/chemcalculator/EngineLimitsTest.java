@@ -0,0 +1,83 @@
+package chemcalculator;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EngineLimitsTest {
+    private static ChemEngine engine(EngineLimits limits) {
+        return new ChemEngine(new EngineMetrics(), limits);
+    }
+
+    @Test
+    void limitsMustBePositiveAndDepthBounded() {
+        assertThrows(IllegalArgumentException.class, () -> EngineLimits.DEFAULT.withMaxInputLength(0));
+        assertThrows(IllegalArgumentException.class, () -> EngineLimits.DEFAULT.withMaxSpecies(-1));
+        assertThrows(IllegalArgumentException.class, () -> EngineLimits.DEFAULT.withTimeBudget(Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> EngineLimits.DEFAULT.withMaxDepth(65));
+        assertEquals(64, EngineLimits.DEFAULT.withMaxDepth(64).maxDepth());
+    }
+
+    @Test
+    void parseLimitsRejectBeforeBuilding() {
+        ChemEngine small = engine(EngineLimits.DEFAULT.withMaxInputLength(8).withMaxDepth(2).withMaxSubscript(99));
+        ParseResult<Compound> parsed = small.tryParseCompound("C6H12O6Na");
+        assertEquals(ParseResult.Code.TOO_LONG, parsed.code());
+        assertTrue(parsed.exceedsLimit());
+        parsed = small.tryParseCompound("((( H)))");
+        assertEquals(ParseResult.Code.TOO_DEEP, parsed.code());
+        assertEquals(2, parsed.offset());
+        parsed = small.tryParseCompound("C100");
+        assertEquals(ParseResult.Code.TOO_LARGE, parsed.code());
+        assertEquals(1, parsed.offset());
+        assertTrue(small.tryParseCompound("C99((H))").ok());
+        assertEquals(3, small.metrics().getLimitedCount());
+    }
+
+    @Test
+    void elementCountsThatOverflowAreTooLarge() {
+        ParseResult<Compound> parsed = new ChemEngine().tryParseCompound("((((C99999)99999)99999)99999)");
+        assertEquals(ParseResult.Code.TOO_LARGE, parsed.code());
+    }
+
+    @Test
+    void oversizedEquationsAreRejectedWithoutSolving() {
+        ChemEngine few = engine(EngineLimits.DEFAULT.withMaxSpecies(3));
+        BalanceResult result = few.balance("CH4 + O2 -> CO2 + H2O");
+        assertFalse(result.isBalanced());
+        assertTrue(result.error().contains("species"), result.error());
+        assertEquals(1, few.metrics().getLimitedCount());
+
+        ChemEngine narrow = engine(EngineLimits.DEFAULT.withMaxMatrixCells(10));
+        result = narrow.balance("C3H8 + O2 -> CO2 + H2O");
+        assertFalse(result.isBalanced());
+        assertTrue(result.error().startsWith("Error: Equation rejected: it needs a"), result.error());
+        assertEquals(1, narrow.metrics().getLimitedCount());
+        assertTrue(engine(EngineLimits.DEFAULT).balance("C3H8 + O2 -> CO2 + H2O").isBalanced());
+    }
+
+    @Test
+    void eliminationIsAbandonedWhenEntriesOutgrowTheirBits() {
+        ChemEngine tight = engine(EngineLimits.DEFAULT.withMaxCoefficientBits(2));
+        BalanceResult result = tight.balance("K4Fe(CN)6 + KMnO4 + H2SO4 -> KHSO4 + Fe2(SO4)3 + MnSO4 + HNO3 + CO2 + H2O");
+        assertFalse(result.isBalanced());
+        assertTrue(result.error().startsWith("Error: Equation rejected:"), result.error());
+        assertEquals(1, tight.metrics().getLimitedCount());
+    }
+
+    @Test
+    void budgetExpiresAfterItsDeadline() throws InterruptedException {
+        EngineLimits.Budget budget = EngineLimits.DEFAULT.withTimeBudget(Duration.ofNanos(1)).start();
+        Thread.sleep(1);
+        assertTrue(budget.expired());
+        assertFalse(EngineLimits.DEFAULT.withTimeBudget(Duration.ofHours(1)).start().expired());
+
+        ChemEngine hurried = engine(EngineLimits.DEFAULT.withTimeBudget(Duration.ofNanos(1)));
+        BalanceResult result = hurried.balance("C3H8 + O2 -> CO2 + H2O");
+        assertFalse(result.isBalanced());
+        assertTrue(result.error().contains("time budget"), result.error());
+        assertEquals(1, hurried.metrics().getLimitedCount());
+    }
+}
@@ -0,0 +1,108 @@
+package chemcalculator;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EngineMetricsTest {
+    @Test
+    void bucketsAreContiguousAndWithinSixPercent() {
+        for (long value : new long[] {0, 1, 31, 32, 33, 1000, 123_456_789, Long.MAX_VALUE}) {
+            int bucket = EngineMetrics.Histogram.bucketOf(value);
+            long lower = EngineMetrics.Histogram.lowerBound(bucket);
+            assertTrue(lower <= value, () -> value + " below its bucket");
+            if (value < Long.MAX_VALUE) assertTrue(EngineMetrics.Histogram.lowerBound(bucket + 1) > value, () -> value + " above its bucket");
+            assertTrue(value - lower <= value / 16.0, () -> value + " lands too far from " + lower);
+        }
+    }
+
+    @Test
+    void percentilesComeFromTheRecordedLatencies() {
+        EngineMetrics.Histogram histogram = new EngineMetrics.Histogram();
+        for (long i = 1; i <= 1000; i++) histogram.record(i * 1000);
+        EngineMetrics.Snapshot snapshot = histogram.snapshot();
+        assertEquals(1000, snapshot.count());
+        assertEquals(500_500, snapshot.mean(), 1e-9);
+        assertEquals(1_000_000, snapshot.max());
+        assertEquals(500_000, snapshot.p50(), 500_000 / 16.0);
+        assertEquals(990_000, snapshot.p99(), 990_000 / 16.0);
+        assertTrue(snapshot.p999() <= snapshot.max());
+        histogram.reset();
+        assertEquals(0, histogram.snapshot().count());
+    }
+
+    @Test
+    void balanceCountsItsPathAndStages() {
+        ChemEngine engine = new ChemEngine();
+        engine.balance("C3H8 + O2 -> CO2 + H2O");
+        engine.balance("MnO4- + Fe2+ -> Mn2+ + Fe3+");
+        engine.balance("H2 + O2");
+        engine.balance("H2 -> O2");
+        EngineMetrics metrics = engine.metrics();
+        assertEquals(2, metrics.getAlgebraicPathCount(), metrics::dump);  // the propane equation and the rejected one
+        assertEquals(1, metrics.getRedoxPathCount());
+        assertEquals(1, metrics.getFailureCount());
+        assertEquals(1, metrics.getRejectedCount());
+        assertEquals(4, metrics.snapshot(EngineMetrics.Stage.BALANCE).count());
+        assertEquals(3, metrics.snapshot(EngineMetrics.Stage.PARSE).count());
+        assertEquals(1, metrics.snapshot(EngineMetrics.Stage.HALF_REACTION).count());
+        metrics.reset();
+        assertEquals(0, metrics.getRedoxPathCount());
+        assertEquals(0, metrics.snapshot(EngineMetrics.Stage.BALANCE).count());
+    }
+
+    @Test
+    void unexplainedRedoxCountsAsAlgebraic() {
+        ChemEngine engine = new ChemEngine();
+        engine.balance("MnO4- + Fe2+ -> Mn2+ + Fe3+", false);
+        assertEquals(0, engine.metrics().getRedoxPathCount());
+        assertEquals(1, engine.metrics().getAlgebraicPathCount());
+    }
+
+    @Test
+    void queriesAreTimedUnderTheirStage() {
+        ChemEngine engine = new ChemEngine();
+        assertTrue(engine.stoichiometryQuery("Al + O2 -> Al2O3; 10 g Al, 10 g O2").ok());
+        assertTrue(engine.equilibriumQuery("H2 + I2 -> HI; 50.5; 1.0 M H2, 1.0 M I2").ok());
+        assertTrue(engine.titrationQuery("25 mL 0.1 M HC2H3O2; 0.1 M NaOH").ok());
+        assertTrue(engine.cellsQuery("Ag+/Ag, Zn2+/Zn; top 1").ok());
+        assertFalse(engine.stoichiometryQuery("H2 -> O2; 1 g H2").ok());  // failures are timed too
+        EngineMetrics metrics = engine.metrics();
+        assertEquals(2, metrics.snapshot(EngineMetrics.Stage.STOICHIOMETRY).count());
+        assertEquals(1, metrics.snapshot(EngineMetrics.Stage.EQUILIBRIUM).count());
+        assertEquals(1, metrics.snapshot(EngineMetrics.Stage.TITRATION).count());
+        assertEquals(1, metrics.snapshot(EngineMetrics.Stage.CELLS).count());
+    }
+
+    @Test
+    void dumpListsCountersAndOnlyActiveStages() {
+        ChemEngine engine = new ChemEngine();
+        engine.nameCompound("NaCl");
+        String dump = engine.metrics().dump();
+        assertTrue(dump.startsWith("paths redox=0 algebraic=0 fallback=0 failed=0 rejected=0 limited=0\n"), dump);
+        assertTrue(dump.contains("\nnaming "), dump);
+        assertFalse(dump.contains("\nbalance "), dump);
+    }
+
+    @Test
+    void registeredMetricsAreReadableOverJmx() throws Exception {
+        ChemEngine engine = new ChemEngine();
+        engine.balance("MnO4- + Fe2+ -> Mn2+ + Fe3+");
+        String name = "test-" + UUID.randomUUID();
+        engine.metrics().register(name);
+        engine.metrics().register(name);  // second registration is a no-op
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = new ObjectName("chemcalculator:type=EngineMetrics,name=" + ObjectName.quote(name));
+        try {
+            assertEquals(1L, server.getAttribute(objectName, "RedoxPathCount"));
+            assertNotNull(server.getAttribute(objectName, "Stages"));
+        } finally {
+            server.unregisterMBean(objectName);
+        }
+    }
+}
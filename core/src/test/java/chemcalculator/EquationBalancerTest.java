@@ -0,0 +1,242 @@
+package chemcalculator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EquationBalancerTest {
+    private final ChemEngine engine = new ChemEngine();
+
+    private BalanceResult balanced(String equation) {
+        BalanceResult result = engine.balance(equation);
+        assertTrue(result.isBalanced(), () -> equation + ": " + result.error());
+        assertNull(ConservationCheck.check(result.reactants(), result.products()));
+        return result;
+    }
+
+    @Test
+    void permanganateOxidizesIronInAcid() {
+        BalanceResult result = balanced("MnO4- + Fe2+ -> Mn2+ + Fe3+");
+        assertEquals(BalanceResult.Method.HALF_REACTION, result.method());
+        assertEquals("MnO4- + 5 Fe^2+ + 8 H+ -> Mn^2+ + 5 Fe^3+ + 4 H2O", result.equation());
+        assertTrue(result.steps().contains("Oxidation: Fe^2+ -> Fe^3+ + e-"), result.steps()::toString);
+        assertTrue(result.steps().contains("Reduction: MnO4- + 8 H+ + 5 e- -> Mn^2+ + 4 H2O"), result.steps()::toString);
+    }
+
+    @Test
+    void dichromateOxidizesIron() {
+        BalanceResult result = balanced("Cr2O7^2- + Fe^2+ -> Cr^3+ + Fe^3+");
+        assertEquals("Cr2O7^2- + 6 Fe^2+ + 14 H+ -> 2 Cr^3+ + 6 Fe^3+ + 7 H2O", result.equation());
+    }
+
+    @Test
+    void chlorineDisproportionatesInBase() {
+        BalanceResult result = balanced("Cl2 + OH- -> Cl- + ClO3- + H2O");
+        assertEquals("3 Cl2 + 6 OH- -> 5 Cl- + ClO3- + 3 H2O", result.equation());
+        assertTrue(result.steps().contains("Reduction: Cl2 + 2 e- -> 2 Cl-"), result.steps()::toString);
+    }
+
+    @Test
+    void molecularRedoxSplitsByElement() {
+        BalanceResult water = balanced("H2 + O2 -> H2O");
+        assertEquals(BalanceResult.Method.HALF_REACTION, water.method());
+        assertTrue(water.steps().contains("Oxidation: H2 -> 2 H(+1) + 2 e-"), water.steps()::toString);
+        assertTrue(water.steps().contains("Reduction: O2 + 4 e- -> 2 O(-2)"), water.steps()::toString);
+        assertHalvesAddUp(water);
+
+        BalanceResult salt = balanced("Na + Cl2 -> NaCl");
+        assertEquals("2 Na + Cl2 -> 2 NaCl", salt.equation());
+        assertTrue(salt.steps().contains("Oxidation: Na -> Na(+1) + e-"), salt.steps()::toString);
+        assertTrue(salt.steps().contains("Reduction: Cl2 + 2 e- -> 2 Cl(-1)"), salt.steps()::toString);
+        assertHalvesAddUp(salt);
+
+        BalanceResult rust = balanced("Fe + O2 -> Fe2O3");
+        assertEquals("4 Fe + 3 O2 -> 2 Fe2O3", rust.equation());
+        assertEquals(BalanceResult.Method.HALF_REACTION, rust.method());
+        assertTrue(rust.steps().contains("Oxidation: Fe -> Fe(+3) + 3 e-"), rust.steps()::toString);
+        assertTrue(rust.steps().contains("Reduction: O2 + 4 e- -> 2 O(-2)"), rust.steps()::toString);
+        assertHalvesAddUp(rust);
+    }
+
+    @Test
+    void spectatorIonsDoNotPreventTheSplit() {
+        BalanceResult result = balanced("KMnO4 + HCl -> KCl + MnCl2 + Cl2 + H2O");
+        assertEquals("2 KMnO4 + 16 HCl -> 2 KCl + 2 MnCl2 + 5 Cl2 + 8 H2O", result.equation());
+        assertEquals(BalanceResult.Method.HALF_REACTION, result.method());
+        assertTrue(result.steps().contains("Oxidation: 2 Cl(-1) -> Cl2 + 2 e-"), result.steps()::toString);
+        assertTrue(result.steps().contains("Reduction: Mn(+7) + 5 e- -> Mn(+2)"), result.steps()::toString);
+        assertTrue(result.steps().contains("Multiply the oxidation by 5 and the reduction by 2 so 10 electrons are transferred"),
+                   result.steps()::toString);
+        assertHalvesAddUp(result);
+    }
+
+    @Test
+    void ionicHalvesAddUpToTheEquation() {
+        assertHalvesAddUp(balanced("MnO4- + Fe2+ -> Mn2+ + Fe3+"));
+        assertHalvesAddUp(balanced("Cl2 + OH- -> Cl- + ClO3- + H2O"));
+        assertHalvesAddUp(balanced("Zn + NO3- -> Zn2+ + NH4+"));
+    }
+
+    private static final Pattern ATOM = Pattern.compile("([A-Z][a-z]?)\\(([+-]\\d+)\\)");
+
+    // Scaled by the printed multipliers, the two halves add up to the balanced equation: the electrons
+    // cancel, species the equation does not contain cancel, and every element gains and loses as many
+    // atoms in each oxidation state as it does in the equation, up to a whole factor (spectator atoms
+    // cancel on both sides)
+    private void assertHalvesAddUp(BalanceResult result) {
+        List<String> steps = result.steps();
+        String oxidation = null;
+        String reduction = null;
+        int oxidationTimes = 1;
+        int reductionTimes = 1;
+        for (String step : steps) {
+            if (step.startsWith("Oxidation: ")) oxidation = step.substring("Oxidation: ".length());
+            if (step.startsWith("Reduction: ")) reduction = step.substring("Reduction: ".length());
+            if (step.startsWith("Multiply the oxidation by ")) {
+                String[] words = step.split(" ");
+                oxidationTimes = Integer.parseInt(words[4]);
+                reductionTimes = Integer.parseInt(words[9]);
+            }
+        }
+        assertNotNull(oxidation, steps::toString);
+        assertNotNull(reduction, steps::toString);
+        Map<String, Integer> atoms = new HashMap<>();
+        Map<List<Object>, Integer> species = new HashMap<>();
+        int electrons = addHalf(oxidation, oxidationTimes, atoms, species) + addHalf(reduction, reductionTimes, atoms, species);
+        assertEquals(0, electrons, steps::toString);
+        Map<String, Integer> expected = new HashMap<>();
+        Set<List<Object>> written = new HashSet<>();
+        for (BalanceResult.Term term : result.reactants()) {
+            addAtoms(term.compound(), -term.coefficient(), expected);
+            written.add(key(term.compound()));
+        }
+        for (BalanceResult.Term term : result.products()) {
+            addAtoms(term.compound(), term.coefficient(), expected);
+            written.add(key(term.compound()));
+        }
+        expected.values().removeIf(count -> count == 0);
+        atoms.values().removeIf(count -> count == 0);
+        // The halves may add up to a multiple of the reduced equation (3 Cl2 + 6 OH- comes out doubled)
+        String any = expected.keySet().iterator().next();
+        int factor = atoms.getOrDefault(any, 0) / expected.get(any);
+        assertTrue(factor > 0, steps::toString);
+        expected.replaceAll((atom, count) -> count * factor);
+        assertEquals(expected, atoms, steps::toString);
+        species.keySet().removeAll(written);
+        species.values().removeIf(count -> count == 0);
+        assertEquals(Map.of(), species, steps::toString);
+    }
+
+    // Adds times x the half to the atom and species tallies (products positive); returns net electrons
+    private int addHalf(String half, int times, Map<String, Integer> atoms, Map<List<Object>, Integer> species) {
+        String[] sides = half.split(" -> ");
+        int electrons = 0;
+        for (int side = 0; side < 2; side++) {
+            int sign = side == 0 ? -times : times;
+            for (String term : sides[side].split(" \\+ ")) {
+                int space = term.indexOf(' ');
+                int coefficient = space < 0 ? 1 : Integer.parseInt(term.substring(0, space));
+                String notation = term.substring(space + 1);
+                Matcher atom = ATOM.matcher(notation);
+                if (notation.equals("e-")) {
+                    electrons += sign * coefficient;
+                } else if (atom.matches()) {
+                    atoms.merge(atom.group(1) + "(" + Integer.parseInt(atom.group(2)) + ")", sign * coefficient, Integer::sum);
+                } else {
+                    Compound compound = engine.parseCompound(notation);
+                    addAtoms(compound, sign * coefficient, atoms);
+                    species.merge(key(compound), sign * coefficient, Integer::sum);
+                }
+            }
+        }
+        return electrons;
+    }
+
+    private static void addAtoms(Compound compound, int times, Map<String, Integer> atoms) {
+        Map<String, Integer> states = OxidationStates.assign(compound);
+        for (Map.Entry<String, Integer> entry : compound.composition().entrySet()) {
+            String atom = entry.getKey() + "(" + states.getOrDefault(entry.getKey(), 0) + ")";
+            atoms.merge(atom, times * entry.getValue(), Integer::sum);
+        }
+    }
+
+    private static List<Object> key(Compound compound) {
+        return List.of(compound.composition(), compound.charge());
+    }
+
+    @Test
+    void redoxWithSeveralElementsChangingIsReportedAsAlgebraic() {
+        long redox = engine.metrics().getRedoxPathCount();
+        BalanceResult result = balanced("FeS2 + O2 -> Fe2O3 + SO2");
+        assertEquals("4 FeS2 + 11 O2 -> 2 Fe2O3 + 8 SO2", result.equation());
+        assertTrue(result.steps().contains("Using algebraic method for balancing:"), result.steps()::toString);
+        assertTrue(result.steps().get(0).contains("more than one element changing state"), result.steps()::toString);
+        assertEquals(BalanceResult.Method.ALGEBRAIC, result.method());
+        assertEquals(redox, engine.metrics().getRedoxPathCount());
+    }
+
+    @Test
+    void standardCouplesUseTheirPreBalancedHalves() {
+        ChemEngine counted = new ChemEngine(new EngineMetrics());
+        BalanceResult result = counted.balance("MnO4- + Fe2+ -> Mn2+ + Fe3+");
+        assertEquals(2, counted.metrics().getStandardHalfCount());
+        assertEquals(0, counted.metrics().getDerivedHalfCount());
+        // The table holds what halfReaction derives for the couple
+        Compound permanganate = counted.parseCompound("MnO4-");
+        BalanceResult half = EquationBalancer.halfReaction(permanganate, counted.parseCompound("Mn2+"), false,
+                                                           EngineLimits.DEFAULT.start());
+        assertTrue(result.steps().contains("Reduction: " + half.equation()), result.steps()::toString);
+    }
+
+    @Test
+    void otherCouplesAreDerivedBySolvingTheHalf() {
+        ChemEngine counted = new ChemEngine(new EngineMetrics());
+        BalanceResult result = balancedBy(counted, "Zn + NO3- -> Zn2+ + NH4+");
+        assertEquals("4 Zn + NO3- + 10 H+ -> 4 Zn^2+ + NH4+ + 3 H2O", result.equation());
+        assertEquals(1, counted.metrics().getStandardHalfCount());
+        assertEquals(1, counted.metrics().getDerivedHalfCount());
+        assertTrue(result.steps().contains("Reduction: NO3- + 10 H+ + 8 e- -> NH4+ + 3 H2O"), result.steps()::toString);
+        // Without the explanation no half-reaction is looked up or solved
+        counted.metrics().reset();
+        counted.balance("Zn + NO3- -> Zn2+ + NH4+", false);
+        assertEquals(0, counted.metrics().getStandardHalfCount() + counted.metrics().getDerivedHalfCount());
+    }
+
+    private static BalanceResult balancedBy(ChemEngine engine, String equation) {
+        BalanceResult result = engine.balance(equation);
+        assertTrue(result.isBalanced(), () -> equation + ": " + result.error());
+        return result;
+    }
+
+    @Test
+    void unexplainedRedoxIsReportedAsAlgebraic() {
+        BalanceResult result = engine.balance("MnO4- + Fe2+ -> Mn2+ + Fe3+", false);
+        assertEquals(BalanceResult.Method.ALGEBRAIC, result.method());
+        assertEquals("MnO4- + 5 Fe^2+ + 8 H+ -> Mn^2+ + 5 Fe^3+ + 4 H2O", result.equation());
+    }
+
+    @Test
+    void nonRedoxUsesTheAlgebraicMethod() {
+        BalanceResult result = balanced("C3H8 + O2 -> CO2 + H2O");
+        assertEquals(BalanceResult.Method.ALGEBRAIC, result.method());
+        assertEquals("C3H8 + 5 O2 -> 3 CO2 + 4 H2O", result.equation());
+    }
+
+    @Test
+    void twoIndependentReactionsAreRejected() {
+        BalanceResult result = engine.balance("H2 + O2 -> H2O + H2O2");
+        assertFalse(result.isBalanced());
+        assertTrue(result.error().contains("not unique"), result.error());
+    }
+
+    @Test
+    void unbalanceableEquationIsRejected() {
+        BalanceResult result = engine.balance("H2 -> O2");
+        assertFalse(result.isBalanced());
+        assertEquals(BalanceResult.Method.NONE, result.method());
+    }
+}
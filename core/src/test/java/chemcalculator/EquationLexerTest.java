@@ -0,0 +1,113 @@
+package chemcalculator;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EquationLexerTest {
+    private static EquationLexer.Lexed lex(String equation) {
+        return EquationLexer.lexEquation(equation, EngineLimits.DEFAULT);
+    }
+
+    private static void assertError(String equation, ParseResult.Code code, int offset) {
+        EquationLexer.Lexed lexed = lex(equation);
+        assertEquals(code, lexed.code(), () -> equation + ": " + lexed.message());
+        assertEquals(offset, lexed.offset(), () -> equation + ": " + lexed.message());
+    }
+
+    @Test
+    void errorsPointAtTheOffendingCharacter() {
+        assertError("H2 + O2", ParseResult.Code.ARROW, 7);
+        assertError("H2 + -> H2O", ParseResult.Code.MISSING_SPECIES, 3);
+        assertError("Ca((NO3)2 -> CaO", ParseResult.Code.UNCLOSED_BRACKET, 2);
+        assertError("H2) -> H2", ParseResult.Code.UNMATCHED_BRACKET, 2);
+        assertError("0 H2 -> H2", ParseResult.Code.BAD_COEFFICIENT, 0);
+        assertError(" -> H2", ParseResult.Code.EMPTY_SIDE, 1);
+        assertError("H2 -> H2O -> H2", ParseResult.Code.ARROW, 10);
+        assertError("H2 + o2 -> H2O", ParseResult.Code.UNEXPECTED_CHARACTER, 5);
+        assertError("H2 + 3 -> H2O", ParseResult.Code.UNEXPECTED_CHARACTER, 7);
+    }
+
+    @Test
+    void limitsAreEnforced() {
+        assertError("H100001 -> H2", ParseResult.Code.TOO_LARGE, 1);
+        assertEquals(ParseResult.Code.TOO_LONG, lex("H".repeat(5000) + " -> H2").code());
+    }
+
+    @Test
+    void chargeNotations() {
+        EquationLexer.Lexed lexed = lex("Fe3+ + SO4^2- + Ag(+) -> MnO4- + 2 e-");
+        assertNull(lexed.code(), lexed.message());
+        assertEquals(3, lexed.reactants().get(0).charge());
+        assertEquals(2, lexed.reactants().get(0).end() - lexed.reactants().get(0).start());  // "Fe"
+        assertEquals(-2, lexed.reactants().get(1).charge());
+        assertEquals(1, lexed.reactants().get(2).charge());
+        assertEquals(-1, lexed.products().get(0).charge());
+        assertTrue(lexed.products().get(1).electron());
+        assertEquals(2, lexed.products().get(1).coefficient());
+    }
+
+    @Test
+    void plusDirectlyBeforeTheNextFormulaSeparates() {
+        EquationLexer.Lexed lexed = lex("H2+O2 -> H2O");
+        assertNull(lexed.code(), lexed.message());
+        assertEquals(2, lexed.reactants().size());
+        assertEquals(0, lexed.reactants().get(0).charge());
+    }
+
+    @Test
+    void barePlusThenSpaceBeforeAFormulaSeparates() {
+        for (String equation : new String[] {"N2+ H2 -> NH3", "H2+ O2 -> H2O", "N2+ 3 H2 -> 2 NH3"}) {
+            EquationLexer.Lexed lexed = lex(equation);
+            assertNull(lexed.code(), () -> equation + ": " + lexed.message());
+            assertEquals(2, lexed.reactants().size(), equation);
+            assertEquals(0, lexed.reactants().get(0).charge(), equation);
+            assertEquals(0, lexed.reactants().get(1).charge(), equation);
+        }
+        assertEquals("N2 + 3 H2 -> 2 NH3", new ChemEngine().balance("N2+ H2 -> NH3").equation());
+    }
+
+    @Test
+    void explicitChargeBeforeASpaceIsKept() {
+        EquationLexer.Lexed lexed = lex("Fe3+ + Cu -> Fe2+ + Cu2+");
+        assertNull(lexed.code(), lexed.message());
+        assertEquals(3, lexed.reactants().get(0).charge());
+        assertEquals(2, lexed.products().get(1).charge());
+        assertEquals(3, lex("Fe^3+ -> Fe").reactants().get(0).charge());
+        assertEquals(1, lex("Na+ -> Na").reactants().get(0).charge());
+        // Sign then magnitude is an explicit charge even with a formula after it; the species
+        // then lack a separator
+        assertEquals(ParseResult.Code.UNEXPECTED_CHARACTER, lex("Fe+3 Cu -> X").code());
+        assertEquals(ParseResult.Code.UNEXPECTED_CHARACTER, lex("Fe^3+ Cu -> X").code());
+    }
+
+    @Test
+    void stateLabelsAreLexed() {
+        EquationLexer.Lexed lexed = lex("Zn(s) + Cu2+(aq) -> Zn2+(aq) + Cu(s) + H2O(l) + O2(g)");
+        assertNull(lexed.code(), lexed.message());
+        assertEquals("s", lexed.reactants().get(0).state());
+        assertEquals("aq", lexed.reactants().get(1).state());
+        assertEquals(2, lexed.reactants().get(1).charge());
+        assertEquals("l", lexed.products().get(2).state());
+        assertEquals("g", lexed.products().get(3).state());
+        assertNull(lex("H2 + O2 -> H2O").reactants().get(0).state());
+    }
+
+    @Test
+    void statesReachTheCompoundAndTheBalancedEquation() {
+        ChemEngine engine = new ChemEngine();
+        Compound copper = engine.parseCompound("2 Cu2+(aq)");
+        assertEquals("aq", copper.state());
+        assertEquals(2, copper.charge());
+        assertEquals("Cu^2+(aq)", copper.labeled());
+        assertEquals(engine.parseCompound("Cu2+").composition(), copper.composition());
+
+        BalanceResult result = engine.balance("Zn(s) + Cu2+(aq) -> Zn2+(aq) + Cu(s)");
+        assertEquals("Zn(s) + Cu^2+(aq) -> Zn^2+(aq) + Cu(s)", result.equation());
+        assertEquals("s", result.reactants().get(0).compound().state());
+        assertEquals("aq", result.products().get(0).compound().state());
+
+        BalanceResult water = engine.balance("H2(g) + O2(g) -> H2O(l)");
+        assertEquals("2 H2(g) + O2(g) -> 2 H2O(l)", water.equation());
+    }
+}
@@ -0,0 +1,73 @@
+package chemcalculator;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EquilibriumTest {
+    private final ChemEngine engine = new ChemEngine();
+
+    @Test
+    void hydrogenIodideFromEqualStart() {
+        // (2x)^2 / (1 - x)^2 = 50.5  ->  x = sqrt(50.5) / (2 + sqrt(50.5))
+        Equilibrium.Table table = engine.equilibrium("H2 + I2 -> HI").solve(50.5, "1.0 M H2, 1.0 M I2");
+        double x = Math.sqrt(50.5) / (2 + Math.sqrt(50.5));
+        assertEquals("H2 + I2 -> 2 HI", table.equation());
+        assertEquals(x, table.extent(), 1e-9);
+        assertEquals(1 - x, table.rows().get(0).equilibrium(), 1e-9);
+        assertEquals(2 * x, table.rows().get(2).equilibrium(), 1e-9);
+        assertEquals(-x, table.rows().get(0).change(), 1e-9);
+    }
+
+    @Test
+    void reverseDirectionFromProductsOnly() {
+        Equilibrium.Table table = engine.equilibrium("N2O4 -> NO2").solve(4.63e-3, "0.1 M N2O4");
+        double n2o4 = table.rows().get(0).equilibrium();
+        double no2 = table.rows().get(1).equilibrium();
+        assertEquals(4.63e-3, no2 * no2 / n2o4, 1e-9);
+        assertEquals(0.1, n2o4 + no2 / 2, 1e-12);
+    }
+
+    @Test
+    void pureSpeciesStayOutOfTheQuotient() {
+        Equilibrium.Table table = engine.equilibrium("CaCO3 -> CaO + CO2").solve(0.5, "pure CaCO3, pure CaO");
+        assertTrue(Double.isNaN(table.rows().get(0).initial()));
+        assertEquals(0.5, table.rows().get(2).equilibrium(), 1e-9);
+    }
+
+    @Test
+    void sweepMatchesSingleSolves() {
+        Equilibrium equilibrium = engine.equilibrium("H2 + I2 -> HI");
+        double[] initial = {1.0, 1.0, 0.0, 0.5, 0.2, 0.1};
+        double[] out = new double[initial.length];
+        equilibrium.sweep(50.5, initial, 2, out, null);
+        Equilibrium.Table second = equilibrium.solve(50.5, new double[] {0.5, 0.2, 0.1});
+        assertEquals(second.rows().get(2).equilibrium(), out[5], 1e-12);
+    }
+
+    @Test
+    void labelledSolidsAndLiquidsArePure() {
+        ParseResult<Equilibrium.Table> parsed = engine.equilibriumQuery("CaCO3(s) -> CaO(s) + CO2(g); 0.5; 0 M CO2");
+        assertTrue(parsed.ok(), parsed::describe);
+        Equilibrium.Table table = parsed.value();
+        assertTrue(Double.isNaN(table.rows().get(0).initial()));
+        assertTrue(Double.isNaN(table.rows().get(1).equilibrium()));
+        assertEquals(0.5, table.rows().get(2).equilibrium(), 1e-9);
+
+        // The numeric path ignores whatever is passed for a labelled species
+        Equilibrium equilibrium = engine.equilibrium("CaCO3(s) -> CaO(s) + CO2(g)");
+        assertEquals(0.5, equilibrium.solve(0.5, new double[] {0, 0, 0}).rows().get(2).equilibrium(), 1e-9);
+        // Water labelled (l) stays out of Ka
+        table = engine.equilibrium("HC2H3O2 + H2O(l) -> C2H3O2- + H3O+").solve(1.8e-5, "0.1 M HC2H3O2");
+        double h = table.rows().get(3).equilibrium();
+        assertEquals(1.8e-5, h * h / table.rows().get(0).equilibrium(), 1e-12);
+    }
+
+    @Test
+    void labelledSolidsTakeNoConcentration() {
+        String query = "CaCO3(s) -> CaO(s) + CO2(g); 0.5; 1 M CaCO3";
+        ParseResult<Equilibrium.Table> parsed = engine.equilibriumQuery(query);
+        assertEquals(QueryError.INCOMPATIBLE, parsed.code());
+        assertEquals(query.lastIndexOf("CaCO3"), parsed.offset());
+    }
+}
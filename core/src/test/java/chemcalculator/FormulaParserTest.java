@@ -0,0 +1,51 @@
+package chemcalculator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FormulaParserTest {
+    private static Map<String, Integer> fold(String formula) {
+        return FormulaParser.parseFormula(formula, EngineLimits.DEFAULT).orElseThrow();
+    }
+
+    private static Formula tree(String formula) {
+        return FormulaParser.parseFormulaTree(formula, EngineLimits.DEFAULT).orElseThrow();
+    }
+
+    @Test
+    void foldedAndTreeCompositionsAgree() {
+        for (String formula : List.of("H2O", "Ca(NO3)2", "[Cu(NH3)4]SO4", "CuSO4·5H2O", "Na2B4O7*10H2O",
+                                      "K4[Fe(CN)6]", "((CH3)3C)2O", "Al2(SO4)3.18H2O", "C0H4")) {
+            assertEquals(fold(formula), tree(formula).composition(), formula);
+        }
+        assertEquals(Map.of("Cu", 1, "S", 1, "O", 9, "H", 10), fold("CuSO4·5H2O"));
+        assertEquals(Map.of("C", 8, "H", 18, "O", 1), fold("((CH3)3C)2O"));
+    }
+
+    @Test
+    void treeKeepsGroupsAndHydrateParts() {
+        Formula formula = tree("[Cu(NH3)4]SO4·H2O");
+        assertEquals(2, formula.parts().size());
+        Formula.Group complex = (Formula.Group) formula.nodes().get(0);
+        assertEquals('[', complex.open());
+        assertEquals(1, complex.count());
+        assertEquals(new Formula.Atom("Cu", 1), complex.nodes().get(0));
+        assertEquals(4, ((Formula.Group) complex.nodes().get(1)).count());
+        assertEquals(Map.of("Cu", 1, "N", 4, "H", 12, "S", 1, "O", 4), formula.anhydrous().composition());
+    }
+
+    @Test
+    void overflowIsReportedAtTheElementOrGroup() {
+        String atoms = "H99999(H99999)99999";
+        ParseResult<Map<String, Integer>> folded = FormulaParser.parseFormula(atoms, EngineLimits.DEFAULT);
+        assertEquals(ParseResult.Code.TOO_LARGE, folded.code());
+        assertEquals(FormulaParser.parseFormulaTree(atoms, EngineLimits.DEFAULT).offset(), folded.offset());
+        String groups = "((((H99999)99999)99999)99999)";
+        assertEquals(ParseResult.Code.TOO_LARGE, FormulaParser.parseFormula(groups, EngineLimits.DEFAULT).code());
+        assertEquals(ParseResult.Code.TOO_LARGE, FormulaParser.parseFormulaTree(groups, EngineLimits.DEFAULT).code());
+    }
+}
@@ -0,0 +1,83 @@
+package chemcalculator;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FormulaSearchTest {
+    private final ChemEngine engine = new ChemEngine(new EngineMetrics());
+
+    @Test
+    void glucoseIsAmongTheChnopsCandidates() {
+        FormulaSearch search = engine.findFormulas(180.156, 0.005, FormulaSearch.CHNOPS);
+        assertTrue(search.complete());
+        assertTrue(search.matches().stream().anyMatch(m -> m.composition().equals(Map.of("C", 6, "H", 12, "O", 6))));
+        double previous = 0;
+        for (FormulaSearch.Match match : search.matches()) {
+            assertTrue(Math.abs(match.error()) <= 0.005 + 1e-9, match.formula());
+            assertTrue(Math.abs(match.error()) >= previous, "closest first");
+            previous = Math.abs(match.error());
+            assertTrue(match.rdbe() >= 0 && match.rdbe() == Math.rint(match.rdbe()), match.formula());
+        }
+    }
+
+    @Test
+    void rangesBoundTheCounts() {
+        FormulaSearch search = engine.findFormulas("180.156 0.005 C0-5 H N O");
+        assertTrue(search.matches().stream().allMatch(m -> m.composition().getOrDefault("C", 0) <= 5));
+        assertTrue(search.matches().stream().noneMatch(m -> m.composition().containsKey("S")));
+        assertTrue(engine.findFormulas("18.0106 0.01 H2 O1").matches().stream().anyMatch(m -> m.formula().equals("H2O")));
+    }
+
+    @Test
+    void streamingSinkSeesTheSameMatches() {
+        Queue<FormulaSearch.Match> found = new ConcurrentLinkedQueue<>();
+        assertTrue(engine.findFormulas(180.156, 0.005, FormulaSearch.CHNOPS, found::add));
+        assertEquals(engine.findFormulas(180.156, 0.005, FormulaSearch.CHNOPS).matches().size(), found.size());
+    }
+
+    @Test
+    void malformedQueriesAreValues() {
+        String query = "180.156 0.005 C0-20 Xq";
+        ParseResult<FormulaSearch> parsed = engine.tryFindFormulas(query);
+        assertEquals(QueryError.UNKNOWN_SPECIES, parsed.code());
+        assertEquals(query.indexOf("Xq"), parsed.offset());
+        assertEquals(QueryError.BAD_NUMBER, engine.tryFindFormulas("180.156 0.005 C20-5").code());
+        assertEquals(QueryError.BAD_NUMBER, engine.tryFindFormulas("-1 0.005").code());
+        assertEquals(QueryError.BAD_FIELD, engine.tryFindFormulas("180.156").code());
+        assertThrows(IllegalArgumentException.class, () -> FormulaSearch.Range.parse("C5-x"));
+    }
+
+    @Test
+    void anElementNamedTwiceIsRejected() {
+        String query = "44.01 0.01 C0-2 O C0-1";
+        ParseResult<FormulaSearch> parsed = engine.tryFindFormulas(query);
+        assertEquals(QueryError.BAD_FIELD, parsed.code());
+        assertEquals(query.lastIndexOf("C0-1"), parsed.offset());
+        assertThrows(IllegalArgumentException.class, () -> FormulaSearch.parseRanges("H O H2"));
+        List<FormulaSearch.Range> twice = List.of(FormulaSearch.Range.of("O"), FormulaSearch.Range.parse("O2"));
+        assertThrows(IllegalArgumentException.class, () -> engine.findFormulas(32, 0.01, twice));
+    }
+
+    @Test
+    void searchesAreTimedAndAnOverrunIsCounted() {
+        engine.findFormulas(180.156, 0.005, FormulaSearch.CHNOPS);
+        engine.findFormulas("18.0106 0.01 H O");
+        assertEquals(2, engine.metrics().snapshot(EngineMetrics.Stage.FORMULA_SEARCH).count());
+        assertEquals(0, engine.metrics().getLimitedCount());
+
+        ChemEngine hurried = new ChemEngine(new EngineMetrics(), EngineLimits.DEFAULT.withTimeBudget(Duration.ofNanos(1)));
+        List<FormulaSearch.Range> wide = List.of(FormulaSearch.Range.of("C"), FormulaSearch.Range.of("H"),
+                                                 FormulaSearch.Range.of("N"), FormulaSearch.Range.of("O"));
+        FormulaSearch partial = hurried.findFormulas(2000, 0.5, wide);
+        assertFalse(partial.complete());
+        assertEquals(1, hurried.metrics().getLimitedCount());
+        assertEquals(1, hurried.metrics().snapshot(EngineMetrics.Stage.FORMULA_SEARCH).count());
+    }
+}
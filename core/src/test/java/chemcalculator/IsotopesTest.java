@@ -0,0 +1,99 @@
+package chemcalculator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IsotopesTest {
+    private final ChemEngine engine = new ChemEngine();
+
+    @Test
+    void zeroCountIsIgnoredRatherThanLimited() {
+        ParseResult<IsotopePattern> zero = engine.tryIsotopePattern("C0H4");
+        assertTrue(zero.ok(), zero::describe);
+        IsotopePattern hydrogen = engine.tryIsotopePattern("H4").value();
+        assertEquals(hydrogen.monoisotopicMass(), zero.value().monoisotopicMass(), 1e-12);
+        assertEquals(hydrogen.peaks(), zero.value().peaks());
+        assertEquals(0, engine.metrics().getLimitedCount());
+    }
+
+    @Test
+    void chlorineGivesTheThreeToOneDoublet() {
+        // 35Cl 75.76%, 37Cl 24.24%: M, M+2 and M+4 of Cl2 at p^2, 2pq and q^2
+        List<IsotopePattern.Peak> peaks = engine.isotopePattern("Cl2").peaks();
+        assertEquals(List.of(70, 72, 74), peaks.stream().map(IsotopePattern.Peak::nominalMass).toList());
+        assertEquals(0.7576 * 0.7576, peaks.get(0).abundance(), 1e-9);
+        assertEquals(2 * 0.7576 * 0.2424, peaks.get(1).abundance(), 1e-9);
+        assertEquals(0.2424 * 0.2424, peaks.get(2).abundance(), 1e-9);
+        assertEquals(100.0, peaks.get(0).relative(), 1e-9);
+        assertEquals(100.0 * 2 * 0.2424 / 0.7576, peaks.get(1).relative(), 1e-6);
+        assertEquals(2 * 34.96885268, peaks.get(0).mass(), 1e-9);
+    }
+
+    @Test
+    void averageMassMatchesTheFormulaMass() {
+        for (String formula : List.of("C6H12O6", "CuSO4", "Na2B4O7*10H2O")) {
+            IsotopePattern pattern = engine.isotopePattern(formula);
+            assertTrue(pattern.averaged().isEmpty(), formula);
+            double gfm = engine.formulaMass(formula).totalMass();
+            assertEquals(gfm, pattern.averageMass(), 1e-4 * gfm, formula);
+        }
+    }
+
+    @Test
+    void everyElementWithNaturalIsotopesHasData() {
+        // Only elements without a natural isotopic composition fall back to one averaged peak
+        List<String> noNaturalComposition = List.of("Tc", "Pm", "Po", "At", "Rn", "Fr", "Ra", "Ac");
+        for (int z = 1; z <= 92; z++) {
+            String symbol = Elements.symbol(z);
+            assertEquals(!noNaturalComposition.contains(symbol), Isotopes.hasData(symbol), symbol);
+            if (!Isotopes.hasData(symbol)) continue;
+            IsotopePattern pattern = engine.isotopePattern(symbol);
+            // Abundance-weighted isotope masses reproduce the standard atomic weight
+            assertEquals(Elements.atomicWeight(symbol), pattern.averageMass(), 5e-4 * Elements.atomicWeight(symbol), symbol);
+        }
+    }
+
+    @Test
+    void heavyElementCompoundsGetTheirFullPattern() {
+        // Tin's ten isotopes and chlorine's two spread SnCl4 over many peaks; cisplatin shows platinum's
+        for (String formula : List.of("SnCl4", "Pt(NH3)2Cl2")) {
+            IsotopePattern pattern = engine.isotopePattern(formula);
+            assertTrue(pattern.averaged().isEmpty(), formula);
+            assertTrue(pattern.peaks().size() > 8, formula);
+            double gfm = engine.formulaMass(formula).totalMass();
+            assertEquals(gfm, pattern.averageMass(), 1e-4 * gfm, formula);
+        }
+        assertEquals(List.of("Tc"), engine.isotopePattern("TcO4-").averaged());
+    }
+
+    @Test
+    void proteinSizedPatternIsPrunedWithinTheDefaultBudget() {
+        ChemEngine counted = new ChemEngine(new EngineMetrics());
+        ParseResult<IsotopePattern> protein = counted.tryIsotopePattern("C2000H3000N500O600S10");
+        assertTrue(protein.ok(), protein::describe);
+        List<IsotopePattern.Peak> peaks = protein.value().peaks();
+        // Pruned to the bins of at least 0.01%, not the tens of thousands the full convolution spans
+        assertEquals(40, peaks.size());
+        double total = 0.0;
+        for (int k = 0; k < peaks.size(); k++) {
+            assertTrue(peaks.get(k).abundance() >= 1e-4, peaks.get(k)::toString);
+            if (k > 0) assertEquals(peaks.get(k - 1).nominalMass() + 1, peaks.get(k).nominalMass());
+            total += peaks.get(k).abundance();
+        }
+        assertEquals(1.0, total, 1e-3);
+        assertEquals(counted.formulaMass("C2000H3000N500O600S10").totalMass(), protein.value().averageMass(), 1.0);
+        assertEquals(0, counted.metrics().getLimitedCount());
+        // A looser threshold keeps fewer peaks
+        assertTrue(counted.tryIsotopePattern("C2000H3000N500O600S10", 1e-2).value().peaks().size() < peaks.size());
+    }
+
+    @Test
+    void methaneMonoisotopicMass() {
+        IsotopePattern methane = engine.tryIsotopePattern("CH4").value();
+        assertEquals(16.0313, methane.monoisotopicMass(), 1e-4);
+        assertEquals(16, methane.peaks().get(0).nominalMass());
+    }
+}
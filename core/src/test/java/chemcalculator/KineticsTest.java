@@ -0,0 +1,80 @@
+package chemcalculator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KineticsTest {
+    private final ChemEngine engine = new ChemEngine();
+
+    @Test
+    void massActionFollowsTheBalancedCoefficients() {
+        Kinetics kinetics = engine.kinetics("N2O5 -> NO2 + O2 @ 5e-4");
+        int n2o5 = kinetics.speciesIndex("N2O5");
+        double[] last = new double[kinetics.speciesCount()];
+        Kinetics.Run run = kinetics.integrate(kinetics.concentrations("0.1 M N2O5"), 3600, 600,
+                                              (t, c) -> System.arraycopy(c, 0, last, 0, c.length));
+        assertTrue(run.complete());
+        // 2 N2O5 -> 4 NO2 + O2 at rate k[N2O5]^2: d[N2O5]/dt = -2k[N2O5]^2, so 1/[N2O5] = 1/c0 + 2kt
+        assertEquals(1 / (1 / 0.1 + 2 * 5e-4 * 3600), last[n2o5], 1e-3 * last[n2o5]);
+        // Every N2O5 lost gives two NO2
+        assertEquals(2 * (0.1 - last[n2o5]), last[kinetics.speciesIndex("NO2")], 1e-6);
+    }
+
+    @Test
+    void stiffReversibleStepReachesItsEquilibrium() {
+        // 2 NO2 <-> N2O4 with K = kf / kr = 100, fast against the observation interval
+        Kinetics kinetics = engine.kinetics("NO2 -> N2O4 @ 1e9 1e7");
+        double[] last = new double[kinetics.speciesCount()];
+        Kinetics.Run run = kinetics.integrate(kinetics.concentrations("0.1 M NO2"), 10, 1,
+                                              (t, c) -> System.arraycopy(c, 0, last, 0, c.length));
+        assertTrue(run.complete());
+        double no2 = last[kinetics.speciesIndex("NO2")];
+        double n2o4 = last[kinetics.speciesIndex("N2O4")];
+        assertEquals(100, n2o4 / (no2 * no2), 0.1);
+        assertEquals(0.1, no2 + 2 * n2o4, 1e-8);
+    }
+
+    @Test
+    void outputTimesAreChecked() {
+        assertArrayEquals(new double[] {3600, 600}, Kinetics.outputTimes("3600 600"), 0);
+        assertThrows(IllegalArgumentException.class, () -> Kinetics.outputTimes("10 0.0001"));
+    }
+
+    @Test
+    void everyOutputTimeReachesTheSinkOnce() {
+        assertOutputs("N2O5 -> NO2 + O2 @ 5e-4 | 0.1 M N2O5 | 1", 11, 0.1);
+        assertOutputs("N2O5 -> NO2 + O2 @ 5e-4 | 0.1 M N2O5 | 100 0.1", 1001, 0.1);
+        assertOutputs("N2O5 -> NO2 + O2 @ 5e-4 | 0.1 M N2O5 | 1 0.3", 5, 0.3);
+    }
+
+    private void assertOutputs(String query, int expected, double interval) {
+        Kinetics.Setup setup = engine.kineticsQuery(query).orElseThrow();
+        List<Double> times = new ArrayList<>();
+        assertTrue(setup.run((t, c) -> times.add(t)).complete());
+        assertEquals(expected, times.size(), query);
+        assertEquals(setup.endTime(), times.get(times.size() - 1), 0, query);
+        for (int k = 0; k < times.size() - 1; k++) assertEquals(k * interval, times.get(k), 1e-9, query);
+    }
+
+    @Test
+    void queryRunsLikeTheDirectIntegration() {
+        Kinetics.Setup setup = engine.kineticsQuery("N2O5 -> NO2 + O2 @ 5e-4 | 0.1 M N2O5 | 3600 600").orElseThrow();
+        assertEquals(3600, setup.endTime());
+        assertEquals(600, setup.interval());
+        int n2o5 = setup.network().speciesIndex("N2O5");
+        double[] fromQuery = new double[7];
+        double[] direct = new double[7];
+        int[] outputs = new int[1];
+        assertTrue(setup.run((t, c) -> fromQuery[outputs[0]++] = c[n2o5]).complete());
+        assertEquals(7, outputs[0]);
+        Kinetics kinetics = engine.kinetics("N2O5 -> NO2 + O2 @ 5e-4");
+        outputs[0] = 0;
+        kinetics.integrate(kinetics.concentrations("0.1 M N2O5"), 3600, 600, (t, c) -> direct[outputs[0]++] = c[n2o5]);
+        assertArrayEquals(direct, fromQuery, 0);
+        assertEquals(0.1, fromQuery[0], 0);
+    }
+}
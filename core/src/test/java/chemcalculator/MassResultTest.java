@@ -0,0 +1,73 @@
+package chemcalculator;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MassResultTest {
+    private final ChemEngine engine = new ChemEngine(new EngineMetrics());
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void exactSumsTheDecimalWeights() {
+        MassResult exact = engine.formulaMass("C6H12O6", MassResult.Precision.EXACT);
+        BigDecimal expected = Elements.decimalWeight("C").multiply(BigDecimal.valueOf(6))
+            .add(Elements.decimalWeight("H").multiply(BigDecimal.valueOf(12)))
+            .add(Elements.decimalWeight("O").multiply(BigDecimal.valueOf(6)));
+        assertEquals(0, expected.compareTo(exact.exactMass()));
+        assertEquals(expected.doubleValue(), exact.totalMass());
+        for (MassResult.Contribution c : exact.contributions()) {
+            assertEquals(0, Elements.decimalWeight(c.element()).multiply(BigDecimal.valueOf(c.count())).compareTo(c.exactMass()));
+        }
+    }
+
+    @Test
+    void fastIsCompensatedAndCarriesNoDecimals() {
+        // Many small terms next to one large one, where a plain double sum drifts
+        String formula = "(C10000H20000O10000)100N7P3S2";
+        MassResult fast = engine.formulaMass(formula);
+        MassResult exact = engine.formulaMass(formula, MassResult.Precision.EXACT);
+        assertNull(fast.exactMass());
+        assertTrue(fast.contributions().stream().allMatch(c -> c.exactMass() == null));
+        assertEquals(exact.totalMass(), fast.totalMass(), Math.ulp(exact.totalMass()) * 4);
+        assertEquals(6, fast.contributions().size());
+    }
+
+    @Test
+    void everyCallIsTimedIncludingFailures() {
+        engine.formulaMass("H2O");
+        engine.formulaMass("H2O", MassResult.Precision.EXACT);
+        assertEquals(ParseResult.Code.UNCLOSED_BRACKET, engine.tryFormulaMass("Ca(").code());
+        assertEquals(3, engine.metrics().snapshot(EngineMetrics.Stage.GFM).count());
+        assertEquals(0, engine.metrics().getLimitedCount());
+    }
+
+    @Test
+    void massParsesEmitAFormulaEvent() throws Exception {
+        Path file = dir.resolve("gfm.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("chemcalculator.Parse").withThreshold(Duration.ZERO);
+            recording.start();
+            engine.formulaMass("CuSO4·5H2O", MassResult.Precision.EXACT);
+            recording.stop();
+            recording.dump(file);
+        }
+        List<RecordedEvent> parses = RecordingFile.readAllEvents(file).stream()
+            .filter(e -> "CuSO4·5H2O".equals(e.getString("input"))).toList();
+        assertEquals(1, parses.size());
+        assertEquals("formula", parses.get(0).getString("kind"));
+        assertEquals(4, parses.get(0).getInt("elements"));
+        assertNull(parses.get(0).getString("error"));
+    }
+}
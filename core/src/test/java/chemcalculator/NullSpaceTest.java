@@ -0,0 +1,53 @@
+package chemcalculator;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NullSpaceTest {
+    private static BigInteger[][] matrix(long[][] rows) {
+        BigInteger[][] m = new BigInteger[rows.length][];
+        for (int r = 0; r < rows.length; r++) {
+            m[r] = new BigInteger[rows[r].length];
+            for (int c = 0; c < rows[r].length; c++) m[r][c] = BigInteger.valueOf(rows[r][c]);
+        }
+        return m;
+    }
+
+    private static long[] longs(BigInteger[] vector) {
+        long[] values = new long[vector.length];
+        for (int i = 0; i < vector.length; i++) values[i] = vector[i].longValueExact();
+        return values;
+    }
+
+    @Test
+    void kernelOfWaterFormationIsInLowestTerms() {
+        // H2 + O2 -> H2O: rows H and O, product column negated
+        NullSpace.Kernel kernel = NullSpace.of(matrix(new long[][] {{2, 0, -2}, {0, 2, -1}}), 3, EngineLimits.DEFAULT.start());
+        assertEquals(2, kernel.rank());
+        assertEquals(1, kernel.nullity());
+        long[] vector = longs(kernel.vector());
+        if (vector[0] < 0) for (int i = 0; i < vector.length; i++) vector[i] = -vector[i];
+        assertArrayEquals(new long[] {2, 1, 2}, vector);
+        assertNull(kernel.exceeded());
+    }
+
+    @Test
+    void nullityAboveOneHasNoVector() {
+        NullSpace.Kernel kernel = NullSpace.of(matrix(new long[][] {{1, -1, 0, 0}, {0, 0, 1, -1}}), 4,
+                                               EngineLimits.DEFAULT.start());
+        assertEquals(2, kernel.rank());
+        assertEquals(2, kernel.nullity());
+        assertNull(kernel.vector());
+    }
+
+    @Test
+    void eliminationBeyondTheBitLimitIsAbandoned() {
+        EngineLimits tight = EngineLimits.DEFAULT.withMaxCoefficientBits(4);
+        NullSpace.Kernel kernel = NullSpace.of(matrix(new long[][] {{7, 11, 0}, {13, 0, 17}}), 3, tight.start());
+        assertNotNull(kernel.exceeded());
+        assertNull(kernel.vector());
+    }
+}
@@ -0,0 +1,106 @@
+package chemcalculator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryFieldTest {
+    private final ChemEngine engine = new ChemEngine();
+
+    @Test
+    void fieldsKeepTheirColumnInTheLine() {
+        List<QueryField> parts = QueryField.of("  H2 + I2 -> HI ;  50.5; 1 M H2").split(';', 2);
+        assertEquals(2, parts.size());
+        assertEquals(new QueryField("H2 + I2 -> HI", 2), parts.get(0));
+        assertEquals(new QueryField("50.5; 1 M H2", 19), parts.get(1));
+        List<QueryField> tokens = parts.get(1).split(';').get(1).tokens();
+        assertEquals(List.of(new QueryField("1", 25), new QueryField("M", 27), new QueryField("H2", 29)), tokens);
+        assertTrue(QueryField.of("   ").tokens().isEmpty());
+    }
+
+    @Test
+    void numbersAreCheckedWithoutThrowing() {
+        assertEquals(5e-4, new QueryField("5e-4", 0).number("k").value());
+        assertEquals(-2.0, new QueryField("-2", 0).number("k").value());
+        assertEquals(0.5, new QueryField(".5", 0).number("k").value());
+        for (String bad : new String[] {"", ".", "1.2.3", "1e", "e5", "0x10", "NaN", "Infinity", "1e999"}) {
+            ParseResult<Double> parsed = new QueryField(bad, 7).number("k");
+            assertEquals(QueryError.BAD_NUMBER, parsed.code(), bad);
+            assertEquals(7, parsed.offset());
+        }
+        assertEquals(123456789, new QueryField("123456789", 0).count("points").value());
+        assertEquals(QueryError.BAD_NUMBER, new QueryField("1234567890", 0).count("points").code());
+        assertEquals(QueryError.BAD_NUMBER, new QueryField("-1", 0).count("points").code());
+    }
+
+    @Test
+    void stoichiometryErrorsAreValues() {
+        String query = "Al + O2 -> Al2O3; 10 g Al, 10 furlongs O2";
+        ParseResult<Stoichiometry.Scenario> parsed = engine.stoichiometryQuery(query);
+        assertEquals(QueryError.BAD_FIELD, parsed.code());
+        assertEquals(query.indexOf("furlongs"), parsed.offset());
+        query = "Al + O2 -> Al2O3; 10 g Al, 10 g Al2O3";
+        parsed = engine.stoichiometryQuery(query);
+        assertEquals(QueryError.UNKNOWN_SPECIES, parsed.code());
+        assertEquals(query.lastIndexOf("Al2O3"), parsed.offset());
+        assertEquals(QueryError.BAD_NUMBER, engine.stoichiometryQuery("Al + O2 -> Al2O3; -1 g Al").code());
+        assertEquals(QueryError.BAD_FIELD, engine.stoichiometryQuery("Al + O2 -> Al2O3").code());
+        assertEquals(QueryError.NOT_BALANCED, engine.stoichiometryQuery("Al + O2 -> H2O; 1 g Al").code());
+        assertTrue(engine.stoichiometryQuery("Al + O2 -> Al2O3; 10 g Al, 10 g O2").ok());
+    }
+
+    @Test
+    void equilibriumErrorsAreValues() {
+        ParseResult<Equilibrium.Table> parsed = engine.equilibriumQuery("H2 + I2 -> HI; abc; 1 M H2");
+        assertEquals(QueryError.BAD_NUMBER, parsed.code());
+        assertEquals(15, parsed.offset());
+        String unknown = "H2 + I2 -> HI; 50.5; 1.0 M H2, 1.0 M Cl2";
+        parsed = engine.equilibriumQuery(unknown);
+        assertEquals(QueryError.UNKNOWN_SPECIES, parsed.code());
+        assertEquals(unknown.indexOf("Cl2"), parsed.offset());
+        assertEquals(QueryError.NOT_BALANCED, engine.equilibriumQuery("H2 + I2 -> H2O; 1; 1 M H2").code());
+        parsed = engine.equilibriumQuery("  H2 + (I2 -> HI; 1; 1 M H2");
+        assertEquals(ParseResult.Code.UNCLOSED_BRACKET, parsed.code());
+        assertEquals(7, parsed.offset());
+        assertTrue(engine.equilibriumQuery("H2 + I2 -> HI; 50.5; 1.0 M H2, 1.0 M I2").ok());
+    }
+
+    @Test
+    void kineticsErrorsAreValues() {
+        String query = "N2O5 -> NO2 + O2 @ 5e-4 x | 0.1 M N2O5 | 10";
+        ParseResult<Kinetics.Setup> parsed = engine.kineticsQuery(query);
+        assertEquals(QueryError.BAD_NUMBER, parsed.code());
+        assertEquals(query.indexOf('x'), parsed.offset());
+        query = "N2O5 -> NO2 + O2 @ 5e-4 | 0.1 M NO | 10";
+        parsed = engine.kineticsQuery(query);
+        assertEquals(QueryError.UNKNOWN_SPECIES, parsed.code());
+        assertEquals(query.indexOf("NO |"), parsed.offset());
+        assertEquals(QueryError.BAD_FIELD, engine.kineticsQuery("N2O5 -> NO2 + O2 @ 5e-4 | 0.1 M N2O5").code());
+        assertEquals(ParseResult.Code.TOO_LARGE, engine.kineticsQuery("N2O5 -> NO2 + O2 @ 5e-4 | 0.1 M N2O5 | 10 0.0001").code());
+        assertEquals(1, engine.metrics().getLimitedCount());
+    }
+
+    @Test
+    void titrationErrorsAreValues() {
+        String mismatch = "25 mL 0.1 M HCl; 0.1 M HNO3";
+        ParseResult<Titration.Setup> parsed = engine.titrationQuery(mismatch);
+        assertEquals(QueryError.INCOMPATIBLE, parsed.code());
+        assertEquals(mismatch.indexOf("0.1 M HNO3"), parsed.offset());
+        parsed = engine.titrationQuery("25 mL x M HCl; 0.1 M NaOH");
+        assertEquals(QueryError.BAD_NUMBER, parsed.code());
+        assertEquals(6, parsed.offset());
+        assertEquals(ParseResult.Code.TOO_LARGE, engine.titrationQuery("25 mL 0.1 M HCl; 0.1 M NaOH; 50 mL 20000").code());
+        assertEquals(QueryError.UNKNOWN_SPECIES, engine.titrationQuery("25 mL 0.1 M NaCl; 0.1 M HCl").code());
+        assertEquals(101, engine.titrationQuery("25 mL 0.1 M HCl; 0.1 M NaOH").value().volumes().length);
+    }
+
+    @Test
+    void throwingWrappersCarryTheSameMessage() {
+        ParseResult<Titration.Setup> parsed = engine.titrationQuery("25 mL 0.1 M HCl; 0.1 M HNO3");
+        IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class,
+                                                       () -> engine.titration("25 mL 0.1 M HCl", "0.1 M HNO3"));
+        assertEquals(parsed.message(), thrown.getMessage().substring(0, parsed.message().length()));
+    }
+}
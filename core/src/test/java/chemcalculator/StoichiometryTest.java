@@ -0,0 +1,75 @@
+package chemcalculator;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StoichiometryTest {
+    private final ChemEngine engine = new ChemEngine();
+
+    @Test
+    void aluminiumLimitsTheOxide() {
+        // 4 Al + 3 O2 -> 2 Al2O3
+        Stoichiometry reaction = engine.stoichiometry("Al + O2 -> Al2O3");
+        Stoichiometry.Scenario scenario = reaction.evaluate("10 g Al, 10 g O2");
+        assertEquals("Al", scenario.limiting());
+        double al = 10 / reaction.reactantMolarMass(0);
+        assertEquals(al / 4, scenario.extent(), 1e-12);
+        Stoichiometry.Quantity oxide = scenario.products().get(0);
+        assertEquals(al / 2, oxide.moles(), 1e-12);
+        assertEquals(18.89, oxide.grams(), 0.01);
+        assertEquals(0.0, scenario.leftovers().get(0).grams());
+        assertEquals(10 - al / 4 * 3 * reaction.reactantMolarMass(1), scenario.leftovers().get(1).grams(), 1e-9);
+        // Mass is conserved
+        assertEquals(20, oxide.grams() + scenario.leftovers().get(1).grams(), 1e-9);
+    }
+
+    @Test
+    void unitsConvertToMoles() {
+        Stoichiometry reaction = engine.stoichiometry("Zn + HCl -> ZnCl2 + H2");
+        Stoichiometry.Scenario scenario = reaction.evaluate("0.5 mol Zn, 250 mL 2 M HCl");
+        assertEquals("HCl", scenario.limiting());
+        assertEquals(0.25, scenario.extent(), 1e-12);
+        assertEquals(0.25, reaction.evaluate("500 mmol Zn, 0.25 L 2 M HCl").extent(), 1e-12);
+        double zn = reaction.reactantMolarMass(reaction.reactantIndex("Zn"));
+        assertEquals(scenario.extent(), reaction.evaluate(zn / 4 * 1000 + " mg Zn, 1 mol HCl").extent(), 1e-12);
+        assertEquals(scenario.extent(), reaction.evaluate(zn / 4 / 1000 + " kg Zn, 1 mol HCl").extent(), 1e-12);
+    }
+
+    @Test
+    void reactantsWithoutAnAmountAreInExcess() {
+        Stoichiometry reaction = engine.stoichiometry("CH4 + O2 -> CO2 + H2O");
+        Stoichiometry.Scenario scenario = reaction.evaluate("16.04 g CH4");
+        assertEquals("CH4", scenario.limiting());
+        assertEquals(1, scenario.leftovers().size());
+        assertEquals(44.0, scenario.products().get(0).grams(), 0.05);
+        Stoichiometry.Scenario none = reaction.evaluate(new double[] {Double.NaN, Double.NaN});
+        assertNull(none.limiting());
+        assertTrue(Double.isNaN(none.extent()));
+    }
+
+    @Test
+    void batchMatchesSingleScenarios() {
+        Stoichiometry reaction = engine.stoichiometry("Al + O2 -> Al2O3");
+        double[] grams = {10, 10, 1, 50, 27, Double.NaN};
+        Stoichiometry.Batch batch = reaction.batchFromGrams(grams, 3);
+        assertEquals(3, batch.scenarios());
+        assertArrayEquals(new int[] {0, 0, 0}, batch.limiting());
+        for (int s = 0; s < 3; s++) {
+            double[] moles = {grams[2 * s] / reaction.reactantMolarMass(0), grams[2 * s + 1] / reaction.reactantMolarMass(1)};
+            Stoichiometry.Scenario single = reaction.evaluate(moles);
+            assertEquals(single.extent(), batch.extent()[s], 1e-15);
+            assertEquals(single.products().get(0).grams(), batch.productGrams()[s], 1e-12);
+        }
+        assertTrue(Double.isNaN(batch.leftoverGrams()[5]));
+        assertThrows(IllegalArgumentException.class, () -> reaction.batch(new double[3], 2));
+    }
+
+    @Test
+    void speciesMayBeWrittenInAnyNotation() {
+        Stoichiometry reaction = engine.stoichiometry("Fe^3+ + OH- -> Fe(OH)3");
+        assertEquals(reaction.reactantIndex("Fe^3+"), reaction.reactantIndex("Fe3+"));
+        assertEquals(-1, reaction.reactantIndex("Fe2+"));
+        assertThrows(IllegalArgumentException.class, () -> engine.stoichiometry("H2 + O2 -> NaCl"));
+    }
+}
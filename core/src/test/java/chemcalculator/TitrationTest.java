@@ -0,0 +1,66 @@
+package chemcalculator;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TitrationTest {
+    private final ChemEngine engine = new ChemEngine();
+
+    @Test
+    void aceticAcidWithSodiumHydroxide() {
+        Titration titration = engine.titration("25 mL 0.1 M HC2H3O2", "0.1 M NaOH");
+        assertArrayEquals(new double[] {25.0}, titration.equivalenceVolumes(), 1e-12);
+        assertEquals(2.88, titration.pH(0), 0.01);
+        assertEquals(4.76, titration.pH(12.5), 0.01);   // half equivalence: pH = pKa
+        assertEquals(8.72, titration.pH(25), 0.01);
+    }
+
+    @Test
+    void tabulatedAcidsAreFoundInAnySpelling() {
+        Titration acetic = engine.titration("25 mL 0.1 M HC2H3O2", "0.1 M NaOH");
+        Titration.Setup setup = engine.titrationQuery("25 mL 0.1 M CH3COOH; 0.1 M NaOH").orElseThrow();
+        assertEquals(acetic.pH(12.5), setup.titration().pH(12.5), 1e-12);
+        assertEquals(3.75, engine.titration("25 mL 0.1 M HCOOH", "0.1 M NaOH").pH(12.5), 0.01);
+    }
+
+    @Test
+    void strongAcidIsNeutralAtEquivalence() {
+        Titration titration = engine.titration("50 mL 0.1 M HCl", "0.2 M NaOH");
+        assertEquals(1.0, titration.pH(0), 1e-6);
+        assertEquals(7.0, titration.pH(25), 1e-6);
+    }
+
+    @Test
+    void curveIsMonotoneAndMatchesPointSolves() {
+        Titration titration = engine.titration("25 mL 0.1 M H3PO4", "0.1 M NaOH");
+        assertEquals(3, titration.equivalenceVolumes().length);
+        double[] volumes = Titration.volumes(80, 161);
+        double[] pH = new double[volumes.length];
+        titration.curve(volumes, pH);
+        for (int i = 1; i < pH.length; i++) assertTrue(pH[i] > pH[i - 1], "pH falls at " + volumes[i] + " mL");
+        assertEquals(titration.pH(volumes[60]), pH[60], 1e-8);
+    }
+
+    @Test
+    void mismatchedPairIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> engine.titration("25 mL 0.1 M HCl", "0.1 M HNO3"));
+    }
+
+    @Test
+    void curvesAreCappedAtMaxPoints() {
+        assertEquals(Titration.MAX_POINTS, Titration.volumes(100, Titration.MAX_POINTS).length);
+        assertThrows(IllegalArgumentException.class, () -> Titration.volumes(100, Titration.MAX_POINTS + 1));
+    }
+
+    @Test
+    void constantsMayBeGivenForUnknownSpecies() {
+        // Benzoic acid is not tabulated; at half equivalence pH is close to the given pKa
+        Titration titration = engine.titration("20 mL 0.05 M C6H5COOH pKa 4.20", "0.1 M NaOH");
+        assertArrayEquals(new double[] {10.0}, titration.equivalenceVolumes(), 1e-12);
+        assertEquals(4.20, titration.pH(5), 0.02);
+        Titration.Setup setup = engine.titrationQuery("20 mL 0.05 M C6H5COOH pKa 4.20; 0.1 M NaOH; 20 mL 41").orElseThrow();
+        assertEquals(41, setup.volumes().length);
+        assertEquals(titration.pH(setup.volumes()[10]), setup.titration().pH(5), 1e-12);
+    }
+}
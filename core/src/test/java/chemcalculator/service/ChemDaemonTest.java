@@ -0,0 +1,116 @@
+package chemcalculator.service;
+
+import chemcalculator.ChemEngine;
+import chemcalculator.EngineLimits;
+import chemcalculator.EngineMetrics;
+import chemcalculator.TextReports;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChemDaemonTest {
+    private static final String COMMANDS = """
+        gfm Ca(NO3)2, H2O
+        balance MnO4- + Fe2+ -> Mn2+ + Fe3+
+        name H2SO4
+        balance H2 + O2
+        """;
+
+    @TempDir
+    Path dir;
+
+    // Serve on a socket in the temp directory, run the body, then stop the daemon
+    private void withDaemon(ChemDaemon daemon, ThrowingRunnable body) throws Exception {
+        Thread serving = Thread.ofVirtual().start(() -> {
+            try {
+                daemon.serve();
+            } catch (IOException ex) {
+                throw new RuntimeException(ex);
+            }
+        });
+        for (int i = 0; i < 500 && !daemon.isListening(); i++) Thread.sleep(10);
+        assertTrue(daemon.isListening());
+        try {
+            body.run();
+        } finally {
+            daemon.close();
+            serving.join(5000);
+        }
+    }
+
+    private static String send(Path socket, String command, String stdin) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ChemClient.run(socket, command, new ByteArrayInputStream(stdin.getBytes(StandardCharsets.UTF_8)), out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void roundTripMatchesADirectRun() throws Exception {
+        Path socket = dir.resolve("chem.sock");
+        ChemEngine direct = new ChemEngine();
+        String expected = TextReports.gfm(direct, "Ca(NO3)2, H2O")
+                          + TextReports.balance(direct, "MnO4- + Fe2+ -> Mn2+ + Fe3+")
+                          + TextReports.name(direct, "H2SO4") + "\n"
+                          + TextReports.balance(direct, "H2 + O2");
+        assertTrue(expected.contains("Error: "), expected);
+        withDaemon(new ChemDaemon(socket, new ChemEngine()), () -> {
+            assertEquals(expected, send(socket, null, COMMANDS));
+            assertEquals(TextReports.name(direct, "H2SO4") + "\n", send(socket, "name H2SO4", ""));
+        });
+        assertFalse(Files.exists(socket));
+    }
+
+    @Test
+    void failingCommandIsAnsweredWithAnErrorLine() throws Exception {
+        Path socket = dir.resolve("chem.sock");
+        ChemEngine engine = new ChemEngine();
+        BiConsumer<String, StringBuilder> commands = (line, out) -> {
+            if (line.equals("boom")) {
+                out.append("partial output\n");
+                throw new IllegalStateException("engine bug");
+            }
+            Commands.execute(engine, line, out);
+        };
+        withDaemon(new ChemDaemon(socket, commands, EngineLimits.DEFAULT.maxInputLength()), () -> {
+            String reply = send(socket, null, "boom\nname H2O\n");
+            assertEquals("Error: engine bug\n" + TextReports.name(engine, "H2O") + "\n", reply);
+        });
+    }
+
+    @Test
+    void overlongLinesAreAnsweredInPlace() throws Exception {
+        Path socket = dir.resolve("chem.sock");
+        ChemEngine engine = new ChemEngine(new EngineMetrics(), EngineLimits.DEFAULT.withMaxInputLength(64));
+        String tooLong = "Error: Input is longer than 64 characters.\n";
+        withDaemon(new ChemDaemon(socket, engine), () -> {
+            // Past the line bound: dropped unread, the next line still runs
+            String reply = send(socket, null, "gfm " + "H".repeat(100_000) + "\nname H2O\n");
+            assertEquals(tooLong + TextReports.name(engine, "H2O") + "\n", reply);
+            // Within the line bound but over maxInputLength: left to the engine's own check
+            String engineReply = send(socket, "gfm " + "H".repeat(70), "");
+            assertTrue(engineReply.contains("Input is longer than 64 characters"), engineReply);
+        });
+    }
+
+    @Test
+    void liveDaemonIsNotReplaced() throws Exception {
+        Path socket = dir.resolve("chem.sock");
+        withDaemon(new ChemDaemon(socket, new ChemEngine()), () -> {
+            IOException ex = assertThrows(IOException.class, () -> new ChemDaemon(socket, new ChemEngine()).serve());
+            assertTrue(ex.getMessage().contains("already listening"), ex.getMessage());
+        });
+    }
+
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,133 @@
+package chemcalculator.service;
+
+import chemcalculator.ChemEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChemServerTest {
+    private static final int MAX_BATCH_CHARS = 64 * 1024;
+
+    private final ChemEngine engine = new ChemEngine();
+    private final HttpClient client = HttpClient.newHttpClient();
+    private ChemServer server;
+
+    @BeforeEach
+    void start() throws IOException {
+        server = new ChemServer(new InetSocketAddress("127.0.0.1", 0), engine, MAX_BATCH_CHARS);
+        server.start();
+    }
+
+    @AfterEach
+    void stop() {
+        server.stop(0);
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + server.address().getPort() + path);
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri(path)).POST(HttpRequest.BodyPublishers.ofString(body)).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> object(String json) {
+        return (Map<String, Object>) Json.parse(json);
+    }
+
+    private static List<Map<String, Object>> lines(HttpResponse<String> response) {
+        assertEquals(200, response.statusCode(), response::body);
+        return response.body().lines().map(ChemServerTest::object).toList();
+    }
+
+    @Test
+    void healthAndMetrics() throws Exception {
+        HttpResponse<String> health = get("/health");
+        assertEquals(200, health.statusCode());
+        assertEquals("ok\n", health.body());
+        get("/balance?q=" + URLEncoder.encode("H2 + O2 -> H2O", StandardCharsets.UTF_8));
+        HttpResponse<String> metrics = get("/metrics");
+        assertEquals(200, metrics.statusCode());
+        assertEquals(engine.metrics().dump().lines().findFirst(), metrics.body().lines().findFirst());
+    }
+
+    @Test
+    void singleEndpointsMatchTheEngine() throws Exception {
+        Map<String, Object> viaGet = object(get("/gfm?q=H2O").body());
+        assertEquals(engine.formulaMass("H2O").totalMass(), (Double) viaGet.get("totalMass"), 1e-12);
+        Map<String, Object> viaPost = object(post("/gfm", "\"H2O\"").body());
+        assertEquals(viaGet, viaPost);
+        assertEquals(400, get("/gfm").statusCode());
+        assertEquals(404, get("/gfm/unknown").statusCode());
+    }
+
+    @Test
+    void arrayBatchGivesOneLinePerItem() throws Exception {
+        List<Map<String, Object>> results = lines(post("/gfm/batch", "[\"H2O\", \"NaCl\", \"Ca(\"]"));
+        assertEquals(3, results.size());
+        assertEquals("H2O", results.get(0).get("formula"));
+        assertEquals("NaCl", results.get(1).get("formula"));
+        assertEquals("Ca(", results.get(2).get("input"));
+        assertEquals("UNCLOSED_BRACKET", results.get(2).get("code"));
+        assertEquals(2.0, results.get(2).get("offset"));
+    }
+
+    @Test
+    void ndjsonBatchAcceptsStringsAndPlainLines() throws Exception {
+        List<Map<String, Object>> results = lines(post("/balance/batch", "\"H2 + O2 -> H2O\"\n\nFe + O2 -> Fe2O3\nH2 + O2\n"));
+        assertEquals(3, results.size());
+        assertEquals("2 H2 + O2 -> 2 H2O", results.get(0).get("balanced"));
+        assertEquals("4 Fe + 3 O2 -> 2 Fe2O3", results.get(1).get("balanced"));
+        assertEquals("H2 + O2", results.get(2).get("equation"));
+        assertEquals("NONE", results.get(2).get("method"));
+        assertNotNull(results.get(2).get("error"));
+    }
+
+    @Test
+    void malformedLinesAnswerInPlace() throws Exception {
+        List<Map<String, Object>> results = lines(post("/gfm/batch", "\"H2O\n\"NaCl\"\n"));
+        assertEquals(2, results.size());
+        assertEquals("Malformed JSON string", results.get(0).get("error"));
+        assertEquals("NaCl", results.get(1).get("formula"));
+        assertEquals(400, post("/gfm/batch", "[\"H2O\"").statusCode());
+    }
+
+    @Test
+    void overlongInputsAndBatchesAreBounded() throws Exception {
+        int maxInput = engine.limits().maxInputLength();
+        String tooLong = "Input is longer than " + maxInput + " characters";
+        // An array item over maxInputLength is answered in place
+        List<Map<String, Object>> items = lines(post("/gfm/batch", "[\"" + "H".repeat(maxInput + 1) + "\", \"H2O\"]"));
+        assertEquals(tooLong, items.get(0).get("error"));
+        assertEquals("H2O", items.get(1).get("formula"));
+        // A whole array over the batch bound is refused
+        HttpResponse<String> array = post("/gfm/batch", "[\"" + "H2O\", \"".repeat(MAX_BATCH_CHARS / 7) + "H2O\"]");
+        assertEquals(413, array.statusCode());
+        assertTrue(array.body().contains("Batch is longer than " + MAX_BATCH_CHARS), array.body());
+        // NDJSON stops with an error line once the body passes the bound
+        List<Map<String, Object>> ndjson = lines(post("/gfm/batch", "H2O\n".repeat(MAX_BATCH_CHARS / 4 + 1)));
+        assertEquals(MAX_BATCH_CHARS / 4, ndjson.size() - 1);
+        assertEquals("Batch is longer than " + MAX_BATCH_CHARS + " characters", ndjson.get(ndjson.size() - 1).get("error"));
+        // A single POST body past what a maximal input could take is refused unread
+        assertEquals(413, post("/gfm", "H".repeat(maxInput * 6 + 3)).statusCode());
+    }
+}
@@ -0,0 +1,586 @@
+import java.awt.*;
+import java.awt.event.*;
+import java.util.*;
+import java.util.List;
+import javax.swing.*;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+import chemcalculator.*;
+
+public class ChemistryTool {
+    // All chemistry is done by the headless engine; this class is only the Swing front end
+    private static final ChemEngine ENGINE = ChemEngine.standard();
+
+    public static void main(String[] args) throws java.io.IOException {
+        // Headless modes (no AWT is loaded for these):
+        //   --serve [--host h] [--port p]   HTTP service
+        //   --daemon [--socket path]        Unix-domain-socket daemon (use ChemClient to talk to it)
+        //   --run <command>                 run one command directly, e.g. --run gfm H2O
+        //   --diff [options]                compare against ChemicalGFMCalculatorTestBuild (DifferentialHarness)
+        if (args.length > 0 && args[0].startsWith("--")) {
+            String[] rest = Arrays.copyOfRange(args, 1, args.length);
+            switch (args[0]) {
+                case "--serve" -> chemcalculator.service.ChemServer.main(rest);
+                case "--daemon" -> chemcalculator.service.ChemDaemon.main(rest);
+                case "--run" -> chemcalculator.service.ChemCli.main(rest);
+                case "--diff" -> DifferentialHarness.main(rest);
+                default -> System.err.println("Unknown option " + args[0] + " (expected --serve, --daemon, --run or --diff)");
+            }
+            return;
+        }
+        // Set Nimbus Look-and-Feel for modern UI
+        try {
+            for (UIManager.LookAndFeelInfo info : UIManager.getInstalledLookAndFeels()) {
+                if ("Nimbus".equals(info.getName())) {
+                    UIManager.setLookAndFeel(info.getClassName());
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            // If Nimbus not available, fall back to default
+        }
+
+        // Create main application window
+        JFrame frame = new JFrame("Chemistry Tool");
+        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        frame.setSize(1000, 650);  // a bit wider to accommodate periodic table text
+
+        // Use a tabbed pane to organize features
+        JTabbedPane tabs = new JTabbedPane();
+
+        // --- Equation Balancer Tab ---
+        JPanel balancePanel = new JPanel(new BorderLayout());
+        // Input area for equation
+        JPanel inputPanel1 = new JPanel(new FlowLayout());
+        JLabel eqLabel = new JLabel("Enter unbalanced equation:");
+        JTextField eqField = new JTextField(40);
+        JButton balanceButton = new JButton("Balance");
+        inputPanel1.add(eqLabel);
+        inputPanel1.add(eqField);
+        inputPanel1.add(balanceButton);
+        balancePanel.add(inputPanel1, BorderLayout.NORTH);
+        // Output area for steps and balanced equation
+        JTextArea balanceOutput = new JTextArea();
+        balanceOutput.setEditable(false);
+        balanceOutput.setLineWrap(true);
+        balanceOutput.setWrapStyleWord(true);
+        BufferedOutput balanceLog = new BufferedOutput(balanceOutput, BufferedOutput.DEFAULT_MAX_LINES);
+        JScrollPane scrollBalance = new JScrollPane(balanceOutput);
+        balancePanel.add(scrollBalance, BorderLayout.CENTER);
+        tabs.addTab("Equation Balancer", balancePanel);
+
+        // --- Gram Formula Mass (GFM) Calculator Tab ---
+        JPanel gfmPanel = new JPanel(new BorderLayout());
+        JPanel inputPanel2 = new JPanel(new FlowLayout());
+        JLabel gfmLabel = new JLabel("Enter formula(s) (comma-separated):");
+        JTextField gfmField = new JTextField(30);
+        JButton gfmButton = new JButton("Calculate GFM");
+        inputPanel2.add(gfmLabel);
+        inputPanel2.add(gfmField);
+        inputPanel2.add(gfmButton);
+        gfmPanel.add(inputPanel2, BorderLayout.NORTH);
+        JTextArea gfmOutput = new JTextArea();
+        gfmOutput.setEditable(false);
+        gfmOutput.setLineWrap(true);
+        gfmOutput.setWrapStyleWord(true);
+        BufferedOutput gfmLog = new BufferedOutput(gfmOutput, BufferedOutput.DEFAULT_MAX_LINES);
+        JScrollPane scrollGFM = new JScrollPane(gfmOutput);
+        gfmPanel.add(scrollGFM, BorderLayout.CENTER);
+        tabs.addTab("GFM Calculator", gfmPanel);
+
+        // --- Periodic Table Viewer Tab ---
+        JPanel tablePanel = new JPanel(new BorderLayout());
+        // Tooltip and detail helper: on hover, show element details
+        final ToolTipManager ttm = ToolTipManager.sharedInstance();
+        ttm.setInitialDelay(100);  // show quickly
+        ttm.setReshowDelay(50);
+        // The main grid and the lanthanide/actinide rows are painted by a single component
+        tablePanel.add(new PeriodicTableView(), BorderLayout.CENTER);
+        tabs.addTab("Periodic Table", tablePanel);
+
+        // --- Compound Naming Tab ---
+        JPanel namePanel = new JPanel(new BorderLayout());
+        JPanel inputPanel3 = new JPanel(new FlowLayout());
+        JLabel nameLabel = new JLabel("Enter chemical formula:");
+        JTextField nameField = new JTextField(30);
+        JButton nameButton = new JButton("Name Compound");
+        inputPanel3.add(nameLabel);
+        inputPanel3.add(nameField);
+        inputPanel3.add(nameButton);
+        namePanel.add(inputPanel3, BorderLayout.NORTH);
+        JTextArea nameOutput = new JTextArea();
+        nameOutput.setEditable(false);
+        nameOutput.setLineWrap(true);
+        nameOutput.setWrapStyleWord(true);
+        JScrollPane scrollName = new JScrollPane(nameOutput);
+        namePanel.add(scrollName, BorderLayout.CENTER);
+        tabs.addTab("Compound Naming", namePanel);
+
+        // Add tabs to frame and show
+        frame.add(tabs);
+        frame.setLocationRelativeTo(null);  // center on screen
+        frame.setVisible(true);
+
+        // --- Action Listeners for Buttons ---
+        // Balance equation button:
+        balanceButton.addActionListener((ActionEvent e) -> {
+            String eq = eqField.getText().trim();
+            if (eq.isEmpty()) return;
+            List<String> steps = ENGINE.balance(eq).steps();
+            // Display each step on a new line (written to the document once per frame)
+            balanceLog.clear();
+            balanceLog.appendLines(steps);
+        });
+        // GFM calculate button:
+        gfmButton.addActionListener((ActionEvent e) -> {
+            String input = gfmField.getText().trim();
+            if (input.isEmpty()) return;
+            gfmLog.clear();
+            gfmLog.append(TextReports.gfm(ENGINE, input));
+        });
+        // Name compound button:
+        nameButton.addActionListener((ActionEvent e) -> {
+            String formulaInput = nameField.getText().trim();
+            if (formulaInput.isEmpty()) return;
+            nameOutput.setText(TextReports.name(ENGINE, formulaInput));
+        });
+    }
+
+    // --- Periodic Table Rendering ---
+    // Paints the whole periodic table (main 7x18 grid plus the lanthanide/actinide rows) in one
+    // component instead of one JButton per cell. Cell contents and colors are computed once,
+    // hit-testing is plain arithmetic on the current geometry, and tooltips are built on demand.
+    private static class PeriodicTableView extends JComponent {
+        private static final long serialVersionUID = 1L;
+        private static final int ROWS = 7, COLS = 18, GAP = 2;      // same grid as GridLayout(7, 18, 2, 2)
+        private static final int SERIES_LENGTH = 15;                 // La-Lu and Ac-Lr
+        private static final int SERIES_CELL_PADDING = 5;            // button margin (2) plus border inset (3)
+        private static final int SERIES_ROW_HEIGHT = 26;
+        private static final int SERIES_GAP = 5;                     // FlowLayout default gap
+        private static final int MAIN_CELLS = ROWS * COLS;
+        private static final int CELL_COUNT = MAIN_CELLS + 2 * SERIES_LENGTH;
+        private static final int LANTH_PLACEHOLDER = -1, ACT_PLACEHOLDER = -2;
+        private static final String[] SERIES_LABELS = { "Lanthanides: ", "Actinides: " };
+        private static final Font CELL_FONT = new Font("SansSerif", Font.BOLD, 11);
+        // Cell outlines: black at this alpha over the cell (or, for empty cells, the panel) color,
+        // blended in advance so painting never goes through the translucent compositing loops
+        private static final int CELL_BORDER_ALPHA = 70;
+        private static final int EMPTY_BORDER_ALPHA = 20;
+        // Colors for element categories
+        private static final Color ALKALI_COLOR          = new Color(255, 182, 193);  // light pink (Group 1 except H)
+        private static final Color ALKALINE_COLOR        = new Color(255, 228, 181);  // light orange (Group 2)
+        private static final Color TRANSITION_COLOR      = new Color(255, 255, 153);  // light yellow (d-block metals)
+        private static final Color POST_TRANSITION_COLOR = new Color(176, 224, 230);  // powder blue (post-transition metals)
+        private static final Color METALLOID_COLOR       = Color.LIGHT_GRAY;          // metalloids (stair-step line elements)
+        private static final Color NONMETAL_COLOR        = new Color(255, 255, 224);  // light yellow (other nonmetals + H)
+        private static final Color HALOGEN_COLOR         = new Color(144, 238, 144);  // light green (halogens)
+        private static final Color NOBLE_GAS_COLOR       = new Color(224, 255, 255);  // light cyan (noble gases)
+        private static final Color LANTH_COLOR           = new Color(221, 160, 221);  // plum (lanthanides)
+        private static final Color ACT_COLOR             = new Color(216, 191, 216);  // thistle (actinides)
+        // Atomic number for every cell (0 = empty, negative = series placeholder)
+        private static final int[] CELL_Z = buildCells();
+        // Background color by atomic number
+        private static final Color[] ELEMENT_COLORS = buildColors();
+        // Outline color by atomic number, and of the two series placeholders
+        private static final Color[] ELEMENT_BORDERS = new Color[ELEMENT_COLORS.length];
+        static {
+            for (int atomicNum = 1; atomicNum < ELEMENT_COLORS.length; atomicNum++) {
+                ELEMENT_BORDERS[atomicNum] = shade(ELEMENT_COLORS[atomicNum], CELL_BORDER_ALPHA);
+            }
+        }
+        private static final Color LANTH_BORDER = shade(LANTH_COLOR, CELL_BORDER_ALPHA);
+        private static final Color ACT_BORDER = shade(ACT_COLOR, CELL_BORDER_ALPHA);
+
+        private final Rectangle scratch = new Rectangle();
+        private int hoverCell = -1;
+        // Left edge of each series cell relative to the first, plus the end of the row; cells are as
+        // wide as their symbol, like the old label-sized FlowLayout buttons. Computed on first use.
+        private int[][] seriesEdges;
+        // Where each series row's cells start, after its label in the component font; reset by setFont
+        private int[] seriesCellsX;
+
+        PeriodicTableView() {
+            setFont(UIManager.getFont("Label.font"));
+            setPreferredSize(new Dimension(COLS * 48 + (COLS - 1) * GAP,
+                                           ROWS * 36 + (ROWS - 1) * GAP + 2 * (SERIES_ROW_HEIGHT + 2 * SERIES_GAP)));
+            ToolTipManager.sharedInstance().registerComponent(this);
+            MouseAdapter hover = new MouseAdapter() {
+                @Override
+                public void mouseMoved(MouseEvent e) {
+                    int cell = cellAt(e.getX(), e.getY());
+                    setHoverCell(cell >= 0 && CELL_Z[cell] != 0 ? cell : -1);
+                }
+                @Override
+                public void mouseExited(MouseEvent e) {
+                    setHoverCell(-1);
+                }
+            };
+            addMouseListener(hover);
+            addMouseMotionListener(hover);
+        }
+
+        private static int[] buildCells() {
+            int[] cells = new int[CELL_COUNT];
+            for (int period = 1; period <= ROWS; period++) {
+                for (int group = 1; group <= COLS; group++) {
+                    int atomicNum = 0;
+                    if (period == 1) {
+                        if (group == 1) atomicNum = 1;       // H
+                        else if (group == 18) atomicNum = 2; // He
+                    } else if (period == 2 || period == 3) {
+                        int base = period == 2 ? 2 : 10;
+                        if (group <= 2) atomicNum = base + group;            // Li, Be / Na, Mg
+                        else if (group >= 13) atomicNum = base + group - 10; // B..Ne / Al..Ar
+                    } else if (period == 4) {
+                        atomicNum = 18 + group;  // K(19) at 1 ... Kr(36) at 18
+                    } else if (period == 5) {
+                        atomicNum = 36 + group;  // Rb(37) ... Xe(54)
+                    } else if (period == 6) {
+                        if (group <= 2) atomicNum = 54 + group;     // Cs, Ba
+                        else if (group == 3) atomicNum = LANTH_PLACEHOLDER;
+                        else atomicNum = 68 + group;                // Hf(72) at 4 ... Rn(86) at 18
+                    } else {
+                        if (group <= 2) atomicNum = 86 + group;     // Fr, Ra
+                        else if (group == 3) atomicNum = ACT_PLACEHOLDER;
+                        else atomicNum = 100 + group;               // Rf(104) at 4 ... Og(118) at 18
+                    }
+                    cells[(period - 1) * COLS + group - 1] = atomicNum;
+                }
+            }
+            for (int i = 0; i < SERIES_LENGTH; i++) {
+                cells[MAIN_CELLS + i] = 57 + i;                  // La..Lu
+                cells[MAIN_CELLS + SERIES_LENGTH + i] = 89 + i;  // Ac..Lr
+            }
+            return cells;
+        }
+
+        private static Color[] buildColors() {
+            Color[] colors = new Color[Elements.count() + 1];
+            for (int atomicNum = 1; atomicNum < colors.length; atomicNum++) {
+                String symbol = Elements.symbol(atomicNum);
+                Color bgColor;
+                if (symbol.equals("H")) {
+                    // Hydrogen (treated as nonmetal)
+                    bgColor = NONMETAL_COLOR;
+                } else if (isElementIn(symbol, "Li","Na","K","Rb","Cs","Fr")) {
+                    bgColor = ALKALI_COLOR;
+                } else if (isElementIn(symbol, "Be","Mg","Ca","Sr","Ba","Ra")) {
+                    bgColor = ALKALINE_COLOR;
+                } else if (atomicNum >= 21 && atomicNum <= 30 || atomicNum >= 39 && atomicNum <= 48 ||
+                           atomicNum >= 72 && atomicNum <= 80 || atomicNum >= 104 && atomicNum <= 112) {
+                    // Transition metals: Sc-Zn, Y-Cd, Hf-Hg, Rf-Cn
+                    bgColor = TRANSITION_COLOR;
+                } else if (isElementIn(symbol, "Al","Ga","In","Tl","Nh","Sn","Pb","Fl","Bi","Mc","Po","Lv")) {
+                    // Post-transition metals (a.k.a. poor metals)
+                    bgColor = POST_TRANSITION_COLOR;
+                } else if (isElementIn(symbol, "B","Si","Ge","As","Sb","Te")) {
+                    // Metalloids (staircase elements)
+                    bgColor = METALLOID_COLOR;
+                } else if (isElementIn(symbol, "F","Cl","Br","I","At","Ts")) {
+                    bgColor = HALOGEN_COLOR;
+                } else if (isElementIn(symbol, "He","Ne","Ar","Kr","Xe","Rn","Og")) {
+                    bgColor = NOBLE_GAS_COLOR;
+                } else if (atomicNum >= 57 && atomicNum <= 71) {
+                    bgColor = LANTH_COLOR;
+                } else if (atomicNum >= 89 && atomicNum <= 103) {
+                    bgColor = ACT_COLOR;
+                } else {
+                    // Other nonmetals (like C, N, O, P, S, Se)
+                    bgColor = NONMETAL_COLOR;
+                }
+                colors[atomicNum] = bgColor;
+            }
+            return colors;
+        }
+
+        // Opaque color of black drawn at alpha over color
+        private static Color shade(Color color, int alpha) {
+            int keep = 255 - alpha;
+            return new Color(color.getRed() * keep / 255, color.getGreen() * keep / 255, color.getBlue() * keep / 255);
+        }
+
+        // --- Geometry (mirrors the GridLayout / FlowLayout arrangement of the old button grid) ---
+        private int seriesTop() {
+            return getHeight() - 2 * (SERIES_ROW_HEIGHT + 2 * SERIES_GAP);
+        }
+        private int mainCellWidth()  { return (getWidth() - (COLS - 1) * GAP) / COLS; }
+        private int mainCellHeight() { return (seriesTop() - (ROWS - 1) * GAP) / ROWS; }
+        private int mainOffsetX() { return (getWidth() - (mainCellWidth() * COLS + (COLS - 1) * GAP)) / 2; }
+        private int mainOffsetY() { return (seriesTop() - (mainCellHeight() * ROWS + (ROWS - 1) * GAP)) / 2; }
+        private int seriesRowY(int row) {
+            return seriesTop() + row * (SERIES_ROW_HEIGHT + 2 * SERIES_GAP) + SERIES_GAP;
+        }
+        private int seriesCellsX(int row) {
+            if (seriesCellsX == null) {
+                FontMetrics fm = getFontMetrics(getFont());
+                seriesCellsX = new int[2];
+                for (int r = 0; r < 2; r++) {
+                    seriesCellsX[r] = SERIES_GAP + fm.stringWidth(SERIES_LABELS[r]) + SERIES_GAP;
+                }
+            }
+            return seriesCellsX[row];
+        }
+
+        @Override
+        public void setFont(Font font) {
+            super.setFont(font);
+            seriesCellsX = null;
+        }
+
+        private int[] seriesEdges(int row) {
+            if (seriesEdges == null) {
+                FontMetrics fm = getFontMetrics(CELL_FONT);
+                int[][] edges = new int[2][SERIES_LENGTH + 1];
+                for (int r = 0; r < 2; r++) {
+                    for (int col = 0; col < SERIES_LENGTH; col++) {
+                        String symbol = Elements.symbol(CELL_Z[MAIN_CELLS + r * SERIES_LENGTH + col]);
+                        edges[r][col + 1] = edges[r][col] + fm.stringWidth(symbol) + 2 * SERIES_CELL_PADDING + SERIES_GAP;
+                    }
+                }
+                seriesEdges = edges;
+            }
+            return seriesEdges[row];
+        }
+
+        private Rectangle cellBounds(int cell, Rectangle r) {
+            if (cell < MAIN_CELLS) {
+                int w = mainCellWidth(), h = mainCellHeight();
+                r.setBounds(mainOffsetX() + (cell % COLS) * (w + GAP), mainOffsetY() + (cell / COLS) * (h + GAP), w, h);
+            } else {
+                int row = (cell - MAIN_CELLS) / SERIES_LENGTH;
+                int col = (cell - MAIN_CELLS) % SERIES_LENGTH;
+                int[] edges = seriesEdges(row);
+                r.setBounds(seriesCellsX(row) + edges[col], seriesRowY(row),
+                            edges[col + 1] - edges[col] - SERIES_GAP, SERIES_ROW_HEIGHT);
+            }
+            return r;
+        }
+
+        // Arithmetic hit test: returns the cell index under (x, y), or -1 for gaps and margins
+        private int cellAt(int x, int y) {
+            int top = seriesTop();
+            if (y < top) {
+                int w = mainCellWidth(), h = mainCellHeight();
+                int gx = x - mainOffsetX(), gy = y - mainOffsetY();
+                if (w <= 0 || h <= 0 || gx < 0 || gy < 0) return -1;
+                int col = gx / (w + GAP), row = gy / (h + GAP);
+                if (col >= COLS || row >= ROWS) return -1;
+                if (gx % (w + GAP) >= w || gy % (h + GAP) >= h) return -1;
+                return row * COLS + col;
+            }
+            int rowSpan = SERIES_ROW_HEIGHT + 2 * SERIES_GAP;
+            int row = (y - top) / rowSpan;
+            int dy = (y - top) % rowSpan - SERIES_GAP;
+            if (row > 1 || dy < 0 || dy >= SERIES_ROW_HEIGHT) return -1;
+            int gx = x - seriesCellsX(row);
+            if (gx < 0) return -1;
+            int[] edges = seriesEdges(row);
+            for (int col = 0; col < SERIES_LENGTH; col++) {
+                if (gx < edges[col + 1]) {
+                    return gx < edges[col + 1] - SERIES_GAP ? MAIN_CELLS + row * SERIES_LENGTH + col : -1;
+                }
+            }
+            return -1;
+        }
+
+        private void setHoverCell(int cell) {
+            if (cell == hoverCell) return;
+            if (hoverCell >= 0) repaint(cellBounds(hoverCell, scratch));
+            hoverCell = cell;
+            if (hoverCell >= 0) repaint(cellBounds(hoverCell, scratch));
+        }
+
+        @Override
+        public String getToolTipText(MouseEvent e) {
+            int cell = cellAt(e.getX(), e.getY());
+            int atomicNum = cell >= 0 ? CELL_Z[cell] : 0;
+            if (atomicNum <= 0) return null;
+            String symbol = Elements.symbol(atomicNum);
+            String name = Elements.name(symbol, cell < MAIN_CELLS ? "Element " + atomicNum : "");
+            return "<html><b>" + symbol + " - " + name + "</b><br>" +
+                   "Atomic Number: " + atomicNum + "<br>" +
+                   "Atomic Mass: " + Elements.atomicWeight(atomicNum) + " g/mol" + "</html>";
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            Graphics2D g2 = (Graphics2D) g.create();
+            // Square cells like the old buttons; antialiased shapes and translucent outlines would
+            // take the slow software paths and cost more than the whole button grid did
+            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            Rectangle clip = g2.getClipBounds();
+            if (clip == null) clip = new Rectangle(0, 0, getWidth(), getHeight());
+            Color behind = getParent() != null ? getParent().getBackground() : getBackground();
+            Color emptyBorder = shade(behind, EMPTY_BORDER_ALPHA);
+            // Only cells intersecting the dirty region are painted
+            for (int cell = 0; cell < CELL_COUNT; cell++) {
+                Rectangle r = cellBounds(cell, scratch);
+                if (r.intersects(clip)) {
+                    paintCell(g2, cell, r, emptyBorder);
+                }
+            }
+            g2.setFont(getFont());
+            g2.setColor(getForeground());
+            FontMetrics fm = g2.getFontMetrics();
+            for (int row = 0; row < 2; row++) {
+                int baseline = seriesRowY(row) + (SERIES_ROW_HEIGHT - fm.getHeight()) / 2 + fm.getAscent();
+                g2.drawString(SERIES_LABELS[row], SERIES_GAP, baseline);
+            }
+            g2.dispose();
+        }
+
+        private void paintCell(Graphics2D g2, int cell, Rectangle r, Color emptyBorder) {
+            int atomicNum = CELL_Z[cell];
+            if (atomicNum == 0) {
+                // Empty position: just a faint outline, like the old disabled buttons
+                g2.setColor(emptyBorder);
+                g2.drawRect(r.x, r.y, r.width - 1, r.height - 1);
+                return;
+            }
+            Color bgColor;
+            Color border;
+            String text;
+            if (atomicNum == LANTH_PLACEHOLDER) {
+                bgColor = LANTH_COLOR;
+                border = LANTH_BORDER;
+                text = "La-Lu";
+            } else if (atomicNum == ACT_PLACEHOLDER) {
+                bgColor = ACT_COLOR;
+                border = ACT_BORDER;
+                text = "Ac-Lr";
+            } else {
+                bgColor = ELEMENT_COLORS[atomicNum];
+                border = ELEMENT_BORDERS[atomicNum];
+                text = Elements.symbol(atomicNum);
+            }
+            if (cell == hoverCell) {
+                bgColor = bgColor.brighter();
+                border = shade(bgColor, CELL_BORDER_ALPHA);
+            }
+            g2.setColor(bgColor);
+            g2.fillRect(r.x, r.y, r.width, r.height);
+            g2.setColor(border);
+            g2.drawRect(r.x, r.y, r.width - 1, r.height - 1);
+            g2.setFont(CELL_FONT);
+            g2.setColor(Color.BLACK);
+            FontMetrics fm = g2.getFontMetrics();
+            g2.drawString(text, r.x + (r.width - fm.stringWidth(text)) / 2,
+                          r.y + (r.height - fm.getHeight()) / 2 + fm.getAscent());
+        }
+    }
+
+    // --- Buffered Output ---
+    // Collects output text for a JTextArea and writes it to the document at most once per frame,
+    // so thousands of appended lines cost one insert (one set of document events and one relayout)
+    // instead of one per line. Only the most recent maxLines lines are retained; older lines are
+    // dropped from the top of the document (or from the pending text before it is ever inserted).
+    static class BufferedOutput {
+        static final int DEFAULT_MAX_LINES = 10_000;
+        private static final int FRAME_MILLIS = 16;
+
+        private final JTextArea area;
+        private final int maxLines;
+        private final javax.swing.Timer flushTimer;
+        // Guarded by this: text waiting for the next flush, whether the document is to be cleared first,
+        // and whether a flush has already been scheduled
+        private final StringBuilder pending = new StringBuilder();
+        private boolean clearPending = false;
+        private boolean flushScheduled = false;
+
+        BufferedOutput(JTextArea area, int maxLines) {
+            this.area = area;
+            this.maxLines = maxLines;
+            this.flushTimer = new javax.swing.Timer(FRAME_MILLIS, e -> flush());
+            this.flushTimer.setRepeats(false);
+            // A flush scheduled while the previous one is still running must not be merged into it
+            this.flushTimer.setCoalesce(false);
+        }
+
+        // All of these may be called from any thread; the document is only touched on the EDT
+        void clear() {
+            boolean start;
+            synchronized (this) {
+                pending.setLength(0);
+                clearPending = true;
+                start = markScheduled();
+            }
+            if (start) flushTimer.start();
+        }
+        void append(CharSequence text) {
+            boolean start;
+            synchronized (this) {
+                pending.append(text);
+                start = markScheduled();
+            }
+            if (start) flushTimer.start();
+        }
+        void appendLines(List<String> lines) {
+            boolean start;
+            synchronized (this) {
+                for (String line : lines) {
+                    pending.append(line).append('\n');
+                }
+                start = markScheduled();
+            }
+            if (start) flushTimer.start();
+        }
+
+        // Returns true if the caller has to start the timer (called while holding the lock)
+        private boolean markScheduled() {
+            if (flushScheduled) return false;
+            flushScheduled = true;
+            return true;
+        }
+
+        // Runs on the EDT from the timer; tests call it directly to skip the frame delay
+        void flush() {
+            String text;
+            boolean clear;
+            synchronized (this) {
+                text = tail(pending, maxLines);
+                pending.setLength(0);
+                clear = clearPending;
+                clearPending = false;
+                flushScheduled = false;
+            }
+            Document doc = area.getDocument();
+            try {
+                if (clear) {
+                    doc.remove(0, doc.getLength());
+                }
+                if (!text.isEmpty()) {
+                    doc.insertString(doc.getLength(), text, null);
+                }
+                // Trim whole lines from the top so at most maxLines remain
+                Element root = doc.getDefaultRootElement();
+                int excess = root.getElementCount() - 1 - maxLines;
+                if (excess > 0) {
+                    doc.remove(0, root.getElement(excess - 1).getEndOffset());
+                }
+            } catch (BadLocationException ex) {
+                // Offsets come from the document itself, so this cannot happen
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        // Last maxLines lines of the buffer (a huge batch never has to be inserted in full)
+        static String tail(StringBuilder sb, int maxLines) {
+            int lines = 0;
+            for (int i = sb.length() - 2; i >= 0; i--) {
+                if (sb.charAt(i) == '\n' && ++lines == maxLines) {
+                    return sb.substring(i + 1);
+                }
+            }
+            return sb.toString();
+        }
+    }
+
+    // --- Utility Helpers ---
+    private static boolean isElementIn(String symbol, String... list) {
+        for (String s : list) {
+            if (s.equals(symbol)) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,368 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.List;
+import java.util.regex.Pattern;
+import chemcalculator.*;
+
+// Runs one equation and formula corpus through both implementations shipped in this repo (the
+// ChemEngine behind ChemistryTool and the older ChemicalGFMCalculatorTestBuild) and reports where
+// they disagree: balanced coefficients (each result is also checked for atom and charge
+// conservation), compound names and gram formula masses, followed by per-engine throughput.
+// The test build keeps everything private, so it is driven through reflection.
+//
+// Usage: DifferentialHarness [--equations file] [--formulas file] [--iterations n] [--verbose]
+// Files hold one equation or formula per line ('#' starts a comment line); they are added to the
+// corpus shipped in differential/equations.txt and differential/formulas.txt.
+public class DifferentialHarness {
+
+    // The corpus, one equation or formula per line, under differential/ on the classpath
+    private static final String EQUATIONS = "differential/equations.txt";
+    private static final String FORMULAS = "differential/formulas.txt";
+
+    private static final int MAX_LISTED = 20;
+    // Trailing (s)/(l)/(g)/(aq) label of a printed species
+    private static final Pattern STATE_LABEL = Pattern.compile("\\((?:s|l|g|aq)\\)$");
+
+    // Reflective handles into ChemicalGFMCalculatorTestBuild
+    private static final Method TB_BALANCE = testBuildMethod("balanceChemicalEquation", String.class);
+    private static final Method TB_PARSE_COMPOUND = testBuildMethod("parseCompound", String.class);
+    private static final Method TB_COMPOSITION = testBuildMethod("parseFormulaComposition", String.class);
+    private static final Method TB_NAME = testBuildMethod("nameCompound", testBuildClass("ChemicalGFMCalculatorTestBuild$Compound"));
+    private static final Map<?, ?> TB_WEIGHTS = testBuildField("atomicWeights");
+
+    private static final ChemEngine ENGINE = new ChemEngine();
+
+    public static void main(String[] args) throws IOException {
+        List<String> equations = corpus(EQUATIONS);
+        List<String> formulas = corpus(FORMULAS);
+        int iterations = 200;
+        boolean verbose = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--equations" -> equations.addAll(readLines(args[++i]));
+                case "--formulas" -> formulas.addAll(readLines(args[++i]));
+                case "--iterations" -> iterations = Integer.parseInt(args[++i]);
+                case "--verbose" -> verbose = true;
+                default -> {
+                    System.err.println("Usage: DifferentialHarness [--equations file] [--formulas file] [--iterations n] [--verbose]");
+                    System.exit(2);
+                }
+            }
+        }
+        int limit = verbose ? Integer.MAX_VALUE : MAX_LISTED;
+        compareBalancing(equations, limit);
+        compareNames(formulas, limit);
+        compareMasses(formulas, limit);
+        reportThroughput(equations, formulas, iterations);
+    }
+
+    // --- Correctness ---
+
+    private static void compareBalancing(List<String> equations, int limit) {
+        int agree = 0, differ = 0, engineBad = 0, testBuildBad = 0;
+        List<String> report = new ArrayList<>();
+        for (String equation : equations) {
+            String engineEq = finalEquation(ENGINE.balance(equation).steps());
+            String testBuildEq;
+            try {
+                testBuildEq = finalEquation(testBuildBalance(equation));
+            } catch (RuntimeException ex) {
+                testBuildEq = null;
+                report.add("  " + equation + "\n    test build threw " + ex);
+            }
+            String engineCheck = conservation(engineEq);
+            String testBuildCheck = conservation(testBuildEq);
+            if (engineEq != null && engineCheck != null) engineBad++;
+            if (testBuildEq != null && testBuildCheck != null) testBuildBad++;
+            if (Objects.equals(speciesCoefficients(engineEq), speciesCoefficients(testBuildEq))) {
+                agree++;
+                if (engineCheck != null && engineEq != null) {
+                    report.add("  " + equation + "\n    both: " + engineEq + "  [" + engineCheck + "]");
+                }
+            } else {
+                differ++;
+                report.add("  " + equation
+                           + "\n    ChemistryTool: " + describe(engineEq, engineCheck)
+                           + "\n    TestBuild:     " + describe(testBuildEq, testBuildCheck));
+            }
+        }
+        System.out.println("Balancing: " + equations.size() + " equations, " + agree + " identical, " + differ + " different");
+        System.out.println("  conservation violations: ChemistryTool " + engineBad + ", TestBuild " + testBuildBad);
+        print(report, limit);
+    }
+
+    private static void compareNames(List<String> formulas, int limit) {
+        int agree = 0;
+        List<String> report = new ArrayList<>();
+        for (String formula : formulas) {
+            String engineName = guard(() -> ENGINE.nameCompound(formula));
+            String testBuildName = guard(() -> testBuildName(formula));
+            if (engineName.equals(testBuildName)) {
+                agree++;
+            } else {
+                report.add("  " + formula + "\n    ChemistryTool: " + engineName + "\n    TestBuild:     " + testBuildName);
+            }
+        }
+        System.out.println("Naming: " + formulas.size() + " formulas, " + agree + " identical, " + report.size() + " different");
+        print(report, limit);
+    }
+
+    private static void compareMasses(List<String> formulas, int limit) {
+        int agree = 0;
+        List<String> report = new ArrayList<>();
+        for (String formula : formulas) {
+            String engineMass = guard(() -> String.format("%.6f", ENGINE.formulaMass(formula).totalMass()));
+            String testBuildMass = guard(() -> String.format("%.6f", testBuildMass(formula)));
+            if (engineMass.equals(testBuildMass)) {
+                agree++;
+            } else {
+                report.add("  " + formula + ": ChemistryTool " + engineMass + ", TestBuild " + testBuildMass);
+            }
+        }
+        System.out.println("GFM: " + formulas.size() + " formulas, " + agree + " identical, " + report.size() + " different");
+        print(report, limit);
+    }
+
+    // Text after the last "Balanced Equation: " step, or null when the balancer gave none
+    private static String finalEquation(List<String> steps) {
+        String prefix = "Balanced Equation: ";
+        for (int i = steps.size() - 1; i >= 0; i--) {
+            if (steps.get(i).startsWith(prefix)) return steps.get(i).substring(prefix.length());
+        }
+        return null;
+    }
+
+    // Species -> coefficient per side keyed on composition and charge (Compound.speciesKey), so
+    // notation differences such as Fe^3+ against Fe3+ do not count as disagreement
+    private static List<Map<String, Integer>> speciesCoefficients(String equation) {
+        List<Map<String, Integer>> sides = coefficients(equation);
+        if (sides == null) return null;
+        List<Map<String, Integer>> keyed = new ArrayList<>(2);
+        for (Map<String, Integer> side : sides) {
+            Map<String, Integer> bySpecies = new TreeMap<>();
+            for (Map.Entry<String, Integer> term : side.entrySet()) {
+                bySpecies.merge(speciesKey(term.getKey()), term.getValue(), Integer::sum);
+            }
+            keyed.add(bySpecies);
+        }
+        return keyed;
+    }
+
+    // Identity of a printed species; its text when it does not parse
+    private static String speciesKey(String species) {
+        if (species.equals("e-")) return Compound.ELECTRON.speciesKey();
+        ParseResult<Compound> parsed = ENGINE.tryParseCompound(species);
+        return parsed.ok() ? parsed.value().speciesKey() : species;
+    }
+
+    // Species text -> coefficient per side, without state labels (which only the engine echoes)
+    private static List<Map<String, Integer>> coefficients(String equation) {
+        if (equation == null) return null;
+        String[] sides = equation.split(" -> ", -1);
+        if (sides.length != 2) return List.of(Map.of("<unparseable>", 0));
+        return List.of(terms(sides[0]), terms(sides[1]));
+    }
+
+    private static Map<String, Integer> terms(String side) {
+        Map<String, Integer> terms = new TreeMap<>();
+        if (side.isBlank()) return terms;
+        for (String term : side.split(" \\+ ")) {
+            term = term.trim();
+            int coefficient = 1;
+            int space = term.indexOf(' ');
+            if (space > 0 && term.substring(0, space).chars().allMatch(Character::isDigit)) {
+                coefficient = Integer.parseInt(term.substring(0, space));
+                term = term.substring(space + 1);
+            } else if (!term.isEmpty() && Character.isDigit(term.charAt(0)) && term.endsWith("e-")) {
+                // Electrons are printed without a space ("2e-")
+                coefficient = Integer.parseInt(term.substring(0, term.length() - 2));
+                term = "e-";
+            }
+            term = STATE_LABEL.matcher(term).replaceFirst("");
+            terms.merge(term, coefficient, Integer::sum);
+        }
+        return terms;
+    }
+
+    // Null when every element and the total charge are conserved with positive coefficients,
+    // otherwise a short description of the first problem
+    static String conservation(String equation) {
+        List<Map<String, Integer>> sides = coefficients(equation);
+        if (sides == null) return null;
+        if (sides.get(0).containsKey("<unparseable>")) return "unparseable result";
+        Map<String, Long> balance = new TreeMap<>();
+        for (int side = 0; side < 2; side++) {
+            int sign = side == 0 ? 1 : -1;
+            for (Map.Entry<String, Integer> term : sides.get(side).entrySet()) {
+                int coefficient = term.getValue();
+                if (coefficient <= 0) return "non-positive coefficient " + coefficient + " for " + term.getKey();
+                Compound species;
+                try {
+                    species = term.getKey().equals("e-") ? Compound.ELECTRON : ENGINE.parseCompound(term.getKey());
+                } catch (RuntimeException ex) {
+                    return "unparseable species " + term.getKey();
+                }
+                for (Map.Entry<String, Integer> atom : species.composition().entrySet()) {
+                    balance.merge(atom.getKey(), (long) sign * coefficient * atom.getValue(), Long::sum);
+                }
+                balance.merge("charge", (long) sign * coefficient * species.charge(), Long::sum);
+            }
+        }
+        for (Map.Entry<String, Long> entry : balance.entrySet()) {
+            if (entry.getValue() != 0) {
+                return entry.getKey() + " off by " + entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static String describe(String equation, String conservationProblem) {
+        if (equation == null) return "(no balanced equation)";
+        return conservationProblem == null ? equation + "  [conserved]" : equation + "  [" + conservationProblem + "]";
+    }
+
+    private static void print(List<String> report, int limit) {
+        for (int i = 0; i < report.size() && i < limit; i++) {
+            System.out.println(report.get(i));
+        }
+        if (report.size() > limit) {
+            System.out.println("  ... " + (report.size() - limit) + " more (use --verbose)");
+        }
+        System.out.println();
+    }
+
+    // --- Throughput ---
+
+    private static void reportThroughput(List<String> equations, List<String> formulas, int iterations) {
+        System.out.println("Throughput over " + iterations + " passes (after " + iterations + " warm-up passes), ops/s:");
+        System.out.printf("  %-10s %15s %15s%n", "", "ChemistryTool", "TestBuild");
+        throughput("balance", equations, iterations, ENGINE::balance, DifferentialHarness::testBuildBalance);
+        throughput("name", formulas, iterations, ENGINE::nameCompound, DifferentialHarness::testBuildName);
+        throughput("gfm", formulas, iterations, ENGINE::formulaMass, DifferentialHarness::testBuildMass);
+    }
+
+    private static void throughput(String label, List<String> inputs, int iterations,
+                                   java.util.function.Function<String, Object> engine,
+                                   java.util.function.Function<String, Object> testBuild) {
+        // Warm both up first so neither is measured while the other is still being compiled
+        run(inputs, iterations, engine);
+        run(inputs, iterations, testBuild);
+        double engineRate = run(inputs, iterations, engine);
+        double testBuildRate = run(inputs, iterations, testBuild);
+        System.out.printf("  %-10s %15.0f %15.0f%n", label, engineRate, testBuildRate);
+    }
+
+    private static int sink;
+
+    private static double run(List<String> inputs, int iterations, java.util.function.Function<String, Object> op) {
+        long start = System.nanoTime();
+        int ops = 0;
+        for (int i = 0; i < iterations; i++) {
+            for (String input : inputs) {
+                try {
+                    sink += System.identityHashCode(op.apply(input));
+                } catch (RuntimeException ex) {
+                    sink++;
+                }
+                ops++;
+            }
+        }
+        return ops / ((System.nanoTime() - start) / 1e9);
+    }
+
+    // --- ChemicalGFMCalculatorTestBuild through reflection ---
+
+    @SuppressWarnings("unchecked")
+    private static List<String> testBuildBalance(String equation) {
+        return (List<String>) invoke(TB_BALANCE, equation);
+    }
+
+    private static String testBuildName(String formula) {
+        return (String) invoke(TB_NAME, invoke(TB_PARSE_COMPOUND, formula));
+    }
+
+    // Same sum the test build's GFM button performs
+    private static double testBuildMass(String formula) {
+        Map<?, ?> composition = (Map<?, ?>) invoke(TB_COMPOSITION, formula);
+        double total = 0.0;
+        for (Map.Entry<?, ?> entry : composition.entrySet()) {
+            Object weight = TB_WEIGHTS.get(entry.getKey());
+            total += (weight == null ? 0.0 : (Double) weight) * (Integer) entry.getValue();
+        }
+        return total;
+    }
+
+    private static Object invoke(Method method, Object argument) {
+        try {
+            return method.invoke(null, argument);
+        } catch (InvocationTargetException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) throw runtime;
+            throw new IllegalStateException(ex.getCause());
+        } catch (IllegalAccessException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static Class<?> testBuildClass(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static Method testBuildMethod(String name, Class<?> parameter) {
+        try {
+            Method method = ChemicalGFMCalculatorTestBuild.class.getDeclaredMethod(name, parameter);
+            method.setAccessible(true);
+            return method;
+        } catch (NoSuchMethodException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static Map<?, ?> testBuildField(String name) {
+        try {
+            java.lang.reflect.Field field = ChemicalGFMCalculatorTestBuild.class.getDeclaredField(name);
+            field.setAccessible(true);
+            return (Map<?, ?>) field.get(null);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    // Result text, or the failure the UI would show
+    private static String guard(java.util.function.Supplier<String> op) {
+        try {
+            return op.get();
+        } catch (RuntimeException ex) {
+            return "error: " + (ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName());
+        }
+    }
+
+    private static List<String> readLines(String file) throws IOException {
+        return lines(Files.readAllLines(Path.of(file), StandardCharsets.UTF_8));
+    }
+
+    // A corpus file from the classpath
+    static List<String> corpus(String resource) throws IOException {
+        try (InputStream in = DifferentialHarness.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) throw new IOException("Missing corpus " + resource);
+            return lines(new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().toList());
+        }
+    }
+
+    private static List<String> lines(List<String> text) {
+        List<String> lines = new ArrayList<>();
+        for (String line : text) {
+            if (!line.isBlank() && !line.startsWith("#")) lines.add(line.trim());
+        }
+        return lines;
+    }
+}
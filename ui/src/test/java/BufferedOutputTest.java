@@ -0,0 +1,64 @@
+import org.junit.jupiter.api.Test;
+
+import javax.swing.JTextArea;
+import javax.swing.SwingUtilities;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BufferedOutputTest {
+    // Flush on the EDT, as the frame timer would
+    private static void flush(ChemistryTool.BufferedOutput output) throws Exception {
+        SwingUtilities.invokeAndWait(output::flush);
+    }
+
+    @Test
+    void appendsAreCoalescedIntoOneInsert() throws Exception {
+        JTextArea area = new JTextArea();
+        List<Integer> inserts = new ArrayList<>();
+        area.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+            @Override public void insertUpdate(javax.swing.event.DocumentEvent e) { inserts.add(e.getLength()); }
+            @Override public void removeUpdate(javax.swing.event.DocumentEvent e) {}
+            @Override public void changedUpdate(javax.swing.event.DocumentEvent e) {}
+        });
+        ChemistryTool.BufferedOutput output = new ChemistryTool.BufferedOutput(area, 100);
+        output.append("a\n");
+        output.appendLines(List.of("b", "c"));
+        flush(output);
+        assertEquals("a\nb\nc\n", area.getText());
+        assertEquals(1, inserts.size());
+    }
+
+    @Test
+    void clearDropsPendingAndExistingText() throws Exception {
+        JTextArea area = new JTextArea();
+        ChemistryTool.BufferedOutput output = new ChemistryTool.BufferedOutput(area, 100);
+        output.append("old\n");
+        flush(output);
+        output.append("discarded\n");
+        output.clear();
+        output.append("new\n");
+        flush(output);
+        assertEquals("new\n", area.getText());
+    }
+
+    @Test
+    void onlyTheLastLinesAreRetained() throws Exception {
+        JTextArea area = new JTextArea();
+        ChemistryTool.BufferedOutput output = new ChemistryTool.BufferedOutput(area, 3);
+        output.appendLines(List.of("1", "2"));
+        flush(output);
+        output.appendLines(List.of("3", "4", "5"));
+        flush(output);
+        assertEquals("3\n4\n5\n", area.getText());
+    }
+
+    @Test
+    void tailCutsOversizedBatches() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 10; i++) sb.append(i).append('\n');
+        assertEquals("7\n8\n9\n", ChemistryTool.BufferedOutput.tail(sb, 3));
+        assertEquals("a\nb\n", ChemistryTool.BufferedOutput.tail(new StringBuilder("a\nb\n"), 3));
+    }
+}
@@ -0,0 +1,37 @@
+import chemcalculator.BalanceResult;
+import chemcalculator.ChemEngine;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DifferentialCorpusTest {
+    private final ChemEngine engine = new ChemEngine();
+
+    @Test
+    void everyBalancedEquationConservesAtomsAndCharge() throws Exception {
+        List<String> equations = DifferentialHarness.corpus("differential/equations.txt");
+        assertFalse(equations.isEmpty());
+        int balanced = 0;
+        List<String> problems = new ArrayList<>();
+        for (String equation : equations) {
+            BalanceResult result = engine.balance(equation);
+            if (!result.isBalanced()) continue;
+            balanced++;
+            String problem = DifferentialHarness.conservation(result.equation());
+            if (problem != null) problems.add(equation + ": " + result.equation() + " [" + problem + "]");
+        }
+        assertEquals(List.of(), problems);
+        // Only the malformed lines at the end of the corpus fail
+        assertEquals(equations.size() - 4, balanced);
+    }
+
+    @Test
+    void formulaCorpusLoads() throws Exception {
+        List<String> formulas = DifferentialHarness.corpus("differential/formulas.txt");
+        assertTrue(formulas.contains("CuSO4·5H2O"));
+        assertTrue(formulas.stream().noneMatch(f -> f.startsWith("#")));
+    }
+}